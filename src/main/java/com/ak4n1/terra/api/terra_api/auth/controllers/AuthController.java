@@ -14,6 +14,7 @@ import com.ak4n1.terra.api.terra_api.auth.repositories.ActiveTokenRepository;
 import com.ak4n1.terra.api.terra_api.auth.repositories.RecentActivityRepository;
 import com.ak4n1.terra.api.terra_api.auth.repositories.RefreshTokenRepository;
 import com.ak4n1.terra.api.terra_api.security.config.TokenJwtConfig;
+import com.ak4n1.terra.api.terra_api.security.services.TokenValidationCache;
 import com.ak4n1.terra.api.terra_api.auth.services.AuthService;
 import com.ak4n1.terra.api.terra_api.auth.entities.ActiveToken;
 import jakarta.servlet.http.Cookie;
@@ -73,6 +74,9 @@ public class AuthController {
     @Autowired
     private AccountMasterRepository accountMasterRepository;
 
+    @Autowired
+    private TokenValidationCache tokenValidationCache;
+
     @Autowired
     private RecentActivityRepository recentActivityRepository;
 
@@ -137,6 +141,7 @@ public class AuthController {
         // Eliminar access token de BD
         if (token != null) {
             activeTokenRepository.deleteByToken(token);
+            tokenValidationCache.invalidateToken(token);
             logger.debug("🗑️ [LOGOUT] Access token eliminado de BD");
         }
 
@@ -356,6 +361,7 @@ public class AuthController {
                 // Revocar todos los tokens del usuario
                 refreshTokenRepository.revokeAllByUserId(user.getId());
                 activeTokenRepository.deleteOldTokensByUserId(user.getId());
+                tokenValidationCache.invalidateAccount(email);
                 throw new UserDisabledException("Cuenta deshabilitada");
             }
 
@@ -364,6 +370,7 @@ public class AuthController {
                 // Revocar todos los tokens del usuario
                 refreshTokenRepository.revokeAllByUserId(user.getId());
                 activeTokenRepository.deleteOldTokensByUserId(user.getId());
+                tokenValidationCache.invalidateAccount(email);
                 throw new EmailNotVerifiedException("Email no verificado");
             }
             
@@ -394,6 +401,7 @@ public class AuthController {
 
             // Eliminar access tokens viejos y guardar el nuevo
             activeTokenRepository.deleteOldTokensByUserId(user.getId());
+            tokenValidationCache.invalidateAccount(email);
 
             ActiveToken newActiveToken = new ActiveToken();
             newActiveToken.setAccountMaster(user);
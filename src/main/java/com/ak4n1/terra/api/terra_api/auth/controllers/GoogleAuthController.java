@@ -7,6 +7,7 @@ import com.ak4n1.terra.api.terra_api.auth.repositories.RecentActivityRepository;
 import com.ak4n1.terra.api.terra_api.auth.repositories.RefreshTokenRepository;
 import com.ak4n1.terra.api.terra_api.auth.repositories.RoleRepository;
 import com.ak4n1.terra.api.terra_api.security.config.TokenJwtConfig;
+import com.ak4n1.terra.api.terra_api.security.services.TokenValidationCache;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.FirebaseToken;
@@ -54,6 +55,9 @@ public class GoogleAuthController {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private TokenValidationCache tokenValidationCache;
+
     /**
      * Constructor que recibe las dependencias necesarias para la autenticación con Google.
      * 
@@ -127,6 +131,7 @@ public class GoogleAuthController {
 
             // Guardar token activo (elimina viejos, guarda nuevo)
             activeTokenRepository.deleteOldTokensByUserId(user.getId());
+            tokenValidationCache.invalidateAccount(user.getEmail());
 
             ActiveToken activeToken = new ActiveToken();
             activeToken.setAccountMaster(user);
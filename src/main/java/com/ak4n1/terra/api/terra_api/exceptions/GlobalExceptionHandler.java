@@ -8,13 +8,16 @@ import com.ak4n1.terra.api.terra_api.auth.exceptions.TokenExpiredException;
 import com.ak4n1.terra.api.terra_api.auth.exceptions.UserDisabledException;
 import com.ak4n1.terra.api.terra_api.auth.exceptions.UserNotFoundException;
 import com.ak4n1.terra.api.terra_api.game.exceptions.AccountAlreadyExistsException;
+import com.ak4n1.terra.api.terra_api.game.exceptions.CatalogNotReadyException;
 import com.ak4n1.terra.api.terra_api.game.exceptions.CreationCodeAlreadyUsedException;
 import com.ak4n1.terra.api.terra_api.game.exceptions.CreationCodeExpiredException;
 import com.ak4n1.terra.api.terra_api.game.exceptions.CreationCodeNotFoundException;
 import com.ak4n1.terra.api.terra_api.game.exceptions.GameAccountNotFoundException;
+import com.ak4n1.terra.api.terra_api.game.exceptions.InvalidCatalogQueryException;
 import com.ak4n1.terra.api.terra_api.game.exceptions.InvalidCreationCodeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -198,5 +201,32 @@ public class GlobalExceptionHandler {
         error.put("error", "GAME_ACCOUNT_NOT_FOUND");
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
-}
 
+    /**
+     * Maneja la excepción cuando una consulta al catálogo de items tiene parámetros inválidos
+     */
+    @ExceptionHandler(InvalidCatalogQueryException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidCatalogQuery(InvalidCatalogQueryException ex) {
+        logger.warn("❌ [GAME EXCEPTION] Consulta de catálogo inválida: {}", ex.getMessage());
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", ex.getMessage());
+        error.put("error", "INVALID_CATALOG_QUERY");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    /**
+     * Maneja la excepción cuando el catálogo de items todavía se está cargando
+     */
+    @ExceptionHandler(CatalogNotReadyException.class)
+    public ResponseEntity<Map<String, Object>> handleCatalogNotReady(CatalogNotReadyException ex) {
+        logger.debug("⏳ [GAME EXCEPTION] Catálogo de items todavía no disponible");
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", "El catálogo de items todavía no está disponible, intenta nuevamente en unos segundos");
+        error.put("error", "CATALOG_NOT_READY");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+}
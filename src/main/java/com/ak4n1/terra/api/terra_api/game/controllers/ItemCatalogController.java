@@ -1,8 +1,15 @@
 package com.ak4n1.terra.api.terra_api.game.controllers;
 
-import com.ak4n1.terra.api.terra_api.game.dto.ItemCatalogDTO;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemLoadReport;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemQuery;
 import com.ak4n1.terra.api.terra_api.game.services.ItemCatalogService;
+import com.ak4n1.terra.api.terra_api.game.services.ItemCatalogService.CatalogBody;
+import com.ak4n1.terra.api.terra_api.game.services.ItemCatalogService.CatalogFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,13 +33,35 @@ import java.util.Map;
  *    GET /api/game/catalog/items/{id}
  *    Ejemplo: GET /api/game/catalog/items/69  (Bastard Sword)
  *
+ * 1b. OBTENER VARIOS ITEMS (LOTE):
+ *    POST /api/game/catalog/items/batch
+ *    Body: [69, 70, 69, 999999]
+ *    Retorna: {"items": [items], "missing": [999999]}
+ *    IDs repetidos se devuelven una vez, en el orden pedido
+ *    Máximo l2j.items.batch.max-ids IDs distintos (default 200)
+ *
  * 2. LISTAR TODOS LOS ITEMS:
  *    GET /api/game/catalog/items
  *    Retorna: Lista completa de items del catálogo
  *
+ *    PAGINADO (por cursor = último ID entregado) Y PROYECCIÓN DE CAMPOS:
+ *    GET /api/game/catalog/items?size=50&fields=id,name,icon
+ *    GET /api/game/catalog/items?cursor=1234&size=50&fields=id,name,icon
+ *    Retorna: {"items": [...], "nextCursor": 1300}  (nextCursor null en la última página)
+ *    size: default 50, máximo 500. fields: propiedades del DTO separadas por coma
+ *    También disponible en /filter/type y /filter/grade
+ *
  * 3. BUSCAR POR NOMBRE:
- *    GET /api/game/catalog/items/search?name=sword
- *    Búsqueda case-insensitive parcial
+ *    GET /api/game/catalog/items/search?name=sword&limit=20
+ *    Búsqueda case-insensitive parcial, ordenada por relevancia
+ *    (exacto > prefijo > parcial). limit: default 100, máximo 500
+ *    Paginado: ?name=sword&limit=20&cursor=0&fields=id,name
+ *    (el cursor es la cantidad de resultados ya entregados)
+ *
+ * 3b. AUTOCOMPLETAR NOMBRE:
+ *    GET /api/game/catalog/items/autocomplete?prefix=bas&limit=10
+ *    Retorna: Solo id, name e icon de los items cuyo nombre empieza con el prefijo
+ *    Orden alfabético. limit: default 10, máximo 50
  *
  * 4. FILTRAR POR TIPO:
  *    GET /api/game/catalog/items/filter/type?type=Weapon
@@ -42,16 +71,49 @@ import java.util.Map;
  *    GET /api/game/catalog/items/filter/grade?grade=D
  *    Grades: "NONE", "D", "C", "B", "A", "S"
  *
+ * 5a. CONSULTA COMBINADA:
+ *    POST /api/game/catalog/items/query?size=50&cursor=1234&fields=id,name
+ *    Body: {"type": "Weapon", "grade": "B", "subType": "SWORD", "tradeable": true,
+ *           "weight": {"min": 1000, "max": 5000}, "patk": {"min": 100}}
+ *    Criterios opcionales combinados con AND: type, grade, subType, bodyPart,
+ *    crystalType, stackable, tradeable, sellable, dropable y rangos (min/max
+ *    inclusivos) de weight, price, patk, matk, pdef y mdef
+ *    Retorna: {"items": [...], "nextCursor": id|null}, paginado igual que el listado
+ *
+ * 5b. CAMBIOS DESDE UNA VERSIÓN (DELTA):
+ *    GET /api/game/catalog/items/delta?since=7dc4a6e41fcd74bc0b78bb9e40b86a6c
+ *    Retorna: {"fromVersion", "toVersion", "fullSync": false, "added": [items],
+ *              "changed": [items], "removed": [ids]}
+ *    Si la versión ya no está en el historial: {"fullSync": true} y hay que
+ *    descargar el catálogo completo
+ *
  * 6. ESTADÍSTICAS DEL CATÁLOGO:
  *    GET /api/game/catalog/items/stats
  *    Retorna: Total de items, weapons, armors, etc.
  *
+ * CACHÉ HTTP (todos los GET de este controlador):
+ *    Cada respuesta lleva ETag = versión del catálogo (hash del contenido) y
+ *    Cache-Control: no-cache. Con If-None-Match y el catálogo sin cambios la
+ *    respuesta es 304 sin cuerpo. El catálogo completo se envía precomprimido
+ *    (Content-Encoding: gzip) si el cliente envía Accept-Encoding: gzip.
+ *
+ * FORMATO BINARIO (CBOR, todos los GET salvo /stats):
+ *    Con Accept: application/cbor la respuesta tiene el mismo contenido en CBOR
+ *    (RFC 8949), más compacta y sin parseo de texto en el cliente. El ETag lleva el
+ *    sufijo "-cbor". Sin ese header (o si prefiere JSON) la respuesta es JSON.
+ *
+ * CATÁLOGO EN CARGA (todos los endpoints):
+ *    El catálogo se carga en segundo plano después de arrancar la API. Hasta que
+ *    termina se responde 503 con {"error": "CATALOG_NOT_READY"} y Retry-After
+ *    (l2j.items.not-ready.retry-after-seconds, default 5). Estado en /actuator/health.
+ *
  * 7. RECARGAR CATÁLOGO (ADMIN):
  *    POST /api/game/catalog/items/admin/reload
  *    Recarga los XMLs sin reiniciar la API
+ *    Retorna: Reporte de carga con tiempo e items/errores por archivo
  *
  * ========================================
- * RESPUESTA TÍPICA (ItemCatalogDTO)
+ * RESPUESTA TÍPICA (ItemCatalogDTO, serializado una vez por catálogo)
  * ========================================
  *
  * {
@@ -84,33 +146,83 @@ public class ItemCatalogController {
      * Obtener item por ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ItemCatalogDTO> getItemById(@PathVariable int id) {
-        return catalogService.getItemById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getItemById(
+            @PathVariable int id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        CatalogBody item = catalogService.getItemBodyById(id, format(accept));
+        if (item == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return body(item);
     }
     
     /**
-     * Listar todos los items del catálogo
-     * ADVERTENCIA: Puede ser una respuesta grande (miles de items)
+     * Obtener varios items por ID en una sola petición (inventarios, mercado)
+     * Los IDs inexistentes se informan en "missing"
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<byte[]> getItemsBatch(
+            @RequestBody List<Integer> ids,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return body(catalogService.getItemsBatchBody(ids, format(accept)));
+    }
+    
+    /**
+     * Listar items del catálogo
+     * Sin parámetros retorna el catálogo completo (el JSON está precalculado: la respuesta es una copia de bytes)
+     * ADVERTENCIA: Sin paginar puede ser una respuesta grande (miles de items)
+     * Con cursor/size/fields retorna una página: {"items": [...], "nextCursor": id|null}
+     * El catálogo completo se envía precomprimido con gzip si el cliente lo acepta
      */
     @GetMapping
-    public ResponseEntity<List<ItemCatalogDTO>> getAllItems() {
-        List<ItemCatalogDTO> items = catalogService.getAllItems();
-        return ResponseEntity.ok(items);
+    public ResponseEntity<byte[]> getAllItems(
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (cursor == null && size == null && fields == null) {
+            return body(catalogService.getAllItemsBody(format(accept), acceptsGzip(acceptEncoding)));
+        }
+        return body(catalogService.getItemsPageBody(cursor, pageSize(size), fields, format(accept)));
     }
     
     /**
      * Buscar items por nombre (case-insensitive, búsqueda parcial)
+     * Resultados ordenados por relevancia y limitados por "limit"
+     * Con cursor/fields retorna una página de "limit" resultados: {"items": [...], "nextCursor": n|null}
      */
     @GetMapping("/search")
-    public ResponseEntity<List<ItemCatalogDTO>> searchItems(@RequestParam String name) {
+    public ResponseEntity<byte[]> searchItems(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         if (name == null || name.isBlank()) {
             return ResponseEntity.badRequest().build();
         }
         
-        List<ItemCatalogDTO> items = catalogService.searchByName(name);
-        return ResponseEntity.ok(items);
+        if (cursor == null && fields == null) {
+            return body(catalogService.searchByNameBody(name, limit, format(accept)));
+        }
+        return body(catalogService.searchByNamePageBody(name, cursor, limit, fields, format(accept)));
+    }
+    
+    /**
+     * Autocompletar nombres de items por prefijo
+     * Pensado para type-ahead: respuesta reducida (id, name, icon)
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<byte[]> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (prefix == null || prefix.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return body(catalogService.autocompleteBody(prefix, limit, format(accept)));
     }
     
     /**
@@ -118,13 +230,20 @@ public class ItemCatalogController {
      * Tipos válidos: "Weapon", "Armor", "EtcItem"
      */
     @GetMapping("/filter/type")
-    public ResponseEntity<List<ItemCatalogDTO>> getItemsByType(@RequestParam String type) {
+    public ResponseEntity<byte[]> getItemsByType(
+            @RequestParam String type,
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         if (type == null || type.isBlank()) {
             return ResponseEntity.badRequest().build();
         }
         
-        List<ItemCatalogDTO> items = catalogService.getItemsByType(type);
-        return ResponseEntity.ok(items);
+        if (cursor == null && size == null && fields == null) {
+            return body(catalogService.getItemsByTypeBody(type, format(accept)));
+        }
+        return body(catalogService.getItemsByTypePageBody(type, cursor, pageSize(size), fields, format(accept)));
     }
     
     /**
@@ -132,13 +251,49 @@ public class ItemCatalogController {
      * Grades válidos: "NONE", "D", "C", "B", "A", "S"
      */
     @GetMapping("/filter/grade")
-    public ResponseEntity<List<ItemCatalogDTO>> getItemsByGrade(@RequestParam String grade) {
+    public ResponseEntity<byte[]> getItemsByGrade(
+            @RequestParam String grade,
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         if (grade == null || grade.isBlank()) {
             return ResponseEntity.badRequest().build();
         }
         
-        List<ItemCatalogDTO> items = catalogService.getItemsByGrade(grade);
-        return ResponseEntity.ok(items);
+        if (cursor == null && size == null && fields == null) {
+            return body(catalogService.getItemsByGradeBody(grade, format(accept)));
+        }
+        return body(catalogService.getItemsByGradePageBody(grade, cursor, pageSize(size), fields, format(accept)));
+    }
+    
+    /**
+     * Consulta combinada: todos los criterios del body se combinan con AND
+     * Se resuelve con los índices del catálogo (bitsets y columnas numéricas ordenadas)
+     */
+    @PostMapping("/query")
+    public ResponseEntity<byte[]> query(
+            @RequestBody(required = false) ItemQuery query,
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return body(catalogService.queryBody(query, cursor, pageSize(size), fields, format(accept)));
+    }
+    
+    /**
+     * Cambios del catálogo desde una versión (sincronización incremental del cliente)
+     * since: versión que tiene el cliente (ETag de una respuesta anterior o "version" de /stats)
+     */
+    @GetMapping("/delta")
+    public ResponseEntity<byte[]> getDelta(
+            @RequestParam String since,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (since == null || since.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return body(catalogService.getDeltaBody(since, format(accept)));
     }
     
     /**
@@ -147,7 +302,10 @@ public class ItemCatalogController {
     @GetMapping("/stats")
     public ResponseEntity<ItemCatalogService.CatalogStats> getStats() {
         ItemCatalogService.CatalogStats stats = catalogService.getStats();
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok()
+                .eTag(stats.getVersion())
+                .cacheControl(CacheControl.noCache())
+                .body(stats);
     }
     
     /**
@@ -157,12 +315,13 @@ public class ItemCatalogController {
     @PostMapping("/admin/reload")
     public ResponseEntity<Map<String, Object>> reloadCatalog() {
         try {
-            catalogService.reloadCatalog();
+            ItemLoadReport report = catalogService.reloadCatalog();
             
             Map<String, Object> response = new HashMap<>();
             response.put("status", "success");
             response.put("message", "Catálogo recargado exitosamente");
             response.put("totalItems", catalogService.getStats().getTotalItems());
+            response.put("loadReport", report);
             
             return ResponseEntity.ok(response);
             
@@ -174,5 +333,80 @@ public class ItemCatalogController {
             return ResponseEntity.internalServerError().body(response);
         }
     }
+    
+    private static int pageSize(Integer size) {
+        return size != null ? size : ItemCatalogService.DEFAULT_PAGE_SIZE;
+    }
+    
+    /**
+     * Respuesta con el JSON o CBOR ya serializado por ItemCatalogService
+     * El ETag es la versión del catálogo: Spring responde 304 sin cuerpo si coincide con If-None-Match
+     * Cache-Control: no-cache permite guardar la respuesta pero obliga a revalidarla
+     */
+    private ResponseEntity<byte[]> body(CatalogBody body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(body.getFormat() == CatalogFormat.CBOR ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON)
+                .eTag(body.getETag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (body.isGzip()) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body.getBody());
+    }
+    
+    /**
+     * Elige el formato según el header Accept: CBOR solo si el cliente pide
+     * application/cbor explícitamente y no prefiere JSON (a igual calidad gana el
+     * que aparece primero). Cualquier otro caso, incluido un header inválido, es JSON.
+     */
+    private static CatalogFormat format(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return CatalogFormat.JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return CatalogFormat.JSON;
+        }
+        
+        double cbor = 0;
+        double json = 0;
+        boolean cborFirst = false;
+        for (MediaType mediaType : mediaTypes) {
+            double quality = mediaType.getQualityValue();
+            if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+                cborFirst |= json == 0 && quality > 0;
+                cbor = Math.max(cbor, quality);
+            } else if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(mediaType)) {
+                json = Math.max(json, quality);
+            }
+        }
+        return cbor > json || (cbor > 0 && cbor == json && cborFirst) ? CatalogFormat.CBOR : CatalogFormat.JSON;
+    }
+    
+    /**
+     * Indica si el header Accept-Encoding acepta gzip (ignora "gzip;q=0")
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") && param.substring(2).trim().matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
 }
 
@@ -0,0 +1,43 @@
+package com.ak4n1.terra.api.terra_api.game.dto;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+
+/**
+ * DTO reducido para el autocompletado del catálogo de items
+ * Solo contiene lo necesario para mostrar una sugerencia: id, nombre e icono
+ * Es inmutable: las instancias se precalculan una vez por catálogo y se reutilizan
+ */
+public class ItemSuggestionDTO {
+
+    private final int id;
+    private final String name;
+    private final String icon;
+
+    public ItemSuggestionDTO(int id, String name, String icon) {
+        this.id = id;
+        this.name = name;
+        this.icon = icon;
+    }
+
+    /**
+     * Constructor desde ItemTemplate
+     */
+    public static ItemSuggestionDTO fromItemTemplate(ItemTemplate template) {
+        if (template == null) {
+            return null;
+        }
+        return new ItemSuggestionDTO(template.getId(), template.getName(), template.getIcon());
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getIcon() {
+        return icon;
+    }
+}
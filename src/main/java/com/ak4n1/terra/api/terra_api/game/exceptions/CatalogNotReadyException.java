@@ -0,0 +1,14 @@
+package com.ak4n1.terra.api.terra_api.game.exceptions;
+
+public class CatalogNotReadyException extends RuntimeException {
+    private final long retryAfterSeconds;
+    
+    public CatalogNotReadyException(long retryAfterSeconds) {
+        super("CATALOG_NOT_READY");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
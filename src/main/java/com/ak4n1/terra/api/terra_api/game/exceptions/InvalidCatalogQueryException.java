@@ -0,0 +1,11 @@
+package com.ak4n1.terra.api.terra_api.game.exceptions;
+
+public class InvalidCatalogQueryException extends RuntimeException {
+    public InvalidCatalogQueryException() {
+        super("INVALID_CATALOG_QUERY");
+    }
+    
+    public InvalidCatalogQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,267 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.HeapEstimator;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.IntObjectTable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Versión inmutable del catálogo de items en memoria.
+ *
+ * <p>ItemTable construye una instancia nueva en cada carga o recarga, completamente
+ * aparte de la que están usando los lectores, y la publica con un único cambio de
+ * referencia volátil. Como nada de esta clase se modifica después de construirse,
+ * los lectores nunca toman locks ni pueden observar un catálogo a medio cargar.
+ *
+ * @see ItemTable
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class ItemCatalog {
+
+    /**
+     * Catálogo vacío, usado antes de la primera carga.
+     */
+    public static final ItemCatalog EMPTY = build(Map.of());
+
+    private final IntObjectTable<ItemTemplate> templatesById;
+    private final Map<Integer, ItemTemplate> itemsMap;
+    private final Map<String, Map<Integer, ItemTemplate>> itemsByFile;
+    private final ItemCatalogIndex index;
+    private final ItemNameIndex nameIndex;
+    private final int highestId;
+
+    /**
+     * Memoria estimada de los items, calculada la primera vez que se pide (-1 hasta entonces).
+     */
+    private volatile long templateBytes = -1;
+
+    private ItemCatalog(IntObjectTable<ItemTemplate> templatesById, Map<Integer, ItemTemplate> itemsMap,
+                        Map<String, Map<Integer, ItemTemplate>> itemsByFile, ItemCatalogIndex index,
+                        ItemNameIndex nameIndex, int highestId) {
+        this.templatesById = templatesById;
+        this.itemsMap = itemsMap;
+        this.itemsByFile = itemsByFile;
+        this.index = index;
+        this.nameIndex = nameIndex;
+        this.highestId = highestId;
+    }
+
+    /**
+     * Construye un catálogo a partir de los items agrupados por archivo XML.
+     *
+     * <p>Los archivos se fusionan en el orden del mapa recibido: si un ID aparece en
+     * más de un archivo, prevalece el último.
+     *
+     * @param itemsByFile Items de cada archivo XML, indexados por ID
+     * @return Catálogo inmutable listo para publicar
+     */
+    public static ItemCatalog build(Map<String, Map<Integer, ItemTemplate>> itemsByFile) {
+        Map<Integer, ItemTemplate> itemsMap = new HashMap<>();
+        Map<String, Map<Integer, ItemTemplate>> files = new LinkedHashMap<>(itemsByFile.size() * 2);
+        int highestId = 0;
+
+        for (Map.Entry<String, Map<Integer, ItemTemplate>> entry : itemsByFile.entrySet()) {
+            files.put(entry.getKey(), Collections.unmodifiableMap(entry.getValue()));
+            for (ItemTemplate item : entry.getValue().values()) {
+                itemsMap.put(item.getId(), item);
+                if (item.getId() > highestId) {
+                    highestId = item.getId();
+                }
+            }
+        }
+
+        // Índice por ID para búsqueda O(1), dimensionado por cantidad de items
+        ItemCatalogIndex index = ItemCatalogIndex.build(itemsMap.values());
+        return new ItemCatalog(IntObjectTable.of(itemsMap), Collections.unmodifiableMap(itemsMap),
+                Collections.unmodifiableMap(files), index, ItemNameIndex.build(index), highestId);
+    }
+
+    /**
+     * Construye un catálogo nuevo reemplazando o quitando algunos archivos XML.
+     *
+     * <p>Solo se resuelve de nuevo qué archivo gana para los IDs que pertenecían o
+     * pertenecen a los archivos afectados; el resto de las entradas se copia tal cual del
+     * catálogo actual, que no se modifica. Si un ID está definido en varios archivos se
+     * respeta la misma regla que en {@link #build(Map)}: prevalece el último archivo por
+     * nombre.
+     *
+     * <p>La tabla por ID y los índices secundarios se derivan de los de este catálogo
+     * aplicando solo los items cambiados ({@link IntObjectTable#with},
+     * {@link ItemCatalogIndex#withChanges} y {@link ItemNameIndex#withChanges}): no se
+     * vuelven a calcular claves, nombres normalizados ni trigramas de los demás items, ni
+     * a ordenar las columnas completas. Lo único proporcional al catálogo entero son las
+     * copias de arrays y mapas, y el remapeo de posiciones cuando se agregan o quitan IDs.
+     *
+     * @param changedFiles Archivos nuevos o modificados con sus items indexados por ID
+     * @param removedFiles Nombres de archivos eliminados
+     * @return Catálogo nuevo con los cambios aplicados
+     */
+    public ItemCatalog withFiles(Map<String, Map<Integer, ItemTemplate>> changedFiles, Set<String> removedFiles) {
+        TreeMap<String, Map<Integer, ItemTemplate>> files = new TreeMap<>(itemsByFile);
+        Set<Integer> affectedIds = new HashSet<>();
+
+        for (String fileName : removedFiles) {
+            Map<Integer, ItemTemplate> previous = files.remove(fileName);
+            if (previous != null) {
+                affectedIds.addAll(previous.keySet());
+            }
+        }
+        for (Map.Entry<String, Map<Integer, ItemTemplate>> entry : changedFiles.entrySet()) {
+            Map<Integer, ItemTemplate> previous = files.put(entry.getKey(), Collections.unmodifiableMap(entry.getValue()));
+            if (previous != null) {
+                affectedIds.addAll(previous.keySet());
+            }
+            affectedIds.addAll(entry.getValue().keySet());
+        }
+
+        Map<Integer, ItemTemplate> newItemsMap = new HashMap<>(itemsMap);
+        Map<Integer, ItemTemplate> updates = new HashMap<>();
+        Set<Integer> removedIds = new HashSet<>();
+        int newHighestId = highestId;
+        boolean highestRemoved = false;
+
+        for (int id : affectedIds) {
+            ItemTemplate winner = null;
+            for (Map<Integer, ItemTemplate> fileItems : files.descendingMap().values()) {
+                winner = fileItems.get(id);
+                if (winner != null) {
+                    break;
+                }
+            }
+
+            if (winner != null) {
+                if (newItemsMap.put(id, winner) != winner) {
+                    updates.put(id, winner);
+                }
+                newHighestId = Math.max(newHighestId, id);
+            } else if (newItemsMap.remove(id) != null) {
+                removedIds.add(id);
+                highestRemoved |= id == highestId;
+            }
+        }
+
+        if (highestRemoved) {
+            newHighestId = 0;
+            for (int id : newItemsMap.keySet()) {
+                newHighestId = Math.max(newHighestId, id);
+            }
+        }
+
+        Map<String, Map<Integer, ItemTemplate>> newFiles = Collections.unmodifiableMap(new LinkedHashMap<>(files));
+        if (updates.isEmpty() && removedIds.isEmpty()) {
+            // Los archivos cambiaron pero publican los mismos items: se comparten los índices
+            return new ItemCatalog(templatesById, itemsMap, newFiles, index, nameIndex, highestId);
+        }
+
+        ItemCatalogIndex.Changes changes = index.changes(updates, removedIds);
+        ItemCatalogIndex newIndex = index.withChanges(changes);
+        return new ItemCatalog(templatesById.with(updates, removedIds), Collections.unmodifiableMap(newItemsMap),
+                newFiles, newIndex, nameIndex.withChanges(newIndex, changes), newHighestId);
+    }
+
+    /**
+     * Obtiene un item por su ID mediante búsqueda O(1).
+     *
+     * @param id ID del item a buscar
+     * @return ItemTemplate si existe, null si no se encuentra
+     */
+    public ItemTemplate getTemplate(int id) {
+        return templatesById.get(id);
+    }
+
+    public Collection<ItemTemplate> getAllItems() {
+        return itemsMap.values();
+    }
+
+    public int getItemCount() {
+        return itemsMap.size();
+    }
+
+    public int getHighestId() {
+        return highestId;
+    }
+
+    /**
+     * Estima la memoria del índice por ID (sin contar los items referenciados).
+     *
+     * @return Tamaño estimado del índice en bytes
+     */
+    public long getIdIndexBytes() {
+        return templatesById.estimatedBytes();
+    }
+
+    /**
+     * Estima la memoria retenida por los items del catálogo: cada ItemTemplate más
+     * sus Strings, contando una sola vez los compartidos entre items.
+     *
+     * @return Tamaño estimado en bytes
+     * @see HeapEstimator
+     */
+    public long getTemplateBytes() {
+        long bytes = templateBytes;
+        if (bytes < 0) {
+            HeapEstimator estimator = new HeapEstimator();
+            for (ItemTemplate item : itemsMap.values()) {
+                estimator.add(item);
+            }
+            bytes = estimator.getTotalBytes();
+            templateBytes = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Obtiene los items de cada archivo XML, en el orden en que se fusionaron.
+     *
+     * @return Mapa inmutable nombre de archivo → items del archivo indexados por ID
+     */
+    public Map<String, Map<Integer, ItemTemplate>> getItemsByFile() {
+        return itemsByFile;
+    }
+
+    /**
+     * Busca el archivo XML que define actualmente un item.
+     *
+     * @param id ID del item
+     * @return Nombre del archivo que aporta el item publicado, o null si no existe
+     */
+    public String findSourceFile(int id) {
+        ItemTemplate item = getTemplate(id);
+        if (item == null) {
+            return null;
+        }
+        for (Map.Entry<String, Map<Integer, ItemTemplate>> entry : itemsByFile.entrySet()) {
+            if (entry.getValue().get(id) == item) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene los índices secundarios (tipo, grade, parte del cuerpo, cristal, flags).
+     *
+     * @return Índices precalculados de este catálogo
+     */
+    public ItemCatalogIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Obtiene el índice de trigramas de nombres usado por la búsqueda.
+     *
+     * @return Índice de nombres de este catálogo
+     */
+    public ItemNameIndex getNameIndex() {
+        return nameIndex;
+    }
+}
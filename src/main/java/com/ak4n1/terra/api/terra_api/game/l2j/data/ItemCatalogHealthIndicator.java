@@ -0,0 +1,57 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Estado del catálogo de items para actuator ({@code /actuator/health}, componente "itemCatalog").
+ *
+ * <p>Mientras la carga inicial está en curso reporta UNKNOWN, que no baja el estado
+ * general de la aplicación: autenticación y pagos siguen disponibles aunque el catálogo
+ * no lo esté. Con el catálogo cargado y sus respuestas precalculadas (listo para servirse)
+ * reporta UP y si la carga inicial falló, incluida la construcción de esas respuestas,
+ * OUT_OF_SERVICE con el error.
+ *
+ * <p>Para que el probe de readiness espere también al catálogo basta con agregarlo al grupo:
+ * {@code management.endpoint.health.group.readiness.include=readinessState,itemCatalog}.
+ *
+ * @see ItemTable#getLoadState()
+ * @author ak4n1
+ * @since 1.0
+ */
+@Component
+public class ItemCatalogHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private ItemTable itemTable;
+
+    @Override
+    public Health health() {
+        ItemTable.LoadState state = itemTable.getLoadState();
+        switch (state) {
+            case READY: {
+                Health.Builder health = Health.up()
+                        .withDetail("state", state)
+                        .withDetail("items", itemTable.getItemCount());
+                ItemLoadReport report = itemTable.getLastLoadReport();
+                if (report != null) {
+                    health.withDetail("source", report.getSource())
+                            .withDetail("loadTimeMs", report.getWallTimeMs());
+                }
+                return health.build();
+            }
+            case FAILED:
+                return Health.outOfService()
+                        .withDetail("state", state)
+                        .withDetail("error", itemTable.getLoadError())
+                        .build();
+            default:
+                return Health.unknown()
+                        .withDetail("state", state)
+                        .withDetail("loadingForMs", System.currentTimeMillis() - itemTable.getLoadStartedAt())
+                        .build();
+        }
+    }
+}
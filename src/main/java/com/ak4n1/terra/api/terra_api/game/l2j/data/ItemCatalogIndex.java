@@ -0,0 +1,733 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.Armor;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.EtcItem;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.Weapon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Índices secundarios del catálogo de items, precalculados al construirlo.
+ *
+ * <p>Los items se ordenan por ID y cada índice guarda un {@link BitSet} sobre esas
+ * posiciones: un bit encendido significa que el item en esa posición tiene el valor
+ * indexado. Filtrar por un atributo solo recorre los bits del resultado, y combinar
+ * filtros es una operación AND entre bitsets. Los valores de texto se indexan sin
+ * distinguir mayúsculas/minúsculas.
+ *
+ * <p>Los atributos numéricos (peso, precio, ataque y defensa) se guardan además como
+ * columnas ordenadas por valor: un rango se ubica con dos búsquedas binarias y se
+ * convierte en bitset encendiendo solo las posiciones del rango. Así una consulta con
+ * varios criterios ({@link #matching(ItemQuery)}) se resuelve con operaciones de bits,
+ * sin recorrer el catálogo por cada predicado.
+ *
+ * <p>Como el catálogo, las instancias son inmutables: se construyen una vez por carga
+ * y nunca se modifican. Una recarga parcial deriva el índice nuevo del anterior con
+ * {@link #withChanges(Changes)}: solo se vuelven a calcular las claves, flags y valores
+ * de los items cambiados, y los bitsets por valor que no tocan se comparten. Si se
+ * agregan o quitan IDs las posiciones se desplazan y los bitsets y columnas existentes
+ * se remapean en una pasada, sin volver a leer los items.
+ *
+ * @see ItemCatalog
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class ItemCatalogIndex {
+
+    private static final BitSet EMPTY_BITS = new BitSet(0);
+
+    private final ItemTemplate[] itemsById;
+    private final Map<String, BitSet> byType;
+    private final Map<String, BitSet> byGrade;
+    private final Map<String, BitSet> byBodyPart;
+    private final Map<String, BitSet> byCrystalType;
+    private final Map<String, BitSet> bySubType;
+    private final BitSet stackable;
+    private final BitSet tradeable;
+    private final BitSet sellable;
+    private final BitSet dropable;
+    private final NumericColumn weight;
+    private final NumericColumn price;
+    private final NumericColumn pAtk;
+    private final NumericColumn mAtk;
+    private final NumericColumn pDef;
+    private final NumericColumn mDef;
+
+    private ItemCatalogIndex(ItemTemplate[] itemsById) {
+        this.itemsById = itemsById;
+        this.byType = index(itemsById, ItemTemplate::getItemType);
+        this.byGrade = index(itemsById, ItemTemplate::getGrade);
+        this.byBodyPart = index(itemsById, ItemTemplate::getBodyPartName);
+        this.byCrystalType = index(itemsById, ItemTemplate::getCrystalType);
+        this.bySubType = index(itemsById, ItemCatalogIndex::subTypeOf);
+        this.stackable = flags(itemsById, ItemTemplate::isStackable);
+        this.tradeable = flags(itemsById, ItemTemplate::isTradeable);
+        this.sellable = flags(itemsById, ItemTemplate::isSellable);
+        this.dropable = flags(itemsById, ItemTemplate::isDropable);
+        this.weight = NumericColumn.of(itemsById, item -> true, ItemTemplate::getWeight);
+        this.price = NumericColumn.of(itemsById, item -> true, ItemTemplate::getPrice);
+        this.pAtk = NumericColumn.of(itemsById, Weapon.class::isInstance, item -> ((Weapon) item).getPAtk());
+        this.mAtk = NumericColumn.of(itemsById, Weapon.class::isInstance, item -> ((Weapon) item).getMAtk());
+        this.pDef = NumericColumn.of(itemsById, Armor.class::isInstance, item -> ((Armor) item).getPDef());
+        this.mDef = NumericColumn.of(itemsById, Armor.class::isInstance, item -> ((Armor) item).getMDef());
+    }
+
+    /**
+     * Construye los índices de un conjunto de items.
+     *
+     * @param items Items del catálogo (un item por ID)
+     * @return Índices inmutables
+     */
+    public static ItemCatalogIndex build(Collection<ItemTemplate> items) {
+        ItemTemplate[] itemsById = items.toArray(new ItemTemplate[0]);
+        Arrays.sort(itemsById, Comparator.comparingInt(ItemTemplate::getId));
+        return new ItemCatalogIndex(itemsById);
+    }
+
+    /**
+     * Deriva los índices de los mismos items con algunos agregados, reemplazados o
+     * quitados, a partir de los índices actuales (que no se modifican).
+     *
+     * <p>Los bitsets por valor que no contienen items cambiados se comparten con este
+     * índice; los demás se copian y se corrigen solo en las posiciones cambiadas. Las
+     * columnas numéricas se arman intercalando los valores nuevos (ordenados aparte) con
+     * los que ya estaban ordenados.
+     *
+     * @param changes Cambios calculados con {@link #changes(Map, Collection)} sobre este índice
+     * @return Índices nuevos
+     */
+    public ItemCatalogIndex withChanges(Changes changes) {
+        return new ItemCatalogIndex(this, changes);
+    }
+
+    /**
+     * Calcula las posiciones afectadas por un conjunto de cambios.
+     *
+     * @param updates Items nuevos o reemplazados, por ID (un item idéntico al actual se ignora)
+     * @param removedIds IDs a quitar (no deben estar en {@code updates})
+     * @return Cambios para {@link #withChanges(Changes)} y {@link ItemNameIndex#withChanges}
+     */
+    public Changes changes(Map<Integer, ItemTemplate> updates, Collection<Integer> removedIds) {
+        BitSet withdrawn = new BitSet(itemsById.length);
+        BitSet dropped = new BitSet(itemsById.length);
+        Map<Integer, ItemTemplate> replaced = new HashMap<>();
+        List<ItemTemplate> added = new ArrayList<>();
+
+        for (int id : removedIds) {
+            int pos = positionOf(id);
+            if (pos >= 0) {
+                withdrawn.set(pos);
+                dropped.set(pos);
+            }
+        }
+        for (ItemTemplate item : updates.values()) {
+            int pos = positionOf(item.getId());
+            if (pos < 0) {
+                added.add(item);
+            } else if (itemsById[pos] != item) {
+                withdrawn.set(pos);
+                replaced.put(pos, item);
+            }
+        }
+        added.sort(Comparator.comparingInt(ItemTemplate::getId));
+
+        if (added.isEmpty() && dropped.isEmpty()) {
+            // Mismos IDs: cada item conserva su posición
+            ItemTemplate[] after = itemsById.clone();
+            int[] inserted = new int[replaced.size()];
+            int n = 0;
+            for (int pos = withdrawn.nextSetBit(0); pos >= 0; pos = withdrawn.nextSetBit(pos + 1)) {
+                after[pos] = replaced.get(pos);
+                inserted[n++] = pos;
+            }
+            return new Changes(itemsById, after, null, withdrawn, inserted);
+        }
+
+        ItemTemplate[] after = new ItemTemplate[itemsById.length - dropped.cardinality() + added.size()];
+        int[] moved = new int[itemsById.length];
+        int[] inserted = new int[replaced.size() + added.size()];
+        int insertedCount = 0;
+        int next = 0;
+        int a = 0;
+        for (int pos = 0; pos < itemsById.length || a < added.size(); ) {
+            if (a < added.size() && (pos == itemsById.length || added.get(a).getId() < itemsById[pos].getId())) {
+                inserted[insertedCount++] = next;
+                after[next++] = added.get(a++);
+            } else if (dropped.get(pos)) {
+                moved[pos++] = -1;
+            } else {
+                ItemTemplate replacement = replaced.get(pos);
+                if (replacement != null) {
+                    inserted[insertedCount++] = next;
+                }
+                after[next] = replacement != null ? replacement : itemsById[pos];
+                moved[pos++] = next++;
+            }
+        }
+        return new Changes(itemsById, after, moved, withdrawn, inserted);
+    }
+
+    /**
+     * Índices derivados de otros (ver {@link #withChanges(Changes)}).
+     */
+    private ItemCatalogIndex(ItemCatalogIndex previous, Changes changes) {
+        this.itemsById = changes.after;
+        this.byType = updateIndex(previous.byType, changes, ItemTemplate::getItemType);
+        this.byGrade = updateIndex(previous.byGrade, changes, ItemTemplate::getGrade);
+        this.byBodyPart = updateIndex(previous.byBodyPart, changes, ItemTemplate::getBodyPartName);
+        this.byCrystalType = updateIndex(previous.byCrystalType, changes, ItemTemplate::getCrystalType);
+        this.bySubType = updateIndex(previous.bySubType, changes, ItemCatalogIndex::subTypeOf);
+        this.stackable = updateFlags(previous.stackable, changes, ItemTemplate::isStackable);
+        this.tradeable = updateFlags(previous.tradeable, changes, ItemTemplate::isTradeable);
+        this.sellable = updateFlags(previous.sellable, changes, ItemTemplate::isSellable);
+        this.dropable = updateFlags(previous.dropable, changes, ItemTemplate::isDropable);
+        this.weight = previous.weight.with(changes, item -> true, ItemTemplate::getWeight);
+        this.price = previous.price.with(changes, item -> true, ItemTemplate::getPrice);
+        this.pAtk = previous.pAtk.with(changes, Weapon.class::isInstance, item -> ((Weapon) item).getPAtk());
+        this.mAtk = previous.mAtk.with(changes, Weapon.class::isInstance, item -> ((Weapon) item).getMAtk());
+        this.pDef = previous.pDef.with(changes, Armor.class::isInstance, item -> ((Armor) item).getPDef());
+        this.mDef = previous.mDef.with(changes, Armor.class::isInstance, item -> ((Armor) item).getMDef());
+    }
+
+    private static Map<String, BitSet> index(ItemTemplate[] items, Function<ItemTemplate, String> attribute) {
+        Map<String, BitSet> index = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            index.computeIfAbsent(key(attribute.apply(items[i])), k -> new BitSet(items.length)).set(i);
+        }
+        return index;
+    }
+
+    private static BitSet flags(ItemTemplate[] items, Predicate<ItemTemplate> flag) {
+        BitSet bits = new BitSet(items.length);
+        for (int i = 0; i < items.length; i++) {
+            bits.set(i, flag.test(items[i]));
+        }
+        return bits;
+    }
+
+    /**
+     * Índice por valor con los cambios aplicados. Los bitsets se copian la primera vez
+     * que hay que modificarlos; los valores que quedan sin items se quitan.
+     */
+    private static Map<String, BitSet> updateIndex(Map<String, BitSet> previous, Changes changes,
+                                                   Function<ItemTemplate, String> attribute) {
+        Map<String, BitSet> index = new HashMap<>(previous);
+        Set<String> copied = new HashSet<>();
+        if (changes.moved != null) {
+            index.replaceAll((value, bits) -> changes.remap(bits));
+            copied.addAll(index.keySet());
+        }
+
+        for (int pos = changes.withdrawn.nextSetBit(0); pos >= 0; pos = changes.withdrawn.nextSetBit(pos + 1)) {
+            int newPos = changes.newPosition(pos);
+            if (newPos >= 0) {
+                writable(index, copied, key(attribute.apply(changes.before[pos])), changes).clear(newPos);
+            }
+        }
+        for (int newPos : changes.inserted) {
+            writable(index, copied, key(attribute.apply(changes.after[newPos])), changes).set(newPos);
+        }
+        for (String value : copied) {
+            if (index.get(value).isEmpty()) {
+                index.remove(value);
+            }
+        }
+        return index;
+    }
+
+    private static BitSet writable(Map<String, BitSet> index, Set<String> copied, String value, Changes changes) {
+        BitSet bits = index.get(value);
+        if (copied.add(value)) {
+            bits = bits != null ? (BitSet) bits.clone() : new BitSet(changes.after.length);
+            index.put(value, bits);
+        }
+        return bits;
+    }
+
+    private static BitSet updateFlags(BitSet previous, Changes changes, Predicate<ItemTemplate> flag) {
+        BitSet bits = changes.moved != null ? changes.remap(previous) : (BitSet) previous.clone();
+        for (int newPos : changes.inserted) {
+            bits.set(newPos, flag.test(changes.after[newPos]));
+        }
+        return bits;
+    }
+
+    /**
+     * Subtipo del item: tipo de arma, de armadura o de item misceláneo.
+     */
+    private static String subTypeOf(ItemTemplate item) {
+        if (item instanceof Weapon weapon) {
+            return weapon.getWeaponType();
+        }
+        if (item instanceof Armor armor) {
+            return armor.getArmorType();
+        }
+        if (item instanceof EtcItem etcItem) {
+            return etcItem.getEtcItemType();
+        }
+        return null;
+    }
+
+    private static String key(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Items de un tipo ("Weapon", "Armor", "EtcItem"), sin distinguir mayúsculas/minúsculas.
+     */
+    public BitSet byType(String type) {
+        return lookup(byType, type);
+    }
+
+    /**
+     * Items de un grade ("NONE", "D", "C", "B", "A", "S"...), sin distinguir mayúsculas/minúsculas.
+     */
+    public BitSet byGrade(String grade) {
+        return lookup(byGrade, grade);
+    }
+
+    /**
+     * Items de una parte del cuerpo ("rhand", "chest"...), sin distinguir mayúsculas/minúsculas.
+     */
+    public BitSet byBodyPart(String bodyPart) {
+        return lookup(byBodyPart, bodyPart);
+    }
+
+    /**
+     * Items de un tipo de cristal, sin distinguir mayúsculas/minúsculas.
+     */
+    public BitSet byCrystalType(String crystalType) {
+        return lookup(byCrystalType, crystalType);
+    }
+
+    public BitSet stackable() {
+        return (BitSet) stackable.clone();
+    }
+
+    public BitSet tradeable() {
+        return (BitSet) tradeable.clone();
+    }
+
+    /**
+     * Retorna una copia del bitset para que quien lo reciba pueda combinarlo
+     * (and/or) sin alterar el índice.
+     */
+    private BitSet lookup(Map<String, BitSet> index, String value) {
+        BitSet bits = index.get(key(value));
+        return bits != null ? (BitSet) bits.clone() : new BitSet();
+    }
+
+    /**
+     * Evalúa una consulta con varios criterios.
+     *
+     * <p>Cada criterio presente aporta un bitset (de un índice por valor, de un flag o
+     * de un rango sobre una columna ordenada) y el resultado es el AND de todos. Los
+     * índices por valor y los flags se combinan sin copiarlos; solo se crea el bitset
+     * del resultado y uno por cada rango.
+     *
+     * @param query Criterios de la consulta
+     * @return Posiciones (orden por ID) de los items que cumplen todos los criterios
+     */
+    public BitSet matching(ItemQuery query) {
+        BitSet result = new BitSet(itemsById.length);
+        result.set(0, itemsById.length);
+
+        andValue(result, byType, query.getType());
+        andValue(result, byGrade, query.getGrade());
+        andValue(result, bySubType, query.getSubType());
+        andValue(result, byBodyPart, query.getBodyPart());
+        andValue(result, byCrystalType, query.getCrystalType());
+        andFlag(result, stackable, query.getStackable());
+        andFlag(result, tradeable, query.getTradeable());
+        andFlag(result, sellable, query.getSellable());
+        andFlag(result, dropable, query.getDropable());
+        andRange(result, weight, query.getWeight());
+        andRange(result, price, query.getPrice());
+        andRange(result, pAtk, query.getPAtk());
+        andRange(result, mAtk, query.getMAtk());
+        andRange(result, pDef, query.getPDef());
+        andRange(result, mDef, query.getMDef());
+        return result;
+    }
+
+    private static void andValue(BitSet result, Map<String, BitSet> index, String value) {
+        if (value != null && !result.isEmpty()) {
+            result.and(index.getOrDefault(key(value), EMPTY_BITS));
+        }
+    }
+
+    private static void andFlag(BitSet result, BitSet flag, Boolean expected) {
+        if (expected == null || result.isEmpty()) {
+            return;
+        }
+        if (expected) {
+            result.and(flag);
+        } else {
+            result.andNot(flag);
+        }
+    }
+
+    private void andRange(BitSet result, NumericColumn column, ItemQuery.Range range) {
+        if (range != null && !result.isEmpty()) {
+            result.and(column.range(range.getMin(), range.getMax(), itemsById.length));
+        }
+    }
+
+    /**
+     * Página de los items de un conjunto de posiciones (por ejemplo el resultado de
+     * {@link #matching(ItemQuery)}) en orden de ID.
+     *
+     * @see #page(int, int)
+     */
+    public List<ItemTemplate> pageOf(BitSet positions, int afterId, int limit) {
+        return page(positions, afterId, limit);
+    }
+
+    /**
+     * Items de un tipo, ordenados por ID, leídos directamente del índice.
+     */
+    public List<ItemTemplate> itemsWithType(String type) {
+        return select(byType.getOrDefault(key(type), EMPTY_BITS));
+    }
+
+    /**
+     * Items de un grade, ordenados por ID, leídos directamente del índice.
+     */
+    public List<ItemTemplate> itemsWithGrade(String grade) {
+        return select(byGrade.getOrDefault(key(grade), EMPTY_BITS));
+    }
+
+    /**
+     * Página del catálogo completo en orden de ID (paginación por cursor).
+     *
+     * @param afterId Último ID de la página anterior (exclusivo); usar un valor negativo para empezar
+     * @param limit Cantidad máxima de items
+     * @return Items con ID mayor a {@code afterId}, ordenados por ID
+     */
+    public List<ItemTemplate> page(int afterId, int limit) {
+        return page(null, afterId, limit);
+    }
+
+    /**
+     * Página de los items de un tipo en orden de ID.
+     *
+     * @see #page(int, int)
+     */
+    public List<ItemTemplate> pageWithType(String type, int afterId, int limit) {
+        return page(byType.getOrDefault(key(type), EMPTY_BITS), afterId, limit);
+    }
+
+    /**
+     * Página de los items de un grade en orden de ID.
+     *
+     * @see #page(int, int)
+     */
+    public List<ItemTemplate> pageWithGrade(String grade, int afterId, int limit) {
+        return page(byGrade.getOrDefault(key(grade), EMPTY_BITS), afterId, limit);
+    }
+
+    /**
+     * Recorre desde la primera posición posterior al cursor hasta juntar {@code limit}
+     * items: el costo depende del tamaño de la página, no del catálogo.
+     *
+     * @param bits Posiciones a incluir, o null para todas
+     */
+    private List<ItemTemplate> page(BitSet bits, int afterId, int limit) {
+        int from = firstPositionAfter(afterId);
+        List<ItemTemplate> result = new ArrayList<>(Math.max(0, Math.min(limit, itemsById.length - from)));
+        int pos = bits == null ? from : bits.nextSetBit(from);
+        while (pos >= 0 && pos < itemsById.length && result.size() < limit) {
+            result.add(itemsById[pos]);
+            pos = bits == null ? pos + 1 : bits.nextSetBit(pos + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Primera posición cuyo ID es mayor a {@code afterId}.
+     */
+    private int firstPositionAfter(int afterId) {
+        int low = 0;
+        int high = itemsById.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (itemsById[mid].getId() <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Cantidad de items de un tipo, sin copiar el bitset.
+     */
+    public int countByType(String type) {
+        BitSet bits = byType.get(key(type));
+        return bits != null ? bits.cardinality() : 0;
+    }
+
+    public int countStackable() {
+        return stackable.cardinality();
+    }
+
+    public int countTradeable() {
+        return tradeable.cardinality();
+    }
+
+    /**
+     * Convierte un bitset de posiciones en la lista de items correspondiente,
+     * ordenada por ID. El costo es proporcional a la cantidad de bits encendidos.
+     *
+     * @param positions Posiciones obtenidas de los métodos de este índice
+     * @return Lista inmutable de items
+     */
+    public List<ItemTemplate> select(BitSet positions) {
+        List<ItemTemplate> result = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0 && i < itemsById.length; i = positions.nextSetBit(i + 1)) {
+            result.add(itemsById[i]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Busca la posición de un ID en el orden por ID.
+     *
+     * @param id ID del item
+     * @return Posición del item, o -1 si no está en el catálogo
+     */
+    public int positionOf(int id) {
+        int low = 0;
+        int high = itemsById.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = itemsById[mid].getId();
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Item en una posición del orden por ID.
+     */
+    public ItemTemplate itemAt(int position) {
+        return itemsById[position];
+    }
+
+    /**
+     * Cantidad de posiciones indexadas (igual a la cantidad de items del catálogo).
+     */
+    public int size() {
+        return itemsById.length;
+    }
+
+    /**
+     * Columna numérica ordenada por valor: los valores y, en paralelo, la posición
+     * (orden por ID) del item que tiene cada uno. Solo incluye los items que tienen
+     * el atributo (por ejemplo pAtk solo existe en armas).
+     */
+    private static final class NumericColumn {
+        private final int[] values;
+        private final int[] positions;
+
+        private NumericColumn(int[] values, int[] positions) {
+            this.values = values;
+            this.positions = positions;
+        }
+
+        static NumericColumn of(ItemTemplate[] items, Predicate<ItemTemplate> hasValue, ToIntFunction<ItemTemplate> value) {
+            // Valor en los 32 bits altos y posición en los bajos: un solo sort de primitivos
+            long[] packed = new long[items.length];
+            int count = 0;
+            for (int pos = 0; pos < items.length; pos++) {
+                if (hasValue.test(items[pos])) {
+                    packed[count++] = ((long) value.applyAsInt(items[pos]) << 32) | pos;
+                }
+            }
+            Arrays.sort(packed, 0, count);
+
+            int[] values = new int[count];
+            int[] positions = new int[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = (int) (packed[i] >> 32);
+                positions[i] = (int) packed[i];
+            }
+            return new NumericColumn(values, positions);
+        }
+
+        /**
+         * Columna con los cambios aplicados: descarta los valores de las posiciones
+         * retiradas, remapea las demás y las intercala con los valores de los items
+         * nuevos, ordenados aparte. El orden final (valor, posición) es el mismo que
+         * daría {@link #of} sobre los items nuevos.
+         */
+        NumericColumn with(Changes changes, Predicate<ItemTemplate> hasValue, ToIntFunction<ItemTemplate> value) {
+            long[] added = new long[changes.inserted.length];
+            int addedCount = 0;
+            for (int newPos : changes.inserted) {
+                ItemTemplate item = changes.after[newPos];
+                if (hasValue.test(item)) {
+                    added[addedCount++] = ((long) value.applyAsInt(item) << 32) | newPos;
+                }
+            }
+            Arrays.sort(added, 0, addedCount);
+
+            int[] newValues = new int[values.length + addedCount];
+            int[] newPositions = new int[values.length + addedCount];
+            int count = 0;
+            int a = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (changes.withdrawn.get(positions[i])) {
+                    continue;
+                }
+                int newPos = changes.newPosition(positions[i]);
+                long kept = ((long) values[i] << 32) | newPos;
+                while (a < addedCount && added[a] < kept) {
+                    newValues[count] = (int) (added[a] >> 32);
+                    newPositions[count++] = (int) added[a++];
+                }
+                newValues[count] = values[i];
+                newPositions[count++] = newPos;
+            }
+            for (; a < addedCount; a++) {
+                newValues[count] = (int) (added[a] >> 32);
+                newPositions[count++] = (int) added[a];
+            }
+            return new NumericColumn(Arrays.copyOf(newValues, count), Arrays.copyOf(newPositions, count));
+        }
+
+        /**
+         * Posiciones de los items con valor en [min, max]; un extremo null no limita.
+         */
+        BitSet range(Integer min, Integer max, int size) {
+            int from = min != null ? lowerBound(min) : 0;
+            int to = max != null ? upperBound(max) : values.length;
+            BitSet bits = new BitSet(size);
+            for (int i = from; i < to; i++) {
+                bits.set(positions[i]);
+            }
+            return bits;
+        }
+
+        /**
+         * Primer índice con valor >= {@code value}.
+         */
+        private int lowerBound(int value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Primer índice con valor > {@code value}.
+         */
+        private int upperBound(int value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Diferencia entre las posiciones de un índice y las del índice derivado con
+     * {@link #withChanges(Changes)}. Se calcula una vez con {@link #changes(Map, Collection)}
+     * y la usan tanto estos índices como el de nombres.
+     */
+    public static final class Changes {
+        /** Items del índice anterior, en orden de ID. */
+        final ItemTemplate[] before;
+        /** Items del índice nuevo, en orden de ID. */
+        final ItemTemplate[] after;
+        /** Posición nueva de cada posición anterior (-1 si el item se quitó), o null si no se movió ninguna. */
+        final int[] moved;
+        /** Posiciones anteriores cuyo item se quitó o se reemplazó. */
+        final BitSet withdrawn;
+        /** Posiciones nuevas con un item agregado o reemplazado, en orden creciente. */
+        final int[] inserted;
+
+        private Changes(ItemTemplate[] before, ItemTemplate[] after, int[] moved, BitSet withdrawn, int[] inserted) {
+            this.before = before;
+            this.after = after;
+            this.moved = moved;
+            this.withdrawn = withdrawn;
+            this.inserted = inserted;
+        }
+
+        /**
+         * true si no hay ningún item agregado, reemplazado ni quitado.
+         */
+        public boolean isEmpty() {
+            return withdrawn.isEmpty() && inserted.length == 0;
+        }
+
+        int newPosition(int previousPosition) {
+            return moved != null ? moved[previousPosition] : previousPosition;
+        }
+
+        /**
+         * Lleva un bitset de posiciones anteriores a las posiciones nuevas, descartando
+         * los items quitados.
+         */
+        BitSet remap(BitSet previous) {
+            BitSet bits = new BitSet(after.length);
+            for (int pos = previous.nextSetBit(0); pos >= 0 && pos < moved.length; pos = previous.nextSetBit(pos + 1)) {
+                if (moved[pos] >= 0) {
+                    bits.set(moved[pos]);
+                }
+            }
+            return bits;
+        }
+
+        /**
+         * Igual que {@link #remap(BitSet)} para una lista creciente de posiciones.
+         */
+        int[] remap(int[] previous) {
+            int[] positions = new int[previous.length];
+            int count = 0;
+            for (int pos : previous) {
+                if (moved[pos] >= 0) {
+                    positions[count++] = moved[pos];
+                }
+            }
+            return count == positions.length ? positions : Arrays.copyOf(positions, count);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Observa el directorio de XMLs de items y notifica los archivos modificados.
+ *
+ * <p>Usa un {@link WatchService} en un hilo propio. Los eventos se acumulan hasta que
+ * pasa el tiempo de debounce sin cambios nuevos (los editores suelen escribir un
+ * archivo en varias operaciones), y entonces se notifica una sola vez el conjunto de
+ * archivos .xml creados, modificados o eliminados. Si el sistema operativo descarta
+ * eventos (OVERFLOW) se solicita una recarga completa.
+ *
+ * @see ItemTable
+ * @author ak4n1
+ * @since 1.0
+ */
+public class ItemDirectoryWatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemDirectoryWatcher.class);
+
+    private final Path directory;
+    private final long debounceMs;
+    private final Consumer<Set<String>> onFilesChanged;
+    private final Runnable onOverflow;
+
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * @param directory Directorio de XMLs a observar
+     * @param debounceMs Tiempo sin eventos nuevos antes de notificar los cambios
+     * @param onFilesChanged Recibe los nombres de los archivos .xml afectados
+     * @param onOverflow Se ejecuta cuando se perdieron eventos y hace falta una recarga completa
+     */
+    public ItemDirectoryWatcher(Path directory, long debounceMs, Consumer<Set<String>> onFilesChanged, Runnable onOverflow) {
+        this.directory = directory;
+        this.debounceMs = debounceMs;
+        this.onFilesChanged = onFilesChanged;
+        this.onOverflow = onOverflow;
+    }
+
+    /**
+     * Registra el directorio y arranca el hilo observador.
+     *
+     * @throws IOException si no se puede registrar el directorio
+     */
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+
+        running = true;
+        thread = new Thread(this::watchLoop, "item-xml-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("👀 Observando cambios en XMLs de items: {} (debounce {} ms)", directory, debounceMs);
+    }
+
+    private void watchLoop() {
+        try {
+            while (running) {
+                WatchKey key = watchService.take();
+                Set<String> changedFiles = new TreeSet<>();
+                boolean overflow = collect(key, changedFiles);
+
+                // Seguir acumulando mientras lleguen eventos dentro de la ventana de debounce
+                while ((key = watchService.poll(debounceMs, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(key, changedFiles);
+                }
+
+                try {
+                    if (overflow) {
+                        logger.warn("⚠️ Se perdieron eventos del directorio de items, recarga completa");
+                        onOverflow.run();
+                    } else if (!changedFiles.isEmpty()) {
+                        logger.info("📝 XMLs de items modificados: {}", changedFiles);
+                        onFilesChanged.accept(changedFiles);
+                    }
+                } catch (Exception e) {
+                    logger.error("❌ Error aplicando cambios de XMLs de items: {}", e.getMessage(), e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // close() fue llamado
+        }
+        logger.info("👀 Observador de XMLs de items detenido");
+    }
+
+    /**
+     * Agrega a {@code changedFiles} los .xml afectados por los eventos de la clave.
+     *
+     * @return true si hubo OVERFLOW
+     */
+    private boolean collect(WatchKey key, Set<String> changedFiles) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            String fileName = event.context().toString();
+            if (fileName.endsWith(".xml")) {
+                changedFiles.add(fileName);
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("⚠️ Error cerrando el observador de XMLs de items: {}", e.getMessage());
+            }
+        }
+    }
+}
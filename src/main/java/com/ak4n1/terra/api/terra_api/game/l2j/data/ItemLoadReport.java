@@ -0,0 +1,127 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reporte de una carga completa del catálogo de items.
+ *
+ * <p>Contiene el resultado de cada archivo XML procesado (items, tiempo de parseo y
+ * error si lo hubo) junto con los totales de la carga. ItemTable lo genera en cada
+ * carga o recarga y se expone en la respuesta del endpoint de recarga.
+ *
+ * @see ItemTable
+ * @author ak4n1
+ * @since 1.0
+ */
+public class ItemLoadReport {
+
+    private final String source;
+    private final int threads;
+    private final long wallTimeMs;
+    private final int totalItems;
+    private final int highestId;
+    private final List<FileReport> files;
+
+    public ItemLoadReport(String source, int threads, long wallTimeMs, int totalItems, int highestId, List<FileReport> files) {
+        this.source = source;
+        this.threads = threads;
+        this.wallTimeMs = wallTimeMs;
+        this.totalItems = totalItems;
+        this.highestId = highestId;
+        this.files = Collections.unmodifiableList(files);
+    }
+
+    /**
+     * Origen de los datos de la carga: "xml" si se parsearon los archivos o
+     * "snapshot" si se leyó el snapshot binario.
+     *
+     * @return Origen de la carga
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getWallTimeMs() {
+        return wallTimeMs;
+    }
+
+    /**
+     * Suma de los tiempos de parseo de todos los archivos. Comparado con
+     * {@link #getWallTimeMs()} indica cuánto se aprovechó el paralelismo.
+     *
+     * @return Tiempo total de parseo en milisegundos
+     */
+    public long getParseTimeMs() {
+        long total = 0;
+        for (FileReport file : files) {
+            total += file.getParseTimeMs();
+        }
+        return total;
+    }
+
+    public int getTotalItems() {
+        return totalItems;
+    }
+
+    public int getHighestId() {
+        return highestId;
+    }
+
+    public int getTotalFiles() {
+        return files.size();
+    }
+
+    public int getFailedFiles() {
+        int failed = 0;
+        for (FileReport file : files) {
+            if (file.getError() != null) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    public List<FileReport> getFiles() {
+        return files;
+    }
+
+    /**
+     * Resultado del parseo de un archivo XML individual.
+     *
+     * @since 1.0
+     */
+    public static class FileReport {
+        private final String fileName;
+        private final int itemCount;
+        private final long parseTimeMs;
+        private final String error;
+
+        public FileReport(String fileName, int itemCount, long parseTimeMs, String error) {
+            this.fileName = fileName;
+            this.itemCount = itemCount;
+            this.parseTimeMs = parseTimeMs;
+            this.error = error;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public int getItemCount() {
+            return itemCount;
+        }
+
+        public long getParseTimeMs() {
+            return parseTimeMs;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
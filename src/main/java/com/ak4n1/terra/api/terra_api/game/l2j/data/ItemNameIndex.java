@@ -0,0 +1,442 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.LongObjectTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Índice invertido de trigramas sobre los nombres de los items.
+ *
+ * <p>Los nombres se normalizan una sola vez al construir el catálogo (minúsculas,
+ * sin espacios en los extremos) y cada trigrama apunta a la lista ordenada de
+ * posiciones de {@link ItemCatalogIndex} cuyos nombres lo contienen. Una búsqueda
+ * interseca las listas de los trigramas de la consulta, empezando por la más corta,
+ * y confirma cada candidato con {@code contains} sobre el nombre ya normalizado.
+ * Los trigramas se empaquetan en un long y las listas se guardan en una
+ * {@link LongObjectTable}, sin boxing de las claves.
+ * Las consultas de menos de tres caracteres no tienen trigramas y se resuelven
+ * recorriendo los nombres normalizados, sin crear cadenas por item.
+ *
+ * <p>Los resultados se ordenan por relevancia: coincidencia exacta, luego prefijo y
+ * por último coincidencia en cualquier parte del nombre; dentro de cada grupo, por ID.
+ *
+ * <p>Para autocompletado mantiene además los nombres normalizados ordenados
+ * alfabéticamente: los nombres que empiezan con un prefijo forman un rango contiguo
+ * que se ubica con búsqueda binaria.
+ *
+ * <p>Una recarga parcial deriva el índice con {@link #withChanges}: solo se normalizan
+ * y se descomponen en trigramas los nombres de los items cambiados, y solo se tocan las
+ * listas de esos trigramas.
+ *
+ * @see ItemCatalog
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class ItemNameIndex {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final ItemCatalogIndex positions;
+    private final String[] normalizedNames;
+    private final LongObjectTable<int[]> postings;
+    private final String[] sortedNames;
+    private final int[] sortedPositions;
+
+    private ItemNameIndex(ItemCatalogIndex positions, String[] normalizedNames, LongObjectTable<int[]> postings,
+                          String[] sortedNames, int[] sortedPositions) {
+        this.positions = positions;
+        this.normalizedNames = normalizedNames;
+        this.postings = postings;
+        this.sortedNames = sortedNames;
+        this.sortedPositions = sortedPositions;
+    }
+
+    /**
+     * Construye el índice sobre los items del catálogo, usando las mismas posiciones
+     * (orden por ID) que los índices secundarios.
+     *
+     * @param positions Índices secundarios del catálogo
+     * @return Índice de nombres inmutable
+     */
+    public static ItemNameIndex build(ItemCatalogIndex positions) {
+        int size = positions.size();
+        String[] names = new String[size];
+        // Los trigramas distintos son muchos menos que los items (unos 4.700 para 12.000
+        // nombres en el catálogo de ejemplo); la tabla crece si hace falta
+        LongObjectTable<PostingBuilder> builders = new LongObjectTable<>(size / 2);
+
+        for (int pos = 0; pos < size; pos++) {
+            String name = normalize(positions.itemAt(pos).getName());
+            names[pos] = name;
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                // Las posiciones se recorren en orden, así que cada lista queda ordenada
+                long key = trigram(name, i);
+                PostingBuilder builder = builders.get(key);
+                if (builder == null) {
+                    builder = new PostingBuilder();
+                    builders.put(key, builder);
+                }
+                builder.add(pos);
+            }
+        }
+
+        LongObjectTable<int[]> postings = builders.mapValues(PostingBuilder::toArray);
+
+        // Orden alfabético para autocompletado; a igual nombre, por ID
+        Integer[] order = new Integer[size];
+        for (int pos = 0; pos < size; pos++) {
+            order[pos] = pos;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = names[a].compareTo(names[b]);
+            return cmp != 0 ? cmp : Integer.compare(a, b);
+        });
+        String[] sortedNames = new String[size];
+        int[] sortedPositions = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedPositions[i] = order[i];
+            sortedNames[i] = names[order[i]];
+        }
+
+        return new ItemNameIndex(positions, names, postings, sortedNames, sortedPositions);
+    }
+
+    /**
+     * Deriva el índice para los índices secundarios {@code positions}, obtenidos de los
+     * de este índice con {@code changes}. Este índice no se modifica.
+     *
+     * <p>Solo se recalculan los trigramas de los nombres quitados, reemplazados o
+     * agregados; las demás listas se comparten, o se remapean en una pasada si los
+     * cambios desplazaron posiciones. El orden alfabético se arma intercalando los
+     * nombres nuevos, ordenados aparte, con los que ya estaban ordenados.
+     *
+     * @param positions Índices secundarios nuevos
+     * @param changes Cambios que llevan de los índices de este a {@code positions}
+     * @return Índice de nombres inmutable
+     */
+    public ItemNameIndex withChanges(ItemCatalogIndex positions, ItemCatalogIndex.Changes changes) {
+        int size = positions.size();
+        String[] names;
+        LongObjectTable<int[]> newPostings;
+        LongObjectTable<PostingEdit> edits = new LongObjectTable<>(16);
+        if (changes.moved == null) {
+            names = normalizedNames.clone();
+            newPostings = postings.copy();
+        } else {
+            names = new String[size];
+            for (int pos = 0; pos < normalizedNames.length; pos++) {
+                int newPos = changes.moved[pos];
+                if (newPos >= 0) {
+                    names[newPos] = normalizedNames[pos];
+                }
+            }
+            newPostings = postings.mapValues(changes::remap);
+            // Los trigramas que solo tenían items quitados quedan vacíos: se quitan al aplicar las ediciones
+            newPostings.forEach((key, list) -> {
+                if (list.length == 0) {
+                    edit(edits, key);
+                }
+            });
+        }
+
+        // Ediciones por trigrama: los nombres retirados que siguen en el catálogo (un
+        // reemplazo) se quitan de su nueva posición; los quitados ya no aparecen tras remapear
+        for (int pos = changes.withdrawn.nextSetBit(0); pos >= 0; pos = changes.withdrawn.nextSetBit(pos + 1)) {
+            int newPos = changes.newPosition(pos);
+            if (newPos >= 0) {
+                String name = normalizedNames[pos];
+                for (int i = 0; i + 3 <= name.length(); i++) {
+                    edit(edits, trigram(name, i)).removed.add(newPos);
+                }
+            }
+        }
+        String[] insertedNames = new String[changes.inserted.length];
+        for (int n = 0; n < changes.inserted.length; n++) {
+            int newPos = changes.inserted[n];
+            String name = normalize(positions.itemAt(newPos).getName());
+            names[newPos] = name;
+            insertedNames[n] = name;
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                edit(edits, trigram(name, i)).added.add(newPos);
+            }
+        }
+        edits.forEach((key, edit) -> {
+            int[] list = edit.apply(newPostings.get(key));
+            if (list.length == 0) {
+                newPostings.remove(key);
+            } else {
+                newPostings.put(key, list);
+            }
+        });
+
+        // Orden alfabético: los nombres que siguen, ya ordenados, intercalados con los nuevos
+        Integer[] order = new Integer[insertedNames.length];
+        for (int n = 0; n < order.length; n++) {
+            order[n] = n;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = insertedNames[a].compareTo(insertedNames[b]);
+            return cmp != 0 ? cmp : Integer.compare(changes.inserted[a], changes.inserted[b]);
+        });
+        String[] newSortedNames = new String[size];
+        int[] newSortedPositions = new int[size];
+        int count = 0;
+        int a = 0;
+        for (int i = 0; i < sortedPositions.length; i++) {
+            if (changes.withdrawn.get(sortedPositions[i])) {
+                continue;
+            }
+            String name = sortedNames[i];
+            int newPos = changes.newPosition(sortedPositions[i]);
+            while (a < order.length && compare(insertedNames[order[a]], changes.inserted[order[a]], name, newPos) < 0) {
+                newSortedNames[count] = insertedNames[order[a]];
+                newSortedPositions[count++] = changes.inserted[order[a++]];
+            }
+            newSortedNames[count] = name;
+            newSortedPositions[count++] = newPos;
+        }
+        for (; a < order.length; a++) {
+            newSortedNames[count] = insertedNames[order[a]];
+            newSortedPositions[count++] = changes.inserted[order[a]];
+        }
+
+        return new ItemNameIndex(positions, names, newPostings, newSortedNames, newSortedPositions);
+    }
+
+    private static int compare(String nameA, int posA, String nameB, int posB) {
+        int cmp = nameA.compareTo(nameB);
+        return cmp != 0 ? cmp : Integer.compare(posA, posB);
+    }
+
+    private static PostingEdit edit(LongObjectTable<PostingEdit> edits, long key) {
+        PostingEdit edit = edits.get(key);
+        if (edit == null) {
+            edit = new PostingEdit();
+            edits.put(key, edit);
+        }
+        return edit;
+    }
+
+    /**
+     * Normaliza un nombre o una consulta para comparar sin distinguir mayúsculas/minúsculas.
+     *
+     * @param value Texto a normalizar
+     * @return Texto en minúsculas y sin espacios en los extremos
+     */
+    public static String normalize(String value) {
+        return value != null ? value.strip().toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Busca items cuyo nombre contiene el texto indicado.
+     *
+     * @param query Texto a buscar (case-insensitive)
+     * @param limit Cantidad máxima de resultados
+     * @return Items ordenados por relevancia (exacto, prefijo, resto)
+     */
+    public List<ItemTemplate> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<ItemTemplate> exact = new ArrayList<>();
+        List<ItemTemplate> prefix = new ArrayList<>();
+        List<ItemTemplate> infix = new ArrayList<>();
+
+        if (q.length() < 3) {
+            for (int pos = 0; pos < normalizedNames.length; pos++) {
+                classify(q, pos, exact, prefix, infix, limit);
+            }
+        } else {
+            for (int pos : candidates(q)) {
+                classify(q, pos, exact, prefix, infix, limit);
+            }
+        }
+
+        List<ItemTemplate> result = new ArrayList<>(Math.min(limit, exact.size() + prefix.size() + infix.size()));
+        appendUpTo(result, exact, limit);
+        appendUpTo(result, prefix, limit);
+        appendUpTo(result, infix, limit);
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Busca los items cuyo nombre empieza con el prefijo indicado.
+     *
+     * <p>Ubica el inicio del rango con búsqueda binaria y lo recorre hasta que el
+     * nombre deja de coincidir o se alcanza el límite: el costo no depende del tamaño
+     * del catálogo.
+     *
+     * @param prefix Prefijo a buscar (case-insensitive)
+     * @param limit Cantidad máxima de resultados
+     * @return Posiciones de {@link ItemCatalogIndex} en orden alfabético del nombre
+     */
+    public int[] complete(String prefix, int limit) {
+        String p = normalize(prefix);
+        if (p.isEmpty() || limit <= 0) {
+            return NO_POSITIONS;
+        }
+
+        int low = 0;
+        int high = sortedNames.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedNames[mid].compareTo(p) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int end = low;
+        while (end < sortedNames.length && end - low < limit && sortedNames[end].startsWith(p)) {
+            end++;
+        }
+        return Arrays.copyOfRange(sortedPositions, low, end);
+    }
+
+    /**
+     * Ubica la posición en el grupo de relevancia que corresponda. Cada grupo se
+     * corta al llegar al límite: las posiciones llegan en orden de ID, así que los
+     * descartados nunca entrarían en el resultado.
+     */
+    private void classify(String q, int pos, List<ItemTemplate> exact, List<ItemTemplate> prefix,
+                          List<ItemTemplate> infix, int limit) {
+        String name = normalizedNames[pos];
+        if (name.equals(q)) {
+            if (exact.size() < limit) {
+                exact.add(positions.itemAt(pos));
+            }
+        } else if (name.startsWith(q)) {
+            if (prefix.size() < limit) {
+                prefix.add(positions.itemAt(pos));
+            }
+        } else if (infix.size() < limit && name.contains(q)) {
+            infix.add(positions.itemAt(pos));
+        }
+    }
+
+    private static void appendUpTo(List<ItemTemplate> target, List<ItemTemplate> source, int limit) {
+        for (int i = 0; i < source.size() && target.size() < limit; i++) {
+            target.add(source.get(i));
+        }
+    }
+
+    /**
+     * Interseca las listas de posiciones de todos los trigramas de la consulta.
+     */
+    private int[] candidates(String q) {
+        int count = q.length() - 2;
+        int[][] lists = new int[count][];
+        for (int i = 0; i < count; i++) {
+            int[] list = postings.get(trigram(q, i));
+            if (list == null) {
+                return NO_POSITIONS;
+            }
+            lists[i] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Empaqueta tres caracteres UTF-16 en un long.
+     */
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /**
+     * Lista creciente de posiciones usada solo durante la construcción. Ignora
+     * repeticiones consecutivas (un nombre con el mismo trigrama dos veces).
+     */
+    private static final class PostingBuilder {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Posiciones a quitar y a agregar en la lista de un trigrama. Las dos listas llegan
+     * en orden creciente, igual que en {@link PostingBuilder}.
+     */
+    private static final class PostingEdit {
+        private final PostingBuilder removed = new PostingBuilder();
+        private final PostingBuilder added = new PostingBuilder();
+
+        /**
+         * Aplica la edición sobre una lista (null si el trigrama no existía).
+         */
+        int[] apply(int[] list) {
+            int[] current = list != null ? list : NO_POSITIONS;
+            int[] toRemove = removed.toArray();
+            int[] toAdd = added.toArray();
+            int[] out = new int[current.length + toAdd.length];
+            int n = 0;
+            int r = 0;
+            int a = 0;
+            for (int pos : current) {
+                while (r < toRemove.length && toRemove[r] < pos) {
+                    r++;
+                }
+                if (r < toRemove.length && toRemove[r] == pos) {
+                    continue;
+                }
+                while (a < toAdd.length && toAdd[a] <= pos) {
+                    if (toAdd[a] < pos) {
+                        out[n++] = toAdd[a];
+                    }
+                    a++;
+                }
+                out[n++] = pos;
+            }
+            for (; a < toAdd.length; a++) {
+                out[n++] = toAdd[a];
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+/**
+ * Criterios de una consulta combinada sobre el catálogo de items.
+ *
+ * <p>Todos los criterios son opcionales: un criterio null no filtra y los presentes se
+ * combinan con AND. Los valores de texto se comparan sin distinguir mayúsculas/minúsculas
+ * y los rangos numéricos incluyen ambos extremos. Los rangos de ataque solo pueden
+ * cumplirlos las armas y los de defensa solo las armaduras.
+ *
+ * <p>Se usa directamente como cuerpo JSON del endpoint de consulta, con los mismos
+ * nombres de propiedades que ItemCatalogDTO:
+ *
+ * <pre>
+ * {"type": "Weapon", "grade": "B", "subType": "SWORD", "tradeable": true,
+ *  "weight": {"min": 1000, "max": 5000}}
+ * </pre>
+ *
+ * @see ItemCatalogIndex#matching(ItemQuery)
+ * @author ak4n1
+ * @since 1.0
+ */
+public class ItemQuery {
+
+    private String type;
+    private String grade;
+    private String subType;
+    private String bodyPart;
+    private String crystalType;
+    private Boolean stackable;
+    private Boolean tradeable;
+    private Boolean sellable;
+    private Boolean dropable;
+    private Range weight;
+    private Range price;
+    private Range pAtk;
+    private Range mAtk;
+    private Range pDef;
+    private Range mDef;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getGrade() {
+        return grade;
+    }
+
+    public void setGrade(String grade) {
+        this.grade = grade;
+    }
+
+    public String getSubType() {
+        return subType;
+    }
+
+    public void setSubType(String subType) {
+        this.subType = subType;
+    }
+
+    public String getBodyPart() {
+        return bodyPart;
+    }
+
+    public void setBodyPart(String bodyPart) {
+        this.bodyPart = bodyPart;
+    }
+
+    public String getCrystalType() {
+        return crystalType;
+    }
+
+    public void setCrystalType(String crystalType) {
+        this.crystalType = crystalType;
+    }
+
+    public Boolean getStackable() {
+        return stackable;
+    }
+
+    public void setStackable(Boolean stackable) {
+        this.stackable = stackable;
+    }
+
+    public Boolean getTradeable() {
+        return tradeable;
+    }
+
+    public void setTradeable(Boolean tradeable) {
+        this.tradeable = tradeable;
+    }
+
+    public Boolean getSellable() {
+        return sellable;
+    }
+
+    public void setSellable(Boolean sellable) {
+        this.sellable = sellable;
+    }
+
+    public Boolean getDropable() {
+        return dropable;
+    }
+
+    public void setDropable(Boolean dropable) {
+        this.dropable = dropable;
+    }
+
+    public Range getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Range weight) {
+        this.weight = weight;
+    }
+
+    public Range getPrice() {
+        return price;
+    }
+
+    public void setPrice(Range price) {
+        this.price = price;
+    }
+
+    public Range getPAtk() {
+        return pAtk;
+    }
+
+    public void setPAtk(Range pAtk) {
+        this.pAtk = pAtk;
+    }
+
+    public Range getMAtk() {
+        return mAtk;
+    }
+
+    public void setMAtk(Range mAtk) {
+        this.mAtk = mAtk;
+    }
+
+    public Range getPDef() {
+        return pDef;
+    }
+
+    public void setPDef(Range pDef) {
+        this.pDef = pDef;
+    }
+
+    public Range getMDef() {
+        return mDef;
+    }
+
+    public void setMDef(Range mDef) {
+        this.mDef = mDef;
+    }
+
+    /**
+     * Rango numérico cerrado; un extremo null no limita.
+     */
+    public static class Range {
+        private Integer min;
+        private Integer max;
+
+        public Range() {
+        }
+
+        public Range(Integer min, Integer max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        public Integer getMin() {
+            return min;
+        }
+
+        public void setMin(Integer min) {
+            this.min = min;
+        }
+
+        public Integer getMax() {
+            return max;
+        }
+
+        public void setMax(Integer max) {
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.model.StatSet;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.Armor;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.EtcItem;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.Weapon;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.ItemXmlParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot binario del catálogo de items para acelerar el arranque.
+ *
+ * <p>Guarda todos los ItemTemplate ya parseados en un archivo compacto asociado a un
+ * manifiesto del directorio de XMLs (nombre, tamaño y fecha de modificación de cada
+ * archivo). Al iniciar, si el manifiesto coincide, ItemTable carga el snapshot (leído
+ * completo en un buffer del heap) en lugar de volver a parsear los XMLs. No se mapea en
+ * memoria: un archivo mapeado queda abierto hasta que el GC libera el buffer y en Windows
+ * eso impide reemplazarlo al escribir el snapshot siguiente.
+ *
+ * <p>Formato del archivo (big-endian):
+ * <ul>
+ *   <li>Cabecera: magic, versión de formato y manifiesto</li>
+ *   <li>Tabla de strings deduplicados (cada item referencia strings por índice; -1 es null)</li>
+ *   <li>Secciones por archivo XML: nombre y items de ese archivo</li>
+ *   <li>CRC32 de todo lo anterior</li>
+ * </ul>
+ *
+ * @see ItemTable
+ * @author ak4n1
+ * @since 1.0
+ */
+public class ItemSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemSnapshotStore.class);
+
+    private static final int MAGIC = 0x54495331; // "TIS1"
+    private static final int FORMAT_VERSION = 2;
+
+    private static final byte TYPE_WEAPON = 0;
+    private static final byte TYPE_ARMOR = 1;
+    private static final byte TYPE_ETC = 2;
+
+    private static final int FLAG_STACKABLE = 1;
+    private static final int FLAG_SELLABLE = 1 << 1;
+    private static final int FLAG_TRADEABLE = 1 << 2;
+    private static final int FLAG_DROPABLE = 1 << 3;
+    private static final int FLAG_QUEST_ITEM = 1 << 4;
+
+    private final Path snapshotPath;
+
+    public ItemSnapshotStore(Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    public Path getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    /**
+     * Calcula el manifiesto de un conjunto de archivos XML.
+     *
+     * <p>El manifiesto es un hash SHA-256 de nombre, tamaño y fecha de modificación de
+     * cada archivo, por lo que cambia al agregar, quitar o editar cualquier XML.
+     *
+     * @param xmlFiles Archivos XML ordenados por nombre
+     * @return Manifiesto en hexadecimal
+     */
+    public static String computeManifest(File[] xmlFiles) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (File xmlFile : xmlFiles) {
+                String entry = xmlFile.getName() + '|' + xmlFile.length() + '|' + xmlFile.lastModified() + '\n';
+                digest.update(entry.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Carga el snapshot si existe y corresponde al manifiesto indicado.
+     *
+     * @param manifest Manifiesto actual del directorio de XMLs
+     * @return Items agrupados por nombre de archivo XML, o null si el snapshot no existe,
+     *         no coincide con el manifiesto o está corrupto
+     */
+    public Map<String, List<ItemTemplate>> load(String manifest) {
+        if (!Files.isRegularFile(snapshotPath)) {
+            logger.info("📦 No existe snapshot de items en {}", snapshotPath);
+            return null;
+        }
+
+        try {
+            // El archivo queda cerrado al terminar la lectura
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+
+            if (buffer.limit() < 16 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                logger.warn("⚠️ Snapshot de items con formato desconocido, se ignora: {}", snapshotPath);
+                return null;
+            }
+
+            // Verificar integridad antes de leer cualquier longitud del archivo
+            CRC32 crc = new CRC32();
+            int checksumOffset = buffer.limit() - Long.BYTES;
+            crc.update(buffer.duplicate().position(0).limit(checksumOffset));
+            if (crc.getValue() != buffer.getLong(checksumOffset)) {
+                logger.warn("⚠️ Snapshot de items corrupto (CRC inválido), se ignora: {}", snapshotPath);
+                return null;
+            }
+
+            String storedManifest = readUtf(buffer);
+            if (!storedManifest.equals(manifest)) {
+                logger.info("📦 Snapshot de items desactualizado (los XMLs cambiaron)");
+                return null;
+            }
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readUtf(buffer);
+            }
+
+            int fileCount = buffer.getInt();
+            Map<String, List<ItemTemplate>> itemsByFile = new LinkedHashMap<>(fileCount * 2);
+            for (int f = 0; f < fileCount; f++) {
+                String fileName = strings[buffer.getInt()];
+                int itemCount = buffer.getInt();
+                List<ItemTemplate> items = new ArrayList<>(itemCount);
+                for (int i = 0; i < itemCount; i++) {
+                    ItemTemplate item = readItem(buffer, strings);
+                    if (item != null) {
+                        items.add(item);
+                    }
+                }
+                itemsByFile.put(fileName, items);
+            }
+            return itemsByFile;
+
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            logger.warn("⚠️ No se pudo leer el snapshot de items {}: {}", snapshotPath, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Escribe el snapshot del catálogo de forma atómica (archivo temporal + move).
+     *
+     * @param manifest Manifiesto del directorio de XMLs del que provienen los items
+     * @param itemsByFile Items agrupados por nombre de archivo XML
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public void write(String manifest, Map<String, ? extends Iterable<ItemTemplate>> itemsByFile) throws IOException {
+        Map<String, Integer> stringTable = new LinkedHashMap<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(1 << 20);
+        DataOutputStream bodyOut = new DataOutputStream(body);
+
+        bodyOut.writeInt(itemsByFile.size());
+        for (Map.Entry<String, ? extends Iterable<ItemTemplate>> entry : itemsByFile.entrySet()) {
+            List<ItemTemplate> items = new ArrayList<>();
+            entry.getValue().forEach(items::add);
+
+            bodyOut.writeInt(intern(stringTable, entry.getKey()));
+            bodyOut.writeInt(items.size());
+            for (ItemTemplate item : items) {
+                writeItem(bodyOut, item, stringTable);
+            }
+        }
+        bodyOut.flush();
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream(body.size() + (1 << 18));
+        DataOutputStream out = new DataOutputStream(file);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeUtf(out, manifest);
+        out.writeInt(stringTable.size());
+        for (String value : stringTable.keySet()) {
+            writeUtf(out, value);
+        }
+        body.writeTo(out);
+        out.flush();
+
+        CRC32 crc = new CRC32();
+        byte[] content = file.toByteArray();
+        crc.update(content);
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        Path parent = snapshotPath.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        Files.write(tmp, file.toByteArray());
+        Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeItem(DataOutputStream out, ItemTemplate item, Map<String, Integer> strings) throws IOException {
+        int flags = 0;
+        if (item.isStackable()) flags |= FLAG_STACKABLE;
+        if (item.isSellable()) flags |= FLAG_SELLABLE;
+        if (item.isTradeable()) flags |= FLAG_TRADEABLE;
+        if (item.isDropable()) flags |= FLAG_DROPABLE;
+        if (item instanceof EtcItem etcItem && etcItem.isQuestItem()) flags |= FLAG_QUEST_ITEM;
+
+        if (item instanceof Weapon) {
+            out.writeByte(TYPE_WEAPON);
+        } else if (item instanceof Armor) {
+            out.writeByte(TYPE_ARMOR);
+        } else {
+            out.writeByte(TYPE_ETC);
+        }
+
+        out.writeInt(item.getId());
+        out.writeInt(intern(strings, item.getName()));
+        out.writeInt(intern(strings, item.getIcon()));
+        out.writeInt(item.getWeight());
+        out.writeInt(item.getPrice());
+        out.writeByte(flags);
+        out.writeInt(item.getCrystalCount());
+        out.writeInt(intern(strings, item.getCrystalType()));
+        out.writeInt(intern(strings, item.getMaterialType()));
+        out.writeLong(item.getBodyPart());
+        out.writeInt(intern(strings, item.getBodyPartName()));
+
+        if (item instanceof Weapon weapon) {
+            out.writeInt(intern(strings, weapon.getWeaponType()));
+            out.writeInt(weapon.getPAtk());
+            out.writeInt(weapon.getMAtk());
+            out.writeInt(weapon.getSoulshots());
+            out.writeInt(weapon.getSpiritshots());
+        } else if (item instanceof Armor armor) {
+            out.writeInt(intern(strings, armor.getArmorType()));
+            out.writeInt(armor.getPDef());
+            out.writeInt(armor.getMDef());
+        } else if (item instanceof EtcItem etcItem) {
+            out.writeInt(intern(strings, etcItem.getEtcItemType()));
+        }
+    }
+
+    /**
+     * Reconstruye un item desde el snapshot usando las mismas claves que el parser XML,
+     * de modo que los constructores de ItemTemplate apliquen los mismos defaults.
+     */
+    private static ItemTemplate readItem(ByteBuffer in, String[] strings) {
+        byte type = in.get();
+        StatSet set = new StatSet();
+        set.set("item_id", in.getInt());
+        setString(set, "name", in.getInt(), strings);
+        setString(set, "icon", in.getInt(), strings);
+        set.set("weight", in.getInt());
+        set.set("price", in.getInt());
+        int flags = in.get();
+        set.set("is_stackable", (flags & FLAG_STACKABLE) != 0);
+        set.set("is_sellable", (flags & FLAG_SELLABLE) != 0);
+        set.set("is_tradable", (flags & FLAG_TRADEABLE) != 0);
+        set.set("is_dropable", (flags & FLAG_DROPABLE) != 0);
+        set.set("crystal_count", in.getInt());
+        setString(set, "crystal_type", in.getInt(), strings);
+        setString(set, "material", in.getInt(), strings);
+        set.set("bodypart", in.getLong());
+        setString(set, "bodypart_name", in.getInt(), strings);
+
+        switch (type) {
+            case TYPE_WEAPON:
+                setString(set, "weapon_type", in.getInt(), strings);
+                set.set("pAtk", in.getInt());
+                set.set("mAtk", in.getInt());
+                set.set("soulshots", in.getInt());
+                set.set("spiritshots", in.getInt());
+                return ItemXmlParser.createTemplate("Weapon", set);
+            case TYPE_ARMOR:
+                setString(set, "armor_type", in.getInt(), strings);
+                set.set("pDef", in.getInt());
+                set.set("mDef", in.getInt());
+                return ItemXmlParser.createTemplate("Armor", set);
+            default:
+                setString(set, "etcitem_type", in.getInt(), strings);
+                set.set("is_quest_item", (flags & FLAG_QUEST_ITEM) != 0);
+                return ItemXmlParser.createTemplate("EtcItem", set);
+        }
+    }
+
+    /**
+     * Índice de un string en la tabla, agregándolo si no está. null se guarda como -1 y no
+     * como "", para que un item leído del snapshot sea igual al parseado del XML (y la
+     * versión del catálogo no cambie según el origen).
+     */
+    private static int intern(Map<String, Integer> strings, String value) {
+        if (value == null) {
+            return -1;
+        }
+        return strings.computeIfAbsent(value, k -> strings.size());
+    }
+
+    /**
+     * Carga un string del snapshot en el StatSet. Con -1 se carga null, que el StatSet trata
+     * como ausente: el constructor aplica el mismo default que con el atributo faltante en
+     * el XML, en lugar de recibir "".
+     */
+    private static void setString(StatSet set, String key, int index, String[] strings) {
+        set.set(key, index >= 0 ? strings[index] : null);
+    }
+
+    private static void writeUtf(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readUtf(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
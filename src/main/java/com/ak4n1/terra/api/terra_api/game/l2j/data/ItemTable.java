@@ -1,36 +1,64 @@
 package com.ak4n1.terra.api.terra_api.game.l2j.data;
 
 import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.ItemStaxParser;
 import com.ak4n1.terra.api.terra_api.game.l2j.util.ItemXmlParser;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.StringPool;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Tabla de items simplificada del core L2J.
  * 
  * <p>Componente principal que carga todos los items desde archivos XML en memoria
- * al iniciar la aplicación. Proporciona búsqueda O(1) por ID mediante un array indexado
- * y búsqueda por nombre usando streams. Es la clase RECOMENDADA para acceder al catálogo
+ * al iniciar la aplicación. Proporciona búsqueda O(1) por ID mediante una tabla hash de claves int
+ * y búsqueda por nombre con un índice de trigramas. Es la clase RECOMENDADA para acceder al catálogo
  * de items desde cualquier parte de la aplicación.
  * 
  * <p>Características:
  * <ul>
- *   <li>Carga automática al iniciar Spring Boot mediante @PostConstruct</li>
- *   <li>Búsqueda O(1) por ID usando array indexado</li>
- *   <li>Búsqueda por nombre con streams (case-insensitive)</li>
- *   <li>Recarga manual disponible</li>
+ *   <li>Carga automática en segundo plano al terminar de arrancar Spring Boot, sin demorar el resto de la API</li>
+ *   <li>Parseo paralelo de los XMLs, un archivo por tarea</li>
+ *   <li>Parser en streaming (StAX) o DOM seleccionable por propiedad</li>
+ *   <li>Snapshot binario para arrancar sin reparsear XMLs sin cambios</li>
+ *   <li>Búsqueda O(1) por ID con un índice dimensionado por cantidad de items, no por el ID más alto</li>
+ *   <li>Catálogo inmutable publicado atómicamente: recargas sin afectar a los lectores</li>
+ *   <li>Búsqueda por nombre con índice de trigramas y resultados ordenados por relevancia (case-insensitive)</li>
+ *   <li>Recarga manual disponible, completa o por archivo</li>
+ *   <li>Recarga automática opcional de los XMLs modificados</li>
  * </ul>
  * 
  * @see ItemTemplate
  * @see ItemXmlParser
+ * @see ItemStaxParser
  * @author ak4n1
  * @since 1.0
  */
@@ -42,100 +70,543 @@ public class ItemTable {
     @Value("${l2j.items.path:D:/Terra/L2J_Mobius_Classic_3.0_TheKamael/dist/game/data/stats/items}")
     private String itemsPath;
     
-    private ItemTemplate[] _allTemplates;
-    private final Map<Integer, ItemTemplate> _itemsMap = new HashMap<>();
+    /**
+     * Hilos usados para parsear los XMLs en paralelo (0 = núcleos disponibles).
+     */
+    @Value("${l2j.items.loader.threads:0}")
+    private int loaderThreads;
+    
+    /**
+     * Parser de XMLs: "stax" (streaming, bajo consumo de memoria) o "dom" (árbol completo).
+     */
+    @Value("${l2j.items.parser:stax}")
+    private String parserMode;
+    
+    /**
+     * Snapshot binario del catálogo para evitar reparsear los XMLs al arrancar.
+     */
+    @Value("${l2j.items.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+    
+    @Value("${l2j.items.snapshot.path:cache/items-catalog.snapshot}")
+    private String snapshotPath;
+    
+    private ItemSnapshotStore _snapshotStore;
+    
+    /**
+     * Escribe el snapshot fuera del hilo de carga y del observador. Si se piden varias
+     * escrituras mientras una está en curso, solo se escribe la última.
+     */
+    private final ExecutorService _snapshotWriter = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "item-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<Runnable> _pendingSnapshot = new AtomicReference<>();
+    
+    /**
+     * Recarga automática de los XMLs modificados (deshabilitada por defecto).
+     */
+    @Value("${l2j.items.watch.enabled:false}")
+    private boolean watchEnabled;
+    
+    @Value("${l2j.items.watch.debounce-ms:500}")
+    private long watchDebounceMs;
+    
+    private ItemDirectoryWatcher _watcher;
+    
+    /**
+     * Catálogo publicado. Se reemplaza completo en cada carga con un único cambio de
+     * referencia; los lectores lo leen una vez por operación y nunca toman locks.
+     */
+    private volatile ItemCatalog _catalog = ItemCatalog.EMPTY;
+    private volatile ItemLoadReport _lastLoadReport;
+    
+    /**
+     * Se notifican con cada catálogo antes de publicarlo, en el hilo que lo cargó.
+     */
+    private final List<Consumer<ItemCatalog>> _publishListeners = new CopyOnWriteArrayList<>();
+    
+    /**
+     * Estado de la carga inicial. Pasa a READY con la primera carga que publica un
+     * catálogo y ya no vuelve atrás: las recargas posteriores no bloquean a los lectores.
+     * Un catálogo se publica recién después de que terminan sus listeners, así READY
+     * significa que el catálogo y sus respuestas precalculadas están listos para servirse.
+     */
+    private volatile LoadState _loadState = LoadState.LOADING;
+    private volatile String _loadError;
+    private volatile long _loadStartedAt = System.currentTimeMillis();
     
     /**
-     * Inicializa y carga todos los items desde los archivos XML.
+     * Serializa las cargas entre sí (los lectores no lo usan).
+     */
+    private final Object _loadLock = new Object();
+    
+    /**
+     * Estado de la carga inicial del catálogo.
+     */
+    public enum LoadState {
+        /** Carga inicial todavía en curso: el catálogo publicado está vacío. */
+        LOADING,
+        /** Hay un catálogo cargado, publicado y procesado por los listeners. */
+        READY,
+        /** La carga inicial falló; una recarga exitosa lo pasa a READY. */
+        FAILED
+    }
+    
+    /**
+     * Prepara la tabla sin cargar los items.
      * 
-     * <p>Este método se ejecuta automáticamente al iniciar Spring Boot mediante
-     * @PostConstruct. Lee todos los archivos XML de la ruta configurada y carga
-     * los items en memoria.
+     * <p>Se ejecuta mediante @PostConstruct y solo crea lo necesario para que
+     * {@link #reload()} funcione desde el primer momento. La carga de los XMLs (o del
+     * snapshot) queda para {@link #loadInBackground()}, así el contexto de Spring
+     * (autenticación, pagos, webhooks) no espera al parseo del catálogo.
      */
     @PostConstruct
     public void init() {
+        _snapshotStore = new ItemSnapshotStore(Path.of(snapshotPath));
+    }
+    
+    /**
+     * Lanza la carga inicial del catálogo en un hilo aparte cuando la aplicación
+     * ya terminó de arrancar y está aceptando tráfico.
+     * 
+     * <p>Hasta que termina, {@link #isReady()} retorna false y los endpoints del
+     * catálogo responden 503 con Retry-After.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread loader = new Thread(this::load, "item-catalog-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    /**
+     * Carga todos los items desde los archivos XML y arranca el observador si está habilitado.
+     * 
+     * <p>Si existe un snapshot binario que corresponde a los XMLs actuales se carga
+     * desde él; si no, lee todos los archivos XML de la ruta configurada. Bloquea hasta
+     * terminar; normalmente se ejecuta en el hilo lanzado por {@link #loadInBackground()}.
+     */
+    public void load() {
         logger.info("🔄 Iniciando carga de items desde XMLs...");
         logger.info("📂 Ruta configurada: {}", itemsPath);
-        loadItems();
+        _loadStartedAt = System.currentTimeMillis();
+        try {
+            synchronized (_loadLock) {
+                if (loadItems(true) == null && _loadState != LoadState.READY) {
+                    markFailed("No se encontraron XMLs de items en " + itemsPath);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            logger.error("❌ Error en la carga inicial del catálogo de items", e);
+            markFailed(e.toString());
+        }
+        
+        if (watchEnabled) {
+            startWatcher();
+        }
+    }
+    
+    private void markFailed(String error) {
+        _loadError = error;
+        _loadState = LoadState.FAILED;
+    }
+    
+    /**
+     * Detiene el observador de XMLs al cerrar el contexto de Spring.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (_watcher != null) {
+            _watcher.close();
+        }
+        _snapshotWriter.shutdown();
+    }
+    
+    /**
+     * Arranca el observador del directorio de XMLs, que recarga solo los archivos
+     * modificados, agregados o eliminados.
+     */
+    private void startWatcher() {
+        ItemDirectoryWatcher watcher = new ItemDirectoryWatcher(Path.of(itemsPath), watchDebounceMs,
+                this::reloadFiles, this::reload);
+        try {
+            watcher.start();
+            _watcher = watcher;
+        } catch (Exception e) {
+            logger.error("❌ No se pudo observar el directorio de items {}: {}", itemsPath, e.getMessage());
+        }
     }
     
     /**
      * Carga todos los items desde los archivos XML de la ruta configurada.
      * 
-     * <p>Procesa todos los archivos XML encontrados en el directorio, parsea cada
-     * item y los almacena en un mapa. Al final construye un array indexado para
-     * búsqueda rápida por ID.
+     * <p>Cada archivo se parsea en una tarea independiente sobre un pool de hilos
+     * dimensionado según los núcleos disponibles. Cuando todas las tareas terminaron
+     * se construye un {@link ItemCatalog} nuevo, aparte del publicado, y se publica
+     * reemplazando la referencia. Debe llamarse con {@code _loadLock} tomado.
+     * 
+     * <p>Si el snapshot está habilitado y {@code useSnapshot} es true, primero se intenta
+     * cargar el snapshot binario; solo se parsean los XMLs si no existe o si algún archivo
+     * cambió. Tras un parseo exitoso el snapshot se vuelve a escribir en segundo plano.
+     * 
+     * @param useSnapshot true para intentar cargar desde el snapshot binario
+     * @return Reporte de la carga con el detalle por archivo, o null si no había nada que cargar
      */
-    private void loadItems() {
-        File itemsDir = new File(itemsPath);
-        
-        if (!itemsDir.exists() || !itemsDir.isDirectory()) {
-            logger.error("❌ La ruta de items no existe o no es un directorio: {}", itemsPath);
-            return;
+    private ItemLoadReport loadItems(boolean useSnapshot) {
+        File[] xmlFiles = listXmlFiles();
+        if (xmlFiles == null) {
+            return null;
         }
         
-        File[] xmlFiles = itemsDir.listFiles((dir, name) -> name.endsWith(".xml"));
+        long start = System.nanoTime();
+        String manifest = snapshotEnabled ? ItemSnapshotStore.computeManifest(xmlFiles) : null;
         
-        if (xmlFiles == null || xmlFiles.length == 0) {
-            logger.warn("⚠️ No se encontraron archivos XML en: {}", itemsPath);
-            return;
-        }
+        List<FileParseResult> results = useSnapshot && snapshotEnabled ? loadSnapshot(manifest) : null;
+        String source = "snapshot";
+        int threads = 1;
         
-        logger.info("📁 Encontrados {} archivos XML para procesar", xmlFiles.length);
+        if (results == null) {
+            source = "xml";
+            threads = resolveLoaderThreads(xmlFiles.length);
+            logger.info("📁 Encontrados {} archivos XML para procesar ({} hilos, parser {})",
+                    xmlFiles.length, threads, useDomParser() ? "DOM" : "StAX");
+            results = parseAll(xmlFiles, threads);
+        }
         
         int totalItems = 0;
         int highestId = 0;
+        List<ItemLoadReport.FileReport> fileReports = new ArrayList<>(results.size());
+        Map<String, Map<Integer, ItemTemplate>> itemsByFile = new LinkedHashMap<>(results.size() * 2);
         
-        // Parsear todos los archivos
-        for (File xmlFile : xmlFiles) {
-            try {
-                Map<Integer, ItemTemplate> parsedItems = ItemXmlParser.parseFile(xmlFile);
-                
-                for (Map.Entry<Integer, ItemTemplate> entry : parsedItems.entrySet()) {
-                    int itemId = entry.getKey();
-                    ItemTemplate item = entry.getValue();
-                    
-                    // Guardar en el mapa
-                    _itemsMap.put(itemId, item);
-                    
-                    // Actualizar el ID más alto
-                    if (itemId > highestId) {
-                        highestId = itemId;
-                    }
+        // Fusionar los resultados una vez terminadas todas las tareas
+        for (FileParseResult result : results) {
+            itemsByFile.put(result.fileName, result.items);
+            for (int itemId : result.items.keySet()) {
+                // Actualizar el ID más alto
+                if (itemId > highestId) {
+                    highestId = itemId;
                 }
-                
-                totalItems += parsedItems.size();
-                logger.debug("✅ Archivo {} procesado: {} items", xmlFile.getName(), parsedItems.size());
-                
-            } catch (Exception e) {
-                logger.error("❌ Error procesando archivo {}: {}", xmlFile.getName(), e.getMessage());
             }
+            
+            totalItems += result.items.size();
+            fileReports.add(new ItemLoadReport.FileReport(result.fileName, result.items.size(), result.parseTimeMs, result.error));
         }
         
-        // Construir el array indexado para búsqueda O(1)
-        buildFastLookupTable(highestId);
+        // Construir el catálogo nuevo aparte y publicarlo de una sola vez
+        ItemCatalog catalog = ItemCatalog.build(itemsByFile);
+        publish(catalog);
+        
+        long wallTimeMs = (System.nanoTime() - start) / 1_000_000;
+        ItemLoadReport report = new ItemLoadReport(source, threads, wallTimeMs, totalItems, highestId, fileReports);
+        _lastLoadReport = report;
+        _loadError = null;
+        _loadState = LoadState.READY;
+        
+        if (snapshotEnabled && "xml".equals(source)) {
+            scheduleSnapshot(manifest, catalog, report);
+        }
         
-        logger.info("🎉 Carga de items completada:");
+        logger.info("🎉 Carga de items completada (origen: {}):", source);
         logger.info("   📊 Total items cargados: {}", totalItems);
         logger.info("   🔢 ID más alto: {}", highestId);
-        logger.info("   💾 Items en memoria: {}", _itemsMap.size());
+        logger.info("   💾 Items en memoria: {}", catalog.getItemCount());
+        logger.info("   ⏱️ Tiempo total: {} ms (parseo acumulado: {} ms, {} hilos)", wallTimeMs, report.getParseTimeMs(), threads);
+        if (report.getFailedFiles() > 0) {
+            logger.warn("   ⚠️ Archivos con error: {}", report.getFailedFiles());
+        }
+        
+        return report;
     }
     
     /**
-     * Construye un array indexado por ID para búsqueda O(1).
+     * Vuelve a parsear solo los archivos XML indicados y publica un catálogo nuevo.
      * 
-     * @param maxId ID más alto encontrado en los items cargados
+     * <p>Los archivos que ya no existen se quitan del catálogo y los nuevos se agregan.
+     * Solo se leen esos archivos y los demás items se reutilizan del catálogo publicado;
+     * {@link ItemCatalog#withFiles(Map, Set)} deriva la tabla por ID y los índices del
+     * catálogo actual aplicando solo los items cambiados. Si un archivo falla al parsearse (por ejemplo, porque un editor lo está
+     * escribiendo) se conserva su versión anterior. El snapshot se actualiza en segundo plano.
+     * 
+     * @param fileNames Nombres de archivo (sin ruta) dentro de {@code l2j.items.path}
+     * @return Reporte de la recarga con el detalle de los archivos procesados
      */
-    private void buildFastLookupTable(int maxId) {
-        logger.info("🗄️ Construyendo tabla de búsqueda rápida (tamaño: {})", maxId + 1);
+    public ItemLoadReport reloadFiles(Collection<String> fileNames) {
+        synchronized (_loadLock) {
+            long start = System.nanoTime();
+            // El manifiesto se toma antes de parsear: si un archivo cambia mientras tanto,
+            // el snapshot queda desactualizado y se descarta al arrancar
+            File[] xmlFiles = snapshotEnabled ? listXmlFiles() : null;
+            String manifest = xmlFiles != null ? ItemSnapshotStore.computeManifest(xmlFiles) : null;
+            ItemCatalog current = _catalog;
+            Map<String, Map<Integer, ItemTemplate>> changedFiles = new LinkedHashMap<>();
+            Set<String> removedFiles = new HashSet<>();
+            List<ItemLoadReport.FileReport> fileReports = new ArrayList<>();
+            int parsedItems = 0;
+            StringPool strings = new StringPool();
+            
+            for (String fileName : new TreeSet<>(fileNames)) {
+                // Solo nombres simples de archivos XML dentro del directorio configurado
+                if (!fileName.endsWith(".xml") || fileName.contains("/") || fileName.contains("\\")) {
+                    logger.warn("⚠️ Archivo de items ignorado en recarga parcial: {}", fileName);
+                    continue;
+                }
+                
+                File xmlFile = new File(itemsPath, fileName);
+                if (!xmlFile.isFile()) {
+                    removedFiles.add(fileName);
+                    fileReports.add(new ItemLoadReport.FileReport(fileName, 0, 0, null));
+                    continue;
+                }
+                
+                FileParseResult result = parseSingleFile(xmlFile, strings);
+                fileReports.add(new ItemLoadReport.FileReport(result.fileName, result.items.size(), result.parseTimeMs, result.error));
+                if (result.error == null) {
+                    changedFiles.put(fileName, result.items);
+                    parsedItems += result.items.size();
+                }
+            }
+            
+            ItemCatalog catalog = current.withFiles(changedFiles, removedFiles);
+            publish(catalog);
+            
+            long wallTimeMs = (System.nanoTime() - start) / 1_000_000;
+            ItemLoadReport report = new ItemLoadReport("incremental", 1, wallTimeMs, parsedItems, catalog.getHighestId(), fileReports);
+            _lastLoadReport = report;
+            
+            logger.info("♻️ Recarga parcial de items: {} archivos, {} items parseados, {} eliminados, {} ms",
+                    changedFiles.size(), parsedItems, removedFiles.size(), wallTimeMs);
+            
+            if (manifest != null && report.getFailedFiles() == 0) {
+                scheduleSnapshot(manifest, catalog, report);
+            }
+            
+            return report;
+        }
+    }
+    
+    /**
+     * Recarga el archivo XML que define un item concreto.
+     * 
+     * <p>Si el item no está en el catálogo no se sabe en qué archivo buscarlo, por lo
+     * que se hace una recarga completa.
+     * 
+     * @param itemId ID del item a recargar
+     * @return Reporte de la recarga, o null si no había nada que cargar
+     */
+    public ItemLoadReport reloadItem(int itemId) {
+        String fileName = _catalog.findSourceFile(itemId);
+        if (fileName == null) {
+            logger.info("🔍 Item {} no está en el catálogo, recarga completa", itemId);
+            return reload();
+        }
+        return reloadFiles(List.of(fileName));
+    }
+    
+    /**
+     * Lista los archivos XML del directorio configurado, ordenados por nombre para que
+     * los IDs duplicados se resuelvan siempre igual.
+     * 
+     * @return Archivos XML ordenados, o null si la ruta no es válida o no hay archivos
+     */
+    private File[] listXmlFiles() {
+        File itemsDir = new File(itemsPath);
         
-        _allTemplates = new ItemTemplate[maxId + 1];
+        if (!itemsDir.exists() || !itemsDir.isDirectory()) {
+            logger.error("❌ La ruta de items no existe o no es un directorio: {}", itemsPath);
+            return null;
+        }
+        
+        File[] xmlFiles = itemsDir.listFiles((dir, name) -> name.endsWith(".xml"));
+        
+        if (xmlFiles == null || xmlFiles.length == 0) {
+            logger.warn("⚠️ No se encontraron archivos XML en: {}", itemsPath);
+            return null;
+        }
+        
+        Arrays.sort(xmlFiles, Comparator.comparing(File::getName));
+        return xmlFiles;
+    }
+    
+    /**
+     * Intenta cargar el catálogo desde el snapshot binario.
+     * 
+     * @param manifest Manifiesto actual del directorio de XMLs
+     * @return Resultados por archivo, o null si el snapshot no existe o está desactualizado
+     */
+    private List<FileParseResult> loadSnapshot(String manifest) {
+        Map<String, List<ItemTemplate>> itemsByFile = _snapshotStore.load(manifest);
+        if (itemsByFile == null) {
+            return null;
+        }
+        
+        List<FileParseResult> results = new ArrayList<>(itemsByFile.size());
+        for (Map.Entry<String, List<ItemTemplate>> entry : itemsByFile.entrySet()) {
+            Map<Integer, ItemTemplate> items = new LinkedHashMap<>(entry.getValue().size() * 2);
+            for (ItemTemplate item : entry.getValue()) {
+                items.put(item.getId(), item);
+            }
+            results.add(new FileParseResult(entry.getKey(), items, 0, null));
+        }
+        logger.info("📦 Snapshot de items cargado desde {}", _snapshotStore.getSnapshotPath());
+        return results;
+    }
+    
+    /**
+     * Avisa a los listeners y después publica el catálogo nuevo. Debe llamarse con
+     * {@code _loadLock} tomado, así los listeners reciben los catálogos de a uno y en orden.
+     * 
+     * <p>Los listeners corren antes del cambio de referencia (y, en la carga inicial, antes
+     * de pasar a READY): nadie ve un catálogo cuyos datos derivados no están listos. Si un
+     * listener falla la excepción se propaga y el catálogo no se publica.
+     * 
+     * @param catalog Catálogo a publicar
+     */
+    private void publish(ItemCatalog catalog) {
+        for (Consumer<ItemCatalog> listener : _publishListeners) {
+            listener.accept(catalog);
+        }
+        _catalog = catalog;
+    }
+    
+    /**
+     * Registra un listener que recibe cada catálogo antes de publicarlo, en el hilo de la
+     * carga o recarga. Sirve para precalcular datos derivados del catálogo fuera de las
+     * peticiones y tenerlos listos cuando el catálogo se vuelve visible.
+     * 
+     * @param listener Listener a registrar
+     */
+    public void addPublishListener(Consumer<ItemCatalog> listener) {
+        _publishListeners.add(listener);
+    }
+    
+    /**
+     * Programa la escritura del snapshot en el hilo "item-snapshot-writer". Si ya hay una
+     * pendiente se reemplaza por esta, que corresponde a un catálogo más nuevo.
+     * 
+     * @param manifest Manifiesto del directorio de XMLs parseado
+     * @param catalog Catálogo resultante del parseo
+     * @param report Reporte de la carga
+     */
+    private void scheduleSnapshot(String manifest, ItemCatalog catalog, ItemLoadReport report) {
+        if (_pendingSnapshot.getAndSet(() -> writeSnapshot(manifest, catalog, report)) == null) {
+            _snapshotWriter.execute(() -> _pendingSnapshot.getAndSet(null).run());
+        }
+    }
+    
+    /**
+     * Escribe el snapshot binario tras un parseo de XMLs. No se escribe si algún archivo
+     * falló, para no fijar en el snapshot un error que podría ser transitorio.
+     * 
+     * @param manifest Manifiesto del directorio de XMLs parseado
+     * @param catalog Catálogo resultante del parseo
+     * @param report Reporte de la carga
+     */
+    private void writeSnapshot(String manifest, ItemCatalog catalog, ItemLoadReport report) {
+        if (report.getFailedFiles() > 0) {
+            logger.warn("⚠️ No se actualiza el snapshot de items: hubo archivos con error");
+            return;
+        }
         
-        for (Map.Entry<Integer, ItemTemplate> entry : _itemsMap.entrySet()) {
-            _allTemplates[entry.getKey()] = entry.getValue();
+        Map<String, Collection<ItemTemplate>> itemsByFile = new LinkedHashMap<>(catalog.getItemsByFile().size() * 2);
+        for (Map.Entry<String, Map<Integer, ItemTemplate>> entry : catalog.getItemsByFile().entrySet()) {
+            itemsByFile.put(entry.getKey(), entry.getValue().values());
         }
         
-        logger.info("✅ Tabla de búsqueda construida");
+        try {
+            _snapshotStore.write(manifest, itemsByFile);
+            logger.info("📦 Snapshot de items actualizado en {}", _snapshotStore.getSnapshotPath());
+        } catch (Exception e) {
+            logger.warn("⚠️ No se pudo escribir el snapshot de items {}: {}", _snapshotStore.getSnapshotPath(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Parsea todos los archivos en paralelo, una tarea por archivo.
+     * 
+     * @param xmlFiles Archivos XML a parsear
+     * @param threads Cantidad de hilos del pool
+     * @return Resultados en el mismo orden que los archivos recibidos
+     */
+    private List<FileParseResult> parseAll(File[] xmlFiles, int threads) {
+        // Un pool de textos por carga: se descarta con ella en vez de crecer entre recargas
+        StringPool strings = new StringPool();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "item-loader-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        try {
+            List<Callable<FileParseResult>> tasks = new ArrayList<>(xmlFiles.length);
+            for (File xmlFile : xmlFiles) {
+                tasks.add(() -> parseSingleFile(xmlFile, strings));
+            }
+            
+            List<FileParseResult> results = new ArrayList<>(xmlFiles.length);
+            List<Future<FileParseResult>> futures = executor.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    String fileName = xmlFiles[i].getName();
+                    logger.error("❌ Error procesando archivo {}: {}", fileName, e.getCause().getMessage());
+                    results.add(new FileParseResult(fileName, Map.of(), 0, e.getCause().getMessage()));
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Carga de items interrumpida", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Parsea un archivo individual midiendo su tiempo. Los errores quedan en el resultado.
+     * 
+     * @param xmlFile Archivo XML a parsear
+     * @param strings Pool de textos de la carga en curso
+     * @return Resultado del parseo del archivo
+     */
+    private FileParseResult parseSingleFile(File xmlFile, StringPool strings) {
+        long start = System.nanoTime();
+        try {
+            Map<Integer, ItemTemplate> parsedItems = useDomParser()
+                    ? ItemXmlParser.parse(xmlFile, strings)
+                    : ItemStaxParser.parse(xmlFile, strings);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            logger.debug("✅ Archivo {} procesado: {} items en {} ms", xmlFile.getName(), parsedItems.size(), elapsedMs);
+            return new FileParseResult(xmlFile.getName(), parsedItems, elapsedMs, null);
+        } catch (Exception e) {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            logger.error("❌ Error procesando archivo {}: {}", xmlFile.getName(), e.getMessage());
+            return new FileParseResult(xmlFile.getName(), Map.of(), elapsedMs, String.valueOf(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Indica si se debe usar el parser DOM en lugar del parser en streaming.
+     * 
+     * @return true si {@code l2j.items.parser} es "dom"
+     */
+    private boolean useDomParser() {
+        return "dom".equalsIgnoreCase(parserMode);
+    }
+    
+    /**
+     * Determina la cantidad de hilos de carga: la configurada, o los núcleos disponibles
+     * si es 0, nunca más que la cantidad de archivos.
+     * 
+     * @param fileCount Cantidad de archivos a procesar
+     * @return Cantidad de hilos a usar
+     */
+    private int resolveLoaderThreads(int fileCount) {
+        int threads = loaderThreads > 0 ? loaderThreads : Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(threads, fileCount));
     }
     
     /**
@@ -145,10 +616,7 @@ public class ItemTable {
      * @return ItemTemplate si existe, null si no se encuentra o el ID está fuera de rango
      */
     public ItemTemplate getTemplate(int id) {
-        if (id < 0 || id >= _allTemplates.length) {
-            return null;
-        }
-        return _allTemplates[id];
+        return _catalog.getTemplate(id);
     }
     
     /**
@@ -157,7 +625,7 @@ public class ItemTable {
      * @return Colección con todos los ItemTemplate cargados
      */
     public Collection<ItemTemplate> getAllItems() {
-        return _itemsMap.values();
+        return _catalog.getAllItems();
     }
     
     /**
@@ -166,36 +634,106 @@ public class ItemTable {
      * @return Cantidad total de items cargados
      */
     public int getItemCount() {
-        return _itemsMap.size();
+        return _catalog.getItemCount();
+    }
+    
+    /**
+     * Obtiene el catálogo publicado actualmente.
+     * 
+     * <p>El objeto retornado es inmutable: quien necesite hacer varias consultas
+     * consistentes entre sí debe obtenerlo una vez y trabajar sobre él.
+     * 
+     * @return Catálogo actual (vacío si todavía no hubo una carga)
+     */
+    public ItemCatalog getCatalog() {
+        return _catalog;
+    }
+    
+    /**
+     * Indica si ya hay un catálogo cargado. Mientras es false {@link #getCatalog()}
+     * retorna un catálogo vacío.
+     */
+    public boolean isReady() {
+        return _loadState == LoadState.READY;
+    }
+    
+    public LoadState getLoadState() {
+        return _loadState;
+    }
+    
+    /**
+     * Obtiene el error de la carga inicial, o null si no falló.
+     */
+    public String getLoadError() {
+        return _loadError;
+    }
+    
+    /**
+     * Momento (epoch millis) en que empezó la última carga inicial.
+     */
+    public long getLoadStartedAt() {
+        return _loadStartedAt;
+    }
+    
+    /**
+     * Obtiene el reporte de la última carga completa del catálogo.
+     * 
+     * @return Reporte con el detalle por archivo, o null si todavía no hubo una carga
+     */
+    public ItemLoadReport getLastLoadReport() {
+        return _lastLoadReport;
     }
     
     /**
      * Recarga completamente todos los items desde los archivos XML.
      * 
-     * <p>Limpia el catálogo actual y vuelve a cargar todos los items desde la ruta
-     * configurada. Útil cuando se actualizan los archivos XML sin reiniciar la aplicación.
+     * <p>Vuelve a cargar todos los items desde la ruta configurada. Útil cuando se
+     * actualizan los archivos XML sin reiniciar la aplicación. Siempre parsea los XMLs
+     * (ignora el snapshot) y luego actualiza el snapshot.
+     * 
+     * <p>Mientras dura la recarga los lectores siguen viendo el catálogo anterior
+     * completo; el nuevo se publica recién cuando está terminado.
+     * 
+     * @return Reporte de la recarga con el detalle por archivo, o null si no había nada que cargar
      */
-    public void reload() {
+    public ItemLoadReport reload() {
         logger.info("🔄 Recargando items desde XMLs...");
-        _itemsMap.clear();
-        _allTemplates = null;
-        loadItems();
+        synchronized (_loadLock) {
+            return loadItems(false);
+        }
     }
     
     /**
      * Busca items por nombre usando búsqueda parcial case-insensitive.
      * 
-     * <p>Recorre todos los items cargados y retorna aquellos cuyo nombre contiene
-     * la cadena especificada (sin distinguir mayúsculas/minúsculas).
+     * <p>Usa el índice de trigramas construido junto con el catálogo, por lo que no
+     * recorre todos los nombres en cada llamada. Los resultados se ordenan por
+     * relevancia: nombre exacto, luego prefijo y luego coincidencia parcial.
      * 
      * @param name Nombre o fragmento del nombre a buscar
-     * @return Colección de ItemTemplate que coinciden con la búsqueda
+     * @param limit Cantidad máxima de resultados
+     * @return Lista de ItemTemplate que coinciden con la búsqueda
+     * @see ItemNameIndex
      */
-    public Collection<ItemTemplate> searchByName(String name) {
-        String searchLower = name.toLowerCase();
-        return _itemsMap.values().stream()
-                .filter(item -> item.getName().toLowerCase().contains(searchLower))
-                .toList();
+    public List<ItemTemplate> searchByName(String name, int limit) {
+        return _catalog.getNameIndex().search(name, limit);
+    }
+    
+    /**
+     * Resultado del parseo de un archivo, producido por cada tarea de carga.
+     */
+    private static final class FileParseResult {
+        private final String fileName;
+        private final Map<Integer, ItemTemplate> items;
+        private final long parseTimeMs;
+        private final String error;
+        
+        private FileParseResult(String fileName, Map<Integer, ItemTemplate> items, long parseTimeMs, String error) {
+            this.fileName = fileName;
+            this.items = items;
+            this.parseTimeMs = parseTimeMs;
+            this.error = error;
+        }
     }
 }
 
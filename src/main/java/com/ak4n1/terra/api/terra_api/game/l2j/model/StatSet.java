@@ -1,94 +1,225 @@
 package com.ak4n1.terra.api.terra_api.game.l2j.model;
 
+import com.ak4n1.terra.api.terra_api.game.l2j.util.NumberParser;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.StringPool;
+
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Clase simplificada de StatSet del core L2J.
- * 
+ *
  * <p>Implementación mínima que solo contiene lo necesario para parsear XMLs de items.
  * Proporciona métodos para almacenar y recuperar valores tipados (String, int, long, boolean)
  * desde un mapa interno. Es la clase RECOMENDADA para manejar datos parseados de XMLs.
- * 
+ *
+ * <p>Internamente usa arrays paralelos en lugar de un {@code HashMap<String, Object>}:
+ * las claves se comparten mediante {@link StringPool} (todos los items usan las mismas
+ * pocas decenas de claves), los números y booleanos se guardan como primitivos en un
+ * {@code long[]} sin boxing y solo los textos ocupan una referencia. Un item tiene
+ * alrededor de veinte atributos, así que la búsqueda lineal por clave es más barata
+ * que calcular un hash y no crea objetos por entrada.
+ *
  * @see ItemXmlParser
  * @author ak4n1
  * @since 1.0
  */
 public class StatSet {
-    private final Map<String, Object> _set = new HashMap<>();
-    
+
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte STRING = 5;
+
+    private String[] keys = new String[16];
+    private byte[] kinds = new byte[16];
+    private long[] numbers = new long[16];
+    private String[] strings = new String[16];
+    private int size;
+
+    /**
+     * Guarda un valor de cualquier tipo. Los números y booleanos se guardan como
+     * primitivos; cualquier otro objeto, como su {@code toString()}.
+     */
     public void set(String key, Object value) {
-        _set.put(key, value);
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            set(key, ((Number) value).intValue());
+        } else if (value instanceof Long) {
+            set(key, ((Long) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            set(key, ((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            set(key, ((Boolean) value).booleanValue());
+        } else {
+            set(key, value != null ? value.toString() : null);
+        }
+    }
+
+    public void set(String key, int value) {
+        put(key, INT, value, null);
+    }
+
+    public void set(String key, long value) {
+        put(key, LONG, value, null);
+    }
+
+    public void set(String key, double value) {
+        put(key, DOUBLE, Double.doubleToRawLongBits(value), null);
     }
-    
+
+    public void set(String key, boolean value) {
+        put(key, BOOLEAN, value ? 1 : 0, null);
+    }
+
+    public void set(String key, String value) {
+        put(key, STRING, 0, value);
+    }
+
     public String getString(String key) {
         return getString(key, null);
     }
-    
+
     public String getString(String key, String defaultValue) {
-        Object obj = _set.get(key);
-        return obj != null ? obj.toString() : defaultValue;
+        int i = indexOf(key);
+        if (i < 0) {
+            return defaultValue;
+        }
+        switch (kinds[i]) {
+            case INT:
+                return Integer.toString((int) numbers[i]);
+            case LONG:
+                return Long.toString(numbers[i]);
+            case DOUBLE:
+                return Double.toString(Double.longBitsToDouble(numbers[i]));
+            case BOOLEAN:
+                return Boolean.toString(numbers[i] != 0);
+            default:
+                return strings[i] != null ? strings[i] : defaultValue;
+        }
     }
-    
+
     public int getInt(String key) {
         return getInt(key, 0);
     }
-    
+
     public int getInt(String key, int defaultValue) {
-        Object obj = _set.get(key);
-        if (obj instanceof Number) {
-            return ((Number) obj).intValue();
+        int i = indexOf(key);
+        if (i < 0) {
+            return defaultValue;
         }
-        if (obj instanceof String) {
-            try {
-                return Integer.parseInt((String) obj);
-            } catch (NumberFormatException e) {
+        switch (kinds[i]) {
+            case INT:
+            case LONG:
+                return (int) numbers[i];
+            case DOUBLE:
+                return (int) Double.longBitsToDouble(numbers[i]);
+            case STRING:
+                return NumberParser.isInt(strings[i]) ? Integer.parseInt(strings[i]) : defaultValue;
+            default:
                 return defaultValue;
-            }
         }
-        return defaultValue;
     }
-    
+
     public long getLong(String key) {
         return getLong(key, 0L);
     }
-    
+
     public long getLong(String key, long defaultValue) {
-        Object obj = _set.get(key);
-        if (obj instanceof Number) {
-            return ((Number) obj).longValue();
+        int i = indexOf(key);
+        if (i < 0) {
+            return defaultValue;
         }
-        if (obj instanceof String) {
-            try {
-                return Long.parseLong((String) obj);
-            } catch (NumberFormatException e) {
+        switch (kinds[i]) {
+            case INT:
+            case LONG:
+                return numbers[i];
+            case DOUBLE:
+                return (long) Double.longBitsToDouble(numbers[i]);
+            case STRING:
+                return NumberParser.isLong(strings[i]) ? Long.parseLong(strings[i]) : defaultValue;
+            default:
                 return defaultValue;
-            }
         }
-        return defaultValue;
     }
-    
+
     public boolean getBoolean(String key) {
         return getBoolean(key, false);
     }
-    
+
     public boolean getBoolean(String key, boolean defaultValue) {
-        Object obj = _set.get(key);
-        if (obj instanceof Boolean) {
-            return (Boolean) obj;
+        int i = indexOf(key);
+        if (i < 0) {
+            return defaultValue;
         }
-        if (obj instanceof String) {
-            return Boolean.parseBoolean((String) obj);
+        switch (kinds[i]) {
+            case BOOLEAN:
+                return numbers[i] != 0;
+            case STRING:
+                return strings[i] != null ? Boolean.parseBoolean(strings[i]) : defaultValue;
+            default:
+                return defaultValue;
         }
-        return defaultValue;
     }
-    
+
     public boolean contains(String key) {
-        return _set.containsKey(key);
+        return indexOf(key) >= 0;
     }
-    
+
+    /**
+     * Copia de todos los valores con los números y booleanos como objetos.
+     */
     public Map<String, Object> getAll() {
-        return new HashMap<>(_set);
+        Map<String, Object> all = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            Object value;
+            switch (kinds[i]) {
+                case INT:
+                    value = (int) numbers[i];
+                    break;
+                case LONG:
+                    value = numbers[i];
+                    break;
+                case DOUBLE:
+                    value = Double.longBitsToDouble(numbers[i]);
+                    break;
+                case BOOLEAN:
+                    value = numbers[i] != 0;
+                    break;
+                default:
+                    value = strings[i];
+            }
+            all.put(keys[i], value);
+        }
+        return all;
+    }
+
+    private int indexOf(String key) {
+        for (int i = 0; i < size; i++) {
+            // Las claves guardadas son las del pool: casi siempre coinciden por identidad
+            if (keys[i] == key || keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
     }
-}
 
+    private void put(String key, byte kind, long number, String string) {
+        int i = indexOf(key);
+        if (i < 0) {
+            if (size == keys.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                numbers = Arrays.copyOf(numbers, capacity);
+                strings = Arrays.copyOf(strings, capacity);
+            }
+            i = size++;
+            keys[i] = StringPool.intern(key);
+        }
+        kinds[i] = kind;
+        numbers[i] = number;
+        strings[i] = string;
+    }
+}
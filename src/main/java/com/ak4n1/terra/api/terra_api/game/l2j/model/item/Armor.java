@@ -1,6 +1,7 @@
 package com.ak4n1.terra.api.terra_api.game.l2j.model.item;
 
 import com.ak4n1.terra.api.terra_api.game.l2j.model.StatSet;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.StringPool;
 
 /**
  * Representa una armadura del juego L2J.
@@ -22,8 +23,8 @@ public class Armor extends ItemTemplate {
     public Armor(StatSet set) {
         super(set);
         _type = "Armor";
-        _grade = set.getString("crystal_type", "none").toUpperCase();
-        _armorType = set.getString("armor_type", "NONE");
+        _grade = StringPool.intern(set.getString("crystal_type", "none").toUpperCase());
+        _armorType = StringPool.intern(set.getString("armor_type", "NONE"));
         _pDef = set.getInt("pDef", 0);
         _mDef = set.getInt("mDef", 0);
     }
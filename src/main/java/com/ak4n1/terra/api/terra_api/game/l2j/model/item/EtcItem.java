@@ -1,6 +1,7 @@
 package com.ak4n1.terra.api.terra_api.game.l2j.model.item;
 
 import com.ak4n1.terra.api.terra_api.game.l2j.model.StatSet;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.StringPool;
 
 /**
  * Representa items misceláneos del juego L2J (consumibles, quest items, etc.).
@@ -21,8 +22,8 @@ public class EtcItem extends ItemTemplate {
     public EtcItem(StatSet set) {
         super(set);
         _type = "EtcItem";
-        _grade = set.getString("crystal_type", "none").toUpperCase();
-        _etcItemType = set.getString("etcitem_type", "NONE");
+        _grade = StringPool.intern(set.getString("crystal_type", "none").toUpperCase());
+        _etcItemType = StringPool.intern(set.getString("etcitem_type", "NONE"));
         _isQuestItem = set.getBoolean("is_quest_item", false);
     }
     
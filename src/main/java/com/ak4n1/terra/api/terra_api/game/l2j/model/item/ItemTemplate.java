@@ -1,6 +1,7 @@
 package com.ak4n1.terra.api.terra_api.game.l2j.model.item;
 
 import com.ak4n1.terra.api.terra_api.game.l2j.model.StatSet;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.StringPool;
 
 /**
  * Clase base abstracta simplificada para items del juego L2J.
@@ -9,6 +10,11 @@ import com.ak4n1.terra.api.terra_api.game.l2j.model.StatSet;
  * sirve como base para los tipos específicos de items: Weapon, Armor y EtcItem.
  * Es la clase RECOMENDADA para representar items del catálogo.
  * 
+ * <p>Los textos de vocabulario chico que se repiten entre items (grade, material, parte
+ * del cuerpo, tipos) se guardan mediante {@link StringPool}: todos los items con el mismo
+ * valor comparten una única instancia de String. Nombre e icono se comparten con el pool
+ * de cada carga, que se descarta con ella.
+ * 
  * @see Weapon
  * @see Armor
  * @see EtcItem
@@ -44,6 +50,8 @@ public abstract class ItemTemplate {
      */
     protected ItemTemplate(StatSet set) {
         _itemId = set.getInt("item_id");
+        // Nombre e icono ya llegan compartidos por el pool de la carga (ver ItemXmlParser);
+        // el pool global solo guarda vocabularios chicos para no crecer con cada recarga
         _name = set.getString("name", "Unknown");
         _icon = set.getString("icon", "");
         _weight = set.getInt("weight", 0);
@@ -53,10 +61,10 @@ public abstract class ItemTemplate {
         _tradeable = set.getBoolean("is_tradable", true);
         _dropable = set.getBoolean("is_dropable", true);
         _crystalCount = set.getInt("crystal_count", 0);
-        _crystalType = set.getString("crystal_type", "none");
-        _materialType = set.getString("material", "");
+        _crystalType = StringPool.intern(set.getString("crystal_type", "none"));
+        _materialType = StringPool.intern(set.getString("material", ""));
         _bodyPart = set.getLong("bodypart", 0L);
-        _bodyPartName = set.getString("bodypart_name", "");
+        _bodyPartName = StringPool.intern(set.getString("bodypart_name", ""));
     }
     
     // Getters esenciales
@@ -1,6 +1,7 @@
 package com.ak4n1.terra.api.terra_api.game.l2j.model.item;
 
 import com.ak4n1.terra.api.terra_api.game.l2j.model.StatSet;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.StringPool;
 
 /**
  * Representa un arma del juego L2J.
@@ -24,8 +25,8 @@ public class Weapon extends ItemTemplate {
     public Weapon(StatSet set) {
         super(set);
         _type = "Weapon";
-        _grade = set.getString("crystal_type", "none").toUpperCase();
-        _weaponType = set.getString("weapon_type", "NONE");
+        _grade = StringPool.intern(set.getString("crystal_type", "none").toUpperCase());
+        _weaponType = StringPool.intern(set.getString("weapon_type", "NONE"));
         _pAtk = set.getInt("pAtk", 0);
         _mAtk = set.getInt("mAtk", 0);
         _soulshots = set.getInt("soulshots", 0);
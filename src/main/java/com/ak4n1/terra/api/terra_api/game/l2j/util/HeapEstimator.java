@@ -0,0 +1,126 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimación de la memoria retenida por un grupo de objetos simples.
+ *
+ * <p>Suma el tamaño superficial de cada objeto (cabecera más campos, calculado por
+ * reflexión y redondeado a 8 bytes) y el de cada String referenciado, contando una
+ * sola vez los Strings compartidos entre objetos. Asume una JVM de 64 bits con
+ * referencias comprimidas (cabecera de 12 bytes, referencias de 4) y Strings
+ * compactos (1 byte por carácter Latin-1). Es una estimación para comparar cargas
+ * del catálogo, no una medición exacta del heap.
+ *
+ * <p>No es thread-safe: se usa una instancia por estimación.
+ *
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class HeapEstimator {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    private final Map<Class<?>, Long> shallowSizes = new HashMap<>();
+    private final Set<String> seenStrings = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long total;
+
+    /**
+     * Suma un objeto y los Strings a los que apuntan sus campos.
+     *
+     * @param object Objeto a contar
+     */
+    public void add(Object object) {
+        Class<?> type = object.getClass();
+        total += shallowSizes.computeIfAbsent(type, HeapEstimator::shallowSize);
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.getType() != String.class || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    addString((String) field.get(object));
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    // Campo inaccesible: queda fuera de la estimación
+                }
+            }
+        }
+    }
+
+    /**
+     * Suma bytes ya calculados por otro medio (por ejemplo el tamaño de un índice).
+     */
+    public void addBytes(long bytes) {
+        total += bytes;
+    }
+
+    /**
+     * Cantidad de Strings distintos (por identidad) contados hasta ahora.
+     */
+    public int getDistinctStrings() {
+        return seenStrings.size();
+    }
+
+    public long getTotalBytes() {
+        return total;
+    }
+
+    private void addString(String value) {
+        if (value != null && seenStrings.add(value)) {
+            total += stringSize(value);
+        }
+    }
+
+    /**
+     * Tamaño de un String: el objeto (24 bytes) más su array de bytes.
+     */
+    static long stringSize(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) < 256;
+        }
+        long data = (long) value.length() * (latin1 ? 1 : 2);
+        return 24 + align(ARRAY_HEADER + data);
+    }
+
+    private static long shallowSize(Class<?> type) {
+        long size = OBJECT_HEADER;
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += fieldSize(field.getType());
+                }
+            }
+        }
+        return align(size);
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,211 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.util;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Tabla hash inmutable de claves int primitivas a objetos.
+ *
+ * <p>Usa direccionamiento abierto con sondeo lineal sobre dos arrays paralelos
+ * (claves y valores), sin boxing de las claves ni objetos por entrada. La capacidad
+ * depende de la cantidad de entradas y no del valor de la clave más alta, por lo que
+ * un ID aislado muy grande no agranda la tabla. Las búsquedas son O(1) esperado.
+ *
+ * <p>Los valores null no están permitidos: una celda con valor null es una celda libre.
+ * Las recargas parciales derivan una tabla nueva con {@link #with(Map, Collection)}, que
+ * copia los arrays y aplica solo las entradas cambiadas.
+ *
+ * @param <V> Tipo de los valores
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class IntObjectTable<V> {
+
+    /**
+     * Factor de carga máximo. Con sondeo lineal, hasta 0.75 las búsquedas exitosas
+     * promedian menos de 2.5 comparaciones.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    private final int[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int size;
+
+    private IntObjectTable(int[] keys, Object[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * Construye la tabla a partir de un mapa.
+     *
+     * @param source Entradas a copiar (sin valores null)
+     * @param <V> Tipo de los valores
+     * @return Tabla inmutable con las mismas entradas
+     */
+    public static <V> IntObjectTable<V> of(Map<Integer, V> source) {
+        int capacity = capacityFor(source.size());
+        int[] keys = new int[capacity];
+        Object[] values = new Object[capacity];
+        int mask = capacity - 1;
+
+        for (Map.Entry<Integer, V> entry : source.entrySet()) {
+            insert(keys, values, mask, entry.getKey(), entry.getValue());
+        }
+        return new IntObjectTable<>(keys, values, source.size());
+    }
+
+    /**
+     * Crea una tabla con algunas entradas agregadas, reemplazadas o quitadas, sin
+     * modificar esta.
+     *
+     * <p>Copia los dos arrays y aplica solo los cambios, sin volver a insertar las
+     * entradas que no cambiaron. Si con las entradas nuevas se superaría el factor de
+     * carga, la copia se hace sobre arrays del doble de capacidad (o más).
+     *
+     * @param updates Entradas a agregar o reemplazar (sin valores null)
+     * @param removedKeys Claves a quitar; las que no existen se ignoran
+     * @return Tabla nueva con los cambios aplicados
+     */
+    public IntObjectTable<V> with(Map<Integer, V> updates, Collection<Integer> removedKeys) {
+        int capacity = Math.max(keys.length, capacityFor(size + updates.size()));
+        int[] newKeys;
+        Object[] newValues;
+        if (capacity == keys.length) {
+            newKeys = keys.clone();
+            newValues = values.clone();
+        } else {
+            newKeys = new int[capacity];
+            newValues = new Object[capacity];
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (values[slot] != null) {
+                    insert(newKeys, newValues, capacity - 1, keys[slot], values[slot]);
+                }
+            }
+        }
+
+        int newSize = size;
+        for (int key : removedKeys) {
+            if (delete(newKeys, newValues, capacity - 1, key)) {
+                newSize--;
+            }
+        }
+        for (Map.Entry<Integer, V> entry : updates.entrySet()) {
+            if (insert(newKeys, newValues, capacity - 1, entry.getKey(), entry.getValue())) {
+                newSize++;
+            }
+        }
+        return new IntObjectTable<>(newKeys, newValues, newSize);
+    }
+
+    /**
+     * Inserta o reemplaza una entrada en los arrays.
+     *
+     * @return true si la clave no existía
+     */
+    private static boolean insert(int[] keys, Object[] values, int mask, int key, Object value) {
+        int slot = mix(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        return true;
+    }
+
+    /**
+     * Quita una entrada de los arrays. Para no cortar las secuencias de sondeo, las
+     * entradas siguientes del mismo cúmulo que pueden ocupar el hueco se corren hacia
+     * atrás (borrado sin lápidas).
+     *
+     * @return true si la clave existía
+     */
+    private static boolean delete(int[] keys, Object[] values, int mask, int key) {
+        int slot = mix(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == null) {
+            return false;
+        }
+
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != null) {
+            int home = mix(keys[next]) & mask;
+            // La entrada puede pasar al hueco si el hueco está entre su celda ideal y la actual
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        return true;
+    }
+
+    /**
+     * Obtiene el valor asociado a una clave.
+     *
+     * @param key Clave a buscar
+     * @return Valor asociado, o null si la clave no existe
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = mix(key) & mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == key) {
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Estima los bytes que ocupa la tabla (sin contar los valores referenciados):
+     * dos arrays de {@link #capacity()} celdas con sus cabeceras, asumiendo
+     * referencias comprimidas de 4 bytes.
+     *
+     * @return Tamaño estimado en bytes
+     */
+    public long estimatedBytes() {
+        long arrayHeader = 16;
+        return 2 * arrayHeader + (long) keys.length * Integer.BYTES + (long) values.length * 4;
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = 2;
+        while (capacity * MAX_LOAD_FACTOR < size + 1) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Dispersa la clave: los IDs de items vienen en rangos consecutivos y sin mezclar
+     * formarían cúmulos largos en el sondeo lineal.
+     */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,187 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.util;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.model.StatSet;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parser en streaming (StAX) de archivos XML de items de L2J.
+ *
+ * <p>Alternativa a {@link ItemXmlParser} que recorre cada archivo una sola vez sin
+ * construir el árbol DOM: solo mantiene en memoria el StatSet del item que se está
+ * leyendo. Produce los mismos ItemTemplate que el parser DOM porque comparte con él
+ * la conversión de valores y la construcción de items. ItemTable elige el parser
+ * mediante la propiedad {@code l2j.items.parser}.
+ *
+ * <p>A diferencia del parser DOM, los elementos &lt;item&gt; anidados dentro de otro
+ * item (por ejemplo en &lt;capsuled_items&gt;) no se tratan como items del catálogo;
+ * el parser DOM los intentaba construir y los descartaba por no tener tipo.
+ *
+ * @see ItemXmlParser
+ * @see com.ak4n1.terra.api.terra_api.game.l2j.data.ItemTable
+ * @author ak4n1
+ * @since 1.0
+ */
+public class ItemStaxParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemStaxParser.class);
+
+    /**
+     * XMLInputFactory por hilo: la especificación no garantiza que sea thread-safe.
+     */
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    });
+
+    /**
+     * Parsea un archivo XML en streaming y retorna un mapa de items indexados por ID.
+     *
+     * <p>Los items individuales malformados se registran en los logs pero no detienen
+     * el proceso; un archivo ilegible o mal formado lanza la excepción.
+     *
+     * @param xmlFile Archivo XML a parsear
+     * @return Mapa con los items parseados indexados por su ID
+     * @throws IOException si el archivo no se puede leer
+     * @throws XMLStreamException si el archivo no es un XML válido
+     */
+    public static Map<Integer, ItemTemplate> parse(File xmlFile) throws IOException, XMLStreamException {
+        return parse(xmlFile, new StringPool());
+    }
+
+    /**
+     * Igual que {@link #parse(File)}, compartiendo los textos de los items (nombres,
+     * iconos) a través del pool de la carga en curso.
+     *
+     * @param xmlFile Archivo XML a parsear
+     * @param strings Pool de la carga, compartido entre todos sus archivos
+     * @return Mapa con los items parseados indexados por su ID
+     * @throws IOException si el archivo no se puede leer
+     * @throws XMLStreamException si el archivo no es un XML válido
+     */
+    public static Map<Integer, ItemTemplate> parse(File xmlFile, StringPool strings) throws IOException, XMLStreamException {
+        Map<Integer, ItemTemplate> items = new HashMap<>();
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(xmlFile), 64 * 1024)) {
+            XMLStreamReader reader = INPUT_FACTORY.get().createXMLStreamReader(in);
+            try {
+                // Estado del item en curso
+                StatSet set = null;
+                String type = null;
+                int itemDepth = 0;
+                int depth = 0;
+                boolean statsSeen = false;
+                boolean inStats = false;
+
+                while (reader.hasNext()) {
+                    int event = reader.next();
+
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        String element = reader.getLocalName();
+
+                        if (set == null) {
+                            if ("item".equals(element)) {
+                                try {
+                                    set = startItem(reader, strings);
+                                    type = reader.getAttributeValue(null, "type");
+                                    itemDepth = depth;
+                                    statsSeen = false;
+                                } catch (NumberFormatException e) {
+                                    logger.warn("Error parseando item en archivo {}: {}", xmlFile.getName(), e.getMessage());
+                                }
+                            }
+                            continue;
+                        }
+
+                        switch (element) {
+                            case "set" -> ItemXmlParser.setValue(set, attribute(reader, "name"), attribute(reader, "val"), strings);
+                            case "stats" -> {
+                                // Igual que el parser DOM: solo cuenta el primer bloque <stats>
+                                inStats = !statsSeen;
+                                statsSeen = true;
+                            }
+                            case "stat" -> {
+                                if (inStats) {
+                                    String statType = attribute(reader, "type");
+                                    ItemXmlParser.setStat(set, statType, reader.getElementText(), strings);
+                                    // getElementText consume el END_ELEMENT
+                                    depth--;
+                                }
+                            }
+                            default -> {
+                                // Elementos sin datos para el catálogo (skills, cond, capsuled_items...)
+                            }
+                        }
+
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (set != null) {
+                            if (depth == itemDepth) {
+                                ItemTemplate item = finishItem(xmlFile, type, set);
+                                if (item != null) {
+                                    items.put(item.getId(), item);
+                                }
+                                set = null;
+                                type = null;
+                            } else if ("stats".equals(reader.getLocalName())) {
+                                inStats = false;
+                            }
+                        }
+                        depth--;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        logger.debug("Parseados {} items del archivo {} (StAX)", items.size(), xmlFile.getName());
+        return items;
+    }
+
+    /**
+     * Crea el StatSet de un item a partir de los atributos de su elemento &lt;item&gt;.
+     */
+    private static StatSet startItem(XMLStreamReader reader, StringPool strings) {
+        StatSet set = new StatSet();
+        set.set("item_id", Integer.parseInt(attribute(reader, "id")));
+        set.set("name", strings.share(attribute(reader, "name")));
+        return set;
+    }
+
+    /**
+     * Construye el ItemTemplate al cerrar el elemento &lt;item&gt;.
+     */
+    private static ItemTemplate finishItem(File xmlFile, String type, StatSet set) {
+        try {
+            return ItemXmlParser.createTemplate(type != null ? type : "", set);
+        } catch (Exception e) {
+            logger.warn("Error parseando item en archivo {}: {}", xmlFile.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Lee un atributo devolviendo cadena vacía si no existe, igual que {@code Element.getAttribute}.
+     */
+    private static String attribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value != null ? value : "";
+    }
+}
@@ -37,6 +37,18 @@ public class ItemXmlParser {
     
     private static final Logger logger = LoggerFactory.getLogger(ItemXmlParser.class);
     
+    /**
+     * DocumentBuilder reutilizado por hilo. Las factorías y builders de DOM no son
+     * thread-safe, y ItemTable parsea varios archivos en paralelo.
+     */
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = ThreadLocal.withInitial(() -> {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo crear el DocumentBuilder", e);
+        }
+    });
+    
     /**
      * Parsea un archivo XML y retorna un mapa de items indexados por ID.
      * 
@@ -48,39 +60,66 @@ public class ItemXmlParser {
      * @return Mapa con los items parseados indexados por su ID
      */
     public static Map<Integer, ItemTemplate> parseFile(File xmlFile) {
+        try {
+            return parse(xmlFile);
+        } catch (Exception e) {
+            logger.error("Error parseando archivo XML {}: {}", xmlFile.getName(), e.getMessage());
+            return new HashMap<>();
+        }
+    }
+    
+    /**
+     * Parsea un archivo XML propagando los errores a nivel de archivo.
+     * 
+     * <p>A diferencia de {@link #parseFile(File)}, un archivo ilegible o mal formado
+     * lanza la excepción para que el llamador pueda reportarla. Los items individuales
+     * malformados se siguen registrando en los logs sin detener el proceso.
+     * 
+     * @param xmlFile Archivo XML a parsear
+     * @return Mapa con los items parseados indexados por su ID
+     * @throws Exception si el archivo no se puede leer o no es un XML válido
+     */
+    public static Map<Integer, ItemTemplate> parse(File xmlFile) throws Exception {
+        return parse(xmlFile, new StringPool());
+    }
+    
+    /**
+     * Igual que {@link #parse(File)}, compartiendo los textos de los items (nombres,
+     * iconos) a través del pool de la carga en curso.
+     * 
+     * @param xmlFile Archivo XML a parsear
+     * @param strings Pool de la carga, compartido entre todos sus archivos
+     * @return Mapa con los items parseados indexados por su ID
+     * @throws Exception si el archivo no se puede leer o no es un XML válido
+     */
+    public static Map<Integer, ItemTemplate> parse(File xmlFile, StringPool strings) throws Exception {
         Map<Integer, ItemTemplate> items = new HashMap<>();
         
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(xmlFile);
-            doc.getDocumentElement().normalize();
-            
-            NodeList itemNodes = doc.getElementsByTagName("item");
+        DocumentBuilder builder = DOCUMENT_BUILDER.get();
+        builder.reset();
+        Document doc = builder.parse(xmlFile);
+        doc.getDocumentElement().normalize();
+        
+        NodeList itemNodes = doc.getElementsByTagName("item");
+        
+        for (int i = 0; i < itemNodes.getLength(); i++) {
+            Node node = itemNodes.item(i);
             
-            for (int i = 0; i < itemNodes.getLength(); i++) {
-                Node node = itemNodes.item(i);
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                Element element = (Element) node;
                 
-                if (node.getNodeType() == Node.ELEMENT_NODE) {
-                    Element element = (Element) node;
-                    
-                    try {
-                        ItemTemplate item = parseItemElement(element);
-                        if (item != null) {
-                            items.put(item.getId(), item);
-                        }
-                    } catch (Exception e) {
-                        logger.warn("Error parseando item en archivo {}: {}", xmlFile.getName(), e.getMessage());
+                try {
+                    ItemTemplate item = parseItemElement(element, strings);
+                    if (item != null) {
+                        items.put(item.getId(), item);
                     }
+                } catch (Exception e) {
+                    logger.warn("Error parseando item en archivo {}: {}", xmlFile.getName(), e.getMessage());
                 }
             }
-            
-            logger.debug("Parseados {} items del archivo {}", items.size(), xmlFile.getName());
-            
-        } catch (Exception e) {
-            logger.error("Error parseando archivo XML {}: {}", xmlFile.getName(), e.getMessage());
         }
         
+        logger.debug("Parseados {} items del archivo {}", items.size(), xmlFile.getName());
         return items;
     }
     
@@ -91,9 +130,10 @@ public class ItemXmlParser {
      * StatSet que se usa para instanciar el tipo correcto de ItemTemplate (Weapon, Armor o EtcItem).
      * 
      * @param itemElement Elemento XML &lt;item&gt; a parsear
+     * @param strings Pool de la carga
      * @return ItemTemplate parseado según el tipo, o null si el tipo es desconocido
      */
-    private static ItemTemplate parseItemElement(Element itemElement) {
+    private static ItemTemplate parseItemElement(Element itemElement, StringPool strings) {
         StatSet set = new StatSet();
         
         // Atributos principales del item
@@ -102,7 +142,7 @@ public class ItemXmlParser {
         String type = itemElement.getAttribute("type");
         
         set.set("item_id", id);
-        set.set("name", name);
+        set.set("name", strings.share(name));
         
         // Parsear todos los elementos <set>
         NodeList setNodes = itemElement.getElementsByTagName("set");
@@ -113,17 +153,7 @@ public class ItemXmlParser {
                 String setName = setElement.getAttribute("name");
                 String setVal = setElement.getAttribute("val");
                 
-                // Intentar parsear como número si es posible
-                try {
-                    if (setVal.contains(".")) {
-                        set.set(setName, Double.parseDouble(setVal));
-                    } else {
-                        set.set(setName, Integer.parseInt(setVal));
-                    }
-                } catch (NumberFormatException e) {
-                    // Si no es número, guardar como string
-                    set.set(setName, setVal);
-                }
+                setValue(set, setName, setVal, strings);
             }
         }
         
@@ -140,16 +170,69 @@ public class ItemXmlParser {
                     String statType = statElement.getAttribute("type");
                     String statValue = statElement.getTextContent();
                     
-                    try {
-                        set.set(statType, Integer.parseInt(statValue));
-                    } catch (NumberFormatException e) {
-                        set.set(statType, statValue);
-                    }
+                    setStat(set, statType, statValue, strings);
                 }
             }
         }
         
         // Crear el objeto según el tipo
+        return createTemplate(type, set);
+    }
+    
+    /**
+     * Guarda el valor de un elemento &lt;set&gt; en el StatSet con el tipo más adecuado.
+     * 
+     * <p>Compartido por los parsers DOM y StAX para que ambos produzcan el mismo StatSet.
+     * El formato se valida antes de convertir (ver {@link NumberParser}): la mayoría de
+     * los valores no son números y no se crea una excepción por cada uno.
+     * 
+     * @param set StatSet del item
+     * @param name Atributo "name" del elemento
+     * @param value Atributo "val": double si contiene un punto decimal, int si es entero, si no texto
+     * @param strings Pool de la carga, por el que pasan los valores de texto
+     */
+    public static void setValue(StatSet set, String name, String value, StringPool strings) {
+        if (value.indexOf('.') >= 0) {
+            if (NumberParser.isDecimal(value)) {
+                set.set(name, Double.parseDouble(value));
+            } else {
+                set.set(name, strings.share(value));
+            }
+        } else if (NumberParser.isInt(value)) {
+            set.set(name, Integer.parseInt(value));
+        } else {
+            set.set(name, strings.share(value));
+        }
+    }
+    
+    /**
+     * Guarda el contenido de un elemento &lt;stat&gt; en el StatSet: int si es entero,
+     * si no texto.
+     * 
+     * @param set StatSet del item
+     * @param type Atributo "type" del elemento
+     * @param value Texto del elemento
+     * @param strings Pool de la carga, por el que pasan los valores de texto
+     */
+    public static void setStat(StatSet set, String type, String value, StringPool strings) {
+        if (NumberParser.isInt(value)) {
+            set.set(type, Integer.parseInt(value));
+        } else {
+            set.set(type, strings.share(value));
+        }
+    }
+    
+    /**
+     * Crea el ItemTemplate correspondiente al tipo indicado a partir de un StatSet.
+     * 
+     * <p>Punto único de construcción de items, compartido con los demás orígenes del
+     * catálogo (por ejemplo el snapshot binario de ItemTable).
+     * 
+     * @param type Tipo de item: "Weapon", "Armor" o "EtcItem"
+     * @param set StatSet con los datos del item (debe incluir "item_id")
+     * @return ItemTemplate del tipo indicado, o null si el tipo es desconocido
+     */
+    public static ItemTemplate createTemplate(String type, StatSet set) {
         switch (type) {
             case "Weapon":
                 return new Weapon(set);
@@ -158,7 +241,7 @@ public class ItemXmlParser {
             case "EtcItem":
                 return new EtcItem(set);
             default:
-                logger.warn("Tipo de item desconocido: {} para item {}", type, id);
+                logger.warn("Tipo de item desconocido: {} para item {}", type, set.getInt("item_id"));
                 return null;
         }
     }
@@ -0,0 +1,225 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.util;
+
+import java.util.function.Function;
+
+/**
+ * Tabla hash de claves long primitivas a objetos.
+ *
+ * <p>Igual que {@link IntObjectTable}: direccionamiento abierto con sondeo lineal sobre
+ * dos arrays paralelos, sin boxing de las claves ni objetos por entrada. A diferencia de
+ * aquella se llena con {@link #put(long, Object)} y crece al superar el factor de carga,
+ * para construir índices sin pasar por un {@code Map<Long, V>}. No es thread-safe: se
+ * construye en un hilo y después solo se lee. Para derivar un índice de otro ya
+ * publicado se modifica una {@link #copy()}, nunca la tabla original.
+ *
+ * <p>Los valores null no están permitidos: una celda con valor null es una celda libre.
+ *
+ * @param <V> Tipo de los valores
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class LongObjectTable<V> {
+
+    /**
+     * Factor de carga máximo, el mismo que {@link IntObjectTable}.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * @param expectedSize Cantidad de entradas esperada (la tabla crece si se supera)
+     */
+    public LongObjectTable(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Obtiene el valor asociado a una clave.
+     *
+     * @param key Clave a buscar
+     * @return Valor asociado, o null si la clave no existe
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = mix(key) & mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == key) {
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Asocia un valor a una clave, reemplazando el anterior si existía.
+     *
+     * @param key Clave
+     * @param value Valor (no null)
+     */
+    public void put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("LongObjectTable no admite valores null");
+        }
+        int slot = mix(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * MAX_LOAD_FACTOR) {
+            resize(keys.length << 1);
+        }
+    }
+
+    /**
+     * Quita una clave. Las entradas siguientes del mismo cúmulo que pueden ocupar el
+     * hueco se corren hacia atrás, para no cortar las secuencias de sondeo.
+     *
+     * @param key Clave a quitar
+     * @return Valor que tenía, o null si la clave no existía
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = mix(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        Object removed = values[slot];
+        if (removed == null) {
+            return null;
+        }
+
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != null) {
+            int home = mix(keys[next]) & mask;
+            // La entrada puede pasar al hueco si el hueco está entre su celda ideal y la actual
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        size--;
+        return (V) removed;
+    }
+
+    /**
+     * Crea una copia con las mismas entradas y la misma capacidad (copia de los arrays,
+     * sin volver a insertar).
+     *
+     * @return Tabla nueva, independiente de esta
+     */
+    public LongObjectTable<V> copy() {
+        LongObjectTable<V> copy = new LongObjectTable<>(0);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.mask = mask;
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Recorre todas las entradas, en orden de celda.
+     *
+     * @param action Acción a aplicar a cada clave y su valor
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                action.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Crea una tabla con las mismas claves y cada valor transformado, con la capacidad
+     * justa para su tamaño: la tabla que se construyó creciendo puede quedar más grande
+     * de lo necesario.
+     *
+     * @param mapper Transformación de cada valor (no debe retornar null)
+     * @param <R> Tipo de los nuevos valores
+     * @return Tabla nueva
+     */
+    public <R> LongObjectTable<R> mapValues(Function<? super V, ? extends R> mapper) {
+        LongObjectTable<R> mapped = new LongObjectTable<>(size);
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                @SuppressWarnings("unchecked")
+                V value = (V) values[slot];
+                mapped.put(keys[slot], mapper.apply(value));
+            }
+        }
+        return mapped;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = 2;
+        while (capacity * MAX_LOAD_FACTOR < size + 1) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Dispersa la clave: los trigramas empaquetados difieren sobre todo en los bits
+     * bajos de cada carácter.
+     */
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Acción sobre una entrada, con la clave primitiva.
+     *
+     * @param <V> Tipo de los valores
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
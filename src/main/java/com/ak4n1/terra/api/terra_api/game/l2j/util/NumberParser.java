@@ -0,0 +1,123 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.util;
+
+/**
+ * Reconocimiento de números en los valores de texto de los XMLs sin usar excepciones.
+ *
+ * <p>La mayoría de los valores de &lt;set&gt; no son números (iconos, materiales,
+ * tipos) y varios contienen un punto ({@code icon.weapon_...}). Intentar
+ * {@code Integer.parseInt}/{@code Double.parseDouble} y capturar la excepción crea
+ * un stack trace por valor; estos métodos validan el formato antes de convertir.
+ *
+ * <p>Aceptan la notación que usan los XMLs: signo opcional y dígitos ASCII, con
+ * parte decimal y exponente en el caso de los decimales. Formas exóticas que Java
+ * también acepta (hexadecimal, sufijos {@code f}/{@code d}, {@code NaN}) se tratan
+ * como texto.
+ *
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class NumberParser {
+
+    private NumberParser() {
+    }
+
+    /**
+     * Indica si el texto es un entero en el rango de int.
+     */
+    public static boolean isInt(String value) {
+        return isInteger(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Indica si el texto es un entero en el rango de long.
+     */
+    public static boolean isLong(String value) {
+        return isInteger(value, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Indica si el texto es un número decimal: dígitos con un punto opcional y
+     * exponente opcional ({@code 1.5}, {@code -3.75}, {@code .5}, {@code 2e3}).
+     */
+    public static boolean isDecimal(String value) {
+        if (value == null) {
+            return false;
+        }
+        int length = value.length();
+        int i = 0;
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        while (i < length && isDigit(value.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < length && value.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(value.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < length && isDigit(value.charAt(i))) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static boolean isInteger(String value, long min, long max) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (length == 1) {
+                return false;
+            }
+        }
+        // Acumula en negativo para cubrir Long.MIN_VALUE sin desbordar
+        long limit = negative ? min : -max;
+        long multiplyMin = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return false;
+            }
+            int digit = c - '0';
+            if (result < multiplyMin) {
+                return false;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,71 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pool de Strings compartidos (flyweight) para los valores repetidos del catálogo.
+ *
+ * <p>Miles de items repiten los mismos valores. Cada parser crea un String nuevo por
+ * atributo leído; al pasar por un pool todos los items con el mismo valor comparten una
+ * única instancia. Es thread-safe porque ItemTable parsea archivos en paralelo. Hay dos
+ * alcances:
+ * <ul>
+ *   <li>{@link #intern(String)}: pool global para vocabularios chicos y cerrados (grades,
+ *       materiales, partes del cuerpo, tipos, claves de StatSet). No se vacía, así que
+ *       solo debe recibir valores de ese tipo.</li>
+ *   <li>{@link #share(String)} sobre una instancia creada para una carga: comparte los
+ *       textos casi únicos por item (nombres, iconos) entre los items de esa carga y se
+ *       descarta con ella, así no crece con cada valor editado entre recargas.</li>
+ * </ul>
+ *
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class StringPool {
+
+    private static final StringPool VOCABULARY = new StringPool(256);
+
+    private final ConcurrentHashMap<String, String> values;
+
+    /**
+     * Crea un pool para una carga del catálogo.
+     */
+    public StringPool() {
+        this(16 * 1024);
+    }
+
+    private StringPool(int initialCapacity) {
+        this.values = new ConcurrentHashMap<>(initialCapacity);
+    }
+
+    /**
+     * Retorna la instancia compartida de un valor de vocabulario chico (pool global).
+     *
+     * @param value Valor a compartir (puede ser null)
+     * @return Instancia compartida igual a {@code value}, o null si {@code value} es null
+     */
+    public static String intern(String value) {
+        return VOCABULARY.share(value);
+    }
+
+    /**
+     * Retorna la instancia de este pool igual a un valor, agregándolo si no está.
+     *
+     * @param value Valor a compartir (puede ser null)
+     * @return Instancia compartida igual a {@code value}, o null si {@code value} es null
+     */
+    public String share(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = values.putIfAbsent(value, value);
+        return shared != null ? shared : value;
+    }
+
+    /**
+     * Cantidad de valores distintos en el pool global.
+     */
+    public static int size() {
+        return VOCABULARY.values.size();
+    }
+}
@@ -0,0 +1,125 @@
+package com.ak4n1.terra.api.terra_api.game.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cambios entre dos versiones consecutivas del catálogo: IDs agregados, modificados
+ * y eliminados.
+ *
+ * <p>ItemCatalogService guarda un historial corto de estos deltas para que los clientes
+ * que ya tienen una versión descarguen solo lo que cambió desde entonces.
+ *
+ * @see ItemCatalogService#getDeltaBody(String, ItemCatalogService.CatalogFormat)
+ * @author ak4n1
+ * @since 1.0
+ */
+final class ItemCatalogDelta {
+
+    private final String fromVersion;
+    private final String toVersion;
+    private final int[] added;
+    private final int[] changed;
+    private final int[] removed;
+
+    private ItemCatalogDelta(String fromVersion, String toVersion, int[] added, int[] changed, int[] removed) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.added = added;
+        this.changed = changed;
+        this.removed = removed;
+    }
+
+    /**
+     * Compara dos vistas del catálogo item por item. Un item cuenta como modificado si
+     * su JSON cambió: una recarga completa crea instancias nuevas de todos los items,
+     * pero solo los que realmente difieren aparecen en el delta.
+     *
+     * @param previous Vista anterior
+     * @param current Vista nueva
+     * @return Delta de {@code previous} a {@code current}
+     */
+    static ItemCatalogDelta between(ItemCatalogView previous, ItemCatalogView current) {
+        List<Integer> added = new ArrayList<>();
+        List<Integer> changed = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+
+        for (int id : current.ids()) {
+            byte[] before = previous.json(id);
+            if (before == null) {
+                added.add(id);
+            } else if (!Arrays.equals(before, current.json(id))) {
+                changed.add(id);
+            }
+        }
+        for (int id : previous.ids()) {
+            if (current.json(id) == null) {
+                removed.add(id);
+            }
+        }
+
+        return new ItemCatalogDelta(previous.getVersion(), current.getVersion(),
+                toArray(added), toArray(changed), toArray(removed));
+    }
+
+    /**
+     * Combina una cadena de deltas consecutivos en los cambios netos desde la primera
+     * versión. Un item agregado y luego eliminado no aparece; uno eliminado y luego
+     * vuelto a agregar cuenta como modificado.
+     *
+     * @param chain Deltas consecutivos, del más viejo al más nuevo
+     * @return Mapa ID → estado neto ({@link Change})
+     */
+    static Map<Integer, Change> compose(List<ItemCatalogDelta> chain) {
+        // Por cada ID: si existía en la versión inicial y si existe en la final
+        Map<Integer, boolean[]> states = new LinkedHashMap<>();
+        for (ItemCatalogDelta delta : chain) {
+            for (int id : delta.added) {
+                states.computeIfAbsent(id, k -> new boolean[] {false, true})[1] = true;
+            }
+            for (int id : delta.changed) {
+                states.computeIfAbsent(id, k -> new boolean[] {true, true})[1] = true;
+            }
+            for (int id : delta.removed) {
+                states.computeIfAbsent(id, k -> new boolean[] {true, false})[1] = false;
+            }
+        }
+
+        Map<Integer, Change> result = new LinkedHashMap<>();
+        states.forEach((id, state) -> {
+            boolean existedBefore = state[0];
+            boolean existsNow = state[1];
+            if (existsNow) {
+                result.put(id, existedBefore ? Change.CHANGED : Change.ADDED);
+            } else if (existedBefore) {
+                result.put(id, Change.REMOVED);
+            }
+        });
+        return result;
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    String getFromVersion() {
+        return fromVersion;
+    }
+
+    String getToVersion() {
+        return toVersion;
+    }
+
+    int getChangeCount() {
+        return added.length + changed.length + removed.length;
+    }
+
+    enum Change {
+        ADDED,
+        CHANGED,
+        REMOVED
+    }
+}
@@ -1,17 +1,35 @@
 package com.ak4n1.terra.api.terra_api.game.services;
 
 import com.ak4n1.terra.api.terra_api.game.dto.ItemCatalogDTO;
+import com.ak4n1.terra.api.terra_api.game.dto.ItemSuggestionDTO;
+import com.ak4n1.terra.api.terra_api.game.exceptions.CatalogNotReadyException;
+import com.ak4n1.terra.api.terra_api.game.exceptions.InvalidCatalogQueryException;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemCatalog;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemCatalogIndex;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemLoadReport;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemQuery;
 import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemTable;
 import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Servicio principal para acceder al catálogo de items del juego.
@@ -20,6 +38,11 @@ import java.util.stream.Collectors;
  * métodos para buscar, filtrar y consultar items del catálogo cargado en memoria.
  * Es el servicio RECOMENDADO para interactuar con el catálogo de items desde los controladores.
  * 
+ * <p>Los DTOs y su JSON se precalculan una vez por catálogo publicado (ver
+ * {@link ItemCatalogView}); los métodos con sufijo {@code Body} retornan las respuestas
+ * ya serializadas, en JSON o CBOR según el {@link CatalogFormat} pedido, para que los
+ * controladores las escriban sin volver a pasar por Jackson.
+ * 
  * @see com.ak4n1.terra.api.terra_api.game.l2j.data.ItemTable
  * @see ItemCatalogDTO
  * @author ak4n1
@@ -30,56 +53,351 @@ public class ItemCatalogService {
     
     private static final Logger logger = LoggerFactory.getLogger(ItemCatalogService.class);
     
+    /**
+     * Máximo de resultados que devuelve una búsqueda por nombre.
+     */
+    public static final int MAX_SEARCH_LIMIT = 500;
+    
+    /**
+     * Máximo de sugerencias que devuelve el autocompletado.
+     */
+    public static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+    
+    /**
+     * Tamaño de página por defecto y máximo de los listados paginados.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    
     @Autowired
     private ItemTable itemTable;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${l2j.items.delta.history-size:20}")
+    private int deltaHistorySize;
+    
+    /**
+     * Máximo de IDs (sin repetir) que acepta una consulta por lote.
+     */
+    @Value("${l2j.items.batch.max-ids:200}")
+    private int batchMaxIds;
+    
+    /**
+     * Segundos sugeridos en Retry-After mientras el catálogo se está cargando.
+     */
+    @Value("${l2j.items.not-ready.retry-after-seconds:5}")
+    private long notReadyRetryAfterSeconds;
+    
+    /**
+     * DTOs y JSON precalculados del último catálogo publicado.
+     */
+    private volatile ItemCatalogView view;
+    
+    /**
+     * Últimos deltas entre versiones consecutivas, del más viejo al más nuevo.
+     * Se reemplaza completo en cada cambio de versión (lista inmutable).
+     */
+    private volatile List<ItemCatalogDelta> deltaHistory = List.of();
+    
     /**
-     * Obtiene un item del catálogo por su ID.
+     * Obtiene un item del catálogo ya serializado.
      * 
      * @param id ID del item a buscar
-     * @return Optional con el DTO del item si existe, vacío si no se encuentra
+     * @param format Formato de la respuesta
+     * @return Item serializado con la versión del catálogo, o null si no se encuentra
      */
-    public Optional<ItemCatalogDTO> getItemById(int id) {
-        ItemTemplate template = itemTable.getTemplate(id);
+    public CatalogBody getItemBodyById(int id, CatalogFormat format) {
+        ItemCatalogView current = currentView();
+        ItemTemplate template = current.getCatalog().getTemplate(id);
         if (template == null) {
-            logger.debug("Item {} no encontrado", id);
-            return Optional.empty();
+            return null;
         }
-        return Optional.of(ItemCatalogDTO.fromItemTemplate(template));
+        byte[] body = format == CatalogFormat.CBOR ? current.cbor(template) : current.json(template);
+        return new CatalogBody(body, current.getVersion(), format, false);
     }
     
     /**
-     * Obtiene todos los items disponibles en el catálogo.
+     * Obtiene varios items del catálogo en una sola respuesta (consulta por lote).
+     * 
+     * <p>Cada ID se resuelve con la búsqueda O(1) del catálogo. Los IDs repetidos se
+     * consideran una sola vez y los items se devuelven en el orden de su primera
+     * aparición; los IDs que no existen se informan aparte:
      * 
-     * @return Lista completa de DTOs de todos los items del catálogo
+     * <pre>
+     * {"items": [items], "missing": [ids]}
+     * </pre>
+     * 
+     * @param ids IDs pedidos (los null se ignoran)
+     * @param format Formato de la respuesta
+     * @return Items encontrados e IDs faltantes, con la versión del catálogo
+     * @throws InvalidCatalogQueryException si se piden más de {@code l2j.items.batch.max-ids} IDs distintos
      */
-    public List<ItemCatalogDTO> getAllItems() {
-        logger.debug("Obteniendo todos los items del catálogo");
-        Collection<ItemTemplate> templates = itemTable.getAllItems();
+    public CatalogBody getItemsBatchBody(List<Integer> ids, CatalogFormat format) {
+        Set<Integer> unique = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            if (id != null) {
+                unique.add(id);
+            }
+        }
+        if (unique.size() > batchMaxIds) {
+            throw new InvalidCatalogQueryException("Demasiados IDs en el lote: " + unique.size() + " (máximo " + batchMaxIds + ")");
+        }
         
-        return templates.stream()
-                .map(ItemCatalogDTO::fromItemTemplate)
-                .collect(Collectors.toList());
+        ItemCatalogView current = currentView();
+        List<ItemTemplate> found = new ArrayList<>(unique.size());
+        int[] missing = new int[unique.size()];
+        int missingCount = 0;
+        for (int id : unique) {
+            ItemTemplate template = current.getCatalog().getTemplate(id);
+            if (template != null) {
+                found.add(template);
+            } else {
+                missing[missingCount++] = id;
+            }
+        }
+        missing = Arrays.copyOf(missing, missingCount);
+        
+        logger.debug("Lote de {} IDs: {} encontrados, {} faltantes", unique.size(), found.size(), missingCount);
+        byte[] body = format == CatalogFormat.CBOR ? current.batchCbor(found, missing) : current.batchJson(found, missing);
+        return new CatalogBody(body, current.getVersion(), format, false);
+    }
+    
+    /**
+     * Obtiene el catálogo completo como array ya serializado.
+     * 
+     * <p>El array JSON (y su versión comprimida con gzip) y el array CBOR se arman una
+     * sola vez por catálogo publicado: cada llamada retorna el mismo buffer, que no
+     * debe modificarse. La compresión gzip solo se aplica al JSON.
+     * 
+     * @param format Formato de la respuesta
+     * @param gzip true para obtener el JSON comprimido con gzip
+     * @return Todos los items del catálogo, ordenados por ID, con la versión del catálogo
+     */
+    public CatalogBody getAllItemsBody(CatalogFormat format, boolean gzip) {
+        ItemCatalogView current = currentView();
+        if (format == CatalogFormat.CBOR) {
+            return new CatalogBody(current.allItemsCbor(), current.getVersion(), format, false);
+        }
+        byte[] body = gzip ? current.allItemsGzip() : current.allItemsJson();
+        return new CatalogBody(body, current.getVersion(), format, gzip);
     }
     
     /**
      * Busca items en el catálogo por nombre (búsqueda parcial case-insensitive).
      * 
+     * <p>Los resultados vienen ordenados por relevancia (nombre exacto, prefijo,
+     * coincidencia parcial). El límite se ajusta al rango 1..{@value #MAX_SEARCH_LIMIT}.
+     * El array se arma con los fragmentos ya serializados de cada item.
+     * 
+     * @param name Nombre o fragmento del nombre a buscar
+     * @param limit Cantidad máxima de resultados solicitada
+     * @param format Formato de la respuesta
+     * @return Resultados serializados con la versión del catálogo, array vacío si el nombre es nulo o en blanco
+     */
+    public CatalogBody searchByNameBody(String name, int limit, CatalogFormat format) {
+        ItemCatalogView current = currentView();
+        return array(current, findByName(current.getCatalog(), name, limit), format);
+    }
+    
+    /**
+     * Página de resultados de búsqueda por nombre.
+     * 
+     * <p>Como los resultados están ordenados por relevancia y no por ID, el cursor es
+     * la cantidad de resultados ya entregados. La búsqueda completa (cursor + página)
+     * queda acotada por {@value #MAX_SEARCH_LIMIT} resultados.
+     * 
      * @param name Nombre o fragmento del nombre a buscar
-     * @return Lista de DTOs que coinciden con la búsqueda, lista vacía si el nombre es nulo o en blanco
+     * @param cursor Resultados ya entregados (null para la primera página)
+     * @param size Tamaño de página solicitado
+     * @param fields Campos a incluir separados por coma, o null para todos
+     * @param format Formato de la respuesta
+     * @return Página con la forma {@code {"items":[...],"nextCursor":n|null}} y la versión del catálogo
+     * @throws InvalidCatalogQueryException si el cursor o los campos no son válidos
      */
-    public List<ItemCatalogDTO> searchByName(String name) {
+    public CatalogBody searchByNamePageBody(String name, Integer cursor, int size, String fields, CatalogFormat format) {
+        ItemCatalogView current = currentView();
+        List<String> projection = current.parseFields(fields);
+        int offset = cursor != null ? cursor : 0;
+        if (offset < 0 || offset >= MAX_SEARCH_LIMIT) {
+            throw new InvalidCatalogQueryException("Cursor de búsqueda fuera de rango: " + offset);
+        }
+        int pageSize = Math.min(pageSize(size), MAX_SEARCH_LIMIT - offset);
+        
+        List<ItemTemplate> found = findByName(current.getCatalog(), name, offset + pageSize + 1);
+        List<ItemTemplate> page = found.subList(Math.min(offset, found.size()), Math.min(offset + pageSize, found.size()));
+        boolean hasMore = found.size() > offset + pageSize && offset + pageSize < MAX_SEARCH_LIMIT;
+        return page(current, page, projection, hasMore ? offset + pageSize : null, format);
+    }
+    
+    private List<ItemTemplate> findByName(ItemCatalog catalog, String name, int limit) {
         if (name == null || name.isBlank()) {
             logger.warn("Búsqueda con nombre vacío");
             return List.of();
         }
         
-        logger.debug("Buscando items con nombre: {}", name);
-        Collection<ItemTemplate> templates = itemTable.searchByName(name);
+        logger.debug("Buscando items con nombre: {} (límite {})", name, limit);
+        int effectiveLimit = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return catalog.getNameIndex().search(name, effectiveLimit);
+    }
+    
+    private List<ItemSuggestionDTO> autocomplete(ItemCatalogView current, String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        
+        int[] positions = current.getCatalog().getNameIndex()
+                .complete(prefix, Math.max(1, Math.min(limit, MAX_AUTOCOMPLETE_LIMIT)));
         
-        return templates.stream()
-                .map(ItemCatalogDTO::fromItemTemplate)
-                .collect(Collectors.toList());
+        List<ItemSuggestionDTO> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(current.suggestion(position));
+        }
+        return result;
+    }
+    
+    /**
+     * Página del catálogo completo ordenada por ID (paginación por cursor).
+     * 
+     * <p>El cursor es el ID del último item entregado; el recorrido empieza en el
+     * siguiente ID, por lo que el costo depende solo del tamaño de la página.
+     * 
+     * @param cursor ID del último item de la página anterior (null para la primera)
+     * @param size Tamaño de página solicitado (1..{@value #MAX_PAGE_SIZE})
+     * @param fields Campos a incluir separados por coma, o null para todos
+     * @param format Formato de la respuesta
+     * @return Página con la forma {@code {"items":[...],"nextCursor":id|null}} y la versión del catálogo
+     * @throws InvalidCatalogQueryException si algún campo no existe
+     */
+    public CatalogBody getItemsPageBody(Integer cursor, int size, String fields, CatalogFormat format) {
+        ItemCatalogView current = currentView();
+        List<String> projection = current.parseFields(fields);
+        int pageSize = pageSize(size);
+        return idPage(current, current.getCatalog().getIndex().page(afterId(cursor), pageSize + 1), pageSize, projection, format);
+    }
+    
+    /**
+     * Página de los items de un tipo ordenada por ID.
+     * 
+     * @see #getItemsPageBody(Integer, int, String, CatalogFormat)
+     */
+    public CatalogBody getItemsByTypePageBody(String type, Integer cursor, int size, String fields, CatalogFormat format) {
+        ItemCatalogView current = currentView();
+        List<String> projection = current.parseFields(fields);
+        int pageSize = pageSize(size);
+        return idPage(current, current.getCatalog().getIndex().pageWithType(type, afterId(cursor), pageSize + 1), pageSize, projection, format);
+    }
+    
+    /**
+     * Página de los items de un grade ordenada por ID.
+     * 
+     * @see #getItemsPageBody(Integer, int, String, CatalogFormat)
+     */
+    public CatalogBody getItemsByGradePageBody(String grade, Integer cursor, int size, String fields, CatalogFormat format) {
+        ItemCatalogView current = currentView();
+        List<String> projection = current.parseFields(fields);
+        int pageSize = pageSize(size);
+        return idPage(current, current.getCatalog().getIndex().pageWithGrade(grade, afterId(cursor), pageSize + 1), pageSize, projection, format);
+    }
+    
+    /**
+     * Página de los items que cumplen todos los criterios de una consulta, ordenada por ID.
+     * 
+     * <p>Los criterios se evalúan con los índices precalculados del catálogo (bitsets por
+     * valor y columnas numéricas ordenadas) y se combinan con AND; el recorrido de la
+     * página solo visita las posiciones del resultado.
+     * 
+     * @param query Criterios de la consulta (null o vacía para todo el catálogo)
+     * @param cursor ID del último item de la página anterior (null para la primera)
+     * @param size Tamaño de página solicitado (1..{@value #MAX_PAGE_SIZE})
+     * @param fields Campos a incluir separados por coma, o null para todos
+     * @param format Formato de la respuesta
+     * @return Página con la forma {@code {"items":[...],"nextCursor":id|null}} y la versión del catálogo
+     * @throws InvalidCatalogQueryException si un rango o los campos no son válidos
+     */
+    public CatalogBody queryBody(ItemQuery query, Integer cursor, int size, String fields, CatalogFormat format) {
+        ItemCatalogView current = currentView();
+        List<String> projection = current.parseFields(fields);
+        ItemQuery criteria = query != null ? query : new ItemQuery();
+        validateRange("weight", criteria.getWeight());
+        validateRange("price", criteria.getPrice());
+        validateRange("patk", criteria.getPAtk());
+        validateRange("matk", criteria.getMAtk());
+        validateRange("pdef", criteria.getPDef());
+        validateRange("mdef", criteria.getMDef());
+        
+        ItemCatalogIndex index = current.getCatalog().getIndex();
+        BitSet matches = index.matching(criteria);
+        int pageSize = pageSize(size);
+        return idPage(current, index.pageOf(matches, afterId(cursor), pageSize + 1), pageSize, projection, format);
+    }
+    
+    private static void validateRange(String name, ItemQuery.Range range) {
+        if (range != null && range.getMin() != null && range.getMax() != null && range.getMin() > range.getMax()) {
+            throw new InvalidCatalogQueryException("Rango inválido para " + name + ": min mayor que max");
+        }
+    }
+    
+    /**
+     * Arma la página a partir de hasta {@code pageSize + 1} items: si sobra uno, hay
+     * página siguiente y su cursor es el ID del último item entregado.
+     */
+    private CatalogBody idPage(ItemCatalogView current, List<ItemTemplate> items, int pageSize, List<String> projection,
+                               CatalogFormat format) {
+        Integer nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            nextCursor = items.get(pageSize - 1).getId();
+        }
+        return page(current, items, projection, nextCursor, format);
+    }
+    
+    private static CatalogBody page(ItemCatalogView current, List<ItemTemplate> items, List<String> projection,
+                                    Integer nextCursor, CatalogFormat format) {
+        byte[] body = format == CatalogFormat.CBOR
+                ? current.pageCbor(items, projection, nextCursor)
+                : current.pageJson(items, projection, nextCursor);
+        return new CatalogBody(body, current.getVersion(), format, false);
+    }
+    
+    private static CatalogBody array(ItemCatalogView current, List<ItemTemplate> items, CatalogFormat format) {
+        byte[] body = format == CatalogFormat.CBOR ? current.cborArray(items) : current.jsonArray(items);
+        return new CatalogBody(body, current.getVersion(), format, false);
+    }
+    
+    private static int afterId(Integer cursor) {
+        return cursor != null ? cursor : -1;
+    }
+    
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+    
+    /**
+     * Sugiere items cuyo nombre empieza con el prefijo indicado (autocompletado).
+     * 
+     * <p>Se resuelve con búsqueda binaria sobre los nombres ordenados del catálogo y
+     * devuelve sugerencias precalculadas, por lo que cada llamada solo crea la lista
+     * de respuesta y su serialización. Las sugerencias vienen en orden alfabético. El
+     * límite se ajusta al rango 1..{@value #MAX_AUTOCOMPLETE_LIMIT}.
+     * 
+     * @param prefix Comienzo del nombre (case-insensitive)
+     * @param limit Cantidad máxima de sugerencias solicitada
+     * @param format Formato de la respuesta
+     * @return Sugerencias serializadas con la versión del catálogo (array vacío si el prefijo es nulo o en blanco)
+     */
+    public CatalogBody autocompleteBody(String prefix, int limit, CatalogFormat format) {
+        ItemCatalogView current = currentView();
+        List<ItemSuggestionDTO> suggestions = autocomplete(current, prefix, limit);
+        if (format == CatalogFormat.CBOR) {
+            return new CatalogBody(current.cbor(suggestions), current.getVersion(), format, false);
+        }
+        try {
+            return new CatalogBody(objectMapper.writeValueAsBytes(suggestions), current.getVersion(), format, false);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudieron serializar las sugerencias", e);
+        }
     }
     
     /**
@@ -87,17 +405,18 @@ public class ItemCatalogService {
      * 
      * <p>Los tipos válidos son: "Weapon", "Armor", "EtcItem"
      * 
+     * <p>Se resuelve con el índice precalculado del catálogo: el costo es proporcional
+     * a la cantidad de items del resultado, no al tamaño del catálogo. El array se arma
+     * con los fragmentos ya serializados de cada item.
+     * 
      * @param type Tipo de item a filtrar (case-insensitive)
-     * @return Lista de DTOs de items que coinciden con el tipo especificado
+     * @param format Formato de la respuesta
+     * @return Items del tipo, ordenados por ID, serializados con la versión del catálogo
      */
-    public List<ItemCatalogDTO> getItemsByType(String type) {
+    public CatalogBody getItemsByTypeBody(String type, CatalogFormat format) {
         logger.debug("Filtrando items por tipo: {}", type);
-        Collection<ItemTemplate> templates = itemTable.getAllItems();
-        
-        return templates.stream()
-                .filter(t -> t.getItemType().equalsIgnoreCase(type))
-                .map(ItemCatalogDTO::fromItemTemplate)
-                .collect(Collectors.toList());
+        ItemCatalogView current = currentView();
+        return array(current, current.getCatalog().getIndex().itemsWithType(type), format);
     }
     
     /**
@@ -105,50 +424,216 @@ public class ItemCatalogService {
      * 
      * <p>Los grades válidos son: "NONE", "D", "C", "B", "A", "S"
      * 
+     * <p>Se resuelve con el índice precalculado del catálogo, igual que
+     * {@link #getItemsByTypeBody(String, CatalogFormat)}.
+     * 
      * @param grade Grade de cristal a filtrar (case-insensitive)
-     * @return Lista de DTOs de items que coinciden con el grade especificado
+     * @param format Formato de la respuesta
+     * @return Items del grade, ordenados por ID, serializados con la versión del catálogo
      */
-    public List<ItemCatalogDTO> getItemsByGrade(String grade) {
+    public CatalogBody getItemsByGradeBody(String grade, CatalogFormat format) {
         logger.debug("Filtrando items por grade: {}", grade);
-        Collection<ItemTemplate> templates = itemTable.getAllItems();
+        ItemCatalogView current = currentView();
+        return array(current, current.getCatalog().getIndex().itemsWithGrade(grade), format);
+    }
+    
+    /**
+     * Agrega un delta al historial descartando los más viejos. Se llama con el lock
+     * de construcción de vistas tomado.
+     */
+    private void recordDelta(ItemCatalogDelta delta) {
+        List<ItemCatalogDelta> history = new ArrayList<>(deltaHistory);
+        history.add(delta);
+        while (history.size() > Math.max(0, deltaHistorySize)) {
+            history.remove(0);
+        }
+        deltaHistory = List.copyOf(history);
+        logger.info("🧾 Catálogo {} → {}: {} items cambiados",
+                delta.getFromVersion(), delta.getToVersion(), delta.getChangeCount());
+    }
+    
+    /**
+     * Obtiene los cambios del catálogo desde una versión anterior.
+     * 
+     * <p>Combina los deltas del historial desde {@code since} hasta la versión actual y
+     * retorna los items agregados y modificados completos y los IDs eliminados:
+     * 
+     * <pre>
+     * {"fromVersion": "...", "toVersion": "...", "fullSync": false,
+     *  "added": [items], "changed": [items], "removed": [ids]}
+     * </pre>
+     * 
+     * <p>Si la versión ya no está en el historial (o es desconocida) la respuesta es
+     * {@code {"fromVersion": "...", "toVersion": "...", "fullSync": true}} y el cliente
+     * debe volver a descargar el catálogo completo.
+     * 
+     * @param since Versión que tiene el cliente (ETag o "version" de /stats)
+     * @param format Formato de la respuesta
+     * @return Delta serializado con la versión actual del catálogo
+     */
+    public CatalogBody getDeltaBody(String since, CatalogFormat format) {
+        ItemCatalogView current = currentView();
+        String sinceVersion = since != null
+                ? since.replace("\"", "").replace("-gzip", "").replace("-cbor", "").strip()
+                : "";
+        
+        Map<Integer, ItemCatalogDelta.Change> changes = null;
+        if (sinceVersion.equals(current.getVersion())) {
+            changes = Map.of();
+        } else {
+            List<ItemCatalogDelta> history = deltaHistory;
+            for (int i = 0; i < history.size() && changes == null; i++) {
+                if (!history.get(i).getFromVersion().equals(sinceVersion)) {
+                    continue;
+                }
+                // La cadena tiene que llegar exactamente a la versión que se va a responder
+                for (int j = i; j < history.size(); j++) {
+                    if (history.get(j).getToVersion().equals(current.getVersion())) {
+                        changes = ItemCatalogDelta.compose(history.subList(i, j + 1));
+                        break;
+                    }
+                }
+            }
+        }
+        
+        List<ItemTemplate> added = new ArrayList<>();
+        List<ItemTemplate> changed = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+        if (changes != null) {
+            changes.forEach((id, change) -> {
+                switch (change) {
+                    case ADDED -> added.add(current.getCatalog().getTemplate(id));
+                    case CHANGED -> changed.add(current.getCatalog().getTemplate(id));
+                    case REMOVED -> removed.add(id);
+                }
+            });
+        } else {
+            logger.debug("Versión {} fuera del historial de deltas, se requiere sincronización completa", sinceVersion);
+        }
+        
+        if (format == CatalogFormat.CBOR) {
+            // El delta es chico: se serializa en el momento a partir de los DTOs precalculados
+            Map<String, Object> delta = new LinkedHashMap<>();
+            delta.put("fromVersion", sinceVersion);
+            delta.put("toVersion", current.getVersion());
+            delta.put("fullSync", changes == null);
+            if (changes != null) {
+                delta.put("added", current.dtos(added));
+                delta.put("changed", current.dtos(changed));
+                delta.put("removed", removed);
+            }
+            return new CatalogBody(current.cbor(delta), current.getVersion(), format, false);
+        }
         
-        return templates.stream()
-                .filter(t -> t.getGrade().equalsIgnoreCase(grade))
-                .map(ItemCatalogDTO::fromItemTemplate)
-                .collect(Collectors.toList());
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(("{\"fromVersion\":").getBytes(StandardCharsets.UTF_8));
+            out.write(objectMapper.writeValueAsBytes(sinceVersion));
+            out.write((",\"toVersion\":\"" + current.getVersion() + "\",\"fullSync\":" + (changes == null)).getBytes(StandardCharsets.UTF_8));
+            
+            if (changes != null) {
+                out.write(",\"added\":".getBytes(StandardCharsets.UTF_8));
+                out.write(current.jsonArray(added));
+                out.write(",\"changed\":".getBytes(StandardCharsets.UTF_8));
+                out.write(current.jsonArray(changed));
+                out.write(",\"removed\":".getBytes(StandardCharsets.UTF_8));
+                out.write(objectMapper.writeValueAsBytes(removed));
+            }
+            out.write('}');
+            return new CatalogBody(out.toByteArray(), current.getVersion(), format, false);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo serializar el delta del catálogo", e);
+        }
+    }
+    
+    /**
+     * Registra la construcción de la vista como listener de ItemTable, antes de que
+     * empiece la carga del catálogo.
+     */
+    @PostConstruct
+    public void init() {
+        itemTable.addPublishListener(this::publishView);
+    }
+    
+    /**
+     * Construye la vista precalculada de un catálogo y la publica.
+     * 
+     * <p>Corre en el hilo de la carga o recarga, antes de que ItemTable publique el catálogo
+     * y pase a READY (avisa a sus listeners con su lock de carga tomado): ninguna petición
+     * paga la construcción y un catálogo listo siempre tiene su vista. Reutiliza los items
+     * sin cambios de la vista anterior y registra el delta entre ambas versiones.
+     * 
+     * @param catalog Catálogo publicado
+     */
+    private void publishView(ItemCatalog catalog) {
+        ItemCatalogView previous = view;
+        long start = System.currentTimeMillis();
+        ItemCatalogView built = ItemCatalogView.build(catalog, previous, objectMapper);
+        logger.info("📦 Respuestas precalculadas para {} items en {} ms (versión {})",
+                catalog.getItemCount(), System.currentTimeMillis() - start, built.getVersion());
+        if (previous != null && !previous.getVersion().equals(built.getVersion())) {
+            recordDelta(ItemCatalogDelta.between(previous, built));
+        }
+        view = built;
+    }
+    
+    /**
+     * Obtiene la vista precalculada del catálogo publicado actualmente.
+     * 
+     * <p>La vista se construye al publicarse cada catálogo (ver {@link #publishView}); aquí
+     * solo se lee la referencia.
+     * 
+     * @throws CatalogNotReadyException si la carga inicial del catálogo todavía no terminó
+     */
+    private ItemCatalogView currentView() {
+        ItemCatalogView current = view;
+        if (current == null || !itemTable.isReady()) {
+            throw new CatalogNotReadyException(notReadyRetryAfterSeconds);
+        }
+        return current;
     }
     
     /**
      * Recarga completamente el catálogo de items desde los archivos XML.
      * 
-     * <p>Este método limpia el catálogo actual y vuelve a cargar todos los items
-     * desde la ruta configurada. Útil cuando se actualizan los archivos XML.
+     * <p>Este método vuelve a cargar todos los items desde la ruta configurada y
+     * reemplaza el catálogo de una sola vez. Útil cuando se actualizan los archivos XML.
      * 
+     * @return Reporte de la recarga con tiempos y errores por archivo, o null si no había archivos
      * @see com.ak4n1.terra.api.terra_api.game.l2j.data.ItemTable#reload()
      */
-    public void reloadCatalog() {
+    public ItemLoadReport reloadCatalog() {
         logger.info("Recargando catálogo de items...");
-        itemTable.reload();
+        ItemLoadReport report = itemTable.reload();
         logger.info("Catálogo recargado exitosamente");
+        return report;
     }
     
     /**
      * Obtiene estadísticas agregadas del catálogo de items.
      * 
-     * <p>Las estadísticas incluyen el total de items y el desglose por tipo
-     * (armas, armaduras e items misceláneos).
+     * <p>Las estadísticas incluyen el total de items, el desglose por tipo
+     * (armas, armaduras e items misceláneos), la cantidad de items apilables y
+     * comerciables, todos leídos de los índices precalculados del catálogo, la
+     * memoria estimada de los items y del índice por ID y la versión del catálogo.
      * 
      * @return Objeto CatalogStats con las estadísticas del catálogo
      */
     public CatalogStats getStats() {
-        int totalItems = itemTable.getItemCount();
-        Collection<ItemTemplate> all = itemTable.getAllItems();
-        
-        long weapons = all.stream().filter(t -> t.getItemType().equals("Weapon")).count();
-        long armors = all.stream().filter(t -> t.getItemType().equals("Armor")).count();
-        long etcItems = all.stream().filter(t -> t.getItemType().equals("EtcItem")).count();
+        // Una sola lectura del catálogo para que los contadores sean consistentes entre sí
+        ItemCatalogView current = currentView();
+        ItemCatalog catalog = current.getCatalog();
+        ItemCatalogIndex index = catalog.getIndex();
         
-        return new CatalogStats(totalItems, weapons, armors, etcItems);
+        return new CatalogStats(current.getVersion(),
+                catalog.getItemCount(),
+                index.countByType("Weapon"),
+                index.countByType("Armor"),
+                index.countByType("EtcItem"),
+                index.countStackable(),
+                index.countTradeable(),
+                catalog.getTemplateBytes(),
+                catalog.getIdIndexBytes());
     }
     
     /**
@@ -157,16 +642,34 @@ public class ItemCatalogService {
      * @since 1.0
      */
     public static class CatalogStats {
+        private final String version;
         private final int totalItems;
         private final long weapons;
         private final long armors;
         private final long etcItems;
+        private final long stackable;
+        private final long tradeable;
+        private final long templateBytes;
+        private final long idIndexBytes;
         
-        public CatalogStats(int totalItems, long weapons, long armors, long etcItems) {
+        public CatalogStats(String version, int totalItems, long weapons, long armors, long etcItems,
+                            long stackable, long tradeable, long templateBytes, long idIndexBytes) {
+            this.version = version;
             this.totalItems = totalItems;
             this.weapons = weapons;
             this.armors = armors;
             this.etcItems = etcItems;
+            this.stackable = stackable;
+            this.tradeable = tradeable;
+            this.templateBytes = templateBytes;
+            this.idIndexBytes = idIndexBytes;
+        }
+        
+        /**
+         * Versión del catálogo (hash del contenido), la misma que se usa como ETag.
+         */
+        public String getVersion() {
+            return version;
         }
         
         public int getTotalItems() {
@@ -184,6 +687,90 @@ public class ItemCatalogService {
         public long getEtcItems() {
             return etcItems;
         }
+        
+        public long getStackable() {
+            return stackable;
+        }
+        
+        public long getTradeable() {
+            return tradeable;
+        }
+        
+        /**
+         * Memoria estimada retenida por los items del catálogo (objetos y textos), en bytes.
+         */
+        public long getTemplateBytes() {
+            return templateBytes;
+        }
+        
+        /**
+         * Memoria estimada del índice por ID del catálogo, en bytes.
+         */
+        public long getIdIndexBytes() {
+            return idIndexBytes;
+        }
+    }
+    
+    /**
+     * Formatos en los que se pueden pedir las respuestas del catálogo.
+     * 
+     * @since 1.0
+     */
+    public enum CatalogFormat {
+        /** application/json */
+        JSON,
+        /** application/cbor (RFC 8949): mismo contenido, codificación binaria más compacta */
+        CBOR
+    }
+    
+    /**
+     * Respuesta ya serializada junto con la versión del catálogo del que salió.
+     * 
+     * <p>Mientras el catálogo no cambie, la misma consulta produce exactamente los mismos
+     * bytes, por lo que la versión (más el formato y la codificación) sirve como ETag fuerte.
+     * 
+     * @since 1.0
+     */
+    public static class CatalogBody {
+        private final byte[] body;
+        private final String version;
+        private final CatalogFormat format;
+        private final boolean gzip;
+        
+        public CatalogBody(byte[] body, String version, CatalogFormat format, boolean gzip) {
+            this.body = body;
+            this.version = version;
+            this.format = format;
+            this.gzip = gzip;
+        }
+        
+        /**
+         * Contenido de la respuesta. Puede ser un buffer compartido: no modificar.
+         */
+        public byte[] getBody() {
+            return body;
+        }
+        
+        public String getVersion() {
+            return version;
+        }
+        
+        public CatalogFormat getFormat() {
+            return format;
+        }
+        
+        /**
+         * true si el contenido está comprimido con gzip.
+         */
+        public boolean isGzip() {
+            return gzip;
+        }
+        
+        /**
+         * ETag fuerte de la respuesta: distinta para cada formato y codificación del mismo contenido.
+         */
+        public String getETag() {
+            return "\"" + version + (format == CatalogFormat.CBOR ? "-cbor" : "") + (gzip ? "-gzip" : "") + "\"";
+        }
     }
 }
-
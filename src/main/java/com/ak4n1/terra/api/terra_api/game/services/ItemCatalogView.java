@@ -0,0 +1,590 @@
+package com.ak4n1.terra.api.terra_api.game.services;
+
+import com.ak4n1.terra.api.terra_api.game.dto.ItemCatalogDTO;
+import com.ak4n1.terra.api.terra_api.game.dto.ItemSuggestionDTO;
+import com.ak4n1.terra.api.terra_api.game.exceptions.InvalidCatalogQueryException;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemCatalog;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemCatalogIndex;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Representación precalculada de un catálogo para las respuestas de la API.
+ *
+ * <p>Para cada item del catálogo guarda su {@link ItemCatalogDTO}, su
+ * {@link ItemSuggestionDTO} y el JSON ya serializado del DTO, todos indexados por la
+ * posición del item en {@link ItemCatalogIndex}. El listado completo se guarda como
+ * un único array JSON. Las respuestas se arman concatenando fragmentos ya
+ * serializados, sin mapear ni pasar por Jackson en cada petición.
+ *
+ * <p>Las páginas con proyección de campos ({@code fields=}) no pueden usar los
+ * fragmentos completos: se serializan en el momento solo con las propiedades
+ * pedidas, leídas de los DTOs precalculados, con un costo acotado por el tamaño de
+ * la página.
+ *
+ * <p>Cada vista tiene una versión: un hash del JSON completo del catálogo. Como todas
+ * las respuestas se derivan de ese contenido, dos vistas con la misma versión
+ * responden exactamente lo mismo y la versión sirve de ETag. El listado completo
+ * comprimido con gzip también se arma al construir la vista, en el hilo de la carga:
+ * ninguna petición paga la compresión ni espera un lock. Si la versión no cambió se
+ * reutiliza el de la vista anterior.
+ *
+ * <p>Las mismas respuestas existen en CBOR (RFC 8949) para los clientes que lo piden
+ * con {@code Accept: application/cbor}. Los fragmentos CBOR de cada item y el listado
+ * completo se serializan una sola vez, la primera vez que se pide ese formato, con
+ * la configuración del ObjectMapper de la aplicación; los arrays y las páginas se
+ * arman concatenando fragmentos igual que en JSON.
+ *
+ * <p>Se construye una vez por catálogo publicado. Si se construye a partir de la
+ * vista anterior, los items que no cambiaron (misma instancia de ItemTemplate)
+ * reutilizan sus DTOs y su JSON, de modo que una recarga incremental solo serializa
+ * los items modificados.
+ *
+ * @see ItemCatalogService
+ * @author ak4n1
+ * @since 1.0
+ */
+final class ItemCatalogView {
+
+    private static final byte[] EMPTY_ARRAY_JSON = {'[', ']'};
+
+    /**
+     * Tipos mayores de CBOR usados al armar arrays y páginas (RFC 8949, sección 3.1).
+     */
+    private static final int CBOR_UNSIGNED = 0;
+    private static final int CBOR_NEGATIVE = 1;
+    private static final int CBOR_TEXT = 3;
+    private static final int CBOR_ARRAY = 4;
+    private static final int CBOR_MAP = 5;
+    private static final byte CBOR_NULL = (byte) 0xf6;
+
+    private final ItemCatalog catalog;
+    private final ItemCatalogDTO[] dtos;
+    private final ItemSuggestionDTO[] suggestions;
+    private final byte[][] itemJson;
+    private final byte[] allItemsJson;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final Map<String, AnnotatedMember> properties;
+    private final String version;
+    private final byte[] allItemsGzip;
+
+    /**
+     * Fragmentos CBOR heredados de la vista anterior (null donde el item cambió),
+     * hasta que se pida CBOR por primera vez.
+     */
+    private byte[][] inheritedCbor;
+    private volatile CborEncoding cbor;
+
+    private ItemCatalogView(ItemCatalog catalog, ItemCatalogView previous, ItemCatalogDTO[] dtos,
+                            ItemSuggestionDTO[] suggestions, byte[][] itemJson, byte[][] inheritedCbor,
+                            ObjectMapper objectMapper, ObjectMapper cborMapper) {
+        this.catalog = catalog;
+        this.objectMapper = objectMapper;
+        this.cborMapper = cborMapper;
+        this.inheritedCbor = inheritedCbor;
+        this.properties = serializableProperties(objectMapper);
+        this.dtos = dtos;
+        this.suggestions = suggestions;
+        this.itemJson = itemJson;
+        this.allItemsJson = concat(itemJson, itemJson.length, i -> i);
+        this.version = contentHash(allItemsJson);
+        this.allItemsGzip = previous != null && previous.version.equals(version)
+                ? previous.allItemsGzip
+                : compress(allItemsJson);
+    }
+
+    /**
+     * Primeros 16 bytes del SHA-256 del contenido, en hexadecimal.
+     */
+    private static String contentHash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Construye la vista de un catálogo.
+     *
+     * @param catalog Catálogo publicado
+     * @param previous Vista del catálogo anterior para reutilizar items sin cambios, o null
+     * @param objectMapper ObjectMapper de la aplicación, para serializar igual que Spring MVC
+     * @return Vista lista para responder
+     * @throws IllegalStateException si un DTO no se puede serializar
+     */
+    static ItemCatalogView build(ItemCatalog catalog, ItemCatalogView previous, ObjectMapper objectMapper) {
+        ItemCatalogIndex index = catalog.getIndex();
+        int size = index.size();
+        ItemCatalogDTO[] dtos = new ItemCatalogDTO[size];
+        ItemSuggestionDTO[] suggestions = new ItemSuggestionDTO[size];
+        byte[][] itemJson = new byte[size][];
+        byte[][] previousCbor = previous != null ? previous.cborFragments() : null;
+        byte[][] inheritedCbor = previousCbor != null ? new byte[size][] : null;
+
+        for (int pos = 0; pos < size; pos++) {
+            ItemTemplate template = index.itemAt(pos);
+            int previousPos = previous != null ? previous.positionOf(template) : -1;
+            if (previousPos >= 0) {
+                dtos[pos] = previous.dtos[previousPos];
+                suggestions[pos] = previous.suggestions[previousPos];
+                itemJson[pos] = previous.itemJson[previousPos];
+                if (inheritedCbor != null) {
+                    inheritedCbor[pos] = previousCbor[previousPos];
+                }
+                continue;
+            }
+
+            dtos[pos] = ItemCatalogDTO.fromItemTemplate(template);
+            suggestions[pos] = ItemSuggestionDTO.fromItemTemplate(template);
+            try {
+                itemJson[pos] = objectMapper.writeValueAsBytes(dtos[pos]);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("No se pudo serializar el item " + template.getId(), e);
+            }
+        }
+        // Misma configuración que el ObjectMapper de la aplicación, con salida CBOR
+        ObjectMapper cborMapper = previous != null && previous.objectMapper == objectMapper
+                ? previous.cborMapper
+                : objectMapper.copyWith(new CBORFactory());
+        return new ItemCatalogView(catalog, previous, dtos, suggestions, itemJson, inheritedCbor, objectMapper, cborMapper);
+    }
+
+    /**
+     * Propiedades JSON de ItemCatalogDTO con el mismo nombre que usa Jackson al serializar.
+     */
+    private static Map<String, AnnotatedMember> serializableProperties(ObjectMapper objectMapper) {
+        JavaType type = objectMapper.constructType(ItemCatalogDTO.class);
+        BeanDescription description = objectMapper.getSerializationConfig().introspect(type);
+        Map<String, AnnotatedMember> properties = new LinkedHashMap<>();
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            if (property.couldSerialize() && property.getAccessor() != null) {
+                properties.put(property.getName(), property.getAccessor());
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Posición del mismo ItemTemplate en esta vista, o -1 si el item cambió o no existe.
+     */
+    private int positionOf(ItemTemplate template) {
+        int pos = catalog.getIndex().positionOf(template.getId());
+        return pos >= 0 && catalog.getIndex().itemAt(pos) == template ? pos : -1;
+    }
+
+    ItemCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Versión del contenido de esta vista (hash del JSON completo).
+     */
+    String getVersion() {
+        return version;
+    }
+
+    ItemSuggestionDTO suggestion(int position) {
+        return suggestions[position];
+    }
+
+    /**
+     * DTOs precalculados de los items (los usa el delta en CBOR, que se serializa en el momento).
+     */
+    List<ItemCatalogDTO> dtos(List<ItemTemplate> templates) {
+        List<ItemCatalogDTO> result = new ArrayList<>(templates.size());
+        for (ItemTemplate template : templates) {
+            result.add(dto(template));
+        }
+        return result;
+    }
+
+    private ItemCatalogDTO dto(ItemTemplate template) {
+        int pos = positionOf(template);
+        return pos >= 0 ? dtos[pos] : ItemCatalogDTO.fromItemTemplate(template);
+    }
+
+    /**
+     * IDs de todos los items de esta vista, ordenados.
+     */
+    int[] ids() {
+        int[] ids = new int[dtos.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = dtos[i].getId();
+        }
+        return ids;
+    }
+
+    /**
+     * JSON del item con ese ID, o null si no existe en esta vista.
+     */
+    byte[] json(int id) {
+        int pos = catalog.getIndex().positionOf(id);
+        return pos >= 0 ? itemJson[pos] : null;
+    }
+
+    /**
+     * JSON del item, o null si el template no pertenece a este catálogo.
+     */
+    byte[] json(ItemTemplate template) {
+        int pos = positionOf(template);
+        return pos >= 0 ? itemJson[pos] : null;
+    }
+
+    /**
+     * Array JSON del catálogo completo, serializado al construir la vista.
+     * No debe modificarse: se comparte entre todas las respuestas.
+     */
+    byte[] allItemsJson() {
+        return allItemsJson;
+    }
+
+    /**
+     * Listado completo comprimido con gzip, comprimido al construir la vista.
+     * El buffer se comparte entre respuestas y no debe modificarse.
+     */
+    byte[] allItemsGzip() {
+        return allItemsGzip;
+    }
+
+    private static byte[] compress(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 8);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Array JSON con los items indicados, armado concatenando sus fragmentos.
+     *
+     * @param templates Items de este catálogo, en el orden de la respuesta
+     * @return Bytes del array JSON
+     */
+    byte[] jsonArray(List<ItemTemplate> templates) {
+        if (templates.isEmpty()) {
+            return EMPTY_ARRAY_JSON.clone();
+        }
+        int[] positions = new int[templates.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = positionOf(templates.get(i));
+        }
+        return concat(itemJson, positions.length, i -> positions[i]);
+    }
+
+    /**
+     * Valida una lista de campos separados por coma ({@code fields=id,name,icon}).
+     *
+     * @param fields Campos pedidos, o null/vacío para todos
+     * @return Campos sin repetir en el orden pedido, o null si se piden todos
+     * @throws InvalidCatalogQueryException si algún campo no existe
+     */
+    List<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.strip();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!properties.containsKey(name)) {
+                throw new InvalidCatalogQueryException("Campo desconocido: " + name + ". Campos válidos: " + properties.keySet());
+            }
+            selected.add(name);
+        }
+        return selected.isEmpty() ? null : new ArrayList<>(selected);
+    }
+
+    /**
+     * Respuesta paginada: {@code {"items":[...],"nextCursor":...}}.
+     *
+     * @param templates Items de la página, de este catálogo
+     * @param fields Campos a incluir (de {@link #parseFields(String)}), o null para el DTO completo
+     * @param nextCursor Cursor de la página siguiente, o null si es la última
+     * @return Bytes JSON de la página
+     */
+    byte[] pageJson(List<ItemTemplate> templates, List<String> fields, Integer nextCursor) {
+        byte[] items = fields == null ? jsonArray(templates) : projectedJsonArray(templates, fields);
+        byte[] head = "{\"items\":".getBytes(StandardCharsets.UTF_8);
+        byte[] tail = (",\"nextCursor\":" + nextCursor + "}").getBytes(StandardCharsets.UTF_8);
+
+        byte[] out = new byte[head.length + items.length + tail.length];
+        System.arraycopy(head, 0, out, 0, head.length);
+        System.arraycopy(items, 0, out, head.length, items.length);
+        System.arraycopy(tail, 0, out, head.length + items.length, tail.length);
+        return out;
+    }
+
+    /**
+     * Respuesta de una consulta por lote: {@code {"items":[...],"missing":[ids]}}.
+     *
+     * @param templates Items encontrados, de este catálogo, en el orden de la respuesta
+     * @param missing IDs pedidos que no existen en el catálogo
+     * @return Bytes JSON de la respuesta
+     */
+    byte[] batchJson(List<ItemTemplate> templates, int[] missing) {
+        byte[] items = jsonArray(templates);
+        StringBuilder tail = new StringBuilder(",\"missing\":[");
+        for (int i = 0; i < missing.length; i++) {
+            if (i > 0) {
+                tail.append(',');
+            }
+            tail.append(missing[i]);
+        }
+        tail.append("]}");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(items.length + tail.length() + 10);
+        out.writeBytes("{\"items\":".getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(items);
+        out.writeBytes(tail.toString().getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    /**
+     * Igual que {@link #batchJson(List, int[])}, en CBOR.
+     */
+    byte[] batchCbor(List<ItemTemplate> templates, int[] missing) {
+        byte[] items = cborArray(templates);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(items.length + 16 + missing.length * 5);
+        writeCborHead(out, CBOR_MAP, 2);
+        writeCborText(out, "items");
+        out.writeBytes(items);
+        writeCborText(out, "missing");
+        writeCborHead(out, CBOR_ARRAY, missing.length);
+        for (int id : missing) {
+            if (id >= 0) {
+                writeCborHead(out, CBOR_UNSIGNED, id);
+            } else {
+                // Enteros negativos: tipo mayor 1 con argumento -1 - n
+                writeCborHead(out, CBOR_NEGATIVE, -1 - id);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] projectedJsonArray(List<ItemTemplate> templates, List<String> fields) {
+        try {
+            return objectMapper.writeValueAsBytes(projectedRows(templates, fields));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la proyección de items", e);
+        }
+    }
+
+    private List<Map<String, Object>> projectedRows(List<ItemTemplate> templates, List<String> fields) {
+        List<Map<String, Object>> rows = new ArrayList<>(templates.size());
+        for (ItemTemplate template : templates) {
+            ItemCatalogDTO dto = dto(template);
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, properties.get(field).getValue(dto));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * CBOR del item, o null si el template no pertenece a este catálogo.
+     */
+    byte[] cbor(ItemTemplate template) {
+        int pos = positionOf(template);
+        return pos >= 0 ? cbor().items[pos] : null;
+    }
+
+    /**
+     * Array CBOR del catálogo completo. Se arma una sola vez por vista;
+     * el buffer se comparte entre respuestas y no debe modificarse.
+     */
+    byte[] allItemsCbor() {
+        return cbor().all;
+    }
+
+    /**
+     * Array CBOR con los items indicados, armado concatenando sus fragmentos.
+     *
+     * @param templates Items de este catálogo, en el orden de la respuesta
+     * @return Bytes del array CBOR
+     */
+    byte[] cborArray(List<ItemTemplate> templates) {
+        byte[][] fragments = cbor().items;
+        int[] positions = new int[templates.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = positionOf(templates.get(i));
+        }
+        return concatCbor(fragments, positions.length, i -> positions[i]);
+    }
+
+    /**
+     * Igual que {@link #pageJson(List, List, Integer)}, en CBOR: un mapa con las
+     * claves {@code items} y {@code nextCursor}.
+     */
+    byte[] pageCbor(List<ItemTemplate> templates, List<String> fields, Integer nextCursor) {
+        byte[] items = fields == null ? cborArray(templates) : cbor(projectedRows(templates, fields));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(items.length + 24);
+        writeCborHead(out, CBOR_MAP, 2);
+        writeCborText(out, "items");
+        out.writeBytes(items);
+        writeCborText(out, "nextCursor");
+        if (nextCursor != null) {
+            writeCborHead(out, CBOR_UNSIGNED, nextCursor);
+        } else {
+            out.write(CBOR_NULL);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Serializa un valor cualquiera en CBOR con la configuración de la aplicación.
+     *
+     * @throws IllegalStateException si el valor no se puede serializar
+     */
+    byte[] cbor(Object value) {
+        try {
+            return cborMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta en CBOR", e);
+        }
+    }
+
+    /**
+     * Fragmentos CBOR ya calculados (propios o heredados), para que la vista
+     * siguiente reutilice los de los items sin cambios.
+     */
+    private byte[][] cborFragments() {
+        CborEncoding encoding = cbor;
+        if (encoding != null) {
+            return encoding.items;
+        }
+        synchronized (this) {
+            return cbor != null ? cbor.items : inheritedCbor;
+        }
+    }
+
+    private CborEncoding cbor() {
+        CborEncoding encoding = cbor;
+        if (encoding == null) {
+            synchronized (this) {
+                encoding = cbor;
+                if (encoding == null) {
+                    byte[][] items = new byte[dtos.length][];
+                    for (int pos = 0; pos < items.length; pos++) {
+                        byte[] inherited = inheritedCbor != null ? inheritedCbor[pos] : null;
+                        items[pos] = inherited != null ? inherited : cbor(dtos[pos]);
+                    }
+                    encoding = new CborEncoding(items, concatCbor(items, items.length, i -> i));
+                    cbor = encoding;
+                    inheritedCbor = null;
+                }
+            }
+        }
+        return encoding;
+    }
+
+    /**
+     * Fragmentos CBOR por posición y el listado completo ya armado.
+     */
+    private static final class CborEncoding {
+        private final byte[][] items;
+        private final byte[] all;
+
+        private CborEncoding(byte[][] items, byte[] all) {
+            this.items = items;
+            this.all = all;
+        }
+    }
+
+    private static byte[] concatCbor(byte[][] fragments, int count, PositionMapper mapper) {
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            length += fragments[mapper.position(i)].length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length + 5);
+        writeCborHead(out, CBOR_ARRAY, count);
+        for (int i = 0; i < count; i++) {
+            out.writeBytes(fragments[mapper.position(i)]);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Cabecera CBOR: tipo mayor en los 3 bits altos y el argumento (longitud o
+     * valor) en la forma más corta.
+     */
+    private static void writeCborHead(ByteArrayOutputStream out, int majorType, int value) {
+        int major = majorType << 5;
+        if (value < 24) {
+            out.write(major | value);
+        } else if (value < 0x100) {
+            out.write(major | 24);
+            out.write(value);
+        } else if (value < 0x10000) {
+            out.write(major | 25);
+            out.write(value >>> 8);
+            out.write(value);
+        } else {
+            out.write(major | 26);
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+        }
+    }
+
+    private static void writeCborText(ByteArrayOutputStream out, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeCborHead(out, CBOR_TEXT, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private interface PositionMapper {
+        int position(int i);
+    }
+
+    private static byte[] concat(byte[][] fragments, int count, PositionMapper mapper) {
+        int length = 2 + Math.max(0, count - 1);
+        for (int i = 0; i < count; i++) {
+            length += fragments[mapper.position(i)].length;
+        }
+
+        byte[] out = new byte[length];
+        out[0] = '[';
+        int offset = 1;
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                out[offset++] = ',';
+            }
+            byte[] fragment = fragments[mapper.position(i)];
+            System.arraycopy(fragment, 0, out, offset, fragment.length);
+            offset += fragment.length;
+        }
+        out[offset] = ']';
+        return out;
+    }
+}
@@ -42,14 +42,14 @@ public interface PlayerStorageService {
     List<ItemDTO> getTest(int playerId);
     
     /**
-     * Fuerza la recarga de todos los items desde los archivos XML.
+     * Fuerza la recarga de un item desde los archivos XML.
      * 
-     * <p>Este método limpia el catálogo actual y vuelve a cargar todos los items
-     * desde los archivos XML especificados en la configuración.
+     * <p>Solo se vuelve a parsear el archivo XML que define el item; si el item no
+     * está en el catálogo se recargan todos los archivos.
      * 
-     * @param itemId ID del item (no utilizado, parámetro mantenido por compatibilidad)
+     * @param itemId ID del item a recargar
      * @return true si la recarga se completó exitosamente
-     * @see com.ak4n1.terra.api.terra_api.game.l2j.data.ItemTable#reload()
+     * @see com.ak4n1.terra.api.terra_api.game.l2j.data.ItemTable#reloadItem(int)
      */
     boolean forceReloadItemFromXml(int itemId);
 
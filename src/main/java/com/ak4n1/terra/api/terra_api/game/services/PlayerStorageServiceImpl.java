@@ -134,14 +134,14 @@ public class PlayerStorageServiceImpl implements PlayerStorageService {
     /**
      * {@inheritDoc}
      * 
-     * @param itemId ID del item (no utilizado, parámetro mantenido por compatibilidad)
+     * @param itemId ID del item cuyo archivo XML se debe recargar
      * @return true si la recarga se completó exitosamente
      */
     @Override
     public boolean forceReloadItemFromXml(int itemId) {
-        // ✅ SIMPLIFICADO: Recarga todo el catálogo
-        logger.info("🔄 Recargando catálogo completo de items...");
-        itemTable.reload();
+        // Solo se vuelve a parsear el archivo que define el item
+        logger.info("🔄 Recargando item {} desde su XML...", itemId);
+        itemTable.reloadItem(itemId);
         return true;
     }
 }
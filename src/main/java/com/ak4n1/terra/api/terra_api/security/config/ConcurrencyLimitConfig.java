@@ -0,0 +1,142 @@
+package com.ak4n1.terra.api.terra_api.security.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Configuración del límite de concurrencia adaptativo (load shedding).
+ * 
+ * <p>Las rutas se reparten en grupos declarados bajo {@code concurrency.limit.groups.<nombre>}
+ * (también desde YAML). Cada grupo tiene su propio límite de peticiones simultáneas, que se
+ * ajusta solo entre {@code min-limit} y {@code max-limit} según la latencia observada:
+ * 
+ * <pre>
+ * concurrency.limit.groups.offline-market.patterns=/api/game/offline-market
+ * concurrency.limit.groups.offline-market.initial-limit=10
+ * concurrency.limit.groups.offline-market.min-limit=2
+ * concurrency.limit.groups.offline-market.max-limit=40
+ * </pre>
+ * 
+ * <p>Las rutas de {@code concurrency.limit.critical-patterns} (auth, webhooks de pagos) no
+ * pertenecen a ningún grupo y nunca se rechazan. Los valores se cargan desde
+ * concurrency-limit.properties.
+ * 
+ * @author ak4n1
+ * @since 1.0
+ */
+@Component
+@PropertySource("classpath:concurrency-limit.properties")
+public class ConcurrencyLimitConfig {
+
+    @Value("${concurrency.limit.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Rutas que nunca se rechazan por concurrencia.
+     */
+    @Value("${concurrency.limit.critical-patterns:/api/auth/**,/api/payments/webhook,/api/payments/webhook/**}")
+    private List<String> criticalPatterns;
+
+    @Autowired
+    private Environment environment;
+
+    private Map<String, GroupProperties> groups = Map.of();
+
+    /**
+     * Lee los grupos declarados bajo {@code concurrency.limit.groups}.
+     */
+    @PostConstruct
+    public void bindGroups() {
+        groups = Binder.get(environment)
+                .bind("concurrency.limit.groups", Bindable.mapOf(String.class, GroupProperties.class))
+                .orElse(Map.of());
+    }
+
+    // Getters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<String> getCriticalPatterns() {
+        return criticalPatterns;
+    }
+
+    /**
+     * Grupos de rutas por nombre, ordenados por nombre.
+     */
+    public Map<String, GroupProperties> getGroups() {
+        return new TreeMap<>(groups);
+    }
+
+    /**
+     * Grupo de rutas con un límite de concurrencia compartido.
+     */
+    public static class GroupProperties {
+        private boolean enabled = true;
+        private List<String> patterns = new ArrayList<>();
+        private Set<String> methods = Set.of();
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getPatterns() {
+            return patterns;
+        }
+
+        public void setPatterns(List<String> patterns) {
+            this.patterns = patterns;
+        }
+
+        public Set<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(Set<String> methods) {
+            this.methods = methods;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+}
@@ -1,15 +1,38 @@
 package com.ak4n1.terra.api.terra_api.security.config;
 
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
 /**
  * Configuración para rate limiting de endpoints de autenticación.
  * 
  * <p>Esta clase contiene la configuración de límites de tasa por endpoint.
  * Los valores se cargan desde rate-limit.properties.
  * 
+ * <p>Además de los límites de autenticación, cualquier ruta puede limitarse con una
+ * política declarada bajo {@code rate.limit.policies.<nombre>} (también desde YAML):
+ * 
+ * <pre>
+ * rate.limit.policies.offline-market.patterns=/api/game/offline-market/**
+ * rate.limit.policies.offline-market.methods=GET,POST
+ * rate.limit.policies.offline-market.key=ip
+ * rate.limit.policies.offline-market.attempts=30
+ * rate.limit.policies.offline-market.window=1m
+ * </pre>
+ * 
  * @author ak4n1
  * @since 1.0
  */
@@ -45,6 +68,96 @@ public class RateLimitConfig {
     @Value("${rate.limit.reset.password.window.minutes:60}")
     private int resetPasswordWindowMinutes;
 
+    // ============ POLÍTICAS POR RUTA ============
+    @Autowired
+    private Environment environment;
+    
+    private Map<String, PolicyProperties> policies = Map.of();
+
+    // ============ LÍMITES POR RED ============
+    /**
+     * Límite adicional por red (IPv4 /24, IPv6 /64) evaluado junto al de cada IP, con
+     * capacidad = intentos por IP * multiplicador y la misma ventana.
+     */
+    @Value("${rate.limit.subnet.enabled:false}")
+    private boolean subnetEnabled;
+    
+    @Value("${rate.limit.subnet.multiplier:10}")
+    private int subnetMultiplier;
+    
+    @Value("${rate.limit.subnet.ipv4-prefix:24}")
+    private int subnetIpv4Prefix;
+    
+    @Value("${rate.limit.subnet.ipv6-prefix:64}")
+    private int subnetIpv6Prefix;
+
+    // ============ PROXIES ============
+    /**
+     * IPs o redes CIDR de los proxies propios, separadas por coma. X-Forwarded-For y
+     * X-Real-IP solo se leen si la conexión viene de una de ellas; vacío = nunca.
+     */
+    @Value("${rate.limit.trusted-proxies:127.0.0.1,::1}")
+    private String trustedProxies;
+
+    // ============ STORE DE BUCKETS ============
+    /**
+     * Máximo de buckets en memoria (uno por IP y endpoint). Al superarlo se descartan
+     * primero los de IPs vistas pocas veces.
+     */
+    @Value("${rate.limit.store.max-entries:100000}")
+    private long storeMaxEntries;
+
+    // ============ BACKEND ============
+    /**
+     * Dónde se guardan los buckets: "memory" (por nodo) o "jdbc" (compartidos en la base).
+     * Lo lee {@link RateLimitStoreConfig}, así que puede declararse en rate-limit.properties.
+     */
+    @Value("${rate.limit.backend:memory}")
+    private String backend;
+
+    /**
+     * Cada cuántos segundos se borran de la base los buckets vencidos (rate.limit.backend=jdbc).
+     */
+    @Value("${rate.limit.jdbc.cleanup-interval-seconds:60}")
+    private long jdbcCleanupIntervalSeconds;
+
+    // ============ TELEMETRÍA ============
+    /**
+     * Cantidad de IPs y de usuarios seguidos para el top de peticiones y rechazos
+     * (actuator "ratelimit"). La memoria es fija; el top es exacto para las claves con más
+     * de total / capacidad peticiones.
+     */
+    @Value("${rate.limit.telemetry.top-capacity:1000}")
+    private int telemetryTopCapacity;
+
+    /**
+     * Lee las políticas declaradas bajo {@code rate.limit.policies}.
+     */
+    @PostConstruct
+    public void bindPolicies() {
+        policies = Binder.get(environment)
+                .bind("rate.limit.policies", Bindable.mapOf(String.class, PolicyProperties.class))
+                .orElse(Map.of());
+    }
+
+    /**
+     * Políticas de rate limiting por nombre, ordenadas por nombre: las de autenticación
+     * (armadas con las propiedades rate.limit.login.*, refresh.*, register.* y
+     * reset.password.*) más las declaradas en {@code rate.limit.policies}, que reemplazan
+     * a una de autenticación si usan el mismo nombre.
+     */
+    public Map<String, PolicyProperties> getPolicies() {
+        Map<String, PolicyProperties> all = new TreeMap<>();
+        all.put("login", PolicyProperties.of("/api/auth/login", loginAttempts, loginWindowMinutes));
+        all.put("refresh", PolicyProperties.of("/api/auth/refresh", refreshAttempts, refreshWindowMinutes));
+        all.put("register", PolicyProperties.of("/api/auth/register", registerAttempts, registerWindowMinutes));
+        PolicyProperties reset = PolicyProperties.of("/api/auth/reset-password", resetPasswordAttempts, resetPasswordWindowMinutes);
+        reset.getPatterns().add("/api/auth/resend-reset-email");
+        all.put("reset-password", reset);
+        all.putAll(policies);
+        return all;
+    }
+
     // Getters
     public int getLoginAttempts() {
         return loginAttempts;
@@ -77,5 +190,121 @@ public class RateLimitConfig {
     public int getResetPasswordWindowMinutes() {
         return resetPasswordWindowMinutes;
     }
-}
 
+    public String getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public long getStoreMaxEntries() {
+        return storeMaxEntries;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public long getJdbcCleanupIntervalSeconds() {
+        return jdbcCleanupIntervalSeconds;
+    }
+
+    public int getTelemetryTopCapacity() {
+        return telemetryTopCapacity;
+    }
+
+    public boolean isSubnetEnabled() {
+        return subnetEnabled;
+    }
+
+    public int getSubnetMultiplier() {
+        return subnetMultiplier;
+    }
+
+    public int getSubnetIpv4Prefix() {
+        return subnetIpv4Prefix;
+    }
+
+    public int getSubnetIpv6Prefix() {
+        return subnetIpv6Prefix;
+    }
+
+    /**
+     * Por qué se identifica al cliente en una política.
+     */
+    public enum PolicyKey {
+        /** Dirección IP (y su red, si el límite por red está habilitado). */
+        IP,
+        /** Usuario autenticado (subject del access token); sin sesión válida, la IP. */
+        PRINCIPAL,
+        /** Ambos: la petición debe pasar el límite de la IP y el del usuario. */
+        IP_AND_PRINCIPAL
+    }
+
+    /**
+     * Política de rate limiting declarada en propiedades.
+     */
+    public static class PolicyProperties {
+        private boolean enabled = true;
+        private List<String> patterns = new ArrayList<>();
+        private Set<String> methods = Set.of();
+        private PolicyKey key = PolicyKey.IP;
+        private int attempts;
+        private Duration window = Duration.ofMinutes(1);
+
+        static PolicyProperties of(String pattern, int attempts, int windowMinutes) {
+            PolicyProperties policy = new PolicyProperties();
+            policy.patterns.add(pattern);
+            policy.methods = Set.of("POST");
+            policy.attempts = attempts;
+            policy.window = Duration.ofMinutes(windowMinutes);
+            return policy;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getPatterns() {
+            return patterns;
+        }
+
+        public void setPatterns(List<String> patterns) {
+            this.patterns = patterns;
+        }
+
+        public Set<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(Set<String> methods) {
+            this.methods = methods;
+        }
+
+        public PolicyKey getKey() {
+            return key;
+        }
+
+        public void setKey(PolicyKey key) {
+            this.key = key;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public void setAttempts(int attempts) {
+            this.attempts = attempts;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ak4n1.terra.api.terra_api.security.config;
+
+import com.ak4n1.terra.api.terra_api.security.services.InMemoryRateLimitBucketStore;
+import com.ak4n1.terra.api.terra_api.security.services.JdbcRateLimitBucketStore;
+import com.ak4n1.terra.api.terra_api.security.services.RateLimitBucketStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Elige el almacenamiento de los buckets de rate limiting.
+ * 
+ * <p>El backend se lee de {@link RateLimitConfig#getBackend()} al crear el bean y no con
+ * {@code @ConditionalOnProperty}: las condiciones se evalúan al registrar los beans, antes
+ * de que se cargue rate-limit.properties, y no verían {@code rate.limit.backend} declarado
+ * en ese archivo.
+ * 
+ * @see RateLimitBucketStore
+ * @author ak4n1
+ * @since 1.0
+ */
+@Configuration
+public class RateLimitStoreConfig {
+
+    /**
+     * Store de buckets según {@code rate.limit.backend}: "memory" (por defecto) o "jdbc".
+     * 
+     * @param config Configuración de rate limiting
+     * @param jdbc JdbcTemplate, solo necesario con el backend "jdbc"
+     * @param meterRegistry Registro de métricas
+     * @return Store de buckets
+     */
+    @Bean
+    public RateLimitBucketStore rateLimitBucketStore(RateLimitConfig config, ObjectProvider<JdbcTemplate> jdbc,
+                                                     MeterRegistry meterRegistry) {
+        String backend = config.getBackend().trim();
+        if ("jdbc".equalsIgnoreCase(backend)) {
+            return new JdbcRateLimitBucketStore(jdbc.getObject(), config, meterRegistry);
+        }
+        if ("memory".equalsIgnoreCase(backend)) {
+            return new InMemoryRateLimitBucketStore(config, meterRegistry);
+        }
+        throw new IllegalStateException("rate.limit.backend inválido '" + backend + "': se espera memory o jdbc");
+    }
+}
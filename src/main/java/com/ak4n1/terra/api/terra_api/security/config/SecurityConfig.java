@@ -3,9 +3,11 @@ package com.ak4n1.terra.api.terra_api.security.config;
 import com.ak4n1.terra.api.terra_api.auth.repositories.*;
 import com.ak4n1.terra.api.terra_api.auth.repositories.RefreshTokenRepository;
 import com.ak4n1.terra.api.terra_api.security.filters.*;
+import com.ak4n1.terra.api.terra_api.security.filters.ConcurrencyLimitFilter;
 import com.ak4n1.terra.api.terra_api.security.filters.JwtAuthenticationFilter;
 import com.ak4n1.terra.api.terra_api.security.filters.RateLimitFilter;
 import com.ak4n1.terra.api.terra_api.security.filters.SecurityHeadersFilter;
+import com.ak4n1.terra.api.terra_api.security.services.TokenValidationCache;
 import org.springframework.context.annotation.*;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -46,7 +48,9 @@ public class SecurityConfig {
     private final AccountMasterRepository userRepo;
     private final RecentActivityRepository activityRepository;
     private final RateLimitFilter rateLimitFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
     private final SecurityHeadersFilter securityHeadersFilter;
+    private final TokenValidationCache tokenValidationCache;
 
     /**
      * Constructor que recibe las dependencias necesarias para la configuración de seguridad.
@@ -58,13 +62,16 @@ public class SecurityConfig {
      */
     public SecurityConfig(ActiveTokenRepository t, RefreshTokenRepository rt, AccountMasterRepository u, 
                          RecentActivityRepository r, RateLimitFilter rateLimitFilter, 
-                         SecurityHeadersFilter securityHeadersFilter) {
+                         ConcurrencyLimitFilter concurrencyLimitFilter, SecurityHeadersFilter securityHeadersFilter,
+                         TokenValidationCache tokenValidationCache) {
         this.activeTokenRepo = t;
         this.refreshTokenRepository = rt;
         this.userRepo = u;
         this.activityRepository = r;
         this.rateLimitFilter = rateLimitFilter;
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
         this.securityHeadersFilter = securityHeadersFilter;
+        this.tokenValidationCache = tokenValidationCache;
     }
 
     /**
@@ -104,8 +111,8 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http,
                                                    AuthenticationManager authManager) throws Exception {
 
-        var jwtAuthFilter = new JwtAuthenticationFilter(authManager, activeTokenRepo, refreshTokenRepository, userRepo, activityRepository);
-        var jwtValFilter = new JwtValidationFilter(authManager, activeTokenRepo, userRepo);
+        var jwtAuthFilter = new JwtAuthenticationFilter(authManager, activeTokenRepo, refreshTokenRepository, userRepo, activityRepository, tokenValidationCache);
+        var jwtValFilter = new JwtValidationFilter(authManager, activeTokenRepo, userRepo, tokenValidationCache);
 
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -167,12 +174,15 @@ public class SecurityConfig {
 
 
                         ).authenticated()
+                        // Telemetría de rate limiting: expone IPs y emails de clientes
+                        .requestMatchers("/actuator/ratelimit", "/actuator/ratelimit/**").hasRole("ADMIN")
 
                 )
 
                 // Filtros de seguridad en orden
                 .addFilterBefore(securityHeadersFilter, UsernamePasswordAuthenticationFilter.class) // Security Headers (muy primero)
                 .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class) // Rate Limiting
+                .addFilterBefore(concurrencyLimitFilter, UsernamePasswordAuthenticationFilter.class) // Load shedding por concurrencia
                 .addFilterAt(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class) // JWT Authentication (login)
                 .addFilterAfter(jwtValFilter, JwtAuthenticationFilter.class); // JWT Validation (después del login)
 
@@ -0,0 +1,107 @@
+package com.ak4n1.terra.api.terra_api.security.filters;
+
+import com.ak4n1.terra.api.terra_api.security.services.AdaptiveConcurrencyLimiter;
+import com.ak4n1.terra.api.terra_api.security.services.ConcurrencyLimitService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Filtro de load shedding por concurrencia.
+ * 
+ * <p>Resuelve el grupo de rutas de cada petición (ver
+ * {@link ConcurrencyLimitService#resolveLimiter(String, String)}) y la deja pasar solo si el
+ * grupo tiene lugar bajo su límite adaptativo; si no, responde 503 de inmediato sin tocar
+ * la base. Al terminar, la latencia de la petición ajusta el límite del grupo.
+ * 
+ * <p>Corre después del rate limiting y antes de la validación del JWT, que ya consulta la
+ * base. Las rutas críticas (auth, webhooks de pagos) pasan siempre.
+ * 
+ * <p>Reducen el límite sin esperar a la latencia solo las señales de sobrecarga real: una
+ * excepción que llega hasta el filtro, un 504 o el atributo {@link #OVERLOADED_ATTRIBUTE}
+ * en la petición. Un 503 por sí solo no cuenta: la aplicación también lo usa para estados
+ * que no son de carga (por ejemplo el catálogo de items mientras se carga), y contarlo
+ * llevaría al grupo a su mínimo sin que el servidor esté saturado.
+ * 
+ * @see ConcurrencyLimitService
+ * @author ak4n1
+ * @since 1.0
+ */
+@Component
+@Order(2) // Después del rate limiting
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    /**
+     * Atributo de la petición con el que un handler indica que la rechazó por falta de
+     * capacidad (pool de conexiones agotado, timeout de un servicio externo...): cualquier
+     * valor no null reduce el límite del grupo como un 504.
+     */
+    public static final String OVERLOADED_ATTRIBUTE = ConcurrencyLimitFilter.class.getName() + ".OVERLOADED";
+
+    @Autowired
+    private ConcurrencyLimitService concurrencyLimitService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String path = request.getRequestURI();
+
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimitService.resolveLimiter(request.getMethod(), path);
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!limiter.tryAcquire()) {
+            // Debug: bajo un pico se rechazan muchas por segundo, el total queda en las métricas
+            logger.debug("🚦 [CONCURRENCY] Grupo '{}' saturado ({} en curso), rechazando: {}",
+                    limiter.getName(), limiter.getInFlight(), path);
+            sendOverloadedError(response, path);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean overloaded = true;
+        try {
+            filterChain.doFilter(request, response);
+            overloaded = response.getStatus() == 504 || request.getAttribute(OVERLOADED_ATTRIBUTE) != null;
+        } finally {
+            limiter.release(System.nanoTime() - start, overloaded);
+        }
+    }
+
+    /**
+     * Envía una respuesta de error cuando el grupo de rutas está saturado.
+     * 
+     * @param response HttpServletResponse
+     * @param path Path rechazado
+     * @throws IOException si hay error escribiendo la respuesta
+     */
+    private void sendOverloadedError(HttpServletResponse response, String path) throws IOException {
+        response.setStatus(503); // HTTP 503 Service Unavailable
+        response.setContentType("application/json");
+        response.setHeader("Retry-After", "1");
+
+        Map<String, Object> error = Map.of(
+                "message", "Server is busy. Please try again in a moment.",
+                "error", "SERVER_OVERLOADED",
+                "path", path
+        );
+
+        new ObjectMapper().writeValue(response.getOutputStream(), error);
+    }
+}
@@ -11,6 +11,7 @@ import com.ak4n1.terra.api.terra_api.auth.repositories.AccountMasterRepository;
 import com.ak4n1.terra.api.terra_api.auth.repositories.RecentActivityRepository;
 import com.ak4n1.terra.api.terra_api.auth.repositories.RefreshTokenRepository;
 import com.ak4n1.terra.api.terra_api.security.config.TokenJwtConfig;
+import com.ak4n1.terra.api.terra_api.security.services.TokenValidationCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.Jwts;
 import org.slf4j.Logger;
@@ -57,6 +58,7 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
     private final RefreshTokenRepository refreshTokenRepo;
     private final AccountMasterRepository userRepo;
     private final RecentActivityRepository activityRepo;
+    private final TokenValidationCache tokenCache;
 
     /**
      * Constructor que inicializa el filtro con las dependencias necesarias.
@@ -68,17 +70,20 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
      * @param refreshTokenRepo Repositorio de refresh tokens
      * @param userRepo Repositorio de usuarios
      * @param activityRepo Repositorio de actividad reciente
+     * @param tokenCache Cache de tokens validados, para descartar los tokens reemplazados
      */
     public JwtAuthenticationFilter(AuthenticationManager authManager,
                                    ActiveTokenRepository tokenRepo,
                                    RefreshTokenRepository refreshTokenRepo,
                                    AccountMasterRepository userRepo,
-                                   RecentActivityRepository activityRepo) {
+                                   RecentActivityRepository activityRepo,
+                                   TokenValidationCache tokenCache) {
         this.authManager = authManager;
         this.tokenRepo = tokenRepo;
         this.refreshTokenRepo = refreshTokenRepo;
         this.userRepo = userRepo;
         this.activityRepo = activityRepo;
+        this.tokenCache = tokenCache;
         setFilterProcessesUrl("/api/auth/login");
     }
 
@@ -165,6 +170,7 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
                 existingTokens.stream()
                     .filter(token -> deviceType.equals(token.getDeviceType()))
                     .forEach(token -> tokenRepo.delete(token));
+                tokenCache.invalidateAccount(email);
                 
                 // Eliminar refresh tokens del mismo tipo para este usuario
                 List<RefreshToken> existingRefreshTokens = refreshTokenRepo.findByAccountMaster_Email(email);
@@ -254,6 +260,7 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
                 // Si falla por constraint, limpiar y reintentar
                 try {
                     tokenRepo.deleteOldTokensByUserId(user.getId());
+                    tokenCache.invalidateAccount(email);
                     Thread.sleep(100); // Pequeña pausa
                     
                     String retryToken = Jwts.builder()
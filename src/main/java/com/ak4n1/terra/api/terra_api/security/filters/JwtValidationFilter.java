@@ -7,6 +7,8 @@ import com.ak4n1.terra.api.terra_api.auth.exceptions.UserDisabledException;
 import com.ak4n1.terra.api.terra_api.auth.repositories.ActiveTokenRepository;
 import com.ak4n1.terra.api.terra_api.auth.repositories.AccountMasterRepository;
 import com.ak4n1.terra.api.terra_api.security.config.TokenJwtConfig;
+import com.ak4n1.terra.api.terra_api.security.services.TokenValidationCache;
+import com.ak4n1.terra.api.terra_api.security.services.TokenValidationCache.ValidatedToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.*;
 import jakarta.servlet.FilterChain;
@@ -14,6 +16,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.*;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
@@ -31,6 +34,9 @@ import org.slf4j.LoggerFactory;
  * de las cookies, valida su existencia en BD, verifica su expiración y carga el contexto
  * de seguridad de Spring. Es ejecutado después de JwtAuthenticationFilter.
  * 
+ * <p>Los tokens ya validados se guardan en {@link TokenValidationCache}: mientras la entrada
+ * esté vigente, las peticiones con el mismo token no consultan la BD.
+ * 
  * @see BasicAuthenticationFilter
  * @see com.ak4n1.terra.api.terra_api.security.config.TokenJwtConfig
  * @see com.ak4n1.terra.api.terra_api.security.filters.JwtAuthenticationFilter
@@ -42,6 +48,7 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtValidationFilter.class);
     private final ActiveTokenRepository tokenRepo;
     private final AccountMasterRepository accountMasterRepository;
+    private final TokenValidationCache tokenCache;
 
     /**
      * Lista de rutas que no requieren validación de token (rutas públicas).
@@ -77,13 +84,16 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
      * @param authManager Gestor de autenticación
      * @param tokenRepo Repositorio de tokens activos para validación
      * @param accountMasterRepository Repositorio de usuarios para validar estado
+     * @param tokenCache Cache de tokens ya validados
      */
     public JwtValidationFilter(AuthenticationManager authManager,
                                ActiveTokenRepository tokenRepo,
-                               AccountMasterRepository accountMasterRepository) {
+                               AccountMasterRepository accountMasterRepository,
+                               TokenValidationCache tokenCache) {
         super(authManager);
         this.tokenRepo = tokenRepo;
         this.accountMasterRepository = accountMasterRepository;
+        this.tokenCache = tokenCache;
     }
 
     /**
@@ -134,6 +144,16 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
             return;
         }
 
+        // Token ya validado: ni BD ni firma
+        ValidatedToken cached = tokenCache.get(token);
+        if (cached != null) {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(cached.getEmail(), null, cached.getAuthorities()));
+            logger.debug("✅ [JWT] Token validado desde cache.");
+            chain.doFilter(req, res);
+            return;
+        }
+
         try {
             // PRIMERO: Validar JWT (más rápido, evita queries innecesarias si el JWT es inválido)
             Claims claims = Jwts.parser()
@@ -144,6 +164,9 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
 
             String email = claims.getSubject();
 
+            // Versión de la cuenta antes de leer la BD (ver TokenValidationCache)
+            long accountVersion = tokenCache.getVersion(email);
+
             // SEGUNDO: Verificar en BD (solo si JWT es válido)
             Optional<ActiveToken> activeTokenOpt = tokenRepo.findByToken(token);
 
@@ -172,6 +195,7 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
                 logger.warn("❌ [JWT] Usuario deshabilitado: {}", email);
                 // Revocar tokens del usuario
                 tokenRepo.delete(activeToken);
+                tokenCache.invalidateAccount(email);
                 throw new UserDisabledException("Usuario deshabilitado");
             }
 
@@ -179,15 +203,23 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
                 logger.warn("❌ [JWT] Email no verificado: {}", email);
                 // Revocar tokens del usuario
                 tokenRepo.delete(activeToken);
+                tokenCache.invalidateAccount(email);
                 throw new EmailNotVerifiedException("Email no verificado");
             }
 
             List<String> roles = (List<String>) claims.get("authorities");
             logger.debug("👮 [JWT] Roles del usuario: {}", roles);
 
-            var auth = new UsernamePasswordAuthenticationToken(
-                    claims.getSubject(), null,
-                    roles.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList()));
+            List<GrantedAuthority> authorities = roles.stream()
+                    .map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+            var auth = new UsernamePasswordAuthenticationToken(claims.getSubject(), null, authorities);
+
+            // Válido hasta la expiración más cercana entre la BD y el JWT
+            long expiresAt = activeToken.getExpiresAt().getTime();
+            if (claims.getExpiration() != null) {
+                expiresAt = Math.min(expiresAt, claims.getExpiration().getTime());
+            }
+            tokenCache.put(token, email, authorities, expiresAt, accountVersion);
 
             SecurityContextHolder.getContext().setAuthentication(auth);
             logger.debug("✅ [JWT] Contexto de seguridad seteado correctamente.");
@@ -1,12 +1,19 @@
 package com.ak4n1.terra.api.terra_api.security.filters;
 
+import com.ak4n1.terra.api.terra_api.security.config.TokenJwtConfig;
+import com.ak4n1.terra.api.terra_api.security.services.ClientAddress;
+import com.ak4n1.terra.api.terra_api.security.services.RateLimitMetrics;
+import com.ak4n1.terra.api.terra_api.security.services.RateLimitPolicy;
 import com.ak4n1.terra.api.terra_api.security.services.RateLimitService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,10 +25,15 @@ import java.io.IOException;
 import java.util.Map;
 
 /**
- * Filtro de rate limiting para endpoints críticos de autenticación.
+ * Filtro de rate limiting para endpoints críticos.
  * 
- * <p>Este filtro intercepta las peticiones a endpoints de auth y aplica
- * límites de tasa por IP para prevenir ataques de fuerza bruta.
+ * <p>Este filtro intercepta todas las peticiones, resuelve la política de rate limiting
+ * de su ruta y método (ver {@link RateLimitService#resolvePolicy(String, String)}) y
+ * aplica su límite por IP, por usuario o ambos para prevenir ataques de fuerza bruta
+ * y abuso de endpoints costosos. Las rutas sin política pasan sin consumir nada.
+ * 
+ * <p>Cada resultado se registra en {@link RateLimitMetrics} (métricas por política y top
+ * de IPs y usuarios, en el endpoint actuator "ratelimit").
  * 
  * @see RateLimitService
  * @author ak4n1
@@ -36,16 +48,8 @@ public class RateLimitFilter extends OncePerRequestFilter {
     @Autowired
     private RateLimitService rateLimitService;
 
-    /**
-     * Paths que requieren rate limiting.
-     */
-    private static final String[] RATE_LIMITED_PATHS = {
-            "/api/auth/login",
-            "/api/auth/refresh",
-            "/api/auth/register",
-            "/api/auth/resend-reset-email",
-            "/api/auth/reset-password"
-    };
+    @Autowired
+    private RateLimitMetrics rateLimitMetrics;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -53,61 +57,60 @@ public class RateLimitFilter extends OncePerRequestFilter {
 
         String path = request.getRequestURI();
         
-        // Solo aplicar rate limiting a paths específicos
-        if (!isRateLimitedPath(path)) {
+        // Una sola búsqueda en la tabla de rutas; sin política no hay límite
+        RateLimitPolicy policy = rateLimitService.resolvePolicy(request.getMethod(), path);
+        if (policy == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String clientIp = rateLimitService.getClientIp(request);
-        Bucket bucket = getBucketForPath(path, clientIp);
+        ClientAddress client = rateLimitService.getClientAddress(request);
+        String principal = policy.usesPrincipal() ? getPrincipal(request) : null;
+        long start = System.nanoTime();
+        ConsumptionProbe probe = rateLimitService.tryConsume(policy, client, principal);
+        rateLimitMetrics.record(policy, client, principal, probe.isConsumed(), System.nanoTime() - start);
 
-        if (rateLimitService.tryConsume(bucket)) {
+        if (probe.isConsumed()) {
             // Hay tokens disponibles, continuar
-            long remaining = rateLimitService.getAvailableTokens(bucket);
-            response.setHeader("X-RateLimit-Remaining", String.valueOf(remaining));
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(probe.getRemainingTokens()));
             filterChain.doFilter(request, response);
         } else {
             // Límite alcanzado, rechazar petición
-            logger.warn("🚫 [RATE LIMIT] Límite alcanzado para IP: {} en path: {}", clientIp, path);
-            sendRateLimitError(response, path);
+            logger.warn("🚫 [RATE LIMIT] Límite '{}' alcanzado para IP: {}{} en path: {}", policy.getName(), client,
+                    principal != null ? " (" + principal + ")" : "", path);
+            sendRateLimitError(response, path, probe.getNanosToWaitForRefill());
         }
     }
 
     /**
-     * Obtiene el bucket adecuado según el path de la petición.
+     * Obtiene el usuario del access token de la cookie, si la firma y la expiración son válidas.
      * 
-     * @param path Path de la petición
-     * @param clientIp IP del cliente
-     * @return Bucket configurado
-     */
-    private Bucket getBucketForPath(String path, String clientIp) {
-        if (path.equals("/api/auth/login")) {
-            return rateLimitService.getLoginBucket(clientIp);
-        } else if (path.equals("/api/auth/refresh")) {
-            return rateLimitService.getRefreshBucket(clientIp);
-        } else if (path.equals("/api/auth/register")) {
-            return rateLimitService.getRegisterBucket(clientIp);
-        } else if (path.equals("/api/auth/resend-reset-email") || path.equals("/api/auth/reset-password")) {
-            return rateLimitService.getResetPasswordBucket(clientIp);
-        }
-        // Por defecto, usar bucket de login
-        return rateLimitService.getLoginBucket(clientIp);
-    }
-
-    /**
-     * Verifica si un path requiere rate limiting.
+     * <p>Este filtro corre antes que JwtValidationFilter, así que no hay contexto de
+     * seguridad todavía: solo se verifica el JWT (sin consultar la BD) para usar su
+     * subject como clave. Un token inválido se trata como petición anónima.
      * 
-     * @param path Path a verificar
-     * @return true si requiere rate limiting
+     * @param request HttpServletRequest con las cookies
+     * @return Subject del token, o null si no hay un token válido
      */
-    private boolean isRateLimitedPath(String path) {
-        for (String limitedPath : RATE_LIMITED_PATHS) {
-            if (path.equals(limitedPath)) {
-                return true;
+    private String getPrincipal(HttpServletRequest request) {
+        if (request.getCookies() == null || TokenJwtConfig.SECRET_KEY == null) {
+            return null;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if ("access_token".equals(cookie.getName())) {
+                try {
+                    return Jwts.parser()
+                            .verifyWith(TokenJwtConfig.SECRET_KEY)
+                            .build()
+                            .parseSignedClaims(cookie.getValue())
+                            .getPayload()
+                            .getSubject();
+                } catch (JwtException | IllegalArgumentException e) {
+                    return null;
+                }
             }
         }
-        return false;
+        return null;
     }
 
     /**
@@ -115,12 +118,14 @@ public class RateLimitFilter extends OncePerRequestFilter {
      * 
      * @param response HttpServletResponse
      * @param path Path que causó el límite
+     * @param nanosToWait Tiempo hasta que el bucket vuelva a tener un token
      * @throws IOException si hay error escribiendo la respuesta
      */
-    private void sendRateLimitError(HttpServletResponse response, String path) throws IOException {
-            response.setStatus(429); // HTTP 429 Too Many Requests
+    private void sendRateLimitError(HttpServletResponse response, String path, long nanosToWait) throws IOException {
+        response.setStatus(429); // HTTP 429 Too Many Requests
         response.setContentType("application/json");
-        response.setHeader("Retry-After", "900"); // 15 minutos en segundos
+        // Segundos reales hasta el próximo token, redondeados hacia arriba
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, (nanosToWait + 999_999_999L) / 1_000_000_000L)));
         
         Map<String, Object> error = Map.of(
                 "message", "Too many requests. Please try again later.",
@@ -0,0 +1,174 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Límite de peticiones simultáneas que se ajusta solo según la latencia.
+ * 
+ * <p>Sigue el esquema de gradiente de los limitadores adaptativos: en cada ventana de
+ * medición compara la latencia media de la ventana con la latencia de referencia (la menor
+ * latencia sostenida, que solo sube a lo largo de un minuto). Mientras la media no supere a
+ * la de referencia por más de un margen de tolerancia el límite crece de a
+ * {@code sqrt(límite)}; cuando las peticiones empiezan a encolarse en la base o
+ * en los hilos la latencia sube, el gradiente cae por debajo de 1 y el límite se reduce
+ * en proporción. Una petición que terminó por sobrecarga (ver
+ * {@link com.ak4n1.terra.api.terra_api.security.filters.ConcurrencyLimitFilter}) reduce el
+ * límite de forma multiplicativa (AIMD), sin esperar a que lo refleje la latencia.
+ * 
+ * <p>Si en la ventana el grupo usó menos de la mitad de su límite, el límite no cambia: una
+ * ruta con poco tráfico no acumula un límite que después no podría sostener.
+ * 
+ * <p>Adquirir y liberar es lock-free; el recálculo del límite al liberar se hace bajo un
+ * lock corto, solo con aritmética sobre unos pocos campos.
+ * 
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    // Mínimo de peticiones por ventana de medición
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    // Tiempo en que la latencia de referencia alcanza a la reciente cuando sube
+    private static final long LONG_DRIFT_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    // Latencia reciente tolerada sobre la de referencia antes de bajar el límite
+    private static final double TOLERANCE = 1.5;
+
+    // Peso del nuevo cálculo frente al límite anterior
+    private static final double SMOOTHING = 0.2;
+
+    // Reducción multiplicativa ante una respuesta de sobrecarga
+    private static final double BACKOFF = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile int limit;
+
+    // Estado del algoritmo, protegido por this
+    private double estimatedLimit;
+    private double longRtt;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private long lastWindowAt = System.nanoTime();
+
+    /**
+     * @param name Nombre del grupo de rutas
+     * @param initialLimit Límite inicial
+     * @param minLimit Límite mínimo
+     * @param maxLimit Límite máximo
+     */
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Límites de concurrencia inválidos para '" + name
+                    + "': se requiere 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Reserva un lugar si hay menos peticiones en curso que el límite.
+     * 
+     * @return true si la petición puede pasar; en ese caso debe llamarse a
+     *         {@link #release(long, boolean)} al terminar
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el lugar de una petición y ajusta el límite con su latencia.
+     * 
+     * @param rttNanos Duración de la petición
+     * @param overloaded Si la petición terminó por sobrecarga (504, excepción o marcada por el handler)
+     */
+    public void release(long rttNanos, boolean overloaded) {
+        int inFlightAtEnd = inFlight.getAndDecrement();
+        update(rttNanos, inFlightAtEnd, overloaded);
+    }
+
+    private synchronized void update(long rtt, int inFlightAtEnd, boolean overloaded) {
+        if (overloaded) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF);
+            limit = (int) estimatedLimit;
+            return;
+        }
+
+        // Las muestras se agrupan en ventanas de al menos tantas peticiones como el límite
+        windowRttSum += rtt;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtEnd);
+        if (windowSamples < Math.max(MIN_WINDOW_SAMPLES, estimatedLimit)) {
+            return;
+        }
+        long now = System.nanoTime();
+        double shortRtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+
+        if (longRtt == 0 || shortRtt < longRtt) {
+            // La referencia es la menor latencia sostenida: baja de inmediato...
+            longRtt = shortRtt;
+        } else {
+            // ...y sube despacio, para aceptar que la ruta se volvió más lenta sin seguir a un pico
+            longRtt += (shortRtt - longRtt) * Math.min(1.0, (double) (now - lastWindowAt) / LONG_DRIFT_NANOS);
+        }
+        lastWindowAt = now;
+        if (maxInFlight * 2 < estimatedLimit) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Límite actual de peticiones simultáneas.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Peticiones en curso.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Peticiones rechazadas desde el arranque.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,301 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+/**
+ * Dirección IP de un cliente en forma binaria, para usar como clave de rate limiting.
+ * 
+ * <p>Las direcciones se guardan como 128 bits en dos longs. IPv4 usa la forma
+ * IPv4-mapped de IPv6 ({@code ::ffff:a.b.c.d}): la dirección queda como int en los
+ * 32 bits bajos y un cliente que llega por IPv4 o como {@code ::ffff:a.b.c.d} por IPv6
+ * comparte la misma clave. El parser recorre el texto una vez, sin split, sin regex
+ * y sin {@code InetAddress} (que podría resolver nombres por DNS).
+ * 
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class ClientAddress {
+
+    /**
+     * Clave compartida por todo lo que no se pudo interpretar como dirección IP.
+     */
+    public static final ClientAddress UNKNOWN = new ClientAddress(0L, 0L);
+
+    private static final long IPV4_MAPPED = 0x0000_FFFF_0000_0000L;
+
+    private final long high;
+    private final long low;
+
+    private ClientAddress(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Interpreta una dirección IPv4 o IPv6 textual.
+     * 
+     * @param value Dirección (acepta zona {@code %eth0}, corchetes y puerto)
+     * @return Dirección binaria, o {@link #UNKNOWN} si el texto no es una IP
+     */
+    public static ClientAddress parse(String value) {
+        return value != null ? parse(value, 0, value.length()) : UNKNOWN;
+    }
+
+    /**
+     * Interpreta la dirección contenida en {@code value[start, end)}, ignorando espacios
+     * alrededor. Permite leer un elemento de X-Forwarded-For sin crear substrings.
+     */
+    public static ClientAddress parse(String value, int start, int end) {
+        while (start < end && value.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end) {
+            return UNKNOWN;
+        }
+        if (value.charAt(start) == '[') {
+            // [IPv6] o [IPv6]:puerto
+            int close = value.indexOf(']', start);
+            if (close < 0 || close >= end) {
+                return UNKNOWN;
+            }
+            return parseIpv6(value, start + 1, close);
+        }
+        int colon = value.indexOf(':', start);
+        if (colon < 0 || colon >= end) {
+            long ipv4 = parseIpv4(value, start, end);
+            return ipv4 >= 0 ? new ClientAddress(0L, IPV4_MAPPED | ipv4) : UNKNOWN;
+        }
+        if (value.indexOf(':', colon + 1) < 0 || value.indexOf(':', colon + 1) >= end) {
+            // Un solo ':' solo puede ser IPv4:puerto
+            long ipv4 = parseIpv4(value, start, colon);
+            return ipv4 >= 0 ? new ClientAddress(0L, IPV4_MAPPED | ipv4) : UNKNOWN;
+        }
+        return parseIpv6(value, start, end);
+    }
+
+    public boolean isIpv4() {
+        return high == 0L && (low >>> 32) == 0xFFFFL;
+    }
+
+    /**
+     * Dirección IPv4 como int (solo si {@link #isIpv4()}).
+     */
+    public int ipv4() {
+        return (int) low;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    /**
+     * Primeros 64 bits conservando solo los {@code prefixBits} bits de red.
+     * 
+     * @param prefixBits Largo del prefijo sobre los 128 bits (ver {@link #prefixBits(int, int)})
+     */
+    public long getHigh(int prefixBits) {
+        return prefixBits >= 64 ? high : high & (prefixBits <= 0 ? 0L : -1L << (64 - prefixBits));
+    }
+
+    /**
+     * Últimos 64 bits conservando solo los {@code prefixBits} bits de red.
+     * 
+     * @param prefixBits Largo del prefijo sobre los 128 bits (ver {@link #prefixBits(int, int)})
+     */
+    public long getLow(int prefixBits) {
+        return prefixBits >= 128 ? low : low & (prefixBits <= 64 ? 0L : -1L << (128 - prefixBits));
+    }
+
+    /**
+     * Largo del prefijo de red sobre los 128 bits de la representación interna: una
+     * IPv4 /24 equivale a los primeros 120 bits de su forma IPv4-mapped.
+     */
+    public int prefixBits(int ipv4Prefix, int ipv6Prefix) {
+        return isIpv4() ? 96 + ipv4Prefix : ipv6Prefix;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClientAddress)) {
+            return false;
+        }
+        ClientAddress other = (ClientAddress) o;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high * 31 + low);
+    }
+
+    @Override
+    public String toString() {
+        if (this == UNKNOWN) {
+            return "unknown";
+        }
+        if (isIpv4()) {
+            int ip = ipv4();
+            return (ip >>> 24) + "." + ((ip >>> 16) & 0xFF) + "." + ((ip >>> 8) & 0xFF) + "." + (ip & 0xFF);
+        }
+        StringBuilder sb = new StringBuilder(39);
+        for (int i = 0; i < 8; i++) {
+            long word = i < 4 ? high : low;
+            int group = (int) (word >>> (48 - 16 * (i & 3))) & 0xFFFF;
+            if (i > 0) {
+                sb.append(':');
+            }
+            sb.append(Integer.toHexString(group));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * IPv4 en notación decimal con puntos.
+     * 
+     * @return Dirección como entero sin signo, o -1 si no es válida
+     */
+    private static long parseIpv4(String value, int start, int end) {
+        long result = 0;
+        int octets = 0;
+        int i = start;
+        while (octets < 4) {
+            int octet = 0;
+            int digits = 0;
+            while (i < end && digits < 4) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                octet = octet * 10 + (c - '0');
+                digits++;
+                i++;
+            }
+            if (digits == 0 || digits > 3 || octet > 255) {
+                return -1;
+            }
+            result = (result << 8) | octet;
+            octets++;
+            if (octets < 4) {
+                if (i >= end || value.charAt(i) != '.') {
+                    return -1;
+                }
+                i++;
+            }
+        }
+        return i == end ? result : -1;
+    }
+
+    /**
+     * IPv6 con compresión {@code ::}, zona opcional y los últimos 32 bits opcionalmente
+     * en notación IPv4. Los grupos anteriores y posteriores a {@code ::} se acumulan en
+     * dos valores de 128 bits que se combinan al final.
+     */
+    private static ClientAddress parseIpv6(String value, int start, int end) {
+        int zone = value.indexOf('%', start);
+        if (zone >= 0 && zone < end) {
+            end = zone;
+        }
+        long headHigh = 0;
+        long headLow = 0;
+        int headGroups = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int i = start;
+        if (end - i >= 2 && value.charAt(i) == ':' && value.charAt(i + 1) == ':') {
+            compressed = true;
+            i += 2;
+        } else if (i < end && value.charAt(i) == ':') {
+            return UNKNOWN;
+        }
+
+        while (i < end) {
+            int groupStart = i;
+            int group = 0;
+            while (i < end && i - groupStart < 5) {
+                int digit = Character.digit(value.charAt(i), 16);
+                if (digit < 0) {
+                    break;
+                }
+                group = (group << 4) | digit;
+                i++;
+            }
+            int digits = i - groupStart;
+
+            if (i < end && value.charAt(i) == '.') {
+                // Últimos 32 bits en notación IPv4
+                long ipv4 = parseIpv4(value, groupStart, end);
+                if (ipv4 < 0 || headGroups + tailGroups > 6) {
+                    return UNKNOWN;
+                }
+                for (int half = 1; half >= 0; half--) {
+                    int part = (int) (ipv4 >>> (16 * half)) & 0xFFFF;
+                    if (compressed) {
+                        tailHigh = (tailHigh << 16) | (tailLow >>> 48);
+                        tailLow = (tailLow << 16) | part;
+                        tailGroups++;
+                    } else {
+                        headHigh = (headHigh << 16) | (headLow >>> 48);
+                        headLow = (headLow << 16) | part;
+                        headGroups++;
+                    }
+                }
+                i = end;
+                break;
+            }
+            if (digits == 0 || digits > 4) {
+                return UNKNOWN;
+            }
+            if (compressed) {
+                tailHigh = (tailHigh << 16) | (tailLow >>> 48);
+                tailLow = (tailLow << 16) | group;
+                tailGroups++;
+            } else {
+                headHigh = (headHigh << 16) | (headLow >>> 48);
+                headLow = (headLow << 16) | group;
+                headGroups++;
+            }
+            if (headGroups + tailGroups > 8) {
+                return UNKNOWN;
+            }
+            if (i == end) {
+                break;
+            }
+            if (value.charAt(i) != ':') {
+                return UNKNOWN;
+            }
+            i++;
+            if (i < end && value.charAt(i) == ':') {
+                if (compressed) {
+                    return UNKNOWN;
+                }
+                compressed = true;
+                i++;
+            } else if (i == end) {
+                // ':' final suelto
+                return UNKNOWN;
+            }
+        }
+
+        int groups = headGroups + tailGroups;
+        if (compressed ? groups > 7 : groups != 8) {
+            return UNKNOWN;
+        }
+        // Correr los grupos iniciales a su lugar y completar con los finales
+        for (int shift = headGroups; shift < 8; shift++) {
+            headHigh = (headHigh << 16) | (headLow >>> 48);
+            headLow <<= 16;
+        }
+        return new ClientAddress(headHigh | tailHigh, headLow | tailLow);
+    }
+}
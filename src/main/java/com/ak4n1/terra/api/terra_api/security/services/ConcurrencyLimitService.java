@@ -0,0 +1,100 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import com.ak4n1.terra.api.terra_api.security.config.ConcurrencyLimitConfig;
+import com.ak4n1.terra.api.terra_api.security.config.ConcurrencyLimitConfig.GroupProperties;
+import com.ak4n1.terra.api.terra_api.utils.RouteMatcher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio de límite de concurrencia por grupo de rutas.
+ * 
+ * <p>Cada grupo declarado en {@link ConcurrencyLimitConfig} tiene su propio
+ * {@link AdaptiveConcurrencyLimiter}: si un endpoint pesado (el listado del mercado offline,
+ * el catálogo completo) se degrada, solo su grupo reduce el límite y rechaza el exceso,
+ * en lugar de ocupar todos los hilos de Tomcat y las conexiones a la base. Las rutas
+ * críticas no tienen limitador y nunca se rechazan.
+ * 
+ * <p>Igual que las políticas de rate limiting, todos los patrones se compilan al arrancar
+ * en un único {@link RouteMatcher}. Límite, peticiones en curso y rechazos de cada grupo se
+ * publican en Micrometer como {@code concurrency.limit}, {@code concurrency.inflight} y
+ * {@code concurrency.rejected} con el tag {@code group}.
+ * 
+ * @author ak4n1
+ * @since 1.0
+ */
+@Service
+public class ConcurrencyLimitService {
+
+    // Marca de las rutas críticas en la tabla de rutas
+    private static final AdaptiveConcurrencyLimiter CRITICAL = new AdaptiveConcurrencyLimiter("critical", 1, 1, 1);
+
+    private final boolean enabled;
+
+    private final List<AdaptiveConcurrencyLimiter> limiters = new ArrayList<>();
+    private final RouteMatcher<AdaptiveConcurrencyLimiter> routes = new RouteMatcher<>();
+
+    public ConcurrencyLimitService(ConcurrencyLimitConfig config, MeterRegistry meterRegistry) {
+        this.enabled = config.isEnabled();
+
+        for (String pattern : config.getCriticalPatterns()) {
+            routes.add(pattern.trim(), null, CRITICAL);
+        }
+        for (Map.Entry<String, GroupProperties> entry : config.getGroups().entrySet()) {
+            GroupProperties group = entry.getValue();
+            if (!group.isEnabled()) {
+                continue;
+            }
+            if (group.getPatterns().isEmpty()) {
+                throw new IllegalStateException("Grupo de concurrencia inválido '" + entry.getKey()
+                        + "': requiere al menos un patrón");
+            }
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(entry.getKey(),
+                    group.getInitialLimit(), group.getMinLimit(), group.getMaxLimit());
+            limiters.add(limiter);
+            for (String pattern : group.getPatterns()) {
+                routes.add(pattern, group.getMethods(), limiter);
+            }
+
+            Gauge.builder("concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("group", limiter.getName())
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("group", limiter.getName())
+                    .register(meterRegistry);
+            FunctionCounter.builder("concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                    .tag("group", limiter.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Resuelve el limitador de una petición con una sola búsqueda en la tabla de rutas.
+     * 
+     * @param method Método HTTP
+     * @param path Path de la petición
+     * @return Limitador del grupo, o null si la ruta es crítica, no pertenece a ningún
+     *         grupo o el límite está deshabilitado
+     */
+    public AdaptiveConcurrencyLimiter resolveLimiter(String method, String path) {
+        if (!enabled) {
+            return null;
+        }
+        AdaptiveConcurrencyLimiter limiter = routes.match(method, path);
+        return limiter != CRITICAL ? limiter : null;
+    }
+
+    /**
+     * Limitadores activos, en orden de nombre.
+     */
+    public List<AdaptiveConcurrencyLimiter> getLimiters() {
+        return Collections.unmodifiableList(limiters);
+    }
+}
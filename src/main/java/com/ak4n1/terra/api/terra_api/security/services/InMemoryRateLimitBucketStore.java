@@ -0,0 +1,107 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import com.ak4n1.terra.api.terra_api.security.config.RateLimitConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+
+/**
+ * Buckets de rate limiting en la memoria de la JVM (backend por defecto).
+ * 
+ * <p>Los buckets se guardan en un cache Caffeine acotado: cada uno expira cuando pasa
+ * su ventana completa sin uso (en ese punto ya estaría lleno, así que descartarlo no
+ * cambia el límite) y al superar {@code rate.limit.store.max-entries} se descartan
+ * primero los de claves vistas pocas veces, como las de una botnet que rota IPs.
+ * Tamaño, aciertos y expulsiones se publican en Micrometer como cache "rateLimitBuckets".
+ * 
+ * <p>Cada nodo tiene sus propios buckets: con varias instancias detrás de un balanceador
+ * el límite efectivo se multiplica por la cantidad de nodos.
+ * 
+ * @author ak4n1
+ * @since 1.0
+ */
+public class InMemoryRateLimitBucketStore implements RateLimitBucketStore {
+
+    // Buckets por clave, con expiración por ventana y tamaño máximo
+    private final Cache<RateLimitKey, WindowedBucket> buckets;
+
+    public InMemoryRateLimitBucketStore(RateLimitConfig config, MeterRegistry meterRegistry) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(config.getStoreMaxEntries())
+                .expireAfter(new WindowExpiry())
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+    }
+
+    @Override
+    public ConsumptionProbe tryConsume(RateLimitKey key, BucketConfiguration configuration, Duration window) {
+        return buckets.get(key, k -> new WindowedBucket(createBucket(configuration), window.toNanos()))
+                .bucket.tryConsumeAndReturnRemaining(1);
+    }
+
+    @Override
+    public void refund(RateLimitKey key, BucketConfiguration configuration, Duration window) {
+        WindowedBucket windowed = buckets.getIfPresent(key);
+        if (windowed != null) {
+            windowed.bucket.addTokens(1);
+        }
+    }
+
+    @Override
+    public long getBucketCount() {
+        return buckets.estimatedSize();
+    }
+
+    private static Bucket createBucket(BucketConfiguration configuration) {
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth limit : configuration.getBandwidths()) {
+            builder.addLimit(limit);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Bucket junto con la duración de su ventana, que define cuándo expira.
+     */
+    private static final class WindowedBucket {
+        private final Bucket bucket;
+        private final long windowNanos;
+
+        private WindowedBucket(Bucket bucket, long windowNanos) {
+            this.bucket = bucket;
+            this.windowNanos = windowNanos;
+        }
+    }
+
+    /**
+     * Expira cada bucket una ventana completa después de su último uso.
+     */
+    private static final class WindowExpiry implements Expiry<RateLimitKey, WindowedBucket> {
+        @Override
+        public long expireAfterCreate(RateLimitKey key, WindowedBucket value, long currentTime) {
+            return value.windowNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(RateLimitKey key, WindowedBucket value, long currentTime, long currentDuration) {
+            return value.windowNanos;
+        }
+
+        @Override
+        public long expireAfterRead(RateLimitKey key, WindowedBucket value, long currentTime, long currentDuration) {
+            return value.windowNanos;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import com.ak4n1.terra.api.terra_api.security.config.RateLimitConfig;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buckets de rate limiting compartidos entre nodos a través de MariaDB.
+ * 
+ * <p>Se activa con {@code rate.limit.backend=jdbc}. Cada bucket es una fila con los tokens
+ * que le quedan y el momento en que su ventana termina y vuelve a estar lleno. El consumo
+ * se resuelve en la base con un UPDATE condicional (resta un token si queda alguno o si la
+ * ventana ya terminó, en cuyo caso la reinicia), sin leer el estado antes ni abrir
+ * transacciones; el UPDATE devuelve los tokens restantes con {@code LAST_INSERT_ID(expr)}.
+ * 
+ * <p>Costo por bucket consultado:
+ * <ul>
+ *   <li>permitido: 1 sentencia (el UPDATE)</li>
+ *   <li>rechazado: 2 (el UPDATE no cambia nada y un SELECT lee cuánto falta para el próximo token)</li>
+ *   <li>bucket nuevo o vencido y ya borrado: 3 (UPDATE, SELECT e INSERT), una vez por ventana</li>
+ *   <li>devolución de un token (otro bucket de la petición la rechazó): 1 UPDATE</li>
+ * </ul>
+ * Una petición consulta un bucket por IP, más uno por red con {@code rate.limit.subnet.enabled}
+ * y uno por usuario en las políticas con clave de usuario: como máximo 3 sentencias si pasa.
+ * 
+ * <p>Los límites son de ventana fija, como los de {@code refillIntervally} en memoria, pero
+ * la ventana empieza con el primer consumo después de llenarse y no en múltiplos del
+ * momento de creación. Un hilo en segundo plano borra las filas de ventanas terminadas cada
+ * {@code rate.limit.jdbc.cleanup-interval-seconds}. La tabla se crea al arrancar si no existe:
+ * 
+ * <pre>
+ * CREATE TABLE rate_limit_bucket (
+ *   bucket_key VARBINARY(32) NOT NULL PRIMARY KEY,
+ *   tokens     INT NOT NULL,
+ *   expires_at BIGINT NOT NULL,
+ *   KEY idx_rate_limit_bucket_expires (expires_at)
+ * ) ENGINE=InnoDB;
+ * </pre>
+ * 
+ * <p>El tiempo de los buckets es el reloj de cada nodo, que deben estar sincronizados (NTP).
+ * 
+ * <p>Si la base no responde (cualquier {@link DataAccessException}) la petición no falla:
+ * el consumo y la devolución pasan a buckets en la memoria de este nodo, como el backend
+ * "memory", y vuelven a la base con la primera sentencia que funcione. Mientras tanto el
+ * límite es por nodo. El paso a memoria y la recuperación se registran una vez cada uno.
+ * 
+ * @author ak4n1
+ * @since 1.0
+ */
+public class JdbcRateLimitBucketStore implements RateLimitBucketStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcRateLimitBucketStore.class);
+
+    private static final int CLEANUP_BATCH = 5000;
+
+    // Reintentos si otro nodo crea o borra la fila entre las sentencias de un consumo
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS rate_limit_bucket ("
+            + "bucket_key VARBINARY(32) NOT NULL PRIMARY KEY, "
+            + "tokens INT NOT NULL, "
+            + "expires_at BIGINT NOT NULL, "
+            + "KEY idx_rate_limit_bucket_expires (expires_at)) ENGINE=InnoDB";
+    // Las asignaciones se evalúan en orden: la de expires_at todavía ve el valor anterior
+    private static final String CONSUME = "UPDATE rate_limit_bucket "
+            + "SET tokens = LAST_INSERT_ID(IF(expires_at <= ?, ?, tokens) - 1), "
+            + "expires_at = IF(expires_at <= ?, ?, expires_at) "
+            + "WHERE bucket_key = ? AND (tokens > 0 OR expires_at <= ?)";
+    private static final String SELECT_BUCKET = "SELECT tokens, expires_at FROM rate_limit_bucket WHERE bucket_key = ?";
+    private static final String INSERT_BUCKET = "INSERT IGNORE INTO rate_limit_bucket (bucket_key, tokens, expires_at) VALUES (?, ?, ?)";
+    private static final String REFUND = "UPDATE rate_limit_bucket SET tokens = LEAST(tokens + 1, ?) "
+            + "WHERE bucket_key = ? AND expires_at > ?";
+    private static final String COUNT_BUCKETS = "SELECT COUNT(*) FROM rate_limit_bucket";
+    private static final String DELETE_EXPIRED = "DELETE FROM rate_limit_bucket WHERE expires_at < ? LIMIT " + CLEANUP_BATCH;
+
+    private final JdbcTemplate jdbc;
+    private final ScheduledExecutorService cleaner;
+
+    // Buckets de este nodo mientras la base no está disponible
+    private final InMemoryRateLimitBucketStore fallback;
+    private volatile boolean degraded;
+
+    // Filas en la tabla según la última limpieza
+    private volatile long bucketCount;
+
+    public JdbcRateLimitBucketStore(JdbcTemplate jdbc, RateLimitConfig config, MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.fallback = new InMemoryRateLimitBucketStore(config, meterRegistry);
+        createTableIfMissing();
+        Gauge.builder("rate.limit.buckets", this, JdbcRateLimitBucketStore::getBucketCount)
+                .description("Filas de rate_limit_bucket en la última limpieza")
+                .register(meterRegistry);
+
+        long interval = config.getJdbcCleanupIntervalSeconds();
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "rate-limit-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleaner.scheduleWithFixedDelay(this::deleteExpired, 0, interval, TimeUnit.SECONDS);
+        logger.info("🛡️ Rate limiting con buckets compartidos en base de datos (limpieza cada {} s)", interval);
+    }
+
+    @Override
+    public ConsumptionProbe tryConsume(RateLimitKey key, BucketConfiguration configuration, Duration window) {
+        ConsumptionProbe probe;
+        try {
+            probe = consumeInDatabase(key, configuration, window);
+        } catch (DataAccessException e) {
+            degrade(e);
+            return fallback.tryConsume(key, configuration, window);
+        }
+        recover();
+        return probe;
+    }
+
+    private ConsumptionProbe consumeInDatabase(RateLimitKey key, BucketConfiguration configuration, Duration window) {
+        byte[] id = key.toBytes();
+        long capacity = capacity(configuration);
+        for (int attempt = 1; ; attempt++) {
+            long now = System.currentTimeMillis();
+            long resetAt = now + window.toMillis();
+
+            // Caso común: una sentencia que consume y devuelve los tokens restantes
+            KeyHolder remaining = new GeneratedKeyHolder();
+            int updated = jdbc.update(con -> {
+                PreparedStatement ps = con.prepareStatement(CONSUME, Statement.RETURN_GENERATED_KEYS);
+                ps.setLong(1, now);
+                ps.setLong(2, capacity);
+                ps.setLong(3, now);
+                ps.setLong(4, resetAt);
+                ps.setBytes(5, id);
+                ps.setLong(6, now);
+                return ps;
+            }, remaining);
+            if (updated == 1) {
+                // El fin de la ventana no se lee: la espera hasta llenarse no se informa
+                return ConsumptionProbe.consumed(remainingTokens(remaining), 0L);
+            }
+
+            // Sin tokens, o la fila no existe
+            List<long[]> rows = jdbc.query(SELECT_BUCKET, (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) }, id);
+            if (rows.isEmpty()) {
+                if (jdbc.update(INSERT_BUCKET, id, capacity - 1, resetAt) == 1) {
+                    return ConsumptionProbe.consumed(capacity - 1, TimeUnit.MILLISECONDS.toNanos(window.toMillis()));
+                }
+            } else if (rows.get(0)[0] <= 0 && rows.get(0)[1] > now) {
+                long nanosToWait = TimeUnit.MILLISECONDS.toNanos(rows.get(0)[1] - now);
+                return ConsumptionProbe.rejected(0, nanosToWait, nanosToWait);
+            }
+            if (attempt == MAX_ATTEMPTS) {
+                // Carrera persistente con otros nodos: rechazar antes que no limitar
+                long nanosToWait = TimeUnit.SECONDS.toNanos(1);
+                return ConsumptionProbe.rejected(0, nanosToWait, nanosToWait);
+            }
+        }
+    }
+
+    @Override
+    public void refund(RateLimitKey key, BucketConfiguration configuration, Duration window) {
+        try {
+            jdbc.update(REFUND, capacity(configuration), key.toBytes(), System.currentTimeMillis());
+        } catch (DataAccessException e) {
+            // El token se consumió en memoria si la base ya no respondía al consumirlo
+            degrade(e);
+            fallback.refund(key, configuration, window);
+        }
+    }
+
+    @Override
+    public long getBucketCount() {
+        return bucketCount;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cleaner.shutdownNow();
+    }
+
+    private void degrade(DataAccessException e) {
+        if (!degraded) {
+            degraded = true;
+            logger.warn("⚠️ Base de datos de rate limiting no disponible, usando buckets en memoria de este nodo: {}",
+                    e.getMessage());
+        }
+    }
+
+    private void recover() {
+        if (degraded) {
+            degraded = false;
+            logger.info("✅ Base de datos de rate limiting disponible otra vez, buckets compartidos restablecidos");
+        }
+    }
+
+    private void createTableIfMissing() {
+        try {
+            jdbc.execute(CREATE_TABLE);
+        } catch (DataAccessException e) {
+            // Sin permisos de DDL la tabla debe existir de antemano
+            logger.warn("⚠️ No se pudo crear la tabla rate_limit_bucket: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Borra los buckets que ya volvieron a estar llenos, en lotes para no bloquear la tabla.
+     */
+    private void deleteExpired() {
+        try {
+            long now = System.currentTimeMillis();
+            int deleted;
+            int total = 0;
+            do {
+                deleted = jdbc.update(DELETE_EXPIRED, now);
+                total += deleted;
+            } while (deleted == CLEANUP_BATCH);
+            if (total > 0) {
+                logger.debug("🧹 Buckets de rate limiting vencidos borrados: {}", total);
+            }
+            Long count = jdbc.queryForObject(COUNT_BUCKETS, Long.class);
+            bucketCount = count != null ? count : 0L;
+        } catch (DataAccessException e) {
+            logger.warn("⚠️ Error borrando buckets de rate limiting vencidos: {}", e.getMessage());
+        }
+    }
+
+    private static long capacity(BucketConfiguration configuration) {
+        return configuration.getBandwidths()[0].getCapacity();
+    }
+
+    /**
+     * Tokens restantes que dejó el UPDATE con {@code LAST_INSERT_ID(expr)}. El driver los
+     * devuelve como clave generada; con 0 puede no devolver ninguna.
+     */
+    private static long remainingTokens(KeyHolder keyHolder) {
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            for (Object value : keys.values()) {
+                if (value instanceof Number) {
+                    return ((Number) value).longValue();
+                }
+            }
+        }
+        return 0L;
+    }
+}
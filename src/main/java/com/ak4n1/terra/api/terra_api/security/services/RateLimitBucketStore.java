@@ -0,0 +1,46 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+
+import java.time.Duration;
+
+/**
+ * Almacenamiento de los buckets de rate limiting.
+ * 
+ * <p>La implementación se elige con {@code rate.limit.backend}: "memory" (por defecto)
+ * guarda los buckets en la JVM y "jdbc" los comparte entre todos los nodos a través
+ * de la base de datos, para que el límite sea del cluster y no de cada instancia.
+ * 
+ * @see InMemoryRateLimitBucketStore
+ * @see JdbcRateLimitBucketStore
+ * @author ak4n1
+ * @since 1.0
+ */
+public interface RateLimitBucketStore {
+
+    /**
+     * Intenta consumir un token del bucket de una clave, creándolo lleno si no existe.
+     * 
+     * @param key Clave del bucket (límite y dirección, red o usuario del cliente)
+     * @param configuration Límites del bucket
+     * @param window Ventana del límite; pasada sin uso el bucket está lleno y puede descartarse
+     * @return Resultado del consumo, con los tokens restantes o la espera hasta el próximo
+     */
+    ConsumptionProbe tryConsume(RateLimitKey key, BucketConfiguration configuration, Duration window);
+
+    /**
+     * Devuelve un token consumido con {@link #tryConsume}, cuando otro bucket de la misma
+     * petición la rechazó. Si el bucket ya se descartó o volvió a llenarse no hace nada.
+     * 
+     * @param key Clave del bucket
+     * @param configuration Límites del bucket
+     * @param window Ventana del límite
+     */
+    void refund(RateLimitKey key, BucketConfiguration configuration, Duration window);
+
+    /**
+     * Cantidad aproximada de buckets que mantiene este nodo.
+     */
+    long getBucketCount();
+}
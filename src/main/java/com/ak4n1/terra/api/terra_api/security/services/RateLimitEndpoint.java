@@ -0,0 +1,96 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import com.ak4n1.terra.api.terra_api.utils.HeavyHitters;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoint actuator con el estado del rate limiting ({@code /actuator/ratelimit}).
+ * 
+ * <p>{@code GET} devuelve, por política, las peticiones permitidas y rechazadas, y el top
+ * de IPs y usuarios por peticiones y por rechazos ({@code ?limit=20} por defecto). Cada
+ * entrada del top trae {@code count} y {@code error}: la cuenta real está entre
+ * {@code count - error} y {@code count}. {@code DELETE} reinicia los tops, por ejemplo al
+ * terminar una ola de fuerza bruta.
+ * 
+ * <p>Hay que exponerlo con {@code management.endpoints.web.exposure.include=ratelimit};
+ * solo lo pueden consultar usuarios con ROLE_ADMIN (ver SecurityConfig).
+ * 
+ * @see RateLimitMetrics
+ * @author ak4n1
+ * @since 1.0
+ */
+@Component
+@Endpoint(id = "ratelimit")
+public class RateLimitEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final RateLimitService rateLimitService;
+    private final RateLimitMetrics metrics;
+
+    public RateLimitEndpoint(RateLimitService rateLimitService, RateLimitMetrics metrics) {
+        this.rateLimitService = rateLimitService;
+        this.metrics = metrics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> report(@Nullable Integer limit) {
+        int top = limit != null && limit > 0 ? limit : DEFAULT_LIMIT;
+
+        Map<String, Object> policies = new LinkedHashMap<>();
+        for (RateLimitPolicy policy : rateLimitService.getPolicies()) {
+            long[] counts = metrics.getCounts(policy);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("key", policy.getKey());
+            entry.put("attempts", policy.getAttempts());
+            entry.put("window", policy.getWindow().toString());
+            entry.put("allowed", counts[0]);
+            entry.put("rejected", counts[1]);
+            policies.put(policy.getName(), entry);
+        }
+
+        Map<String, Object> ips = new LinkedHashMap<>();
+        ips.put("total", metrics.getRequestsByIp().getTotal());
+        ips.put("byRequests", entries(metrics.getRequestsByIp(), top));
+        ips.put("byRejections", entries(metrics.getRejectionsByIp(), top));
+
+        Map<String, Object> principals = new LinkedHashMap<>();
+        principals.put("total", metrics.getRequestsByPrincipal().getTotal());
+        principals.put("byRequests", entries(metrics.getRequestsByPrincipal(), top));
+        principals.put("byRejections", entries(metrics.getRejectionsByPrincipal(), top));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("policies", policies);
+        report.put("buckets", rateLimitService.getBucketCount());
+        report.put("trackingSince", metrics.getTrackingSince().toString());
+        report.put("topIps", ips);
+        report.put("topPrincipals", principals);
+        return report;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        metrics.resetTop();
+    }
+
+    private static List<Map<String, Object>> entries(HeavyHitters<?> hitters, int limit) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (HeavyHitters.Entry<?> hitter : hitters.top(limit)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("key", String.valueOf(hitter.getKey()));
+            entry.put("count", hitter.getCount());
+            entry.put("error", hitter.getError());
+            entries.add(entry);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,136 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Clave binaria de un bucket de rate limiting: qué límite se aplica y a qué
+ * dirección, red o usuario.
+ * 
+ * <p>Reemplaza a las claves {@code "login:" + ip}: no concatena ni vuelve a hashear
+ * el texto de la IP en cada petición y ocupa lo mismo para IPv4 que para IPv6.
+ * 
+ * @see ClientAddress
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class RateLimitKey {
+
+    /**
+     * Largo de {@link #toBytes()}.
+     */
+    public static final int BYTES = 4 + 1 + 8 + 8;
+
+    /**
+     * Valor de {@link #getPrefixBits()} en las claves de usuario.
+     */
+    private static final int PRINCIPAL = 255;
+
+    // MessageDigest no es thread-safe y crearlo busca el proveedor en cada llamada
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    });
+
+    private final int limit;
+    private final int prefixBits;
+    private final long high;
+    private final long low;
+    private final int hash;
+
+    /**
+     * @param limit Identificador del límite (endpoint o política)
+     * @param address Dirección del cliente
+     * @param prefixBits 128 para la dirección exacta o el largo del prefijo de su red
+     *                   (ver {@link ClientAddress#prefixBits(int, int)})
+     */
+    public RateLimitKey(int limit, ClientAddress address, int prefixBits) {
+        // Conservar solo los bits de red, sin crear otra ClientAddress
+        this(limit, prefixBits, address.getHigh(prefixBits), address.getLow(prefixBits));
+    }
+
+    private RateLimitKey(int limit, int prefixBits, long high, long low) {
+        this.limit = limit;
+        this.prefixBits = prefixBits;
+        this.high = high;
+        this.low = low;
+        long h = high * 0x9E3779B97F4A7C15L + low;
+        h = h * 0x9E3779B97F4A7C15L + ((long) limit << 8 | prefixBits);
+        this.hash = (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Clave de un usuario autenticado: los primeros 128 bits del SHA-256 de su nombre,
+     * con un prefijo fuera del rango de las direcciones para no mezclarse con ellas.
+     * 
+     * @param limit Identificador del límite
+     * @param principal Nombre del usuario (subject del token)
+     */
+    public static RateLimitKey forPrincipal(int limit, String principal) {
+        byte[] digest = SHA_256.get().digest(principal.getBytes(StandardCharsets.UTF_8));
+        return new RateLimitKey(limit, PRINCIPAL, readLong(digest, 0), readLong(digest, 8));
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getPrefixBits() {
+        return prefixBits;
+    }
+
+    /**
+     * Forma serializada (límite, prefijo y los 128 bits de la dirección), usada como
+     * clave primaria en el backend JDBC.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[BYTES];
+        writeInt(bytes, 0, limit);
+        bytes[4] = (byte) prefixBits;
+        writeLong(bytes, 5, high);
+        writeLong(bytes, 13, low);
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RateLimitKey)) {
+            return false;
+        }
+        RateLimitKey other = (RateLimitKey) o;
+        return hash == other.hash && limit == other.limit && prefixBits == other.prefixBits
+                && high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        for (int i = 0; i < 4; i++) {
+            bytes[offset + i] = (byte) (value >>> (24 - 8 * i));
+        }
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[offset + i] = (byte) (value >>> (56 - 8 * i));
+        }
+    }
+}
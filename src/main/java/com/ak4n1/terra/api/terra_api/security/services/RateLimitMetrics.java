@@ -0,0 +1,159 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import com.ak4n1.terra.api.terra_api.security.config.RateLimitConfig;
+import com.ak4n1.terra.api.terra_api.utils.HeavyHitters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Telemetría del rate limiting: métricas por política y top de clientes.
+ * 
+ * <p>Por cada política se publican en Micrometer:
+ * <ul>
+ *   <li>{@code rate.limit.requests}: contador con tags {@code policy} y
+ *       {@code outcome} (allowed/rejected)</li>
+ *   <li>{@code rate.limit.check}: timer de la consulta a los buckets, con los mismos tags
+ *       (con el backend JDBC incluye la ida a la base)</li>
+ * </ul>
+ * 
+ * <p>Además lleva un top de IPs y de usuarios por peticiones y por rechazos con
+ * {@link HeavyHitters}, en memoria fija ({@code rate.limit.telemetry.top-capacity} claves por
+ * tabla y franja) sin importar cuántos clientes distintos lleguen. Cada hilo registra en su
+ * propia franja, así las peticiones concurrentes no compiten por un lock global. Los usuarios se conocen solo en
+ * las políticas con clave por usuario. Se consulta en el endpoint actuator "ratelimit".
+ * 
+ * @see RateLimitEndpoint
+ * @author ak4n1
+ * @since 1.0
+ */
+@Component
+public class RateLimitMetrics {
+
+    // Meters de cada política; las políticas no cambian después del arranque
+    private final Map<RateLimitPolicy, PolicyMeters> meters = new IdentityHashMap<>();
+
+    private final HeavyHitters<ClientAddress> requestsByIp;
+    private final HeavyHitters<ClientAddress> rejectionsByIp;
+    private final HeavyHitters<String> requestsByPrincipal;
+    private final HeavyHitters<String> rejectionsByPrincipal;
+
+    private volatile Instant trackingSince = Instant.now();
+
+    public RateLimitMetrics(RateLimitService rateLimitService, RateLimitConfig config, MeterRegistry meterRegistry) {
+        for (RateLimitPolicy policy : rateLimitService.getPolicies()) {
+            meters.put(policy, new PolicyMeters(policy.getName(), meterRegistry));
+        }
+        int capacity = config.getTelemetryTopCapacity();
+        this.requestsByIp = new HeavyHitters<>(capacity);
+        this.rejectionsByIp = new HeavyHitters<>(capacity);
+        this.requestsByPrincipal = new HeavyHitters<>(capacity);
+        this.rejectionsByPrincipal = new HeavyHitters<>(capacity);
+    }
+
+    /**
+     * Registra el resultado de una consulta de rate limiting.
+     * 
+     * @param policy Política aplicada
+     * @param client Dirección del cliente
+     * @param principal Usuario, o null si la política no usa usuario o no hay sesión
+     * @param consumed Si la petición pasó
+     * @param nanos Duración de la consulta a los buckets
+     */
+    public void record(RateLimitPolicy policy, ClientAddress client, String principal, boolean consumed, long nanos) {
+        PolicyMeters policyMeters = meters.get(policy);
+        if (consumed) {
+            policyMeters.allowed.increment();
+            policyMeters.allowedCheck.record(nanos, TimeUnit.NANOSECONDS);
+        } else {
+            policyMeters.rejected.increment();
+            policyMeters.rejectedCheck.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        requestsByIp.add(client);
+        if (!consumed) {
+            rejectionsByIp.add(client);
+        }
+        if (principal != null) {
+            requestsByPrincipal.add(principal);
+            if (!consumed) {
+                rejectionsByPrincipal.add(principal);
+            }
+        }
+    }
+
+    /**
+     * Peticiones permitidas y rechazadas de la política desde el arranque.
+     * 
+     * @return {allowed, rejected}
+     */
+    public long[] getCounts(RateLimitPolicy policy) {
+        PolicyMeters policyMeters = meters.get(policy);
+        return new long[] { (long) policyMeters.allowed.count(), (long) policyMeters.rejected.count() };
+    }
+
+    public HeavyHitters<ClientAddress> getRequestsByIp() {
+        return requestsByIp;
+    }
+
+    public HeavyHitters<ClientAddress> getRejectionsByIp() {
+        return rejectionsByIp;
+    }
+
+    public HeavyHitters<String> getRequestsByPrincipal() {
+        return requestsByPrincipal;
+    }
+
+    public HeavyHitters<String> getRejectionsByPrincipal() {
+        return rejectionsByPrincipal;
+    }
+
+    /**
+     * Momento desde el que se cuentan los tops (arranque o último reinicio).
+     */
+    public Instant getTrackingSince() {
+        return trackingSince;
+    }
+
+    /**
+     * Reinicia los tops de clientes; los contadores de Micrometer no se tocan.
+     */
+    public void resetTop() {
+        requestsByIp.clear();
+        rejectionsByIp.clear();
+        requestsByPrincipal.clear();
+        rejectionsByPrincipal.clear();
+        trackingSince = Instant.now();
+    }
+
+    /**
+     * Meters de una política, creados una sola vez.
+     */
+    private static final class PolicyMeters {
+        private final Counter allowed;
+        private final Counter rejected;
+        private final Timer allowedCheck;
+        private final Timer rejectedCheck;
+
+        private PolicyMeters(String policy, MeterRegistry registry) {
+            this.allowed = Counter.builder("rate.limit.requests")
+                    .tag("policy", policy).tag("outcome", "allowed")
+                    .register(registry);
+            this.rejected = Counter.builder("rate.limit.requests")
+                    .tag("policy", policy).tag("outcome", "rejected")
+                    .register(registry);
+            this.allowedCheck = Timer.builder("rate.limit.check")
+                    .tag("policy", policy).tag("outcome", "allowed")
+                    .register(registry);
+            this.rejectedCheck = Timer.builder("rate.limit.check")
+                    .tag("policy", policy).tag("outcome", "rejected")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import com.ak4n1.terra.api.terra_api.security.config.RateLimitConfig.PolicyKey;
+import io.github.bucket4j.BucketConfiguration;
+
+import java.time.Duration;
+
+/**
+ * Política de rate limiting ya compilada: límites de Bucket4j construidos una vez al
+ * arrancar, listos para cada petición que resuelva a esta política.
+ * 
+ * @see RateLimitService#resolvePolicy(String, String)
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class RateLimitPolicy {
+
+    private final String name;
+    private final int id;
+    private final PolicyKey key;
+    private final int attempts;
+    private final Duration window;
+    private final BucketConfiguration configuration;
+    private final BucketConfiguration subnetConfiguration;
+
+    RateLimitPolicy(String name, PolicyKey key, int attempts, Duration window,
+                    BucketConfiguration configuration, BucketConfiguration subnetConfiguration) {
+        this.name = name;
+        // Estable entre reinicios y entre nodos (las claves del backend JDBC lo incluyen).
+        // Un id secuencial cambiaría al agregar una política; RateLimitService rechaza
+        // al arrancar dos nombres con el mismo hash
+        this.id = name.hashCode();
+        this.key = key;
+        this.attempts = attempts;
+        this.window = window;
+        this.configuration = configuration;
+        this.subnetConfiguration = subnetConfiguration;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public PolicyKey getKey() {
+        return key;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    /**
+     * Indica si la política necesita conocer al usuario autenticado.
+     */
+    public boolean usesPrincipal() {
+        return key != PolicyKey.IP;
+    }
+
+    BucketConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    BucketConfiguration getSubnetConfiguration() {
+        return subnetConfiguration;
+    }
+}
@@ -1,14 +1,24 @@
 package com.ak4n1.terra.api.terra_api.security.services;
 
 import com.ak4n1.terra.api.terra_api.security.config.RateLimitConfig;
+import com.ak4n1.terra.api.terra_api.security.config.RateLimitConfig.PolicyKey;
+import com.ak4n1.terra.api.terra_api.security.config.RateLimitConfig.PolicyProperties;
+import com.ak4n1.terra.api.terra_api.utils.RouteMatcher;
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Servicio para rate limiting usando Bucket4j.
@@ -16,122 +26,265 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>Gestiona buckets de tasa de límite por IP y endpoint para prevenir
  * ataques de fuerza bruta y abuso de endpoints críticos.
  * 
+ * <p>Los límites son políticas declaradas en propiedades (ver {@link RateLimitConfig}):
+ * patrones de ruta Ant y métodos HTTP asociados a una capacidad, una ventana y la
+ * clave del cliente (IP, usuario o ambos). Todos los patrones se compilan al arrancar en
+ * un único {@link RouteMatcher}, así cada petición resuelve su política en una búsqueda.
+ * 
+ * <p>Los buckets se guardan en el {@link RateLimitBucketStore} elegido con
+ * {@code rate.limit.backend}: en memoria de cada nodo o compartidos en la base de datos.
+ * Las claves son binarias ({@link RateLimitKey}): la IP del cliente se interpreta una vez
+ * por petición y no se arma ningún String por consulta.
+ * 
+ * <p>Con {@code rate.limit.subnet.enabled} cada petición consume además un token de un bucket
+ * compartido por toda la red del cliente (IPv4 /24, IPv6 /64 por defecto), así un
+ * atacante que rota direcciones dentro de su red no obtiene un bucket nuevo por cada una.
+ * 
  * @author ak4n1
  * @since 1.0
  */
 @Service
 public class RateLimitService {
 
-    // Map de buckets por IP
-    private final Map<String, Bucket> bucketsByIp = new ConcurrentHashMap<>();
-    
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitService.class);
+
+    // Buckets por política y dirección, red o usuario
+    private final RateLimitBucketStore store;
+
     private final RateLimitConfig config;
 
-    public RateLimitService(RateLimitConfig config) {
+    // Proxies cuyos headers X-Forwarded-For / X-Real-IP se aceptan
+    private final TrustedProxies trustedProxies;
+    private volatile boolean untrustedForwardWarned;
+
+    // Políticas compiladas y su tabla de rutas
+    private final List<RateLimitPolicy> policies = new ArrayList<>();
+    private final RouteMatcher<RateLimitPolicy> routes = new RouteMatcher<>();
+
+    public RateLimitService(RateLimitConfig config, RateLimitBucketStore store) {
         this.config = config;
+        this.store = store;
+        this.trustedProxies = TrustedProxies.parse(config.getTrustedProxies());
+        if (config.isSubnetEnabled()) {
+            // Con /32 o /128 la red es la propia IP: su bucket sería el mismo que el de la IP
+            checkSubnetPrefix("rate.limit.subnet.ipv4-prefix", config.getSubnetIpv4Prefix(), 32);
+            checkSubnetPrefix("rate.limit.subnet.ipv6-prefix", config.getSubnetIpv6Prefix(), 128);
+        }
+
+        Map<Integer, String> namesById = new HashMap<>();
+        for (Map.Entry<String, PolicyProperties> entry : config.getPolicies().entrySet()) {
+            PolicyProperties properties = entry.getValue();
+            if (!properties.isEnabled()) {
+                continue;
+            }
+            if (properties.getAttempts() <= 0 || properties.getPatterns().isEmpty()) {
+                throw new IllegalStateException("Política de rate limiting inválida '" + entry.getKey()
+                        + "': requiere attempts > 0 y al menos un patrón");
+            }
+            RateLimitPolicy policy = new RateLimitPolicy(entry.getKey(), properties.getKey(),
+                    properties.getAttempts(), properties.getWindow(),
+                    createConfiguration(properties.getAttempts(), properties.getWindow()),
+                    createConfiguration(properties.getAttempts() * config.getSubnetMultiplier(), properties.getWindow()));
+            // Dos políticas con el mismo id compartirían buckets (y filas en el backend JDBC)
+            String sameId = namesById.putIfAbsent(policy.getId(), policy.getName());
+            if (sameId != null) {
+                throw new IllegalStateException("Las políticas de rate limiting '" + sameId + "' y '"
+                        + policy.getName() + "' tienen el mismo id (" + policy.getId() + "): renombrar una de ellas");
+            }
+            policies.add(policy);
+            for (String pattern : properties.getPatterns()) {
+                routes.add(pattern, properties.getMethods(), policy);
+            }
+        }
+    }
+
+    private static void checkSubnetPrefix(String property, int prefix, int addressBits) {
+        if (prefix < 1 || prefix >= addressBits) {
+            throw new IllegalStateException(property + " inválido (" + prefix + "): debe estar entre 1 y "
+                    + (addressBits - 1) + " para que la red sea más amplia que una IP");
+        }
     }
 
     /**
-     * Obtiene o crea un bucket para el endpoint de login.
+     * Resuelve la política de una petición con una sola búsqueda en la tabla de rutas.
      * 
-     * @param ipAddress IP del cliente
-     * @return Bucket configurado para login
+     * @param method Método HTTP
+     * @param path Path de la petición
+     * @return Política más específica que aplica, o null si la ruta no tiene límite
      */
-    public Bucket getLoginBucket(String ipAddress) {
-        String key = "login:" + ipAddress;
-        return bucketsByIp.computeIfAbsent(key, k -> createBucket(config.getLoginAttempts(), config.getLoginWindowMinutes()));
+    public RateLimitPolicy resolvePolicy(String method, String path) {
+        return routes.match(method, path);
     }
 
     /**
-     * Obtiene o crea un bucket para el endpoint de refresh.
-     * 
-     * @param ipAddress IP del cliente
-     * @return Bucket configurado para refresh
+     * Políticas activas, en orden de nombre.
      */
-    public Bucket getRefreshBucket(String ipAddress) {
-        String key = "refresh:" + ipAddress;
-        return bucketsByIp.computeIfAbsent(key, k -> createBucket(config.getRefreshAttempts(), config.getRefreshWindowMinutes()));
+    public List<RateLimitPolicy> getPolicies() {
+        return Collections.unmodifiableList(policies);
     }
 
     /**
-     * Obtiene o crea un bucket para el endpoint de registro.
+     * Intenta consumir un token de la política para el cliente.
      * 
-     * @param ipAddress IP del cliente
-     * @return Bucket configurado para registro
+     * <p>Según la clave de la política se consume del bucket de la IP (y de su red si el
+     * límite por red está habilitado), del usuario o de ambos. La petición pasa solo si
+     * todos tienen tokens; si uno la rechaza, los tokens ya consumidos de los anteriores
+     * se devuelven. Los buckets se consultan recién cuando hacen falta (con el backend JDBC,
+     * una sentencia por bucket; ver {@link JdbcRateLimitBucketStore}).
+     * 
+     * @param policy Política a aplicar
+     * @param client Dirección del cliente
+     * @param principal Usuario autenticado, o null si la petición no trae una sesión válida
+     * @return Resultado del consumo: con tokens restantes del bucket más ajustado si pasó,
+     *         o con la espera hasta el próximo token del bucket que la rechazó
      */
-    public Bucket getRegisterBucket(String ipAddress) {
-        String key = "register:" + ipAddress;
-        return bucketsByIp.computeIfAbsent(key, k -> createBucket(config.getRegisterAttempts(), config.getRegisterWindowMinutes()));
+    public ConsumptionProbe tryConsume(RateLimitPolicy policy, ClientAddress client, String principal) {
+        Duration window = policy.getWindow();
+        // Buckets ya consumidos, para devolver su token si uno posterior rechaza
+        RateLimitKey addressKey = null;
+        RateLimitKey subnetKey = null;
+        ConsumptionProbe result = null;
+
+        if (policy.getKey() != PolicyKey.PRINCIPAL || principal == null) {
+            addressKey = new RateLimitKey(policy.getId(), client, 128);
+            result = store.tryConsume(addressKey, policy.getConfiguration(), window);
+            if (!result.isConsumed()) {
+                return result;
+            }
+            if (config.isSubnetEnabled()) {
+                int prefixBits = client.prefixBits(config.getSubnetIpv4Prefix(), config.getSubnetIpv6Prefix());
+                subnetKey = new RateLimitKey(policy.getId(), client, prefixBits);
+                ConsumptionProbe probe = store.tryConsume(subnetKey, policy.getSubnetConfiguration(), window);
+                if (!probe.isConsumed()) {
+                    store.refund(addressKey, policy.getConfiguration(), window);
+                    return probe;
+                }
+                result = tighter(result, probe);
+            }
+        }
+
+        if (policy.usesPrincipal() && principal != null) {
+            RateLimitKey principalKey = RateLimitKey.forPrincipal(policy.getId(), principal);
+            ConsumptionProbe probe = store.tryConsume(principalKey, policy.getConfiguration(), window);
+            if (!probe.isConsumed()) {
+                // La petición no pasa: devolver lo consumido de los buckets de la dirección
+                if (addressKey != null) {
+                    store.refund(addressKey, policy.getConfiguration(), window);
+                }
+                if (subnetKey != null) {
+                    store.refund(subnetKey, policy.getSubnetConfiguration(), window);
+                }
+                return probe;
+            }
+            result = tighter(result, probe);
+        }
+        return result;
     }
 
     /**
-     * Obtiene o crea un bucket para el endpoint de reset password.
-     * 
-     * @param ipAddress IP del cliente
-     * @return Bucket configurado para reset password
+     * De dos consumos exitosos, el del bucket con menos tokens restantes.
      */
-    public Bucket getResetPasswordBucket(String ipAddress) {
-        String key = "reset:" + ipAddress;
-        return bucketsByIp.computeIfAbsent(key, k -> createBucket(config.getResetPasswordAttempts(), config.getResetPasswordWindowMinutes()));
+    private static ConsumptionProbe tighter(ConsumptionProbe current, ConsumptionProbe probe) {
+        return current == null || probe.getRemainingTokens() < current.getRemainingTokens() ? probe : current;
     }
 
     /**
-     * Obtiene la IP real del cliente desde el request.
-     * Considera headers de proxy como X-Forwarded-For.
+     * Obtiene la IP real del cliente desde el request, en texto.
      * 
      * @param request HttpServletRequest
-     * @return IP del cliente
+     * @return IP del cliente (ver {@link #getClientAddress(HttpServletRequest)})
      */
     public String getClientIp(HttpServletRequest request) {
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("X-Real-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-        // Si hay múltiples IPs (X-Forwarded-For), tomar la primera
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
-        }
-        return ip != null ? ip : "unknown";
+        return getClientAddress(request).toString();
     }
 
     /**
-     * Crea un nuevo bucket con la configuración especificada.
+     * Obtiene la dirección del cliente en forma binaria.
      * 
-     * @param capacity Capacidad (número de tokens)
-     * @param refillPeriodMinutes Período de relleno en minutos
-     * @return Bucket configurado
+     * <p>Los headers de proxy solo se leen si la conexión viene de un proxy de confianza
+     * ({@code rate.limit.trusted-proxies}); si no, cualquier cliente podría elegir su IP y
+     * con ella un bucket nuevo por petición. En X-Forwarded-For el cliente es la dirección
+     * ajena más a la derecha, saltando los proxies de confianza: es la que agregó el último
+     * proxy propio, y lo que está a su izquierda lo escribió el cliente.
+     * Sin X-Forwarded-For se usa X-Real-IP.
+     * 
+     * <p>Los headers se leen en un solo recorrido hacia adelante, sin copiarlos a una lista:
+     * el resultado es la última dirección ajena después del último salto que no se puede
+     * interpretar o, si después de él solo hay proxies de confianza, el primero de ellos.
+     * Si llega X-Forwarded-For desde una conexión que no es de un proxy de confianza se
+     * registra una advertencia (una vez): suele indicar que falta configurar
+     * {@code rate.limit.trusted-proxies} y que todos los clientes comparten la IP del proxy.
+     * 
+     * @param request HttpServletRequest
+     * @return Dirección del cliente, o {@link ClientAddress#UNKNOWN}
      */
-    private Bucket createBucket(int capacity, int refillPeriodMinutes) {
-        Bandwidth limit = Bandwidth.builder()
-                .capacity(capacity)
-                .refillIntervally(capacity, Duration.ofMinutes(refillPeriodMinutes))
-                .build();
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
+    public ClientAddress getClientAddress(HttpServletRequest request) {
+        ClientAddress remote = ClientAddress.parse(request.getRemoteAddr());
+        if (!trustedProxies.contains(remote)) {
+            if (!untrustedForwardWarned && request.getHeader("X-Forwarded-For") != null) {
+                untrustedForwardWarned = true;
+                logger.warn("⚠️ X-Forwarded-For recibido desde {}, que no está en rate.limit.trusted-proxies: "
+                        + "se ignora y se limita por la IP de la conexión", remote);
+            }
+            return remote;
+        }
+        Enumeration<String> forwarded = request.getHeaders("X-Forwarded-For");
+        if (forwarded != null && forwarded.hasMoreElements()) {
+            // Varios headers equivalen a uno solo con sus valores unidos por coma, en orden
+            ClientAddress lastUntrusted = null;
+            ClientAddress firstVerified = null;
+            while (forwarded.hasMoreElements()) {
+                String header = forwarded.nextElement();
+                int start = 0;
+                while (start <= header.length()) {
+                    int comma = header.indexOf(',', start);
+                    int end = comma >= 0 ? comma : header.length();
+                    ClientAddress hop = ClientAddress.parse(header, start, end);
+                    if (hop == ClientAddress.UNKNOWN) {
+                        // Lo anterior no se puede verificar: solo cuentan los saltos siguientes
+                        lastUntrusted = null;
+                        firstVerified = null;
+                    } else {
+                        if (firstVerified == null) {
+                            firstVerified = hop;
+                        }
+                        if (!trustedProxies.contains(hop)) {
+                            lastUntrusted = hop;
+                        }
+                    }
+                    start = end + 1;
+                }
+            }
+            if (lastUntrusted != null) {
+                return lastUntrusted;
+            }
+            return firstVerified != null ? firstVerified : remote;
+        }
+        ClientAddress realIp = ClientAddress.parse(request.getHeader("X-Real-IP"));
+        return realIp != ClientAddress.UNKNOWN ? realIp : remote;
     }
 
     /**
-     * Intenta consumir un token del bucket. Retorna true si hay tokens disponibles.
-     * 
-     * @param bucket Bucket a consultar
-     * @return true si hay tokens disponibles, false si se alcanzó el límite
+     * Cantidad aproximada de buckets en este nodo.
      */
-    public boolean tryConsume(Bucket bucket) {
-        return bucket.tryConsume(1);
+    public long getBucketCount() {
+        return store.getBucketCount();
     }
 
     /**
-     * Obtiene los tokens restantes en el bucket.
+     * Crea la configuración de un bucket con los límites especificados.
      * 
-     * @param bucket Bucket a consultar
-     * @return Número de tokens disponibles
+     * @param capacity Capacidad (número de tokens)
+     * @param window Período de relleno
+     * @return Configuración del bucket
      */
-    public long getAvailableTokens(Bucket bucket) {
-        return bucket.getAvailableTokens();
+    private BucketConfiguration createConfiguration(int capacity, Duration window) {
+        Bandwidth limit = Bandwidth.builder()
+                .capacity(capacity)
+                .refillIntervally(capacity, window)
+                .build();
+        return BucketConfiguration.builder()
+                .addLimit(limit)
+                .build();
     }
 }
-
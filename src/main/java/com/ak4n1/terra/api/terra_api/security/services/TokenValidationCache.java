@@ -0,0 +1,231 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import com.ak4n1.terra.api.terra_api.security.config.TokenJwtConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de access tokens ya validados contra la base de datos.
+ * 
+ * <p>JwtValidationFilter valida cada petición autenticada con dos consultas (el token activo
+ * y la cuenta con sus roles). Con este cache, un token validado guarda usuario, roles y
+ * expiración, y las peticiones siguientes con el mismo token no tocan la base ni verifican
+ * la firma de nuevo.
+ * 
+ * <p>Cada entrada vive como máximo {@code jwt.validation-cache.ttl-seconds} (y nunca más allá
+ * de la expiración del token), así que un cambio hecho fuera de la API, como deshabilitar
+ * una cuenta directo en la base, se aplica a más tardar en ese tiempo. Los cambios que hace
+ * la API se aplican de inmediato:
+ * <ul>
+ *   <li>{@link #invalidateToken(String)} al hacer logout</li>
+ *   <li>{@link #invalidateAccount(String)} cuando se borran o rotan los tokens de una cuenta
+ *       (login, refresh, cuenta deshabilitada)</li>
+ * </ul>
+ * 
+ * <p>La invalidación por cuenta no recorre el cache: cada cuenta tiene una versión que se
+ * incrementa, y una entrada guardada con una versión anterior deja de valer. La versión se
+ * lee antes de consultar la base, y si hay una transacción en curso se incrementa otra vez
+ * al terminarla: una petición concurrente que leyó la base antes del commit no puede dejar
+ * en el cache un token que ya se borró.
+ * 
+ * <p>El cache es local a cada nodo: con varias instancias, un logout en una se aplica en las
+ * demás al vencer el TTL. Tamaño, aciertos y expulsiones se publican en Micrometer como
+ * cache "validatedTokens".
+ * 
+ * @author ak4n1
+ * @since 1.0
+ */
+@Component
+public class TokenValidationCache {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+
+    // Token -> resultado de la validación
+    private final Cache<String, ValidatedToken> tokens;
+
+    // Email -> versión del estado de la cuenta; vive más que cualquier entrada de tokens
+    private final Cache<String, Long> versions;
+
+    public TokenValidationCache(@Value("${jwt.validation-cache.enabled:true}") boolean enabled,
+                                @Value("${jwt.validation-cache.max-entries:10000}") long maxEntries,
+                                @Value("${jwt.validation-cache.ttl-seconds:30}") long ttlSeconds,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        this.versions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds * 2))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "validatedTokens");
+    }
+
+    /**
+     * Busca un token validado y vigente.
+     * 
+     * @param token Access token
+     * @return Resultado de la validación, o null si hay que validar contra la base
+     */
+    public ValidatedToken get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        ValidatedToken validated = tokens.getIfPresent(token);
+        if (validated == null) {
+            return null;
+        }
+        if (validated.version != getVersion(validated.email) || validated.expiresAt <= System.currentTimeMillis()) {
+            tokens.invalidate(token);
+            return null;
+        }
+        return validated;
+    }
+
+    /**
+     * Versión actual del estado de una cuenta. Debe leerse antes de consultar la base y
+     * pasarse a {@link #put}.
+     */
+    public long getVersion(String email) {
+        Long version = versions.getIfPresent(email);
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * Guarda un token validado contra la base.
+     * 
+     * @param token Access token
+     * @param email Usuario (subject del token)
+     * @param authorities Roles del usuario
+     * @param expiresAt Expiración del token, en milisegundos epoch
+     * @param version Versión de la cuenta leída antes de validar
+     */
+    public void put(String token, String email, List<GrantedAuthority> authorities, long expiresAt, long version) {
+        if (!enabled || version != getVersion(email)) {
+            return;
+        }
+        tokens.put(token, new ValidatedToken(email, List.copyOf(authorities), expiresAt, version));
+    }
+
+    /**
+     * Descarta un token (logout). Invalida la cuenta del token, así la protección contra
+     * peticiones concurrentes de {@link #invalidateAccount(String)} cubre también este caso;
+     * los demás tokens de la cuenta solo pierden su entrada y se validan de nuevo contra la base.
+     */
+    public void invalidateToken(String token) {
+        ValidatedToken validated = tokens.asMap().remove(token);
+        String email = validated != null ? validated.email : getSubject(token);
+        if (email != null) {
+            invalidateAccount(email);
+        }
+    }
+
+    /**
+     * Descarta todos los tokens de una cuenta, ahora y al terminar la transacción en curso.
+     */
+    public void invalidateAccount(String email) {
+        bumpVersion(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bumpVersion(email);
+                }
+            });
+        }
+    }
+
+    /**
+     * Cantidad aproximada de tokens en el cache.
+     */
+    public long size() {
+        return tokens.estimatedSize();
+    }
+
+    /**
+     * Subject de un token con firma válida, o null. Un token que no pasa esta verificación
+     * tampoco pasa la de JwtValidationFilter, así que nunca está en el cache.
+     */
+    private static String getSubject(String token) {
+        if (TokenJwtConfig.SECRET_KEY == null) {
+            return null;
+        }
+        try {
+            return Jwts.parser()
+                    .verifyWith(TokenJwtConfig.SECRET_KEY)
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload()
+                    .getSubject();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void bumpVersion(String email) {
+        versions.asMap().merge(email, 1L, Long::sum);
+    }
+
+    /**
+     * Resultado de validar un token: usuario, roles y hasta cuándo vale.
+     */
+    public static final class ValidatedToken {
+        private final String email;
+        private final List<GrantedAuthority> authorities;
+        private final long expiresAt;
+        private final long version;
+
+        private ValidatedToken(String email, List<GrantedAuthority> authorities, long expiresAt, long version) {
+            this.email = email;
+            this.authorities = authorities;
+            this.expiresAt = expiresAt;
+            this.version = version;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public List<GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+    }
+
+    /**
+     * Cada entrada expira al cumplir el TTL o al expirar el token, lo que ocurra primero.
+     */
+    private final class TokenExpiry implements Expiry<String, ValidatedToken> {
+        @Override
+        public long expireAfterCreate(String key, ValidatedToken value, long currentTime) {
+            long untilExpiration = TimeUnit.MILLISECONDS.toNanos(value.expiresAt - System.currentTimeMillis());
+            return Math.max(0, Math.min(ttlNanos, untilExpiration));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, ValidatedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, ValidatedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
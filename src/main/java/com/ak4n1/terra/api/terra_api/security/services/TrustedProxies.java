@@ -0,0 +1,84 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+/**
+ * Redes de los proxies en los que se confía para leer la IP del cliente de
+ * X-Forwarded-For y X-Real-IP.
+ * 
+ * <p>Esos headers los puede mandar cualquier cliente: solo valen si la conexión viene de un
+ * proxy propio (nginx, balanceador). Cada entrada es una IP o una red en notación CIDR
+ * ({@code 10.0.0.0/8}, {@code fd00::/8}); la pertenencia se resuelve comparando bits, sin
+ * crear objetos.
+ * 
+ * @see RateLimitService#getClientAddress(jakarta.servlet.http.HttpServletRequest)
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class TrustedProxies {
+
+    private final long[] highs;
+    private final long[] lows;
+    private final int[] prefixes;
+
+    private TrustedProxies(long[] highs, long[] lows, int[] prefixes) {
+        this.highs = highs;
+        this.lows = lows;
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * Interpreta una lista de IPs o redes separadas por coma.
+     * 
+     * @param value Lista (vacía o null = no se confía en ningún proxy)
+     * @return Redes de confianza
+     * @throws IllegalStateException si una entrada no es una IP o red válida
+     */
+    public static TrustedProxies parse(String value) {
+        String[] entries = value == null || value.isBlank() ? new String[0] : value.split(",");
+        long[] highs = new long[entries.length];
+        long[] lows = new long[entries.length];
+        int[] prefixes = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            String entry = entries[i].trim();
+            int slash = entry.indexOf('/');
+            ClientAddress address = ClientAddress.parse(entry, 0, slash >= 0 ? slash : entry.length());
+            if (address == ClientAddress.UNKNOWN) {
+                throw new IllegalStateException("Proxy de confianza inválido '" + entry + "': se espera una IP o red CIDR");
+            }
+            int bits = 128;
+            if (slash >= 0) {
+                int maxBits = address.isIpv4() ? 32 : 128;
+                try {
+                    bits = Integer.parseInt(entry.substring(slash + 1).trim());
+                } catch (NumberFormatException e) {
+                    bits = -1;
+                }
+                if (bits < 0 || bits > maxBits) {
+                    throw new IllegalStateException("Proxy de confianza inválido '" + entry
+                            + "': el prefijo debe estar entre 0 y " + maxBits);
+                }
+                if (address.isIpv4()) {
+                    bits += 96;
+                }
+            }
+            highs[i] = address.getHigh(bits);
+            lows[i] = address.getLow(bits);
+            prefixes[i] = bits;
+        }
+        return new TrustedProxies(highs, lows, prefixes);
+    }
+
+    /**
+     * Indica si la dirección pertenece a alguna de las redes de confianza.
+     */
+    public boolean contains(ClientAddress address) {
+        if (address == ClientAddress.UNKNOWN) {
+            return false;
+        }
+        for (int i = 0; i < prefixes.length; i++) {
+            if (address.getHigh(prefixes[i]) == highs[i] && address.getLow(prefixes[i]) == lows[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
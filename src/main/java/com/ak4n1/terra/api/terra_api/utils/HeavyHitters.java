@@ -0,0 +1,268 @@
+package com.ak4n1.terra.api.terra_api.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Claves más frecuentes de un flujo en memoria constante (algoritmo Space-Saving).
+ *
+ * <p>Se siguen como máximo {@code capacity} claves. Cuando llega una clave nueva y no hay
+ * lugar, reemplaza a la de menor cuenta y hereda esa cuenta como error: la cuenta de cada
+ * clave nunca es menor que la real y la supera como mucho en {@code error}. Cualquier
+ * clave con más de {@code total / capacity} apariciones está garantizada en la tabla, así
+ * que con una capacidad varias veces mayor que el top que se consulta, el top es exacto
+ * para las claves que realmente dominan el tráfico (una IP en fuerza bruta).
+ *
+ * <p>Las cuentas se mantienen en un min-heap indexado: registrar una aparición cuesta
+ * O(log capacity) y no crea objetos salvo al entrar una clave nueva.
+ *
+ * <p>Para no serializar a los hilos que registran, la tabla está dividida en franjas
+ * (una por hilo, según su id, hasta {@code stripes}), cada una con su propio lock y su
+ * propia tabla de {@code capacity} claves. {@link #top(int)} combina las franjas como se
+ * combinan dos resúmenes Space-Saving: suma las cuentas y los errores de cada clave y, por
+ * cada franja llena que no la sigue, suma a ambos la menor cuenta de esa franja, que es lo
+ * máximo que la clave pudo haber acumulado ahí antes de ser reemplazada. Así la cuenta
+ * combinada tampoco es menor que la real y la supera como mucho en el error combinado.
+ * La memoria es {@code stripes * capacity} claves.
+ *
+ * @param <K> Tipo de clave (debe implementar equals/hashCode)
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class HeavyHitters<K> {
+
+    private final Stripe<K>[] stripes;
+
+    /**
+     * Crea la tabla con una franja por núcleo disponible (como máximo 16).
+     *
+     * @param capacity Cantidad máxima de claves seguidas por franja
+     */
+    public HeavyHitters(int capacity) {
+        this(capacity, Math.min(16, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param capacity Cantidad máxima de claves seguidas por franja
+     * @param stripes Cantidad de franjas (se redondea a potencia de 2)
+     */
+    @SuppressWarnings("unchecked")
+    public HeavyHitters(int capacity, int stripes) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity debe ser mayor que 0");
+        }
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes debe ser mayor que 0");
+        }
+        int count = Integer.highestOneBit(stripes);
+        if (count < stripes) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe<>(capacity);
+        }
+    }
+
+    /**
+     * Registra una aparición de la clave en la franja del hilo actual.
+     */
+    public void add(K key) {
+        stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)].add(key);
+    }
+
+    /**
+     * Claves con más apariciones, de mayor a menor, sumando todas las franjas.
+     *
+     * @param limit Cantidad máxima de claves
+     * @return Copia de las entradas
+     */
+    public List<Entry<K>> top(int limit) {
+        Map<K, long[]> merged = new HashMap<>();
+        // Cada franja aporta su mínimo a todas las claves; las que sigue, su cuenta en lugar del mínimo
+        long minimums = 0;
+        for (Stripe<K> stripe : stripes) {
+            minimums += stripe.collect(merged);
+        }
+        List<Entry<K>> entries = new ArrayList<>(merged.size());
+        long untracked = minimums;
+        merged.forEach((key, counts) -> entries.add(new Entry<>(key, counts[0] + untracked, counts[1] + untracked)));
+        entries.sort(Comparator.comparingLong((Entry<K> entry) -> entry.getCount()).reversed());
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    /**
+     * Total de apariciones registradas, seguidas o no.
+     */
+    public long getTotal() {
+        long total = 0;
+        for (Stripe<K> stripe : stripes) {
+            total += stripe.getTotal();
+        }
+        return total;
+    }
+
+    /**
+     * Descarta todas las cuentas.
+     */
+    public void clear() {
+        for (Stripe<K> stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Clave con su cuenta estimada y el máximo que esa cuenta puede exceder a la real.
+     */
+    public static final class Entry<K> {
+        private final K key;
+        private final long count;
+        private final long error;
+
+        private Entry(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Tabla Space-Saving de una franja, con sus métodos sincronizados.
+     */
+    private static final class Stripe<K> {
+        private final int capacity;
+        private final Map<K, Counter<K>> counters;
+        private final Counter<K>[] heap;
+        private int size;
+        private long total;
+
+        @SuppressWarnings("unchecked")
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+            this.counters = new HashMap<>(capacity * 2);
+            this.heap = new Counter[capacity];
+        }
+
+        private synchronized void add(K key) {
+            total++;
+            Counter<K> counter = counters.get(key);
+            if (counter != null) {
+                counter.count++;
+                siftDown(counter.index);
+                return;
+            }
+            if (size < capacity) {
+                counter = new Counter<>(key, 1, 0);
+                counter.index = size;
+                heap[size++] = counter;
+                counters.put(key, counter);
+                siftUp(counter.index);
+                return;
+            }
+            // Reemplazar a la de menor cuenta, que hereda su cuenta como error
+            counter = heap[0];
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = counter.count;
+            counter.count++;
+            counters.put(key, counter);
+            siftDown(0);
+        }
+
+        /**
+         * Suma en {@code merged} (clave → {cuenta, error}) la cuenta y el error de cada clave
+         * de esta franja, menos el mínimo de la franja: el llamador suma los mínimos de todas
+         * las franjas a todas las claves.
+         *
+         * @return Menor cuenta de la franja si está llena; si no, 0 (las claves que no sigue
+         *         no aparecieron en ella)
+         */
+        private synchronized long collect(Map<K, long[]> merged) {
+            long min = size == capacity ? heap[0].count : 0;
+            for (int i = 0; i < size; i++) {
+                Counter<K> counter = heap[i];
+                long[] counts = merged.computeIfAbsent(counter.key, k -> new long[2]);
+                counts[0] += counter.count - min;
+                counts[1] += counter.error - min;
+            }
+            return min;
+        }
+
+        private synchronized long getTotal() {
+            return total;
+        }
+
+        private synchronized void clear() {
+            counters.clear();
+            for (int i = 0; i < size; i++) {
+                heap[i] = null;
+            }
+            size = 0;
+            total = 0;
+        }
+
+        private void siftUp(int index) {
+            Counter<K> counter = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heap[parent].count <= counter.count) {
+                    break;
+                }
+                place(heap[parent], index);
+                index = parent;
+            }
+            place(counter, index);
+        }
+
+        private void siftDown(int index) {
+            Counter<K> counter = heap[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                int right = child + 1;
+                if (right < size && heap[right].count < heap[child].count) {
+                    child = right;
+                }
+                if (counter.count <= heap[child].count) {
+                    break;
+                }
+                place(heap[child], index);
+                index = child;
+            }
+            place(counter, index);
+        }
+
+        private void place(Counter<K> counter, int index) {
+            heap[index] = counter;
+            counter.index = index;
+        }
+    }
+
+    private static final class Counter<K> {
+        private K key;
+        private long count;
+        private long error;
+        private int index;
+
+        private Counter(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.ak4n1.terra.api.terra_api.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tabla de rutas estilo Ant compilada en un trie por segmentos.
+ *
+ * <p>Todas las rutas registradas quedan en un único árbol: resolver una petición recorre
+ * el path una sola vez, segmento por segmento, sin importar cuántos patrones haya, y sin
+ * crear substrings. Cada segmento de un patrón puede ser:
+ * <ul>
+ *   <li>un literal ({@code catalog}), que tiene prioridad sobre los comodines</li>
+ *   <li>{@code *} o una variable {@code {slug}}: exactamente un segmento cualquiera</li>
+ *   <li>{@code **}: cero o más segmentos, solo como último segmento del patrón</li>
+ * </ul>
+ *
+ * <p>Cada patrón se asocia a un conjunto de métodos HTTP (vacío = todos). Si varios
+ * valores coinciden, gana el del patrón más específico (literal sobre {@code *} sobre
+ * {@code **}, segmento a segmento) y dentro de un mismo patrón el que declara métodos
+ * sobre el que acepta cualquiera. La estructura no cambia después de construida y es
+ * segura para lecturas concurrentes.
+ *
+ * @param <T> Valor asociado a cada ruta
+ * @author ak4n1
+ * @since 1.0
+ */
+public final class RouteMatcher<T> {
+
+    private static final int ANY_METHOD = -1;
+
+    private final Node<T> root = new Node<>("");
+
+    /**
+     * Registra un valor para un patrón y sus métodos.
+     *
+     * @param pattern Patrón Ant ({@code /api/kick/channels/{slug}}, {@code /api/game/offline-market/**})
+     * @param methods Métodos HTTP aceptados; vacío o null para todos
+     * @param value Valor a devolver cuando la ruta coincide
+     * @throws IllegalArgumentException si el patrón usa comodines no soportados
+     */
+    public void add(String pattern, Collection<String> methods, T value) {
+        int mask = ANY_METHOD;
+        if (methods != null && !methods.isEmpty()) {
+            mask = 0;
+            for (String method : methods) {
+                mask |= methodBit(method.trim().toUpperCase());
+            }
+        }
+
+        Node<T> node = root;
+        String[] segments = pattern.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.equals("**")) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' solo se admite al final del patrón: " + pattern);
+                }
+                if (node.rest == null) {
+                    node.rest = new Node<>(segment);
+                }
+                node = node.rest;
+            } else if (segment.equals("*") || (segment.startsWith("{") && segment.endsWith("}"))) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node<>(segment);
+                }
+                node = node.wildcard;
+            } else if (segment.indexOf('*') >= 0 || segment.indexOf('{') >= 0) {
+                throw new IllegalArgumentException("Segmento no soportado '" + segment + "' en: " + pattern);
+            } else {
+                node = node.literal(segment);
+            }
+        }
+        node.addEntry(mask, value);
+    }
+
+    /**
+     * Busca el valor de una petición.
+     *
+     * @param method Método HTTP de la petición
+     * @param path Path de la petición (sin query string)
+     * @return Valor de la ruta más específica que coincide, o null si ninguna
+     */
+    public T match(String method, String path) {
+        return match(root, path, 0, methodBit(method));
+    }
+
+    private T match(Node<T> node, String path, int pos, int methodBit) {
+        int length = path.length();
+        while (pos < length && path.charAt(pos) == '/') {
+            pos++;
+        }
+        if (pos == length) {
+            T value = node.valueFor(methodBit);
+            if (value == null && node.rest != null) {
+                // '**' también coincide con cero segmentos
+                value = node.rest.valueFor(methodBit);
+            }
+            return value;
+        }
+
+        int end = path.indexOf('/', pos);
+        if (end < 0) {
+            end = length;
+        }
+        int segmentLength = end - pos;
+
+        for (Node<T> child : node.literals) {
+            if (child.segment.length() == segmentLength && path.regionMatches(pos, child.segment, 0, segmentLength)) {
+                T value = match(child, path, end, methodBit);
+                if (value != null) {
+                    return value;
+                }
+                break;
+            }
+        }
+        if (node.wildcard != null) {
+            T value = match(node.wildcard, path, end, methodBit);
+            if (value != null) {
+                return value;
+            }
+        }
+        return node.rest != null ? node.rest.valueFor(methodBit) : null;
+    }
+
+    /**
+     * Bit de un método HTTP; los métodos no estándar comparten uno.
+     */
+    private static int methodBit(String method) {
+        switch (method) {
+            case "GET":
+                return 1;
+            case "HEAD":
+                return 1 << 1;
+            case "POST":
+                return 1 << 2;
+            case "PUT":
+                return 1 << 3;
+            case "PATCH":
+                return 1 << 4;
+            case "DELETE":
+                return 1 << 5;
+            case "OPTIONS":
+                return 1 << 6;
+            case "TRACE":
+                return 1 << 7;
+            default:
+                return 1 << 8;
+        }
+    }
+
+    private static final class Node<T> {
+        private final String segment;
+        @SuppressWarnings("unchecked")
+        private Node<T>[] literals = new Node[0];
+        private Node<T> wildcard;
+        private Node<T> rest;
+        private int[] masks = new int[0];
+        private final List<T> values = new ArrayList<>(1);
+
+        private Node(String segment) {
+            this.segment = segment;
+        }
+
+        private Node<T> literal(String name) {
+            for (Node<T> child : literals) {
+                if (child.segment.equals(name)) {
+                    return child;
+                }
+            }
+            Node<T> child = new Node<>(name);
+            literals = Arrays.copyOf(literals, literals.length + 1);
+            literals[literals.length - 1] = child;
+            return child;
+        }
+
+        private void addEntry(int mask, T value) {
+            // Los que declaran métodos van antes que los que aceptan cualquiera
+            int index = values.size();
+            if (mask != ANY_METHOD) {
+                index = 0;
+                while (index < masks.length && masks[index] != ANY_METHOD) {
+                    index++;
+                }
+            }
+            int[] updated = new int[masks.length + 1];
+            System.arraycopy(masks, 0, updated, 0, index);
+            updated[index] = mask;
+            System.arraycopy(masks, index, updated, index + 1, masks.length - index);
+            masks = updated;
+            values.add(index, value);
+        }
+
+        private T valueFor(int methodBit) {
+            for (int i = 0; i < masks.length; i++) {
+                if ((masks[i] & methodBit) != 0) {
+                    return values.get(i);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.ak4n1.terra.api.terra_api.game.controllers;
+
+import com.ak4n1.terra.api.terra_api.exceptions.GlobalExceptionHandler;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemTable;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.Weapon;
+import com.ak4n1.terra.api.terra_api.game.services.ItemCatalogService;
+import com.ak4n1.terra.api.terra_api.game.services.ItemCatalogService.CatalogFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints del catálogo contra un ItemTable real cargado con algunos XML de ejemplo.
+ */
+class ItemCatalogControllerTest {
+
+    @TempDir
+    Path itemsDir;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private ItemTable itemTable;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (String fileName : List.of("00000-00099.xml", "00100-00199.xml", "00200-00299.xml")) {
+            try (InputStream in = getClass().getResourceAsStream("/static/items/" + fileName)) {
+                Files.copy(in, itemsDir.resolve(fileName));
+            }
+        }
+        itemTable = new ItemTable();
+        ReflectionTestUtils.setField(itemTable, "itemsPath", itemsDir.toString());
+        ReflectionTestUtils.setField(itemTable, "loaderThreads", 2);
+        ReflectionTestUtils.setField(itemTable, "parserMode", "stax");
+        ReflectionTestUtils.setField(itemTable, "snapshotEnabled", false);
+        ReflectionTestUtils.setField(itemTable, "snapshotPath", itemsDir.resolve("catalog.snapshot").toString());
+        itemTable.init();
+
+        ItemCatalogService service = new ItemCatalogService();
+        ReflectionTestUtils.setField(service, "itemTable", itemTable);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "deltaHistorySize", 20);
+        ReflectionTestUtils.setField(service, "batchMaxIds", 200);
+        ReflectionTestUtils.setField(service, "notReadyRetryAfterSeconds", 5L);
+        service.init();
+        itemTable.load();
+
+        ItemCatalogController controller = new ItemCatalogController();
+        ReflectionTestUtils.setField(controller, "catalogService", service);
+        mvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemTable.shutdown();
+    }
+
+    @Test
+    void autocompleteReturnsPrefixMatchesInAlphabeticalOrder() throws Exception {
+        JsonNode suggestions = getJson("/api/game/catalog/items/autocomplete?prefix=BO&limit=50");
+
+        // Orden alfabético del nombre en minúsculas y, a igual nombre, por ID
+        List<ItemTemplate> expected = new ArrayList<>();
+        for (ItemTemplate item : itemTable.getCatalog().getAllItems()) {
+            if (item.getName().toLowerCase(Locale.ROOT).startsWith("bo")) {
+                expected.add(item);
+            }
+        }
+        expected.sort(Comparator.comparing((ItemTemplate item) -> item.getName().toLowerCase(Locale.ROOT))
+                .thenComparingInt(ItemTemplate::getId));
+        assertFalse(expected.isEmpty());
+
+        List<Integer> expectedIds = new ArrayList<>();
+        expected.forEach(item -> expectedIds.add(item.getId()));
+        List<Integer> actualIds = new ArrayList<>();
+        suggestions.forEach(suggestion -> actualIds.add(suggestion.get("id").asInt()));
+        assertEquals(expectedIds, actualIds);
+    }
+
+    @Test
+    void suggestionsOnlyCarryIdNameAndIcon() throws Exception {
+        JsonNode suggestions = getJson("/api/game/catalog/items/autocomplete?prefix=bastard sw");
+
+        assertEquals(1, suggestions.size());
+        JsonNode bastardSword = suggestions.get(0);
+        assertEquals(69, bastardSword.get("id").asInt());
+        assertEquals("Bastard Sword", bastardSword.get("name").asText());
+        assertEquals(itemTable.getTemplate(69).getIcon(), bastardSword.get("icon").asText());
+        List<String> fields = new ArrayList<>();
+        bastardSword.fieldNames().forEachRemaining(fields::add);
+        assertEquals(List.of("id", "name", "icon"), fields);
+    }
+
+    @Test
+    void autocompleteLimitIsCapped() throws Exception {
+        assertEquals(3, getJson("/api/game/catalog/items/autocomplete?prefix=s&limit=3").size());
+        assertEquals(ItemCatalogService.MAX_AUTOCOMPLETE_LIMIT,
+                getJson("/api/game/catalog/items/autocomplete?prefix=s&limit=1000").size());
+        // Un límite no positivo se ajusta a una sugerencia
+        assertEquals(1, getJson("/api/game/catalog/items/autocomplete?prefix=s&limit=0").size());
+    }
+
+    @Test
+    void autocompleteWithoutMatchesOrPrefix() throws Exception {
+        assertTrue(getJson("/api/game/catalog/items/autocomplete?prefix=zzzz").isEmpty());
+        mvc.perform(get("/api/game/catalog/items/autocomplete").param("prefix", "  "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void fullCatalogIsSentPrecompressedWhenTheClientAcceptsGzip() throws Exception {
+        MockHttpServletResponse plain = mvc.perform(get("/api/game/catalog/items"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse();
+        MockHttpServletResponse gzip = mvc.perform(get("/api/game/catalog/items")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn().getResponse();
+
+        byte[] json = plain.getContentAsByteArray();
+        byte[] compressed = gzip.getContentAsByteArray();
+        assertTrue(compressed.length * 4 < json.length, compressed.length + " de " + json.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(json, in.readAllBytes());
+        }
+        assertEquals(itemTable.getItemCount(), objectMapper.readTree(json).size());
+        // Cada codificación tiene su propio ETag fuerte
+        assertEquals(plain.getHeader(HttpHeaders.ETAG).replace("\"", "").concat("-gzip"),
+                gzip.getHeader(HttpHeaders.ETAG).replace("\"", ""));
+    }
+
+    @Test
+    void gzipWithZeroQualityIsNotUsed() throws Exception {
+        mvc.perform(get("/api/game/catalog/items").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void matchingETagGivesNotModifiedUntilTheCatalogChanges() throws Exception {
+        String etag = mvc.perform(get("/api/game/catalog/items/69"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/api/game/catalog/items/69").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        // La versión es del catálogo entero: vale para cualquier endpoint
+        mvc.perform(get("/api/game/catalog/items/filter/grade").param("grade", "D").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        Files.delete(itemsDir.resolve("00200-00299.xml"));
+        itemTable.reload();
+
+        mvc.perform(get("/api/game/catalog/items/69").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void cborResponseHasTheSameContentAsJson() throws Exception {
+        for (String url : List.of("/api/game/catalog/items/69", "/api/game/catalog/items",
+                "/api/game/catalog/items/search?name=sword&limit=5", "/api/game/catalog/items/filter/grade?grade=D")) {
+            MockHttpServletResponse json = mvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            MockHttpServletResponse cbor = mvc.perform(get(url).accept(MediaType.APPLICATION_CBOR))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                    .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                    .andReturn().getResponse();
+
+            assertEquals(objectMapper.readTree(json.getContentAsByteArray()),
+                    new ObjectMapper(new CBORFactory()).readTree(cbor.getContentAsByteArray()), url);
+            assertEquals(json.getHeader(HttpHeaders.ETAG).replace("\"", "").concat("-cbor"),
+                    cbor.getHeader(HttpHeaders.ETAG).replace("\"", ""), url);
+        }
+    }
+
+    @Test
+    void cborETagDoesNotRevalidateTheJsonResponse() throws Exception {
+        String cborETag = mvc.perform(get("/api/game/catalog/items/69").accept(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/api/game/catalog/items/69").header(HttpHeaders.IF_NONE_MATCH, cborETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mvc.perform(get("/api/game/catalog/items/69").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, cborETag))
+                .andExpect(status().isNotModified());
+    }
+
+    @ParameterizedTest(name = "Accept: {0} -> {1}")
+    @CsvSource(delimiter = '|', value = {
+            "application/cbor                              | CBOR",
+            "application/json, application/cbor            | JSON",
+            "application/cbor, application/json            | CBOR",
+            "application/json;q=1, application/cbor;q=0.5  | JSON",
+            "application/json;q=0.5, application/cbor      | CBOR",
+            "application/cbor;q=0, */*                     | JSON",
+            "*/*                                           | JSON",
+            "text/html, application/cbor;q=0.1             | CBOR",
+            "application/cbor;q=abc                        | JSON",
+            "not a media type                              | JSON",
+    })
+    void acceptHeaderPicksTheFormat(String accept, CatalogFormat expected) {
+        assertEquals(expected, ReflectionTestUtils.invokeMethod(ItemCatalogController.class, "format", accept));
+    }
+
+    @Test
+    void missingAcceptHeaderIsJson() throws Exception {
+        assertEquals(CatalogFormat.JSON, ReflectionTestUtils.invokeMethod(ItemCatalogController.class, "format", (String) null));
+        mvc.perform(get("/api/game/catalog/items/69").header(HttpHeaders.ACCEPT, "application/cbor;q=oops"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void queryCombinesEveryCriterionWithAnd() throws Exception {
+        JsonNode page = postQuery("/api/game/catalog/items/query?size=500", """
+                {"type": "weapon", "grade": "d", "tradeable": true, "patk": {"min": 20, "max": 60}}
+                """);
+
+        List<Integer> expected = new ArrayList<>();
+        for (ItemTemplate item : itemTable.getCatalog().getAllItems()) {
+            if (item instanceof Weapon weapon && "D".equalsIgnoreCase(item.getGrade()) && item.isTradeable()
+                    && weapon.getPAtk() >= 20 && weapon.getPAtk() <= 60) {
+                expected.add(item.getId());
+            }
+        }
+        expected.sort(null);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, ids(page.get("items")));
+        assertTrue(page.get("nextCursor").isNull());
+    }
+
+    @Test
+    void queryPagesFollowTheCursor() throws Exception {
+        String weapons = "{\"type\": \"Weapon\"}";
+        List<Integer> all = ids(postQuery("/api/game/catalog/items/query?size=500", weapons).get("items"));
+
+        List<Integer> paged = new ArrayList<>();
+        String url = "/api/game/catalog/items/query?size=7&fields=id,name";
+        JsonNode page;
+        do {
+            page = postQuery(url, weapons);
+            page.get("items").forEach(item -> assertEquals(2, item.size()));
+            paged.addAll(ids(page.get("items")));
+            url = "/api/game/catalog/items/query?size=7&fields=id,name&cursor=" + page.get("nextCursor").asText();
+        } while (!page.get("nextCursor").isNull());
+
+        assertTrue(all.size() > 7);
+        assertEquals(all, paged);
+    }
+
+    @Test
+    void falseFlagExcludesTheFlaggedItems() throws Exception {
+        List<Integer> stackable = ids(postQuery("/api/game/catalog/items/query?size=500", "{\"stackable\": true}").get("items"));
+        List<Integer> notStackable = ids(postQuery("/api/game/catalog/items/query?size=500", "{\"stackable\": false}").get("items"));
+
+        assertFalse(stackable.isEmpty());
+        assertEquals(itemTable.getItemCount(), stackable.size() + notStackable.size());
+        stackable.forEach(id -> assertTrue(itemTable.getTemplate(id).isStackable(), "id " + id));
+        notStackable.forEach(id -> assertFalse(itemTable.getTemplate(id).isStackable(), "id " + id));
+    }
+
+    @Test
+    void rangesIncludeBothEndsAndOnlyApplyToTheirItemKind() throws Exception {
+        int bastardSwordAtk = ((Weapon) itemTable.getTemplate(69)).getPAtk();
+        String exact = "{\"patk\": {\"min\": " + bastardSwordAtk + ", \"max\": " + bastardSwordAtk + "}}";
+        List<Integer> ids = ids(postQuery("/api/game/catalog/items/query?size=500", exact).get("items"));
+
+        assertTrue(ids.contains(69));
+        ids.forEach(id -> assertTrue(itemTable.getTemplate(id) instanceof Weapon, "id " + id));
+        // Un rango de defensa nunca lo cumple un arma
+        assertTrue(postQuery("/api/game/catalog/items/query", "{\"type\": \"Weapon\", \"pdef\": {\"min\": 0}}")
+                .get("items").isEmpty());
+    }
+
+    @Test
+    void emptyQueryReturnsTheWholeCatalog() throws Exception {
+        JsonNode first = postQuery("/api/game/catalog/items/query?size=1000", "{}");
+        assertEquals(itemTable.getItemCount(), first.get("items").size());
+
+        mvc.perform(post("/api/game/catalog/items/query").param("size", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(itemTable.getItemCount()));
+    }
+
+    @Test
+    void invertedRangeIsABadRequest() throws Exception {
+        mvc.perform(post("/api/game/catalog/items/query")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"weight\": {\"min\": 500, \"max\": 100}}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("INVALID_CATALOG_QUERY"))
+                .andExpect(jsonPath("$.message").value(containsString("weight")));
+        mvc.perform(post("/api/game/catalog/items/query")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\": \"Weapon\"}")
+                        .param("fields", "id,notAField"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void batchEndpointRejectsTooManyIds() throws Exception {
+        mvc.perform(post("/api/game/catalog/items/batch").contentType(MediaType.APPLICATION_JSON).content("[69, 1, 999999]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(69))
+                .andExpect(jsonPath("$.missing[0]").value(999999));
+
+        StringBuilder ids = new StringBuilder("[");
+        for (int id = 1; id <= 201; id++) {
+            ids.append(id == 1 ? "" : ",").append(id);
+        }
+        mvc.perform(post("/api/game/catalog/items/batch").contentType(MediaType.APPLICATION_JSON).content(ids.append("]").toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("INVALID_CATALOG_QUERY"));
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        byte[] body = mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andReturn().getResponse().getContentAsByteArray();
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode postQuery(String url, String json) throws Exception {
+        byte[] body = mvc.perform(post(url).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        return objectMapper.readTree(body);
+    }
+
+    private static List<Integer> ids(JsonNode items) {
+        List<Integer> ids = new ArrayList<>();
+        items.forEach(item -> ids.add(item.get("id").asInt()));
+        return ids;
+    }
+}
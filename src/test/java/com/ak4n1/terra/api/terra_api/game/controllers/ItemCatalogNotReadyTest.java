@@ -0,0 +1,118 @@
+package com.ak4n1.terra.api.terra_api.game.controllers;
+
+import com.ak4n1.terra.api.terra_api.exceptions.GlobalExceptionHandler;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemTable;
+import com.ak4n1.terra.api.terra_api.game.services.ItemCatalogService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Mientras el catálogo no terminó la carga inicial los endpoints responden 503 con Retry-After.
+ */
+class ItemCatalogNotReadyTest {
+
+    @TempDir
+    Path itemsDir;
+
+    private ItemTable itemTable;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        itemTable = new ItemTable();
+        ReflectionTestUtils.setField(itemTable, "itemsPath", itemsDir.toString());
+        ReflectionTestUtils.setField(itemTable, "loaderThreads", 1);
+        ReflectionTestUtils.setField(itemTable, "parserMode", "stax");
+        ReflectionTestUtils.setField(itemTable, "snapshotEnabled", false);
+        ReflectionTestUtils.setField(itemTable, "snapshotPath", itemsDir.resolve("catalog.snapshot").toString());
+        itemTable.init();
+
+        ItemCatalogService service = new ItemCatalogService();
+        ReflectionTestUtils.setField(service, "itemTable", itemTable);
+        ReflectionTestUtils.setField(service, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(service, "deltaHistorySize", 20);
+        ReflectionTestUtils.setField(service, "batchMaxIds", 200);
+        ReflectionTestUtils.setField(service, "notReadyRetryAfterSeconds", 7L);
+        service.init();
+
+        ItemCatalogController controller = new ItemCatalogController();
+        ReflectionTestUtils.setField(controller, "catalogService", service);
+        mvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemTable.shutdown();
+    }
+
+    @Test
+    void everyReadEndpointIsUnavailableWhileLoading() throws Exception {
+        for (RequestBuilder request : readRequests()) {
+            mvc.perform(request)
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"))
+                    .andExpect(jsonPath("$.error").value("CATALOG_NOT_READY"))
+                    .andExpect(jsonPath("$.success").value(false));
+        }
+    }
+
+    @Test
+    void failedInitialLoadKeepsAnsweringUnavailable() throws Exception {
+        itemTable.load();
+
+        mvc.perform(get("/api/game/catalog/items/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+    }
+
+    @Test
+    void endpointsAnswerOnceTheCatalogIsLoaded() throws Exception {
+        try (InputStream in = getClass().getResourceAsStream("/static/items/00000-00099.xml")) {
+            Files.copy(in, itemsDir.resolve("00000-00099.xml"));
+        }
+        itemTable.load();
+
+        for (RequestBuilder request : readRequests()) {
+            mvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+        }
+    }
+
+    private static List<RequestBuilder> readRequests() {
+        return List.of(
+                get("/api/game/catalog/items/1"),
+                get("/api/game/catalog/items"),
+                get("/api/game/catalog/items").param("size", "10"),
+                get("/api/game/catalog/items/search").param("name", "sword"),
+                get("/api/game/catalog/items/autocomplete").param("prefix", "sw"),
+                get("/api/game/catalog/items/filter/type").param("type", "Weapon"),
+                get("/api/game/catalog/items/filter/grade").param("grade", "D"),
+                get("/api/game/catalog/items/delta").param("since", "abc"),
+                get("/api/game/catalog/items/stats"),
+                post("/api/game/catalog/items/batch").contentType(MediaType.APPLICATION_JSON).content("[1, 2]"),
+                post("/api/game/catalog/items/query").contentType(MediaType.APPLICATION_JSON).content("{}"));
+    }
+}
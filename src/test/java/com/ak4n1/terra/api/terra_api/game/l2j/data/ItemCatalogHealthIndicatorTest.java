@@ -0,0 +1,87 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemCatalogHealthIndicatorTest {
+
+    @TempDir
+    Path itemsDir;
+
+    private ItemTable itemTable;
+    private ItemCatalogHealthIndicator indicator;
+
+    @BeforeEach
+    void setUp() {
+        itemTable = new ItemTable();
+        ReflectionTestUtils.setField(itemTable, "itemsPath", itemsDir.toString());
+        ReflectionTestUtils.setField(itemTable, "loaderThreads", 1);
+        ReflectionTestUtils.setField(itemTable, "parserMode", "stax");
+        ReflectionTestUtils.setField(itemTable, "snapshotEnabled", false);
+        ReflectionTestUtils.setField(itemTable, "snapshotPath", itemsDir.resolve("catalog.snapshot").toString());
+        itemTable.init();
+        indicator = new ItemCatalogHealthIndicator();
+        ReflectionTestUtils.setField(indicator, "itemTable", itemTable);
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemTable.shutdown();
+    }
+
+    @Test
+    void loadingIsUnknownSoTheApplicationStaysUp() {
+        Health health = indicator.health();
+
+        assertEquals(Status.UNKNOWN, health.getStatus());
+        assertEquals(ItemTable.LoadState.LOADING, health.getDetails().get("state"));
+        assertTrue(health.getDetails().containsKey("loadingForMs"));
+    }
+
+    @Test
+    void loadedCatalogIsUpWithItsReport() throws IOException {
+        copy("00000-00099.xml");
+        itemTable.load();
+
+        Health health = indicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(ItemTable.LoadState.READY, health.getDetails().get("state"));
+        assertEquals(itemTable.getItemCount(), health.getDetails().get("items"));
+        assertEquals(itemTable.getLastLoadReport().getSource(), health.getDetails().get("source"));
+        assertTrue(health.getDetails().containsKey("loadTimeMs"));
+    }
+
+    @Test
+    void failedLoadIsOutOfServiceUntilAReloadSucceeds() throws IOException {
+        itemTable.load();
+
+        Health failed = indicator.health();
+        assertEquals(Status.OUT_OF_SERVICE, failed.getStatus());
+        assertEquals(ItemTable.LoadState.FAILED, failed.getDetails().get("state"));
+        assertTrue(String.valueOf(failed.getDetails().get("error")).contains(itemsDir.toString()));
+
+        copy("00000-00099.xml");
+        itemTable.reload();
+        assertEquals(Status.UP, indicator.health().getStatus());
+    }
+
+    private void copy(String fileName) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/static/items/" + fileName)) {
+            Files.copy(in, itemsDir.resolve(fileName));
+        }
+    }
+}
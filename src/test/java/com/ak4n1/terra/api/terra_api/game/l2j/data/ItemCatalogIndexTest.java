@@ -0,0 +1,184 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.model.StatSet;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.EtcItem;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.Weapon;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.ItemStaxParser;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemCatalogIndexTest {
+
+    // IDs desordenados y con huecos; pares = armas grade D, impares = misceláneos sin grade
+    private final ItemCatalogIndex index = ItemCatalogIndex.build(List.of(
+            etcItem(9), weapon(4), etcItem(1), weapon(2), etcItem(7), weapon(10), etcItem(3), weapon(8)));
+
+    @Test
+    void pagesFollowTheCursorInIdOrder() {
+        assertEquals(List.of(1, 2, 3), ids(index.page(-1, 3)));
+        assertEquals(List.of(4, 7, 8), ids(index.page(3, 3)));
+        assertEquals(List.of(9, 10), ids(index.page(8, 3)));
+        assertTrue(index.page(10, 3).isEmpty());
+    }
+
+    @Test
+    void cursorDoesNotNeedToBeAnExistingId() {
+        assertEquals(List.of(7, 8), ids(index.page(5, 2)));
+        assertEquals(List.of(1), ids(index.page(Integer.MIN_VALUE, 1)));
+        assertTrue(index.page(Integer.MAX_VALUE, 5).isEmpty());
+    }
+
+    @Test
+    void walkingAllPagesVisitsEveryItemOnce() {
+        List<Integer> visited = new ArrayList<>();
+        int cursor = -1;
+        List<ItemTemplate> page;
+        while (!(page = index.page(cursor, 3)).isEmpty()) {
+            visited.addAll(ids(page));
+            cursor = page.get(page.size() - 1).getId();
+        }
+        assertEquals(List.of(1, 2, 3, 4, 7, 8, 9, 10), visited);
+    }
+
+    @Test
+    void filteredPagesOnlyContainMatchingItems() {
+        assertEquals(List.of(2, 4), ids(index.pageWithType("weapon", -1, 2)));
+        assertEquals(List.of(8, 10), ids(index.pageWithType("Weapon", 4, 5)));
+        assertEquals(List.of(4, 8), ids(index.pageWithGrade("d", 2, 2)));
+        assertTrue(index.pageWithType("Armor", -1, 5).isEmpty());
+    }
+
+    @Test
+    void pageOfQueryResult() {
+        ItemQuery query = new ItemQuery();
+        query.setType("EtcItem");
+
+        assertEquals(List.of(3, 7), ids(index.pageOf(index.matching(query), 1, 2)));
+    }
+
+    @Test
+    void zeroLimitGivesAnEmptyPage() {
+        assertTrue(index.page(-1, 0).isEmpty());
+    }
+
+    /**
+     * Los filtros por índice sobre el catálogo de ejemplo tienen que dar lo mismo que
+     * recorrer todos los items comparando sin distinguir mayúsculas/minúsculas.
+     */
+    @Nested
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class BundledCatalog {
+
+        private List<ItemTemplate> items;
+        private ItemCatalogIndex bundled;
+
+        @BeforeAll
+        void loadBundledCatalog() throws Exception {
+            items = new ArrayList<>();
+            File[] files = new File(getClass().getResource("/static/items").toURI()).listFiles((d, name) -> name.endsWith(".xml"));
+            for (File file : files) {
+                items.addAll(ItemStaxParser.parse(file).values());
+            }
+            bundled = ItemCatalogIndex.build(items);
+        }
+
+        @Test
+        void typeFilterMatchesAFullScan() {
+            for (String type : List.of("Weapon", "armor", "ETCITEM")) {
+                List<Integer> expected = scan(item -> item.getItemType().equalsIgnoreCase(type));
+                assertFalse(expected.isEmpty(), type);
+                assertEquals(expected, ids(bundled.select(bundled.byType(type))), type);
+                assertEquals(expected, ids(bundled.itemsWithType(type)), type);
+                assertEquals(expected.size(), bundled.countByType(type), type);
+            }
+            assertEquals(items.size(), bundled.countByType("weapon") + bundled.countByType("armor") + bundled.countByType("etcitem"));
+        }
+
+        @Test
+        void gradeBodyPartAndCrystalFiltersMatchAFullScan() {
+            for (String grade : List.of("NONE", "d", "C", "b", "A", "s")) {
+                assertEquals(scanEquals(ItemTemplate::getGrade, grade), ids(bundled.itemsWithGrade(grade)), grade);
+            }
+            for (String bodyPart : List.of("rhand", "LRHAND", "chest", "hairall")) {
+                assertEquals(scanEquals(ItemTemplate::getBodyPartName, bodyPart),
+                        ids(bundled.select(bundled.byBodyPart(bodyPart))), bodyPart);
+            }
+            for (String crystal : List.of("none", "D", "s")) {
+                assertEquals(scanEquals(ItemTemplate::getCrystalType, crystal),
+                        ids(bundled.select(bundled.byCrystalType(crystal))), crystal);
+            }
+        }
+
+        @Test
+        void flagsMatchAFullScan() {
+            assertEquals(scan(ItemTemplate::isStackable), ids(bundled.select(bundled.stackable())));
+            assertEquals(scan(ItemTemplate::isTradeable), ids(bundled.select(bundled.tradeable())));
+            assertEquals(scan(ItemTemplate::isStackable).size(), bundled.countStackable());
+            assertEquals(scan(ItemTemplate::isTradeable).size(), bundled.countTradeable());
+        }
+
+        @Test
+        void unknownValuesGiveEmptyResults() {
+            assertTrue(bundled.byType("Pet").isEmpty());
+            assertTrue(bundled.itemsWithGrade("Z").isEmpty());
+            assertEquals(0, bundled.countByType(null));
+        }
+
+        @Test
+        void returnedBitsetsAreCopies() {
+            BitSet weapons = bundled.byType("Weapon");
+            int count = weapons.cardinality();
+            weapons.clear();
+            bundled.stackable().clear();
+
+            assertEquals(count, bundled.byType("Weapon").cardinality());
+            assertEquals(count, bundled.countByType("Weapon"));
+            assertEquals(scan(ItemTemplate::isStackable).size(), bundled.countStackable());
+        }
+
+        private List<Integer> scanEquals(Function<ItemTemplate, String> attribute, String value) {
+            return scan(item -> value.equalsIgnoreCase(attribute.apply(item)));
+        }
+
+        private List<Integer> scan(Predicate<ItemTemplate> filter) {
+            return items.stream().filter(filter).map(ItemTemplate::getId).sorted().toList();
+        }
+    }
+
+    private static List<Integer> ids(List<ItemTemplate> items) {
+        List<Integer> ids = new ArrayList<>();
+        for (ItemTemplate item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    private static ItemTemplate weapon(int id) {
+        StatSet set = new StatSet();
+        set.set("item_id", id);
+        set.set("name", "Weapon " + id);
+        set.set("crystal_type", "d");
+        return new Weapon(set);
+    }
+
+    private static ItemTemplate etcItem(int id) {
+        StatSet set = new StatSet();
+        set.set("item_id", id);
+        set.set("name", "Item " + id);
+        return new EtcItem(set);
+    }
+}
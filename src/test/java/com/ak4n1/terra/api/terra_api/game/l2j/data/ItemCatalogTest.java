@@ -0,0 +1,303 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.model.StatSet;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.Armor;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.EtcItem;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.Weapon;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ItemCatalogTest {
+
+    @Test
+    void filesAreMergedInOrderAndTheLastDefinitionWins() {
+        ItemTemplate potion = item(1, "Potion");
+        ItemTemplate oldScroll = item(2, "Scroll");
+        ItemTemplate newScroll = item(2, "Scroll (fixed)");
+        ItemTemplate arrow = item(900, "Arrow");
+
+        ItemCatalog catalog = ItemCatalog.build(files(
+                "a.xml", List.of(potion, oldScroll),
+                "b.xml", List.of(newScroll, arrow)));
+
+        assertEquals(3, catalog.getItemCount());
+        assertSame(potion, catalog.getTemplate(1));
+        assertSame(newScroll, catalog.getTemplate(2));
+        assertEquals(900, catalog.getHighestId());
+        assertNull(catalog.getTemplate(3));
+        assertEquals("b.xml", catalog.findSourceFile(2));
+        assertEquals("a.xml", catalog.findSourceFile(1));
+        assertNull(catalog.findSourceFile(3));
+        // Cada archivo conserva su propia definición aunque no sea la publicada
+        assertSame(oldScroll, catalog.getItemsByFile().get("a.xml").get(2));
+    }
+
+    @Test
+    void indexesAreBuiltWithTheCatalog() {
+        ItemCatalog catalog = ItemCatalog.build(files("a.xml", List.of(item(5, "Blue Potion"), item(3, "Red Potion"))));
+
+        assertEquals(2, catalog.getIndex().size());
+        assertEquals(3, catalog.getIndex().itemAt(0).getId());
+        assertEquals(List.of(catalog.getTemplate(5)), catalog.getNameIndex().search("blue", 10));
+    }
+
+    @Test
+    void publishedCatalogCannotBeModified() {
+        ItemCatalog catalog = ItemCatalog.build(files("a.xml", List.of(item(1, "Potion"))));
+
+        assertThrows(UnsupportedOperationException.class, () -> catalog.getAllItems().clear());
+        assertThrows(UnsupportedOperationException.class, () -> catalog.getItemsByFile().remove("a.xml"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> catalog.getItemsByFile().get("a.xml").put(2, item(2, "Scroll")));
+    }
+
+    @Test
+    void emptyCatalogAnswersWithoutItems() {
+        assertEquals(0, ItemCatalog.EMPTY.getItemCount());
+        assertEquals(0, ItemCatalog.EMPTY.getHighestId());
+        assertNull(ItemCatalog.EMPTY.getTemplate(1));
+        assertEquals(List.of(), ItemCatalog.EMPTY.getNameIndex().search("potion", 10));
+    }
+
+    @Test
+    void changedFileReplacesItsItemsInEveryIndex() {
+        ItemCatalog catalog = ItemCatalog.build(files(
+                "a.xml", List.of(item(1, "Red Potion"), item(2, "Scroll")),
+                "b.xml", List.of(item(3, "Arrow"))));
+
+        ItemTemplate bluePotion = item(1, "Blue Potion");
+        ItemCatalog changed = catalog.withFiles(files("a.xml", List.of(bluePotion, item(2, "Scroll"))), Set.of());
+
+        assertSame(bluePotion, changed.getTemplate(1));
+        assertEquals(List.of(bluePotion), changed.getNameIndex().search("potion", 10));
+        assertEquals(List.of(), changed.getNameIndex().search("red", 10));
+        assertSame(bluePotion, changed.getIndex().itemAt(changed.getNameIndex().complete("blu", 10)[0]));
+        assertEquals(0, changed.getNameIndex().complete("red", 10).length);
+        // El catálogo anterior sigue respondiendo con sus propios items
+        assertEquals("Red Potion", catalog.getNameIndex().search("potion", 10).get(0).getName());
+        assertSameIndexes(ItemCatalog.build(changed.getItemsByFile()), changed);
+    }
+
+    @Test
+    void removedFileTakesItsItemsOutOfEveryIndex() {
+        ItemCatalog catalog = ItemCatalog.build(files(
+                "a.xml", List.of(item(1, "Potion"), item(5, "Scroll")),
+                "b.xml", List.of(item(3, "Arrow"), item(9, "Bolt"))));
+
+        ItemCatalog changed = catalog.withFiles(Map.of(), Set.of("b.xml"));
+
+        assertEquals(2, changed.getItemCount());
+        assertEquals(5, changed.getHighestId());
+        assertNull(changed.getTemplate(3));
+        assertNull(changed.getTemplate(9));
+        assertEquals(-1, changed.getIndex().positionOf(3));
+        assertEquals(1, changed.getIndex().positionOf(5));
+        assertEquals(List.of(), changed.getNameIndex().search("arrow", 10));
+        assertEquals(4, catalog.getItemCount());
+        assertSameIndexes(ItemCatalog.build(changed.getItemsByFile()), changed);
+    }
+
+    @Test
+    void lastFileStillWinsWhenOverlappingFilesChange() {
+        ItemTemplate first = item(7, "Old Sword");
+        ItemTemplate second = item(7, "New Sword");
+        ItemCatalog catalog = ItemCatalog.build(files(
+                "a.xml", List.of(first, item(1, "Potion")),
+                "b.xml", List.of(second)));
+
+        // Cambiar el archivo que pierde no cambia el item publicado
+        ItemTemplate ignored = item(7, "Other Sword");
+        ItemCatalog changedLoser = catalog.withFiles(files("a.xml", List.of(ignored, item(1, "Potion"))), Set.of());
+        assertSame(second, changedLoser.getTemplate(7));
+        assertEquals(List.of(), changedLoser.getNameIndex().search("other", 10));
+
+        // Sin el archivo que gana, vuelve a publicarse la definición del otro
+        ItemCatalog withoutWinner = changedLoser.withFiles(Map.of(), Set.of("b.xml"));
+        assertSame(ignored, withoutWinner.getTemplate(7));
+        assertEquals(List.of(ignored), withoutWinner.getNameIndex().search("sword", 10));
+        assertEquals("a.xml", withoutWinner.findSourceFile(7));
+
+        // Un archivo nuevo que ordena después gana sobre los anteriores
+        ItemTemplate third = item(7, "Newest Sword");
+        ItemCatalog withNewest = withoutWinner.withFiles(files("c.xml", List.of(third)), Set.of());
+        assertSame(third, withNewest.getTemplate(7));
+        assertEquals("c.xml", withNewest.findSourceFile(7));
+        assertSameIndexes(ItemCatalog.build(withNewest.getItemsByFile()), withNewest);
+    }
+
+    @Test
+    void unchangedItemsKeepTheSameIndexes() {
+        ItemCatalog catalog = ItemCatalog.build(files("a.xml", List.of(item(1, "Potion"))));
+
+        ItemCatalog same = catalog.withFiles(files("a.xml", List.of(catalog.getTemplate(1))), Set.of());
+
+        assertSame(catalog.getIndex(), same.getIndex());
+        assertSame(catalog.getNameIndex(), same.getNameIndex());
+    }
+
+    @Test
+    void incrementalIndexesMatchAFullBuild() {
+        Random random = new Random(20240611L);
+        Map<String, Map<Integer, ItemTemplate>> files = new TreeMap<>();
+        for (int f = 0; f < 8; f++) {
+            files.put("file-" + f + ".xml", randomFile(random, 60));
+        }
+        ItemCatalog catalog = ItemCatalog.build(files);
+
+        for (int round = 0; round < 40; round++) {
+            Map<String, Map<Integer, ItemTemplate>> changed = new TreeMap<>();
+            Set<String> removed = new HashSet<>();
+            for (int n = random.nextInt(3); n >= 0; n--) {
+                String fileName = "file-" + random.nextInt(10) + ".xml";
+                if (random.nextInt(4) == 0) {
+                    removed.add(fileName);
+                    changed.remove(fileName);
+                } else {
+                    changed.put(fileName, randomFile(random, random.nextInt(60)));
+                    removed.remove(fileName);
+                }
+            }
+
+            catalog = catalog.withFiles(changed, removed);
+
+            assertSameIndexes(ItemCatalog.build(catalog.getItemsByFile()), catalog);
+        }
+    }
+
+    /**
+     * Compara un catálogo armado de cero con uno derivado, a través de las consultas
+     * públicas de los índices.
+     */
+    private static void assertSameIndexes(ItemCatalog expected, ItemCatalog actual) {
+        ItemCatalogIndex e = expected.getIndex();
+        ItemCatalogIndex a = actual.getIndex();
+
+        assertEquals(expected.getItemCount(), actual.getItemCount());
+        assertEquals(expected.getHighestId(), actual.getHighestId());
+        assertEquals(e.size(), a.size());
+        for (int pos = 0; pos < e.size(); pos++) {
+            ItemTemplate item = e.itemAt(pos);
+            assertSame(item, a.itemAt(pos));
+            assertSame(item, actual.getTemplate(item.getId()));
+            assertEquals(pos, a.positionOf(item.getId()));
+        }
+        for (int id = 0; id <= 600; id++) {
+            assertSame(expected.getTemplate(id), actual.getTemplate(id), "id " + id);
+        }
+
+        for (String type : List.of("Weapon", "Armor", "EtcItem", "none")) {
+            assertEquals(e.byType(type), a.byType(type), type);
+        }
+        for (String grade : List.of("NONE", "D", "C", "B", "")) {
+            assertEquals(e.byGrade(grade), a.byGrade(grade), grade);
+            assertEquals(e.byCrystalType(grade), a.byCrystalType(grade), grade);
+        }
+        for (String bodyPart : List.of("chest", "legs", "rhand", "")) {
+            assertEquals(e.byBodyPart(bodyPart), a.byBodyPart(bodyPart), bodyPart);
+        }
+        assertEquals(e.stackable(), a.stackable());
+        assertEquals(e.tradeable(), a.tradeable());
+
+        List<ItemQuery> queries = new ArrayList<>();
+        queries.add(query((q, range) -> q.setSellable(true), null));
+        queries.add(query((q, range) -> q.setDropable(false), null));
+        queries.add(query((q, range) -> q.setSubType("SWORD"), null));
+        queries.add(query(ItemQuery::setWeight, new ItemQuery.Range(100, 900)));
+        queries.add(query(ItemQuery::setPrice, new ItemQuery.Range(null, 5_000)));
+        queries.add(query(ItemQuery::setPAtk, new ItemQuery.Range(20, null)));
+        queries.add(query(ItemQuery::setMAtk, new ItemQuery.Range(10, 40)));
+        queries.add(query(ItemQuery::setPDef, new ItemQuery.Range(0, 30)));
+        queries.add(query(ItemQuery::setMDef, new ItemQuery.Range(15, 15)));
+        for (ItemQuery query : queries) {
+            assertEquals(e.matching(query), a.matching(query));
+        }
+
+        for (String text : List.of("sword", "blue", "potion of", "ar", "x", "zzz")) {
+            assertEquals(expected.getNameIndex().search(text, 500), actual.getNameIndex().search(text, 500), text);
+        }
+        for (String prefix : List.of("b", "blue", "red s", "s", "w")) {
+            assertArrayEquals(expected.getNameIndex().complete(prefix, 500), actual.getNameIndex().complete(prefix, 500), prefix);
+        }
+    }
+
+    private static ItemQuery query(BiConsumer<ItemQuery, ItemQuery.Range> setter, ItemQuery.Range range) {
+        ItemQuery query = new ItemQuery();
+        setter.accept(query, range);
+        return query;
+    }
+
+    /**
+     * Archivo de items al azar con IDs de un rango chico, para que se repitan entre archivos.
+     */
+    private static Map<Integer, ItemTemplate> randomFile(Random random, int size) {
+        String[] colors = {"Red", "Blue", "Black", "Sword", "Bow"};
+        String[] things = {"Sword", "Shield", "Potion of Haste", "Arrow", "Shirt", "Boots"};
+        String[] grades = {"none", "d", "c", "b"};
+        Map<Integer, ItemTemplate> items = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            StatSet set = new StatSet();
+            int id = random.nextInt(600);
+            set.set("item_id", id);
+            set.set("name", colors[random.nextInt(colors.length)] + " " + things[random.nextInt(things.length)]);
+            set.set("crystal_type", grades[random.nextInt(grades.length)]);
+            set.set("weight", random.nextInt(1000));
+            set.set("price", random.nextInt(10_000));
+            set.set("is_stackable", random.nextBoolean());
+            set.set("is_tradable", random.nextBoolean());
+            set.set("is_sellable", random.nextBoolean());
+            set.set("is_dropable", random.nextBoolean());
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    set.set("bodypart_name", "rhand");
+                    set.set("weapon_type", random.nextBoolean() ? "SWORD" : "BOW");
+                    set.set("pAtk", random.nextInt(50));
+                    set.set("mAtk", random.nextInt(50));
+                    items.put(id, new Weapon(set));
+                }
+                case 1 -> {
+                    set.set("bodypart_name", random.nextBoolean() ? "chest" : "legs");
+                    set.set("pDef", random.nextInt(50));
+                    set.set("mDef", random.nextInt(20));
+                    items.put(id, new Armor(set));
+                }
+                default -> items.put(id, new EtcItem(set));
+            }
+        }
+        return items;
+    }
+
+    static Map<String, Map<Integer, ItemTemplate>> files(Object... namesAndItems) {
+        Map<String, Map<Integer, ItemTemplate>> files = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndItems.length; i += 2) {
+            Map<Integer, ItemTemplate> items = new LinkedHashMap<>();
+            for (Object item : (List<?>) namesAndItems[i + 1]) {
+                items.put(((ItemTemplate) item).getId(), (ItemTemplate) item);
+            }
+            files.put((String) namesAndItems[i], items);
+        }
+        return files;
+    }
+
+    static ItemTemplate item(int id, String name) {
+        StatSet set = new StatSet();
+        set.set("item_id", id);
+        set.set("name", name);
+        return new EtcItem(set);
+    }
+}
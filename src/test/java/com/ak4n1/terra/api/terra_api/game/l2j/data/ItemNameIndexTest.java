@@ -0,0 +1,84 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.model.StatSet;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.EtcItem;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemNameIndexTest {
+
+    private final ItemCatalogIndex positions = ItemCatalogIndex.build(List.of(
+            item(50, "Long Sword of Fire"),
+            item(10, "Sword"),
+            item(40, "Swordsman Manual"),
+            item(30, "Bastard Sword"),
+            item(20, "sword"),
+            item(60, "Sword Breaker"),
+            item(70, "Potion"),
+            item(80, "Greater Potion")));
+
+    private final ItemNameIndex index = ItemNameIndex.build(positions);
+
+    @Test
+    void searchRanksExactThenPrefixThenInfixEachById() {
+        assertEquals(List.of(10, 20, 40, 60, 30, 50), ids(index.search("sword", 100)));
+    }
+
+    @Test
+    void searchIgnoresCaseAndSurroundingSpaces() {
+        assertEquals(ids(index.search("sword", 100)), ids(index.search("  SWORD ", 100)));
+    }
+
+    @Test
+    void searchLimitKeepsTheBestRankedItems() {
+        assertEquals(List.of(10, 20, 40), ids(index.search("sword", 3)));
+        assertTrue(index.search("sword", 0).isEmpty());
+    }
+
+    @Test
+    void searchMatchesAcrossWordsAndShortQueries() {
+        assertEquals(List.of(50), ids(index.search("of fire", 10)));
+        assertEquals(List.of(70, 80), ids(index.search("po", 10)));
+        assertEquals(List.of(50), ids(index.search("g s", 10)));
+    }
+
+    @Test
+    void searchWithoutMatchesIsEmpty() {
+        assertTrue(index.search("axe", 10).isEmpty());
+        assertTrue(index.search("swordx", 10).isEmpty());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    void completeReturnsPrefixMatchesAlphabetically() {
+        List<Integer> completed = new ArrayList<>();
+        for (int pos : index.complete("Sw", 10)) {
+            completed.add(positions.itemAt(pos).getId());
+        }
+        // "sword" (10) y "sword" (20) empatan y se ordenan por ID
+        assertEquals(List.of(10, 20, 60, 40), completed);
+        assertEquals(2, index.complete("sw", 2).length);
+        assertEquals(0, index.complete("x", 10).length);
+    }
+
+    private static List<Integer> ids(List<ItemTemplate> items) {
+        List<Integer> ids = new ArrayList<>();
+        for (ItemTemplate item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    private static ItemTemplate item(int id, String name) {
+        StatSet set = new StatSet();
+        set.set("item_id", id);
+        set.set("name", name);
+        return new EtcItem(set);
+    }
+}
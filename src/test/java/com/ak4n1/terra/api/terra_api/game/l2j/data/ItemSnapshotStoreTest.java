@@ -0,0 +1,158 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.model.StatSet;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.EtcItem;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemFields;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.ItemStaxParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ItemSnapshotStoreTest {
+
+    private static final String MANIFEST = "manifest-1";
+
+    @TempDir
+    Path dir;
+
+    private Path snapshot;
+    private ItemSnapshotStore store;
+    private Map<String, Collection<ItemTemplate>> catalog;
+
+    @BeforeEach
+    void writeSnapshot() throws Exception {
+        snapshot = dir.resolve("cache/items.snapshot");
+        store = new ItemSnapshotStore(snapshot);
+        catalog = new LinkedHashMap<>();
+        // Archivos con los tres tipos de item (en el segundo, sobre todo misceláneos)
+        for (String fileName : List.of("00000-00099.xml", "01100-01199.xml")) {
+            File xml = new File(getClass().getResource("/static/items/" + fileName).toURI());
+            catalog.put(fileName, ItemStaxParser.parse(xml).values());
+        }
+        store.write(MANIFEST, catalog);
+    }
+
+    @Test
+    void roundTripKeepsFilesOrderAndEveryField() {
+        Map<String, List<ItemTemplate>> loaded = store.load(MANIFEST);
+
+        assertNotNull(loaded);
+        assertEquals(new ArrayList<>(catalog.keySet()), new ArrayList<>(loaded.keySet()));
+        for (Map.Entry<String, Collection<ItemTemplate>> file : catalog.entrySet()) {
+            assertEquals(describe(file.getValue()), describe(loaded.get(file.getKey())), file.getKey());
+        }
+        assertFalse(Files.exists(snapshot.resolveSibling("items.snapshot.tmp")));
+    }
+
+    @Test
+    void nullStringIsReadBackAsAMissingValue() throws Exception {
+        StatSet set = new StatSet();
+        set.set("item_id", 57);
+        set.set("name", "Adena");
+        set.set("icon", "icon.etc_adena_i00");
+        ItemTemplate withoutIcon = new EtcItem(set) {
+            @Override
+            public String getIcon() {
+                return null;
+            }
+        };
+        store.write(MANIFEST, Map.of("00000-00099.xml", List.of(withoutIcon)));
+
+        ItemTemplate loaded = store.load(MANIFEST).get("00000-00099.xml").get(0);
+
+        // El mismo default que aplica el constructor cuando el XML no trae el atributo
+        assertEquals("", loaded.getIcon());
+        assertEquals("Adena", loaded.getName());
+    }
+
+    @Test
+    void staleManifestIsIgnored() {
+        assertNull(store.load("manifest-2"));
+    }
+
+    @Test
+    void missingSnapshotIsIgnored() {
+        assertNull(new ItemSnapshotStore(dir.resolve("none.snapshot")).load(MANIFEST));
+    }
+
+    @Test
+    void flippedByteFailsTheChecksum() throws Exception {
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(snapshot, bytes);
+
+        assertNull(store.load(MANIFEST));
+    }
+
+    @Test
+    void truncatedSnapshotIsIgnored() throws Exception {
+        byte[] bytes = Files.readAllBytes(snapshot);
+
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 100));
+        assertNull(store.load(MANIFEST));
+
+        Files.write(snapshot, Arrays.copyOf(bytes, 12));
+        assertNull(store.load(MANIFEST));
+
+        Files.write(snapshot, new byte[0]);
+        assertNull(store.load(MANIFEST));
+    }
+
+    @Test
+    void otherFormatVersionOrMagicIsIgnored() throws Exception {
+        byte[] bytes = Files.readAllBytes(snapshot);
+
+        byte[] otherVersion = bytes.clone();
+        otherVersion[7]++;
+        Files.write(snapshot, otherVersion);
+        assertNull(store.load(MANIFEST));
+
+        byte[] otherMagic = bytes.clone();
+        otherMagic[0] = 'X';
+        Files.write(snapshot, otherMagic);
+        assertNull(store.load(MANIFEST));
+    }
+
+    @Test
+    void manifestChangesWithNamesSizesAndDates() throws Exception {
+        Path a = Files.writeString(dir.resolve("a.xml"), "<list/>");
+        Path b = Files.writeString(dir.resolve("b.xml"), "<list/>");
+        File[] files = {a.toFile(), b.toFile()};
+        String manifest = ItemSnapshotStore.computeManifest(files);
+
+        assertEquals(manifest, ItemSnapshotStore.computeManifest(files));
+        assertNotEquals(manifest, ItemSnapshotStore.computeManifest(new File[]{a.toFile()}));
+
+        Files.writeString(b, "<list></list>");
+        assertNotEquals(manifest, ItemSnapshotStore.computeManifest(files));
+
+        String resized = ItemSnapshotStore.computeManifest(files);
+        b.toFile().setLastModified(b.toFile().lastModified() - 60_000);
+        assertNotEquals(resized, ItemSnapshotStore.computeManifest(files));
+    }
+
+    private static List<String> describe(Collection<ItemTemplate> items) {
+        List<String> described = new ArrayList<>(items.size());
+        for (ItemTemplate item : items) {
+            described.add(ItemFields.describe(item));
+        }
+        return described;
+    }
+}
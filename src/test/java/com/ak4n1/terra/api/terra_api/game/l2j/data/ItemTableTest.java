@@ -0,0 +1,220 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.data;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemTableTest {
+
+    private static final List<String> BUNDLED_FILES = List.of("00000-00099.xml", "00100-00199.xml", "00200-00299.xml");
+
+    @TempDir
+    Path itemsDir;
+
+    private ItemTable table;
+
+    @AfterEach
+    void shutdown() {
+        if (table != null) {
+            table.shutdown();
+        }
+    }
+
+    @Test
+    void loadReportsEveryFileInNameOrder() throws IOException {
+        copyBundledFiles();
+        table = createTable(4);
+
+        table.load();
+
+        ItemLoadReport report = table.getLastLoadReport();
+        assertEquals("xml", report.getSource());
+        assertEquals(3, report.getThreads());
+        assertEquals(3, report.getTotalFiles());
+        assertEquals(0, report.getFailedFiles());
+
+        int reportedItems = 0;
+        for (int i = 0; i < BUNDLED_FILES.size(); i++) {
+            ItemLoadReport.FileReport file = report.getFiles().get(i);
+            assertEquals(BUNDLED_FILES.get(i), file.getFileName());
+            assertNull(file.getError());
+            assertTrue(file.getItemCount() > 0);
+            reportedItems += file.getItemCount();
+        }
+        assertEquals(reportedItems, report.getTotalItems());
+        assertEquals(reportedItems, table.getItemCount());
+        assertEquals(table.getCatalog().getHighestId(), report.getHighestId());
+        assertEquals("Short Sword", table.getTemplate(1).getName());
+    }
+
+    @Test
+    void brokenFileIsReportedAndTheOthersStillLoad() throws IOException {
+        copyBundledFiles();
+        Files.writeString(itemsDir.resolve("00150-broken.xml"), "<list><item id=\"150\" name=\"Cut");
+        table = createTable(2);
+
+        table.load();
+
+        ItemLoadReport report = table.getLastLoadReport();
+        assertEquals(4, report.getTotalFiles());
+        assertEquals(1, report.getFailedFiles());
+        ItemLoadReport.FileReport broken = report.getFiles().get(2);
+        assertEquals("00150-broken.xml", broken.getFileName());
+        assertEquals(0, broken.getItemCount());
+        assertNotNull(broken.getError());
+        assertEquals(ItemTable.LoadState.READY, table.getLoadState());
+        assertEquals(report.getTotalItems(), table.getItemCount());
+    }
+
+    @Test
+    void parallelLoadBuildsTheSameCatalogAsASingleThread() throws IOException {
+        copyBundledFiles();
+
+        table = createTable(1);
+        table.load();
+        Map<Integer, String> sequential = names(table.getCatalog());
+        table.shutdown();
+
+        table = createTable(3);
+        table.load();
+        Map<Integer, String> parallel = names(table.getCatalog());
+
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void directoryWithoutXmlsMarksTheLoadAsFailed() {
+        table = createTable(0);
+
+        table.load();
+
+        assertEquals(ItemTable.LoadState.FAILED, table.getLoadState());
+        assertTrue(table.getLoadError().contains(itemsDir.toString()));
+        assertEquals(0, table.getItemCount());
+    }
+
+    @Test
+    void catalogReadBeforeAReloadStaysUnchanged() throws IOException {
+        copyBundledFiles();
+        table = createTable(2);
+        table.load();
+        ItemCatalog before = table.getCatalog();
+        int itemsBefore = before.getItemCount();
+
+        Files.delete(itemsDir.resolve("00200-00299.xml"));
+        table.reload();
+
+        ItemCatalog after = table.getCatalog();
+        assertNotSame(before, after);
+        assertEquals(itemsBefore, before.getItemCount());
+        assertNotNull(before.getTemplate(200));
+        assertNull(after.getTemplate(200));
+        assertTrue(after.getItemCount() < itemsBefore);
+    }
+
+    @Test
+    void readersOnlySeeCompleteCatalogsWhileReloading() throws Exception {
+        copyBundledFiles();
+        table = createTable(2);
+        table.load();
+        int full = table.getItemCount();
+        Path removed = Files.move(itemsDir.resolve("00100-00199.xml"), itemsDir.resolve("00100-00199.xml.bak"));
+        table.reload();
+        int partial = table.getItemCount();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> unexpected = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                ItemCatalog catalog = table.getCatalog();
+                int count = catalog.getItemCount();
+                if ((count != full && count != partial) || catalog.getIndex().size() != count) {
+                    unexpected.set("catálogo con " + count + " items e índice de " + catalog.getIndex().size());
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 0; i < 10; i++) {
+                Files.move(removed, itemsDir.resolve("00100-00199.xml"));
+                table.reload();
+                Files.move(itemsDir.resolve("00100-00199.xml"), removed);
+                table.reload();
+            }
+        } finally {
+            running.set(false);
+            reader.join();
+        }
+        assertNull(unexpected.get());
+    }
+
+    @Test
+    void reloadingOneEditedFileUpdatesOnlyItsItems() throws IOException {
+        copyBundledFiles();
+        table = createTable(2);
+        table.load();
+        ItemCatalog before = table.getCatalog();
+
+        Path file = itemsDir.resolve("00000-00099.xml");
+        Files.writeString(file, Files.readString(file).replace("name=\"Short Sword\"", "name=\"Tiny Sword\""));
+        ItemLoadReport report = table.reloadFiles(List.of("00000-00099.xml"));
+
+        ItemCatalog after = table.getCatalog();
+        assertEquals("incremental", report.getSource());
+        assertEquals(1, report.getTotalFiles());
+        assertEquals("Tiny Sword", after.getTemplate(1).getName());
+        assertEquals(before.getItemCount(), after.getItemCount());
+        assertEquals(List.of(after.getTemplate(1)), after.getNameIndex().search("tiny sword", 10));
+        assertTrue(after.getNameIndex().search("short sword", 10).isEmpty());
+        assertEquals(after.getIndex().positionOf(1), after.getNameIndex().complete("tiny", 1)[0]);
+        // Los items de los demás archivos son los mismos objetos
+        assertSame(before.getTemplate(150), after.getTemplate(150));
+        assertEquals(before.getIndex().byType("Weapon"), after.getIndex().byType("Weapon"));
+    }
+
+    private ItemTable createTable(int threads) {
+        ItemTable itemTable = new ItemTable();
+        ReflectionTestUtils.setField(itemTable, "itemsPath", itemsDir.toString());
+        ReflectionTestUtils.setField(itemTable, "loaderThreads", threads);
+        ReflectionTestUtils.setField(itemTable, "parserMode", "stax");
+        ReflectionTestUtils.setField(itemTable, "snapshotEnabled", false);
+        ReflectionTestUtils.setField(itemTable, "snapshotPath", itemsDir.resolve("catalog.snapshot").toString());
+        itemTable.init();
+        return itemTable;
+    }
+
+    private void copyBundledFiles() throws IOException {
+        for (String fileName : BUNDLED_FILES) {
+            try (InputStream in = getClass().getResourceAsStream("/static/items/" + fileName)) {
+                Files.copy(in, itemsDir.resolve(fileName));
+            }
+        }
+    }
+
+    private static Map<Integer, String> names(ItemCatalog catalog) {
+        Map<Integer, String> names = new TreeMap<>();
+        for (ItemTemplate item : catalog.getAllItems()) {
+            names.put(item.getId(), item.getName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,99 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatSetTest {
+
+    @Test
+    void primitivesRoundTrip() {
+        StatSet set = new StatSet();
+        set.set("int", 42);
+        set.set("long", 1L << 40);
+        set.set("double", 2.5);
+        set.set("boolean", true);
+        set.set("string", "icon.weapon_sword");
+
+        assertEquals(42, set.getInt("int"));
+        assertEquals(1L << 40, set.getLong("long"));
+        assertTrue(set.getBoolean("boolean"));
+        assertEquals("icon.weapon_sword", set.getString("string"));
+        assertEquals("2.5", set.getString("double"));
+        assertEquals(2, set.getInt("double"));
+    }
+
+    @Test
+    void missingKeysReturnTheDefault() {
+        StatSet set = new StatSet();
+
+        assertEquals(-1, set.getInt("weight", -1));
+        assertEquals(-1L, set.getLong("bodypart", -1L));
+        assertTrue(set.getBoolean("is_tradable", true));
+        assertEquals("Unknown", set.getString("name", "Unknown"));
+        assertNull(set.getString("name"));
+        assertFalse(set.contains("name"));
+    }
+
+    @Test
+    void numericStringsAreConvertedAndOthersFallBackToTheDefault() {
+        StatSet set = new StatSet();
+        set.set("weight", "120");
+        set.set("bodypart", "4294967296");
+        set.set("material", "steel");
+        set.set("is_stackable", "true");
+
+        assertEquals(120, set.getInt("weight", 0));
+        assertEquals(4294967296L, set.getLong("bodypart", 0L));
+        assertEquals(7, set.getInt("material", 7));
+        assertEquals(7, set.getInt("bodypart", 7));
+        assertTrue(set.getBoolean("is_stackable", false));
+    }
+
+    @Test
+    void nullStringBehavesLikeAMissingValue() {
+        StatSet set = new StatSet();
+        set.set("icon", (String) null);
+
+        assertEquals("", set.getString("icon", ""));
+        assertTrue(set.getBoolean("icon", true));
+    }
+
+    @Test
+    void setReplacesTheValueAndItsType() {
+        StatSet set = new StatSet();
+        set.set("price", "free");
+        set.set("price", 300);
+
+        assertEquals(300, set.getInt("price", 0));
+        assertEquals(Map.of("price", 300), set.getAll());
+    }
+
+    @Test
+    void growsPastTheInitialCapacity() {
+        StatSet set = new StatSet();
+        for (int i = 0; i < 100; i++) {
+            set.set("key" + i, i);
+        }
+
+        assertEquals(100, set.getAll().size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, set.getInt(new String("key" + i)));
+        }
+    }
+
+    @Test
+    void objectSetterKeepsNumbersPrimitive() {
+        StatSet set = new StatSet();
+        set.set("int", (Object) 5);
+        set.set("double", (Object) 1.5f);
+        set.set("other", (Object) new StringBuilder("text"));
+
+        assertEquals(Map.of("int", 5, "double", 1.5, "other", "text"), set.getAll());
+    }
+}
@@ -0,0 +1,42 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.model.item;
+
+/**
+ * Todos los campos de un ItemTemplate en un texto, para comparar items que vienen de
+ * orígenes distintos (parsers, snapshot) con un solo assertEquals.
+ */
+public final class ItemFields {
+
+    private ItemFields() {
+    }
+
+    public static String describe(ItemTemplate item) {
+        StringBuilder out = new StringBuilder()
+                .append(item.getItemType()).append(' ').append(item.getId())
+                .append(" name=").append(item.getName())
+                .append(" icon=").append(item.getIcon())
+                .append(" weight=").append(item.getWeight())
+                .append(" price=").append(item.getPrice())
+                .append(" grade=").append(item.getGrade())
+                .append(" bodyPart=").append(item.getBodyPart()).append('/').append(item.getBodyPartName())
+                .append(" stackable=").append(item.isStackable())
+                .append(" sellable=").append(item.isSellable())
+                .append(" tradeable=").append(item.isTradeable())
+                .append(" dropable=").append(item.isDropable())
+                .append(" crystal=").append(item.getCrystalCount()).append('/').append(item.getCrystalType())
+                .append(" material=").append(item.getMaterialType());
+        if (item instanceof Weapon weapon) {
+            out.append(" weaponType=").append(weapon.getWeaponType())
+                    .append(" pAtk=").append(weapon.getPAtk())
+                    .append(" mAtk=").append(weapon.getMAtk())
+                    .append(" shots=").append(weapon.getSoulshots()).append('/').append(weapon.getSpiritshots());
+        } else if (item instanceof Armor armor) {
+            out.append(" armorType=").append(armor.getArmorType())
+                    .append(" pDef=").append(armor.getPDef())
+                    .append(" mDef=").append(armor.getMDef());
+        } else if (item instanceof EtcItem etcItem) {
+            out.append(" etcType=").append(etcItem.getEtcItemType())
+                    .append(" quest=").append(etcItem.isQuestItem());
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,119 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntObjectTableTest {
+
+    @Test
+    void getReturnsEveryEntryOfTheSource() {
+        Map<Integer, String> source = new HashMap<>();
+        for (int id = 1; id <= 5000; id++) {
+            source.put(id, "item-" + id);
+        }
+        IntObjectTable<String> table = IntObjectTable.of(source);
+
+        assertEquals(5000, table.size());
+        for (int id = 1; id <= 5000; id++) {
+            assertEquals("item-" + id, table.get(id));
+        }
+    }
+
+    @Test
+    void getReturnsNullForMissingKeys() {
+        IntObjectTable<String> table = IntObjectTable.of(Map.of(10, "a", 20, "b"));
+
+        assertNull(table.get(0));
+        assertNull(table.get(15));
+        assertNull(table.get(-10));
+        assertNull(table.get(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void zeroNegativeAndExtremeKeysAreRegularKeys() {
+        IntObjectTable<String> table = IntObjectTable.of(Map.of(
+                0, "zero", -1, "minus-one", Integer.MIN_VALUE, "min", Integer.MAX_VALUE, "max"));
+
+        assertEquals("zero", table.get(0));
+        assertEquals("minus-one", table.get(-1));
+        assertEquals("min", table.get(Integer.MIN_VALUE));
+        assertEquals("max", table.get(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void capacityDependsOnEntryCountNotOnHighestKey() {
+        IntObjectTable<String> table = IntObjectTable.of(Map.of(1, "a", 2, "b", 93_000_000, "c"));
+
+        assertEquals("c", table.get(93_000_000));
+        assertTrue(table.capacity() <= 8, "capacity " + table.capacity());
+        assertTrue(table.size() <= table.capacity() * 0.75);
+    }
+
+    @Test
+    void emptyTableFindsNothing() {
+        IntObjectTable<String> table = IntObjectTable.of(Map.of());
+
+        assertEquals(0, table.size());
+        assertNull(table.get(1));
+    }
+
+    @Test
+    void withAppliesUpdatesAndRemovalsToACopy() {
+        Map<Integer, String> source = Map.of(1, "a", 2, "b", 3, "c");
+        IntObjectTable<String> table = IntObjectTable.of(source);
+
+        IntObjectTable<String> changed = table.with(Map.of(2, "B", 4, "d"), List.of(1, 99));
+
+        assertEquals(3, changed.size());
+        assertNull(changed.get(1));
+        assertEquals("B", changed.get(2));
+        assertEquals("c", changed.get(3));
+        assertEquals("d", changed.get(4));
+        // La tabla original no cambia
+        assertEquals(3, table.size());
+        assertEquals("a", table.get(1));
+        assertEquals("b", table.get(2));
+        assertNull(table.get(4));
+    }
+
+    @Test
+    void withMatchesAMapAfterManyRandomChanges() {
+        Random random = new Random(7);
+        Map<Integer, String> expected = new HashMap<>();
+        IntObjectTable<String> table = IntObjectTable.of(expected);
+
+        for (int round = 0; round < 200; round++) {
+            Map<Integer, String> updates = new HashMap<>();
+            List<Integer> removed = new ArrayList<>();
+            for (int i = random.nextInt(50); i > 0; i--) {
+                // Claves de un rango chico para forzar colisiones y cúmulos largos
+                int key = random.nextInt(400) * 64;
+                if (random.nextInt(3) == 0) {
+                    removed.add(key);
+                    updates.remove(key);
+                } else {
+                    updates.put(key, "v" + round);
+                    removed.remove((Integer) key);
+                }
+            }
+            table = table.with(updates, removed);
+            expected.keySet().removeAll(removed);
+            expected.putAll(updates);
+
+            assertEquals(expected.size(), table.size());
+            assertTrue(table.size() <= table.capacity() * 0.75);
+            for (int key = 0; key < 400 * 64; key += 64) {
+                assertEquals(expected.get(key), table.get(key), "clave " + key);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.util;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.Armor;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemFields;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.Weapon;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * El parser StAX tiene que producir exactamente los mismos items que el parser DOM.
+ */
+class ItemStaxParserTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void bundledCatalogParsesTheSameWithBothParsers() throws Exception {
+        File[] files = new File(getClass().getResource("/static/items").toURI()).listFiles((d, name) -> name.endsWith(".xml"));
+        assertTrue(files.length > 100);
+
+        int items = 0;
+        for (File file : files) {
+            Map<Integer, String> dom = describe(ItemXmlParser.parse(file));
+            assertEquals(dom, describe(ItemStaxParser.parse(file)), file.getName());
+            items += dom.size();
+        }
+        assertTrue(items > 10_000);
+    }
+
+    @Test
+    void edgeCasesParseTheSameWithBothParsers() throws Exception {
+        File file = write("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <list>
+                    <!-- comentario entre items -->
+                    <item id="10" name="Sword &amp; Shield" type="Weapon">
+                        <set name="icon" val="icon.weapon_sword" />
+                        <set name="weapon_type" val="SWORD" />
+                        <set name="weight" val="1600" />
+                        <set name="crystal_type" val="d" />
+                        <stats>
+                            <stat type="pAtk"><![CDATA[24]]></stat>
+                            <stat type="mAtk">17</stat>
+                        </stats>
+                        <stats>
+                            <stat type="pAtk">999</stat>
+                        </stats>
+                    </item>
+                    <item id="20" name="Gift Box" type="EtcItem">
+                        <set name="etcitem_type" val="PET_COLLAR" />
+                        <set name="is_stackable" val="true" />
+                        <set name="price" val="1.5" />
+                        <capsuled_items>
+                            <item id="10" min="1" max="1" chance="100" />
+                        </capsuled_items>
+                    </item>
+                    <item id="30" name="Leather Shirt" type="Armor">
+                        <set name="bodypart" val="chest" />
+                        <stats><stat type="pDef">43</stat></stats>
+                    </item>
+                    <item id="oops" name="Bad Id" type="EtcItem" />
+                    <item id="40" name="No Type" />
+                </list>
+                """);
+
+        Map<Integer, ItemTemplate> stax = ItemStaxParser.parse(file);
+
+        assertEquals(describe(ItemXmlParser.parse(file)), describe(stax));
+        assertEquals(3, stax.size());
+        Weapon sword = (Weapon) stax.get(10);
+        assertEquals("Sword & Shield", sword.getName());
+        assertEquals(24, sword.getPAtk());
+        assertEquals("D", sword.getGrade());
+        assertEquals(43, ((Armor) stax.get(30)).getPDef());
+    }
+
+    @Test
+    void malformedFileFails() throws Exception {
+        File file = write("<list><item id=\"1\" name=\"Cut");
+
+        assertThrows(XMLStreamException.class, () -> ItemStaxParser.parse(file));
+    }
+
+    private File write(String xml) throws Exception {
+        return Files.writeString(dir.resolve("items.xml"), xml).toFile();
+    }
+
+    private static Map<Integer, String> describe(Map<Integer, ItemTemplate> items) {
+        Map<Integer, String> described = new TreeMap<>();
+        items.forEach((id, item) -> described.put(id, ItemFields.describe(item)));
+        return described;
+    }
+}
@@ -0,0 +1,114 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongObjectTableTest {
+
+    @Test
+    void putAndGetGrowPastTheExpectedSize() {
+        LongObjectTable<String> table = new LongObjectTable<>(2);
+        for (long key = 0; key < 10_000; key++) {
+            table.put(key << 32 | key, "v" + key);
+        }
+
+        assertEquals(10_000, table.size());
+        assertTrue(table.size() <= table.capacity() * 0.75);
+        for (long key = 0; key < 10_000; key++) {
+            assertEquals("v" + key, table.get(key << 32 | key));
+        }
+        assertNull(table.get(1L << 32));
+    }
+
+    @Test
+    void putReplacesAnExistingKey() {
+        LongObjectTable<String> table = new LongObjectTable<>(4);
+        table.put(Long.MIN_VALUE, "a");
+        table.put(Long.MIN_VALUE, "b");
+
+        assertEquals(1, table.size());
+        assertEquals("b", table.get(Long.MIN_VALUE));
+    }
+
+    @Test
+    void nullValuesAreRejected() {
+        LongObjectTable<String> table = new LongObjectTable<>(4);
+
+        assertThrows(IllegalArgumentException.class, () -> table.put(1L, null));
+    }
+
+    @Test
+    void mapValuesKeepsKeysAndShrinksToSize() {
+        LongObjectTable<String> table = new LongObjectTable<>(100_000);
+        table.put(7L, "seven");
+        table.put(-7L, "minus seven");
+
+        LongObjectTable<Integer> lengths = table.mapValues(String::length);
+
+        assertEquals(2, lengths.size());
+        assertEquals(5, lengths.get(7L));
+        assertEquals(11, lengths.get(-7L));
+        assertNull(lengths.get(0L));
+        assertTrue(lengths.capacity() < table.capacity());
+    }
+
+    @Test
+    void removeKeepsTheRestOfTheClusterReachable() {
+        Random random = new Random(11);
+        LongObjectTable<String> table = new LongObjectTable<>(16);
+        Map<Long, String> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(300);
+            if (random.nextBoolean()) {
+                table.put(key, "v" + i);
+                expected.put(key, "v" + i);
+            } else {
+                assertEquals(expected.remove(key), table.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), table.size());
+        for (long key = 0; key < 300; key++) {
+            assertEquals(expected.get(key), table.get(key), "clave " + key);
+        }
+    }
+
+    @Test
+    void copyIsIndependentOfTheOriginal() {
+        LongObjectTable<String> table = new LongObjectTable<>(4);
+        table.put(1L, "a");
+        table.put(2L, "b");
+
+        LongObjectTable<String> copy = table.copy();
+        copy.put(3L, "c");
+        copy.remove(1L);
+
+        assertEquals(2, table.size());
+        assertEquals("a", table.get(1L));
+        assertNull(table.get(3L));
+        assertEquals(2, copy.size());
+        assertNull(copy.get(1L));
+        assertEquals("c", copy.get(3L));
+    }
+
+    @Test
+    void forEachVisitsEveryEntry() {
+        LongObjectTable<String> table = new LongObjectTable<>(4);
+        table.put(-5L, "a");
+        table.put(5L, "b");
+        Map<Long, String> visited = new HashMap<>();
+
+        table.forEach(visited::put);
+
+        assertEquals(Map.of(-5L, "a", 5L, "b"), visited);
+    }
+}
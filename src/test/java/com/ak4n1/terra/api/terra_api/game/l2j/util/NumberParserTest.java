@@ -0,0 +1,49 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NumberParserTest {
+
+    @Test
+    void isIntAcceptsSignedDecimalIntegersInRange() {
+        for (String value : new String[]{"0", "7", "-7", "+7", "007", "2147483647", "-2147483648"}) {
+            assertTrue(NumberParser.isInt(value), value);
+        }
+    }
+
+    @Test
+    void isIntRejectsOverflowAndNonIntegers() {
+        for (String value : new String[]{null, "", "-", "+", "2147483648", "-2147483649", "1.0", "1e3",
+                "0x10", " 1", "1 ", "icon.weapon_sword", "١٢"}) {
+            assertFalse(NumberParser.isInt(value), String.valueOf(value));
+        }
+    }
+
+    @Test
+    void isLongCoversTheLongRange() {
+        assertTrue(NumberParser.isLong("9223372036854775807"));
+        assertTrue(NumberParser.isLong("-9223372036854775808"));
+        assertTrue(NumberParser.isLong("2147483648"));
+        assertFalse(NumberParser.isLong("9223372036854775808"));
+        assertFalse(NumberParser.isLong("-9223372036854775809"));
+    }
+
+    @Test
+    void isDecimalAcceptsTheXmlNotation() {
+        for (String value : new String[]{"1.5", "-3.75", "+0.5", ".5", "5.", "2e3", "1.5E-3", "10"}) {
+            assertTrue(NumberParser.isDecimal(value), value);
+            Double.parseDouble(value);
+        }
+    }
+
+    @Test
+    void isDecimalTreatsOtherFormsAsText() {
+        for (String value : new String[]{null, "", ".", "-", "1e", "1e+", "1.2.3", "NaN", "Infinity", "1.5f",
+                "0x1p3", "icon.etc_potion", "1,5"}) {
+            assertFalse(NumberParser.isDecimal(value), String.valueOf(value));
+        }
+    }
+}
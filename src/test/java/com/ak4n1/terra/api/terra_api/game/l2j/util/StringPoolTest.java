@@ -0,0 +1,35 @@
+package com.ak4n1.terra.api.terra_api.game.l2j.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StringPoolTest {
+
+    @Test
+    void shareReturnsOneInstancePerValue() {
+        StringPool pool = new StringPool();
+        String first = pool.share(new String("Sword"));
+        String second = pool.share(new String("Sword"));
+
+        assertSame(first, second);
+        assertNull(pool.share(null));
+    }
+
+    @Test
+    void poolsOfDifferentLoadsAreIndependent() {
+        String fromFirstLoad = new StringPool().share(new String("Sword"));
+        String fromSecondLoad = new StringPool().share(new String("Sword"));
+
+        assertEquals(fromFirstLoad, fromSecondLoad);
+        assertNotSame(fromFirstLoad, fromSecondLoad);
+    }
+
+    @Test
+    void internSharesVocabularyAcrossCallers() {
+        assertSame(StringPool.intern(new String("STEEL")), StringPool.intern(new String("STEEL")));
+    }
+}
@@ -0,0 +1,180 @@
+package com.ak4n1.terra.api.terra_api.game.services;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemTable;
+import com.ak4n1.terra.api.terra_api.game.services.ItemCatalogService.CatalogFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Delta del catálogo entre versiones, con recargas reales de archivos XML editados en disco.
+ */
+class ItemCatalogDeltaTest {
+
+    @TempDir
+    Path itemsDir;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private ItemTable itemTable;
+    private ItemCatalogService service;
+
+    @BeforeEach
+    void loadCatalog() throws IOException {
+        copy("00000-00099.xml");
+        copy("00100-00199.xml");
+        itemTable = new ItemTable();
+        ReflectionTestUtils.setField(itemTable, "itemsPath", itemsDir.toString());
+        ReflectionTestUtils.setField(itemTable, "loaderThreads", 1);
+        ReflectionTestUtils.setField(itemTable, "parserMode", "stax");
+        ReflectionTestUtils.setField(itemTable, "snapshotEnabled", false);
+        ReflectionTestUtils.setField(itemTable, "snapshotPath", itemsDir.resolve("catalog.snapshot").toString());
+        itemTable.init();
+        service = createService(20);
+        itemTable.load();
+    }
+
+    @AfterEach
+    void shutdown() {
+        itemTable.shutdown();
+    }
+
+    @Test
+    void editedAddedAndRemovedItemsAppearInTheDelta() throws Exception {
+        String v1 = version();
+        edit("00000-00099.xml", "name=\"Short Sword\"", "name=\"Tiny Sword\"");
+        itemTable.reloadFiles(List.of("00000-00099.xml"));
+        copy("00200-00299.xml");
+        itemTable.reloadFiles(List.of("00200-00299.xml"));
+        Files.delete(itemsDir.resolve("00100-00199.xml"));
+        itemTable.reloadFiles(List.of("00100-00199.xml"));
+
+        JsonNode delta = delta(v1);
+
+        assertFalse(delta.get("fullSync").asBoolean());
+        assertEquals(v1, delta.get("fromVersion").asText());
+        assertEquals(version(), delta.get("toVersion").asText());
+        assertEquals(List.of(1), ids(delta.get("changed")));
+        assertEquals("Tiny Sword", delta.get("changed").get(0).get("name").asText());
+        List<Integer> added = ids(delta.get("added"));
+        assertEquals(itemTable.getCatalog().getItemsByFile().get("00200-00299.xml").size(), added.size());
+        assertTrue(added.contains(287));
+        assertTrue(ids(delta.get("removed")).contains(150));
+        assertNull(itemTable.getTemplate(150));
+    }
+
+    @Test
+    void intermediateVersionsAreComposed() throws Exception {
+        String v1 = version();
+        edit("00000-00099.xml", "name=\"Short Sword\"", "name=\"Tiny Sword\"");
+        itemTable.reloadFiles(List.of("00000-00099.xml"));
+        String v2 = version();
+        edit("00000-00099.xml", "name=\"Tiny Sword\"", "name=\"Short Sword\"");
+        edit("00000-00099.xml", "name=\"Bow\"", "name=\"Long Bow\"");
+        itemTable.reloadFiles(List.of("00000-00099.xml"));
+
+        // Desde v1 el nombre de la espada volvió al original, pero su JSON pasó por otro estado
+        JsonNode fromV1 = delta(v1);
+        assertEquals(List.of(1, 14), sorted(ids(fromV1.get("changed"))));
+        JsonNode fromV2 = delta(v2);
+        assertEquals(List.of(1, 14), sorted(ids(fromV2.get("changed"))));
+        assertEquals("Short Sword", fromV2.get("changed").get(0).get("name").asText());
+    }
+
+    @Test
+    void currentVersionGivesAnEmptyDelta() throws Exception {
+        JsonNode delta = delta("\"" + version() + "-gzip\"");
+
+        assertFalse(delta.get("fullSync").asBoolean());
+        assertTrue(delta.get("added").isEmpty());
+        assertTrue(delta.get("changed").isEmpty());
+        assertTrue(delta.get("removed").isEmpty());
+    }
+
+    @Test
+    void unknownOrForgottenVersionsAskForAFullSync() throws Exception {
+        assertTrue(delta("not-a-version").get("fullSync").asBoolean());
+        assertFalse(delta("not-a-version").has("added"));
+
+        ReflectionTestUtils.setField(service, "deltaHistorySize", 1);
+        String v1 = version();
+        edit("00000-00099.xml", "name=\"Short Sword\"", "name=\"Tiny Sword\"");
+        itemTable.reloadFiles(List.of("00000-00099.xml"));
+        String v2 = version();
+        edit("00000-00099.xml", "name=\"Bow\"", "name=\"Long Bow\"");
+        itemTable.reloadFiles(List.of("00000-00099.xml"));
+
+        assertTrue(delta(v1).get("fullSync").asBoolean());
+        assertEquals(List.of(14), ids(delta(v2).get("changed")));
+    }
+
+    @Test
+    void cborDeltaHasTheSameContent() throws Exception {
+        String v1 = version();
+        edit("00000-00099.xml", "name=\"Short Sword\"", "name=\"Tiny Sword\"");
+        itemTable.reloadFiles(List.of("00000-00099.xml"));
+
+        byte[] cbor = service.getDeltaBody(v1, CatalogFormat.CBOR).getBody();
+
+        assertEquals(delta(v1), new ObjectMapper(new CBORFactory()).readTree(cbor));
+    }
+
+    private ItemCatalogService createService(int historySize) {
+        ItemCatalogService catalogService = new ItemCatalogService();
+        ReflectionTestUtils.setField(catalogService, "itemTable", itemTable);
+        ReflectionTestUtils.setField(catalogService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(catalogService, "deltaHistorySize", historySize);
+        catalogService.init();
+        return catalogService;
+    }
+
+    private String version() {
+        return service.getStats().getVersion();
+    }
+
+    private JsonNode delta(String since) throws IOException {
+        return objectMapper.readTree(service.getDeltaBody(since, CatalogFormat.JSON).getBody());
+    }
+
+    private void copy(String fileName) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/static/items/" + fileName)) {
+            Files.copy(in, itemsDir.resolve(fileName));
+        }
+    }
+
+    private void edit(String fileName, String from, String to) throws IOException {
+        Path file = itemsDir.resolve(fileName);
+        String xml = Files.readString(file);
+        assertTrue(xml.contains(from), from);
+        Files.writeString(file, xml.replace(from, to));
+    }
+
+    private static List<Integer> ids(JsonNode array) {
+        List<Integer> ids = new ArrayList<>();
+        array.forEach(node -> ids.add(node.isInt() ? node.asInt() : node.get("id").asInt()));
+        return ids;
+    }
+
+    private static List<Integer> sorted(List<Integer> ids) {
+        List<Integer> copy = new ArrayList<>(ids);
+        copy.sort(null);
+        return copy;
+    }
+}
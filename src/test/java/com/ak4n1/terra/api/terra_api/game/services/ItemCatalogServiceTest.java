@@ -0,0 +1,201 @@
+package com.ak4n1.terra.api.terra_api.game.services;
+
+import com.ak4n1.terra.api.terra_api.game.dto.ItemCatalogDTO;
+import com.ak4n1.terra.api.terra_api.game.exceptions.InvalidCatalogQueryException;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemCatalog;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemTable;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.StatSet;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.Armor;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.EtcItem;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.Weapon;
+import com.ak4n1.terra.api.terra_api.game.services.ItemCatalogService.CatalogBody;
+import com.ak4n1.terra.api.terra_api.game.services.ItemCatalogService.CatalogFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * El servicio solo ve a ItemTable a través del listener de publicación y de
+ * {@code isReady()}: se simula ItemTable y se le publica un catálogo armado a mano.
+ */
+@ExtendWith(MockitoExtension.class)
+class ItemCatalogServiceTest {
+
+    @Mock
+    private ItemTable itemTable;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private ItemCatalogService service;
+
+    @BeforeEach
+    void publishCatalog() {
+        service = new ItemCatalogService();
+        ReflectionTestUtils.setField(service, "itemTable", itemTable);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "deltaHistorySize", 20);
+        ReflectionTestUtils.setField(service, "batchMaxIds", 200);
+        service.init();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<ItemCatalog>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(itemTable).addPublishListener(listener.capture());
+
+        Map<Integer, ItemTemplate> items = new LinkedHashMap<>();
+        items.put(20, etcItem(20, "Greater Healing Potion", true));
+        items.put(3, etcItem(3, "Healing Potion", true));
+        items.put(7, etcItem(7, "Potion", false));
+        items.put(11, weapon(11, "Short Sword", "D"));
+        items.put(5, weapon(5, "Potion Launcher", "C"));
+        items.put(9, armor(9, "Leather Shirt", "D"));
+        listener.getValue().accept(ItemCatalog.build(Map.of("items.xml", items)));
+        when(itemTable.isReady()).thenReturn(true);
+    }
+
+    @Test
+    void itemBodyIsThePrecomputedDto() throws Exception {
+        CatalogBody json = service.getItemBodyById(11, CatalogFormat.JSON);
+        CatalogBody cbor = service.getItemBodyById(11, CatalogFormat.CBOR);
+
+        JsonNode expected = objectMapper.valueToTree(ItemCatalogDTO.fromItemTemplate(weapon(11, "Short Sword", "D")));
+        assertEquals(expected, objectMapper.readTree(json.getBody()));
+        assertEquals(expected, new ObjectMapper(new CBORFactory()).readTree(cbor.getBody()));
+        assertEquals(json.getVersion(), cbor.getVersion());
+        assertNull(service.getItemBodyById(12, CatalogFormat.JSON));
+    }
+
+    @Test
+    void searchBodyIsOrderedByRelevance() throws Exception {
+        // Exacto, después prefijo y después el resto; dentro de cada grupo por ID
+        assertEquals(List.of(7, 5, 3, 20), ids(service.searchByNameBody("POTION", 10, CatalogFormat.JSON)));
+        assertEquals(List.of(7, 5), ids(service.searchByNameBody("potion", 2, CatalogFormat.JSON)));
+        assertEquals(List.of(), ids(service.searchByNameBody(" ", 10, CatalogFormat.JSON)));
+    }
+
+    @Test
+    void typeAndGradeBodiesAreInIdOrder() throws Exception {
+        assertEquals(List.of(3, 7, 20), ids(service.getItemsByTypeBody("etcitem", CatalogFormat.JSON)));
+        assertEquals(List.of(9, 11), ids(service.getItemsByGradeBody("d", CatalogFormat.JSON)));
+        assertEquals(List.of(), ids(service.getItemsByGradeBody("S", CatalogFormat.JSON)));
+    }
+
+    @Test
+    void autocompleteBodyOnlyHasSuggestions() throws Exception {
+        JsonNode suggestions = objectMapper.readTree(service.autocompleteBody("pot", 10, CatalogFormat.JSON).getBody());
+
+        assertEquals(2, suggestions.size());
+        assertEquals("Potion", suggestions.get(0).get("name").asText());
+        assertEquals("Potion Launcher", suggestions.get(1).get("name").asText());
+        assertEquals(3, suggestions.get(0).size());
+    }
+
+    @Test
+    void batchKeepsTheFirstAppearanceOrderWithoutRepeats() throws Exception {
+        JsonNode batch = objectMapper.readTree(
+                service.getItemsBatchBody(List.of(9, 3, 9, 20, 3), CatalogFormat.JSON).getBody());
+
+        assertEquals(List.of(9, 3, 20), ids(batch.get("items")));
+        assertTrue(batch.get("missing").isEmpty());
+        assertEquals(objectMapper.readTree(service.getItemBodyById(9, CatalogFormat.JSON).getBody()), batch.get("items").get(0));
+    }
+
+    @Test
+    void batchReportsMissingIdsAndIgnoresNulls() throws Exception {
+        JsonNode batch = objectMapper.readTree(
+                service.getItemsBatchBody(Arrays.asList(404, null, 7, 404, -1, null), CatalogFormat.JSON).getBody());
+
+        assertEquals(List.of(7), ids(batch.get("items")));
+        assertEquals("[404,-1]", batch.get("missing").toString());
+        assertTrue(objectMapper.readTree(service.getItemsBatchBody(List.of(), CatalogFormat.JSON).getBody()).get("items").isEmpty());
+    }
+
+    @Test
+    void cborBatchHasTheSameContent() throws Exception {
+        List<Integer> ids = List.of(11, 1000, 5);
+
+        assertEquals(objectMapper.readTree(service.getItemsBatchBody(ids, CatalogFormat.JSON).getBody()),
+                new ObjectMapper(new CBORFactory()).readTree(service.getItemsBatchBody(ids, CatalogFormat.CBOR).getBody()));
+    }
+
+    @Test
+    void batchLimitCountsDistinctIds() {
+        ReflectionTestUtils.setField(service, "batchMaxIds", 3);
+
+        // Repetidos y null no cuentan para el límite
+        service.getItemsBatchBody(Arrays.asList(3, 3, 7, null, 7, 9), CatalogFormat.JSON);
+        InvalidCatalogQueryException tooMany = assertThrows(InvalidCatalogQueryException.class,
+                () -> service.getItemsBatchBody(List.of(3, 7, 9, 11), CatalogFormat.JSON));
+        assertTrue(tooMany.getMessage().contains("4"), tooMany.getMessage());
+    }
+
+    @Test
+    void statsCountTheIndexedItems() {
+        ItemCatalogService.CatalogStats stats = service.getStats();
+
+        assertEquals(6, stats.getTotalItems());
+        assertEquals(2, stats.getWeapons());
+        assertEquals(1, stats.getArmors());
+        assertEquals(3, stats.getEtcItems());
+        assertEquals(2, stats.getStackable());
+        assertEquals(service.getItemBodyById(3, CatalogFormat.JSON).getVersion(), stats.getVersion());
+    }
+
+    private List<Integer> ids(CatalogBody body) throws Exception {
+        return ids(objectMapper.readTree(body.getBody()));
+    }
+
+    private static List<Integer> ids(JsonNode items) {
+        List<Integer> ids = new ArrayList<>();
+        items.forEach(item -> ids.add(item.get("id").asInt()));
+        return ids;
+    }
+
+    private static ItemTemplate etcItem(int id, String name, boolean stackable) {
+        StatSet set = new StatSet();
+        set.set("item_id", id);
+        set.set("name", name);
+        set.set("is_stackable", stackable);
+        return new EtcItem(set);
+    }
+
+    private static ItemTemplate weapon(int id, String name, String grade) {
+        StatSet set = new StatSet();
+        set.set("item_id", id);
+        set.set("name", name);
+        set.set("crystal_type", grade);
+        set.set("weapon_type", "SWORD");
+        set.set("pAtk", 24);
+        return new Weapon(set);
+    }
+
+    private static ItemTemplate armor(int id, String name, String grade) {
+        StatSet set = new StatSet();
+        set.set("item_id", id);
+        set.set("name", name);
+        set.set("crystal_type", grade);
+        set.set("bodypart_name", "chest");
+        return new Armor(set);
+    }
+}
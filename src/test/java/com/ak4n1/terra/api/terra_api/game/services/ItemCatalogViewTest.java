@@ -0,0 +1,124 @@
+package com.ak4n1.terra.api.terra_api.game.services;
+
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemCatalog;
+import com.ak4n1.terra.api.terra_api.game.l2j.model.item.ItemTemplate;
+import com.ak4n1.terra.api.terra_api.game.l2j.util.ItemStaxParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ItemCatalogViewTest {
+
+    private static final String FILE = "00000-00099.xml";
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private ItemCatalog catalog;
+    private ItemCatalogView view;
+
+    @BeforeEach
+    void buildView() throws Exception {
+        catalog = ItemCatalog.build(Map.of(FILE, parse(FILE, xml -> xml)));
+        view = ItemCatalogView.build(catalog, null, objectMapper);
+    }
+
+    @Test
+    void allItemsJsonIsTheArrayOfItemFragments() throws Exception {
+        JsonNode all = objectMapper.readTree(view.allItemsJson());
+
+        assertEquals(catalog.getItemCount(), all.size());
+        for (int i = 0; i < all.size(); i++) {
+            int id = all.get(i).get("id").asInt();
+            assertEquals(objectMapper.readTree(view.json(id)), all.get(i));
+        }
+        assertArrayEquals(catalog.getAllItems().stream().mapToInt(ItemTemplate::getId).sorted().toArray(), view.ids());
+    }
+
+    @Test
+    void rebuildingWithOneChangedItemReusesTheOtherFragments() throws Exception {
+        ItemCatalog edited = catalog.withFiles(
+                Map.of(FILE, parse(FILE, xml -> xml.replace("name=\"Short Sword\"", "name=\"Tiny Sword\""))), Set.of());
+        // Los demás items del archivo se vuelven a parsear: son otras instancias con el mismo contenido
+        ItemCatalogView rebuilt = ItemCatalogView.build(edited, view, objectMapper);
+
+        assertNotEquals(view.getVersion(), rebuilt.getVersion());
+        assertEquals("Tiny Sword", objectMapper.readTree(rebuilt.json(1)).get("name").asText());
+        assertArrayEquals(view.json(2), rebuilt.json(2));
+
+        // Con las mismas instancias de ItemTemplate se reutilizan los mismos fragmentos
+        ItemCatalog shared = edited.withFiles(Map.of("zz-extra.xml", Map.of()), Set.of());
+        ItemCatalogView again = ItemCatalogView.build(shared, rebuilt, objectMapper);
+        assertSame(rebuilt.json(1), again.json(1));
+        assertSame(rebuilt.json(2), again.json(2));
+        assertEquals(rebuilt.getVersion(), again.getVersion());
+    }
+
+    @Test
+    void sameContentGivesTheSameVersion() throws Exception {
+        ItemCatalog reparsed = ItemCatalog.build(Map.of(FILE, parse(FILE, xml -> xml)));
+        ItemCatalogView other = ItemCatalogView.build(reparsed, null, objectMapper);
+
+        assertNotSame(catalog.getTemplate(1), reparsed.getTemplate(1));
+        assertEquals(view.getVersion(), other.getVersion());
+        assertArrayEquals(view.allItemsJson(), other.allItemsJson());
+    }
+
+    @Test
+    void gzipIsBuiltWithTheViewAndKeptWhileTheVersionDoesNotChange() throws Exception {
+        byte[] gzip = (byte[]) ReflectionTestUtils.getField(view, "allItemsGzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertArrayEquals(view.allItemsJson(), in.readAllBytes());
+        }
+
+        ItemCatalogView sameVersion = ItemCatalogView.build(ItemCatalog.build(Map.of(FILE, parse(FILE, xml -> xml))), view, objectMapper);
+        assertSame(gzip, sameVersion.allItemsGzip());
+
+        ItemCatalog edited = catalog.withFiles(
+                Map.of(FILE, parse(FILE, xml -> xml.replace("name=\"Short Sword\"", "name=\"Tiny Sword\""))), Set.of());
+        assertNotSame(gzip, ItemCatalogView.build(edited, view, objectMapper).allItemsGzip());
+    }
+
+    @Test
+    void dtosAreThePrecomputedOnes() {
+        ItemTemplate shortSword = catalog.getTemplate(1);
+
+        assertSame(view.dtos(List.of(shortSword)).get(0), view.dtos(List.of(shortSword)).get(0));
+        assertEquals("Short Sword", view.dtos(List.of(shortSword)).get(0).getName());
+        assertNull(view.json(999_999));
+    }
+
+    private Map<Integer, ItemTemplate> parse(String fileName, UnaryOperator<String> edit) throws Exception {
+        String xml;
+        try (InputStream in = getClass().getResourceAsStream("/static/items/" + fileName)) {
+            xml = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        File file = Files.writeString(dir.resolve(fileName), edit.apply(xml)).toFile();
+        return new TreeMap<>(ItemStaxParser.parse(file));
+    }
+}
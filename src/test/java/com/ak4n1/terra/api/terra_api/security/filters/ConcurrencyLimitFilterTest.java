@@ -0,0 +1,120 @@
+package com.ak4n1.terra.api.terra_api.security.filters;
+
+import com.ak4n1.terra.api.terra_api.exceptions.GlobalExceptionHandler;
+import com.ak4n1.terra.api.terra_api.game.controllers.ItemCatalogController;
+import com.ak4n1.terra.api.terra_api.game.l2j.data.ItemTable;
+import com.ak4n1.terra.api.terra_api.game.services.ItemCatalogService;
+import com.ak4n1.terra.api.terra_api.security.services.AdaptiveConcurrencyLimiter;
+import com.ak4n1.terra.api.terra_api.security.services.ConcurrencyLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ConcurrencyLimitFilterTest {
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("default", 20, 10, 100);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter();
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimitService service = mock(ConcurrencyLimitService.class);
+        when(service.resolveLimiter(anyString(), anyString())).thenReturn(limiter);
+        ReflectionTestUtils.setField(filter, "concurrencyLimitService", service);
+    }
+
+    @Test
+    void catalogNotReadyResponsesDoNotShrinkTheLimit() throws Exception {
+        // El catálogo sin cargar responde 503 con Retry-After desde GlobalExceptionHandler
+        ItemTable itemTable = mock(ItemTable.class);
+        ItemCatalogService catalogService = new ItemCatalogService();
+        ReflectionTestUtils.setField(catalogService, "itemTable", itemTable);
+        ReflectionTestUtils.setField(catalogService, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(catalogService, "notReadyRetryAfterSeconds", 5L);
+        ItemCatalogController controller = new ItemCatalogController();
+        ReflectionTestUtils.setField(controller, "catalogService", catalogService);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addFilters(filter)
+                .build();
+
+        for (int i = 0; i < 100; i++) {
+            mvc.perform(get("/api/game/catalog/items/1"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.error").value("CATALOG_NOT_READY"));
+        }
+
+        assertEquals(20, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void gatewayTimeoutBacksOff() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/game/offline-market/items");
+        FilterChain chain = (req, res) -> ((HttpServletResponse) res).setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertEquals(18, limiter.getLimit());
+    }
+
+    @Test
+    void handlerCanMarkTheRequestAsShed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/game/offline-market/items");
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(ConcurrencyLimitFilter.OVERLOADED_ATTRIBUTE, Boolean.TRUE);
+            ((HttpServletResponse) res).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        };
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertEquals(18, limiter.getLimit());
+    }
+
+    @Test
+    void escapingExceptionBacksOffAndIsRethrown() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/game/offline-market/items");
+        FilterChain chain = (req, res) -> {
+            throw new ServletException("pool agotado");
+        };
+
+        assertThrows(ServletException.class, () -> filter.doFilter(request, new MockHttpServletResponse(), chain));
+        assertEquals(18, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void saturatedGroupIsRejectedWithoutCallingTheChain() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            throw new AssertionError("la petición no debía pasar");
+        };
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/game/offline-market/items"), response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertEquals(1, limiter.getRejected());
+        // El rechazo propio tampoco cuenta como sobrecarga de las peticiones en curso
+        assertEquals(20, limiter.getLimit());
+    }
+}
@@ -0,0 +1,106 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void rejectsOnceTheLimitIsInFlight() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 2, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getRejected());
+
+        limiter.release(FAST, false);
+        assertEquals(1, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void overloadBacksOffMultiplicativelyDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 20, 5, 50);
+
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        assertEquals(18, limiter.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, true);
+        }
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void steadyLatencyUnderFullUseGrowsUpToTheMaximum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 10, 1, 20);
+
+        int previous = limiter.getLimit();
+        for (int round = 0; round < 200; round++) {
+            runAtLimit(limiter, FAST);
+            assertTrue(limiter.getLimit() >= previous);
+            previous = limiter.getLimit();
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void risingLatencyLowersTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 20, 1, 20);
+        for (int round = 0; round < 5; round++) {
+            runAtLimit(limiter, FAST);
+        }
+        int before = limiter.getLimit();
+
+        for (int round = 0; round < 5; round++) {
+            runAtLimit(limiter, SLOW);
+        }
+        assertTrue(limiter.getLimit() < before, limiter.getLimit() + " >= " + before);
+    }
+
+    @Test
+    void lowUtilizationKeepsTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("catalog", 10, 1, 100);
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limiter.tryAcquire());
+            assertTrue(limiter.tryAcquire());
+            limiter.release(i % 2 == 0 ? FAST : SLOW, false);
+            limiter.release(FAST, false);
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void invalidBoundsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter("x", 5, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter("x", 5, 6, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter("x", 11, 1, 10));
+    }
+
+    /**
+     * Ocupa todo el límite y libera cada petición con la latencia indicada.
+     */
+    private static void runAtLimit(AdaptiveConcurrencyLimiter limiter, long rtt) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rtt, false);
+        }
+    }
+}
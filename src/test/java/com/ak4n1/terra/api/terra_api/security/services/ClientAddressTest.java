@@ -0,0 +1,73 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientAddressTest {
+
+    @Test
+    void parsesIpv4WithPortAndSpaces() {
+        assertEquals("192.168.1.20", ClientAddress.parse("192.168.1.20").toString());
+        assertEquals("192.168.1.20", ClientAddress.parse("192.168.1.20:8080").toString());
+        assertEquals("10.0.0.1", ClientAddress.parse("  10.0.0.1 ").toString());
+        assertTrue(ClientAddress.parse("10.0.0.1").isIpv4());
+    }
+
+    @Test
+    void ipv4MappedIpv6IsTheSameClient() {
+        ClientAddress v4 = ClientAddress.parse("1.2.3.4");
+        ClientAddress mapped = ClientAddress.parse("::ffff:1.2.3.4");
+
+        assertEquals(v4, mapped);
+        assertEquals(v4.hashCode(), mapped.hashCode());
+        assertTrue(mapped.isIpv4());
+    }
+
+    @Test
+    void parsesIpv6Forms() {
+        assertEquals("0:0:0:0:0:0:0:1", ClientAddress.parse("::1").toString());
+        assertEquals("0:0:0:0:0:0:0:1", ClientAddress.parse("[::1]:443").toString());
+        assertEquals("fe80:0:0:0:0:0:0:1", ClientAddress.parse("fe80::1%eth0").toString());
+        assertEquals("2001:db8:0:0:0:0:0:0", ClientAddress.parse("2001:db8::").toString());
+        assertEquals("1:2:3:4:5:6:102:304", ClientAddress.parse("1:2:3:4:5:6:1.2.3.4").toString());
+        assertEquals(ClientAddress.parse("2001:0db8:0000:0000:0000:0000:0000:0001"), ClientAddress.parse("2001:db8::1"));
+        assertFalse(ClientAddress.parse("2001:db8::1").isIpv4());
+    }
+
+    @Test
+    void invalidTextIsUnknown() {
+        for (String value : new String[]{null, "", "unknown", "1.2.3", "1.2.3.4.5", "256.1.1.1",
+                "1:2:3:4:5:6:7:8:9", ":1::", "1::2::3", "12345::", "1:2:3:4:5:6:7:1.2.3.4", "[::1", "host.example"}) {
+            assertSame(ClientAddress.UNKNOWN, ClientAddress.parse(value), String.valueOf(value));
+        }
+    }
+
+    @Test
+    void parsesARangeWithoutSubstrings() {
+        String forwarded = "203.0.113.7, 10.0.0.1";
+
+        assertEquals(ClientAddress.parse("203.0.113.7"), ClientAddress.parse(forwarded, 0, forwarded.indexOf(',')));
+        assertEquals(ClientAddress.parse("10.0.0.1"), ClientAddress.parse(forwarded, forwarded.indexOf(',') + 1, forwarded.length()));
+    }
+
+    @Test
+    void networkBitsKeepOnlyThePrefix() {
+        ClientAddress v4 = ClientAddress.parse("203.0.113.77");
+        int prefix = v4.prefixBits(24, 64);
+
+        assertEquals(120, prefix);
+        assertEquals(ClientAddress.parse("203.0.113.0").getLow(), v4.getLow(prefix));
+        assertEquals(v4.getHigh(), v4.getHigh(prefix));
+
+        ClientAddress v6 = ClientAddress.parse("2001:db8:1:2:aaaa::1");
+        assertEquals(64, v6.prefixBits(24, 64));
+        assertEquals(0L, v6.getLow(64));
+        assertEquals(v6.getHigh(), v6.getHigh(64));
+        assertNotEquals(v6.getHigh(), v6.getHigh(32));
+    }
+}
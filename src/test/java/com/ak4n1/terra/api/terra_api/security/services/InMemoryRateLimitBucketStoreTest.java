@@ -0,0 +1,133 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import com.ak4n1.terra.api.terra_api.security.config.RateLimitConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryRateLimitBucketStoreTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(15);
+    private static final BucketConfiguration THREE_PER_WINDOW = limit(3, WINDOW);
+
+    private final InMemoryRateLimitBucketStore store = createStore(1000, new SimpleMeterRegistry());
+
+    @Test
+    void newBucketStartsFullAndRejectsOnceEmpty() {
+        RateLimitKey key = new RateLimitKey(1, ClientAddress.parse("198.51.100.1"), 128);
+
+        assertEquals(2, store.tryConsume(key, THREE_PER_WINDOW, WINDOW).getRemainingTokens());
+        assertEquals(1, store.tryConsume(key, THREE_PER_WINDOW, WINDOW).getRemainingTokens());
+        assertEquals(0, store.tryConsume(key, THREE_PER_WINDOW, WINDOW).getRemainingTokens());
+
+        ConsumptionProbe rejected = store.tryConsume(key, THREE_PER_WINDOW, WINDOW);
+        assertFalse(rejected.isConsumed());
+        assertTrue(rejected.getNanosToWaitForRefill() > 0 && rejected.getNanosToWaitForRefill() <= WINDOW.toNanos());
+        assertEquals(1, store.getBucketCount());
+    }
+
+    @Test
+    void limitsAddressesAndNetworksHaveTheirOwnBuckets() {
+        ClientAddress first = ClientAddress.parse("198.51.100.1");
+        ClientAddress neighbour = ClientAddress.parse("198.51.100.2");
+        int network = first.prefixBits(24, 64);
+
+        exhaust(new RateLimitKey(1, first, 128));
+
+        assertTrue(store.tryConsume(new RateLimitKey(2, first, 128), THREE_PER_WINDOW, WINDOW).isConsumed());
+        assertTrue(store.tryConsume(new RateLimitKey(1, neighbour, 128), THREE_PER_WINDOW, WINDOW).isConsumed());
+        assertTrue(store.tryConsume(new RateLimitKey(1, first, network), THREE_PER_WINDOW, WINDOW).isConsumed());
+        assertTrue(store.tryConsume(RateLimitKey.forPrincipal(1, "198.51.100.1"), THREE_PER_WINDOW, WINDOW).isConsumed());
+        // Dos IPs de la misma red comparten el bucket de la red
+        assertEquals(1, store.tryConsume(new RateLimitKey(1, neighbour, network), THREE_PER_WINDOW, WINDOW).getRemainingTokens());
+    }
+
+    @Test
+    void refundGivesTheTokenBackWithoutCreatingBuckets() {
+        RateLimitKey key = RateLimitKey.forPrincipal(7, "player");
+        exhaust(key);
+
+        store.refund(key, THREE_PER_WINDOW, WINDOW);
+        assertTrue(store.tryConsume(key, THREE_PER_WINDOW, WINDOW).isConsumed());
+        assertFalse(store.tryConsume(key, THREE_PER_WINDOW, WINDOW).isConsumed());
+
+        store.refund(RateLimitKey.forPrincipal(7, "nobody"), THREE_PER_WINDOW, WINDOW);
+        assertEquals(1, store.getBucketCount());
+    }
+
+    @Test
+    void refundNeverGoesOverTheCapacity() {
+        RateLimitKey key = new RateLimitKey(1, ClientAddress.parse("2001:db8::1"), 128);
+        store.tryConsume(key, THREE_PER_WINDOW, WINDOW);
+
+        store.refund(key, THREE_PER_WINDOW, WINDOW);
+        store.refund(key, THREE_PER_WINDOW, WINDOW);
+
+        assertEquals(2, store.tryConsume(key, THREE_PER_WINDOW, WINDOW).getRemainingTokens());
+    }
+
+    @Test
+    void unusedBucketsExpireAfterTheirWindow() throws InterruptedException {
+        Duration shortWindow = Duration.ofMillis(50);
+        BucketConfiguration shortLimit = limit(1, shortWindow);
+        RateLimitKey shortKey = new RateLimitKey(1, ClientAddress.parse("198.51.100.1"), 128);
+        RateLimitKey longKey = new RateLimitKey(1, ClientAddress.parse("198.51.100.2"), 128);
+        store.tryConsume(shortKey, shortLimit, shortWindow);
+        store.tryConsume(longKey, THREE_PER_WINDOW, WINDOW);
+
+        Thread.sleep(200);
+
+        // Caffeine retira las entradas vencidas en su próximo mantenimiento, pero ya no las entrega
+        assertFalse(cache().asMap().containsKey(shortKey));
+        assertTrue(cache().asMap().containsKey(longKey));
+        assertTrue(store.tryConsume(shortKey, shortLimit, shortWindow).isConsumed());
+    }
+
+    @Test
+    void sizeIsBoundedAndPublished() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InMemoryRateLimitBucketStore small = createStore(50, meterRegistry);
+        for (int i = 0; i < 1000; i++) {
+            small.tryConsume(new RateLimitKey(1, ClientAddress.parse("10.0." + (i >> 8) + "." + (i & 0xFF)), 128),
+                    THREE_PER_WINDOW, WINDOW);
+        }
+        ((Cache<?, ?>) ReflectionTestUtils.getField(small, "buckets")).cleanUp();
+
+        assertTrue(small.getBucketCount() <= 50, "buckets: " + small.getBucketCount());
+        assertEquals(small.getBucketCount(),
+                meterRegistry.get("cache.size").tag("cache", "rateLimitBuckets").gauge().value(), 0.0);
+        assertTrue(meterRegistry.get("cache.evictions").tag("cache", "rateLimitBuckets").functionCounter().count() > 0);
+    }
+
+    private void exhaust(RateLimitKey key) {
+        while (store.tryConsume(key, THREE_PER_WINDOW, WINDOW).isConsumed()) {
+            // vaciar el bucket
+        }
+    }
+
+    private Cache<?, ?> cache() {
+        return (Cache<?, ?>) ReflectionTestUtils.getField(store, "buckets");
+    }
+
+    private static InMemoryRateLimitBucketStore createStore(long maxEntries, SimpleMeterRegistry meterRegistry) {
+        RateLimitConfig config = new RateLimitConfig();
+        ReflectionTestUtils.setField(config, "storeMaxEntries", maxEntries);
+        return new InMemoryRateLimitBucketStore(config, meterRegistry);
+    }
+
+    private static BucketConfiguration limit(int capacity, Duration window) {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder().capacity(capacity).refillIntervally(capacity, window).build())
+                .build();
+    }
+}
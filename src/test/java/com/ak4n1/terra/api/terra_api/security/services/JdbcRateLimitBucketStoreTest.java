@@ -0,0 +1,241 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import com.ak4n1.terra.api.terra_api.security.config.RateLimitConfig;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Secuencia de sentencias de cada consumo contra un JdbcTemplate simulado: las
+ * respuestas de MariaDB (filas afectadas, clave generada, filas leídas) se programan
+ * por sentencia.
+ */
+class JdbcRateLimitBucketStoreTest {
+
+    private static final String INSERT = "INSERT IGNORE";
+    private static final String REFUND = "UPDATE rate_limit_bucket SET tokens = LEAST";
+    private static final String SELECT = "SELECT tokens, expires_at";
+    private static final Duration WINDOW = Duration.ofMinutes(15);
+    private static final BucketConfiguration FIVE_PER_WINDOW = BucketConfiguration.builder()
+            .addLimit(Bandwidth.builder().capacity(5).refillIntervally(5, WINDOW).build())
+            .build();
+
+    private final RateLimitKey key = new RateLimitKey(42, ClientAddress.parse("198.51.100.1"), 128);
+    private JdbcTemplate jdbc;
+    private JdbcRateLimitBucketStore store;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        RateLimitConfig config = new RateLimitConfig();
+        ReflectionTestUtils.setField(config, "storeMaxEntries", 1000L);
+        // La primera limpieza corre al crear el store; la siguiente, nunca dentro del test
+        ReflectionTestUtils.setField(config, "jdbcCleanupIntervalSeconds", 3600L);
+        store = new JdbcRateLimitBucketStore(jdbc, config, new SimpleMeterRegistry());
+        // Esperar a que termine esa limpieza: programar el mock mientras otro hilo lo usa no es seguro
+        verify(jdbc, timeout(5000)).queryForObject(startsWith("SELECT COUNT"), eq(Long.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void allowedRequestIsOneConditionalUpdate() throws Exception {
+        consumeUpdateReturns(1, 3L);
+
+        long before = System.currentTimeMillis();
+        ConsumptionProbe probe = store.tryConsume(key, FIVE_PER_WINDOW, WINDOW);
+        long after = System.currentTimeMillis();
+
+        assertTrue(probe.isConsumed());
+        assertEquals(3, probe.getRemainingTokens());
+        verify(jdbc, never()).query(anyString(), any(RowMapper.class), any(Object[].class));
+        verify(jdbc, never()).update(startsWith(INSERT), any(Object[].class));
+
+        // Parámetros del UPDATE: ahora, capacidad, ahora, fin de la ventana nueva, clave, ahora
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbc).update(creator.capture(), any(KeyHolder.class));
+        Connection connection = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(ps);
+        creator.getValue().createPreparedStatement(connection);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture(), eq(Statement.RETURN_GENERATED_KEYS));
+        assertTrue(sql.getValue().contains("LAST_INSERT_ID") && sql.getValue().contains("WHERE bucket_key = ?"), sql.getValue());
+        ArgumentCaptor<Long> now = ArgumentCaptor.forClass(Long.class);
+        verify(ps).setLong(eq(1), now.capture());
+        assertTrue(now.getValue() >= before && now.getValue() <= after);
+        verify(ps).setLong(2, 5L);
+        verify(ps).setLong(3, now.getValue());
+        verify(ps).setLong(4, now.getValue() + WINDOW.toMillis());
+        verify(ps).setBytes(5, key.toBytes());
+        verify(ps).setLong(6, now.getValue());
+    }
+
+    @Test
+    void lastTokenMayComeWithoutGeneratedKey() {
+        consumeUpdateReturns(1, null);
+
+        ConsumptionProbe probe = store.tryConsume(key, FIVE_PER_WINDOW, WINDOW);
+
+        assertTrue(probe.isConsumed());
+        assertEquals(0, probe.getRemainingTokens());
+    }
+
+    @Test
+    void missingBucketIsInsertedWithOneTokenTaken() {
+        consumeUpdateReturns(0, null);
+        selectReturns(List.of());
+        when(jdbc.update(startsWith(INSERT), any(Object[].class))).thenReturn(1);
+
+        ConsumptionProbe probe = store.tryConsume(key, FIVE_PER_WINDOW, WINDOW);
+
+        assertTrue(probe.isConsumed());
+        assertEquals(4, probe.getRemainingTokens());
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbc).update(startsWith(INSERT), args.capture());
+        Object[] values = args.getValue();
+        assertEquals(4L, values[1]);
+        assertTrue((Long) values[2] > System.currentTimeMillis() + WINDOW.toMillis() - 60_000);
+    }
+
+    @Test
+    void ignoredInsertRetriesTheUpdate() {
+        // Otro nodo creó la fila entre el SELECT y el INSERT
+        doAnswer(generatedKey(0, null)).doAnswer(generatedKey(1, 2L))
+                .when(jdbc).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+        selectReturns(List.of());
+        when(jdbc.update(startsWith(INSERT), any(Object[].class))).thenReturn(0);
+
+        ConsumptionProbe probe = store.tryConsume(key, FIVE_PER_WINDOW, WINDOW);
+
+        assertTrue(probe.isConsumed());
+        assertEquals(2, probe.getRemainingTokens());
+        verify(jdbc, times(2)).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+    }
+
+    @Test
+    void emptyBucketIsRejectedUntilItsWindowEnds() {
+        consumeUpdateReturns(0, null);
+        long expiresAt = System.currentTimeMillis() + 90_000;
+        selectReturns(List.<long[]>of(new long[] { 0, expiresAt }));
+
+        ConsumptionProbe probe = store.tryConsume(key, FIVE_PER_WINDOW, WINDOW);
+
+        assertFalse(probe.isConsumed());
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(probe.getNanosToWaitForRefill());
+        assertTrue(waitMillis > 80_000 && waitMillis <= 90_000, "espera " + waitMillis);
+        verify(jdbc, never()).update(startsWith(INSERT), any(Object[].class));
+    }
+
+    @Test
+    void persistentRaceRejectsAfterTheLastAttempt() {
+        // La fila tiene tokens pero el UPDATE nunca la encuentra: otro nodo la borra y recrea
+        consumeUpdateReturns(0, null);
+        selectReturns(List.<long[]>of(new long[] { 3, System.currentTimeMillis() + 90_000 }));
+
+        ConsumptionProbe probe = store.tryConsume(key, FIVE_PER_WINDOW, WINDOW);
+
+        assertFalse(probe.isConsumed());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), probe.getNanosToWaitForRefill());
+        verify(jdbc, times(3)).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+    }
+
+    @Test
+    void refundAddsATokenUpToTheCapacity() {
+        store.refund(key, FIVE_PER_WINDOW, WINDOW);
+
+        verify(jdbc).update(startsWith(REFUND), eq(5L), eq(key.toBytes()), anyLong());
+    }
+
+    @Test
+    void unavailableDatabaseFallsBackToTheNodeBuckets() {
+        doThrow(new CannotGetJdbcConnectionException("Connection refused"))
+                .when(jdbc).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+        doThrow(new QueryTimeoutException("timeout")).when(jdbc).update(startsWith(REFUND), any(Object[].class));
+
+        for (int remaining = 4; remaining >= 0; remaining--) {
+            assertEquals(remaining, store.tryConsume(key, FIVE_PER_WINDOW, WINDOW).getRemainingTokens());
+        }
+        assertFalse(store.tryConsume(key, FIVE_PER_WINDOW, WINDOW).isConsumed());
+
+        // La devolución también va a memoria
+        store.refund(key, FIVE_PER_WINDOW, WINDOW);
+        assertTrue(store.tryConsume(key, FIVE_PER_WINDOW, WINDOW).isConsumed());
+        assertTrue((Boolean) ReflectionTestUtils.getField(store, "degraded"));
+    }
+
+    @Test
+    void sharedBucketsAreUsedAgainOnceTheDatabaseAnswers() {
+        doThrow(new CannotGetJdbcConnectionException("Connection refused"))
+                .doAnswer(generatedKey(1, 4L))
+                .when(jdbc).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+
+        assertEquals(4, store.tryConsume(key, FIVE_PER_WINDOW, WINDOW).getRemainingTokens());
+        assertTrue((Boolean) ReflectionTestUtils.getField(store, "degraded"));
+
+        assertEquals(4, store.tryConsume(key, FIVE_PER_WINDOW, WINDOW).getRemainingTokens());
+        assertFalse((Boolean) ReflectionTestUtils.getField(store, "degraded"));
+    }
+
+    private void consumeUpdateReturns(int updated, Long remaining) {
+        doAnswer(generatedKey(updated, remaining))
+                .when(jdbc).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+    }
+
+    private static Answer<Integer> generatedKey(int updated, Long remaining) {
+        return invocation -> {
+            if (remaining != null) {
+                KeyHolder keyHolder = invocation.getArgument(1);
+                keyHolder.getKeyList().add(Map.of("GENERATED_KEY", remaining));
+            }
+            return updated;
+        };
+    }
+
+    private void selectReturns(List<long[]> rows) {
+        doReturn(rows).when(jdbc).query(startsWith(SELECT), any(RowMapper.class), any(Object[].class));
+    }
+}
@@ -0,0 +1,65 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class RateLimitKeyTest {
+
+    private static final int LOGIN = "login".hashCode();
+    private static final int REGISTER = "register".hashCode();
+
+    @Test
+    void sameAddressAndLimitIsTheSameKey() {
+        RateLimitKey a = new RateLimitKey(LOGIN, ClientAddress.parse("1.2.3.4"), 128);
+        RateLimitKey b = new RateLimitKey(LOGIN, ClientAddress.parse("::ffff:1.2.3.4"), 128);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertArrayEquals(a.toBytes(), b.toBytes());
+    }
+
+    @Test
+    void limitAndAddressSeparateKeys() {
+        ClientAddress client = ClientAddress.parse("1.2.3.4");
+
+        assertNotEquals(new RateLimitKey(LOGIN, client, 128), new RateLimitKey(REGISTER, client, 128));
+        assertNotEquals(new RateLimitKey(LOGIN, client, 128), new RateLimitKey(LOGIN, ClientAddress.parse("1.2.3.5"), 128));
+    }
+
+    @Test
+    void subnetKeysGroupTheWholeNetwork() {
+        ClientAddress a = ClientAddress.parse("203.0.113.7");
+        ClientAddress b = ClientAddress.parse("203.0.113.250");
+        ClientAddress other = ClientAddress.parse("203.0.114.7");
+        int prefix = a.prefixBits(24, 64);
+
+        assertEquals(new RateLimitKey(LOGIN, a, prefix), new RateLimitKey(LOGIN, b, prefix));
+        assertNotEquals(new RateLimitKey(LOGIN, a, prefix), new RateLimitKey(LOGIN, other, prefix));
+        // La red y la dirección exacta nunca comparten bucket
+        assertNotEquals(new RateLimitKey(LOGIN, ClientAddress.parse("203.0.113.0"), 128),
+                new RateLimitKey(LOGIN, a, prefix));
+    }
+
+    @Test
+    void principalKeysAreStableAndApartFromAddresses() {
+        RateLimitKey user = RateLimitKey.forPrincipal(LOGIN, "player@example.com");
+
+        assertEquals(user, RateLimitKey.forPrincipal(LOGIN, "player@example.com"));
+        assertNotEquals(user, RateLimitKey.forPrincipal(LOGIN, "other@example.com"));
+        assertNotEquals(user, RateLimitKey.forPrincipal(REGISTER, "player@example.com"));
+        assertEquals(255, user.getPrefixBits());
+    }
+
+    @Test
+    void bytesEncodeLimitPrefixAndAddress() {
+        byte[] bytes = new RateLimitKey(0x01020304, ClientAddress.parse("10.0.0.1"), 128).toBytes();
+
+        assertEquals(RateLimitKey.BYTES, bytes.length);
+        assertArrayEquals(new byte[]{1, 2, 3, 4, (byte) 128}, java.util.Arrays.copyOf(bytes, 5));
+        assertArrayEquals(new byte[]{0, 0, (byte) 0xFF, (byte) 0xFF, 10, 0, 0, 1},
+                java.util.Arrays.copyOfRange(bytes, 13, 21));
+    }
+}
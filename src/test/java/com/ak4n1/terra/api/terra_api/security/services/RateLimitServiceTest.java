@@ -0,0 +1,212 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import com.ak4n1.terra.api.terra_api.security.config.RateLimitConfig;
+import com.ak4n1.terra.api.terra_api.security.config.RateLimitConfig.PolicyKey;
+import com.ak4n1.terra.api.terra_api.security.config.RateLimitConfig.PolicyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitServiceTest {
+
+    private final RateLimitService service = createService();
+
+    @Test
+    void directClientsCannotChooseTheirAddress() {
+        assertEquals("203.0.113.9", clientOf("203.0.113.9", "198.51.100.1", "198.51.100.2"));
+    }
+
+    @Test
+    void trustedProxyForwardsTheRightmostUntrustedAddress() {
+        assertEquals("198.51.100.2", clientOf("127.0.0.1", "6.6.6.6, 198.51.100.2", null));
+        assertEquals("198.51.100.2", clientOf("127.0.0.1", "6.6.6.6, 198.51.100.2, 10.0.0.5", null));
+    }
+
+    @Test
+    void unparseableHopStopsAtTheLastVerifiedAddress() {
+        assertEquals("10.0.0.5", clientOf("127.0.0.1", "garbage, 10.0.0.5", null));
+    }
+
+    @Test
+    void realIpIsUsedOnlyWithoutForwardedFor() {
+        assertEquals("198.51.100.7", clientOf("127.0.0.1", null, "198.51.100.7"));
+        assertEquals("198.51.100.2", clientOf("127.0.0.1", "198.51.100.2", "198.51.100.7"));
+        assertEquals("127.0.0.1", clientOf("127.0.0.1", null, null));
+    }
+
+    @Test
+    void repeatedForwardedForHeadersAreReadAsOneList() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("127.0.0.1");
+        request.addHeader("X-Forwarded-For", "6.6.6.6");
+        request.addHeader("X-Forwarded-For", "198.51.100.4, 10.0.0.9");
+
+        assertEquals("198.51.100.4", service.getClientAddress(request).toString());
+        assertEquals("198.51.100.4", service.getClientIp(request));
+    }
+
+    @Test
+    void unparseableHopInAnEarlierHeaderOnlyHidesWhatIsBeforeIt() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("127.0.0.1");
+        request.addHeader("X-Forwarded-For", "6.6.6.6, garbage");
+        request.addHeader("X-Forwarded-For", "10.0.0.7, 10.0.0.9");
+
+        assertEquals("10.0.0.7", service.getClientAddress(request).toString());
+    }
+
+    @Test
+    void forwardedForMatchesARightToLeftWalk() {
+        String[] hops = {"198.51.100.1", "198.51.100.2", "2001:db8::5", "10.0.0.1", "10.1.2.3", "127.0.0.1", "::1",
+                "garbage", "", " 203.0.113.4 "};
+        Random random = new Random(21);
+        for (int i = 0; i < 5000; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setRemoteAddr(random.nextBoolean() ? "127.0.0.1" : "10.0.0.2");
+            List<String> headers = new ArrayList<>();
+            for (int h = random.nextInt(3) + 1; h > 0; h--) {
+                StringBuilder header = new StringBuilder();
+                for (int n = random.nextInt(4) + 1; n > 0; n--) {
+                    header.append(header.length() == 0 ? "" : ",").append(hops[random.nextInt(hops.length)]);
+                }
+                headers.add(header.toString());
+                request.addHeader("X-Forwarded-For", header.toString());
+            }
+
+            assertEquals(rightToLeft(request.getRemoteAddr(), headers), service.getClientAddress(request).toString(),
+                    headers.toString());
+        }
+    }
+
+    @Test
+    void forwardedForFromAnUntrustedConnectionIsIgnoredAndReported() {
+        assertFalse((Boolean) ReflectionTestUtils.getField(service, "untrustedForwardWarned"));
+        assertEquals("203.0.113.9", clientOf("203.0.113.9", null, null));
+        assertFalse((Boolean) ReflectionTestUtils.getField(service, "untrustedForwardWarned"));
+
+        assertEquals("203.0.113.9", clientOf("203.0.113.9", "198.51.100.1", null));
+        assertTrue((Boolean) ReflectionTestUtils.getField(service, "untrustedForwardWarned"));
+    }
+
+    @Test
+    void subnetPrefixMustBeWiderThanOneAddress() {
+        for (Object[] prefixes : new Object[][] { {32, 64}, {24, 128}, {0, 64}, {24, 0}, {33, 64} }) {
+            RateLimitConfig config = createConfig(Map.of());
+            ReflectionTestUtils.setField(config, "subnetIpv4Prefix", prefixes[0]);
+            ReflectionTestUtils.setField(config, "subnetIpv6Prefix", prefixes[1]);
+            InMemoryRateLimitBucketStore store = new InMemoryRateLimitBucketStore(config, new SimpleMeterRegistry());
+
+            IllegalStateException error = assertThrows(IllegalStateException.class, () -> new RateLimitService(config, store));
+            assertTrue(error.getMessage().contains("rate.limit.subnet"), error.getMessage());
+
+            // Sin límite por red los prefijos no se usan
+            ReflectionTestUtils.setField(config, "subnetEnabled", false);
+            new RateLimitService(config, store);
+        }
+    }
+
+    @Test
+    void rejectedPrincipalGivesBackTheAddressToken() {
+        RateLimitPolicy policy = service.resolvePolicy("POST", "/api/game/codes");
+        ClientAddress client = ClientAddress.parse("198.51.100.1");
+
+        // El usuario agota su bucket desde otra IP
+        assertTrue(service.tryConsume(policy, ClientAddress.parse("198.51.100.99"), "player").isConsumed());
+        assertTrue(service.tryConsume(policy, ClientAddress.parse("198.51.100.99"), "player").isConsumed());
+        assertFalse(service.tryConsume(policy, client, "player").isConsumed());
+
+        // Los rechazos no consumieron los tokens de la IP
+        assertEquals(1, service.tryConsume(policy, client, "other").getRemainingTokens());
+        assertEquals(0, service.tryConsume(policy, client, "other").getRemainingTokens());
+        assertFalse(service.tryConsume(policy, client, "other").isConsumed());
+    }
+
+    @Test
+    void policiesWithTheSameIdFailAtStartup() {
+        // "Aa" y "BB" tienen el mismo hashCode
+        PolicyProperties first = new PolicyProperties();
+        first.setPatterns(new ArrayList<>(List.of("/a")));
+        first.setAttempts(1);
+        PolicyProperties second = new PolicyProperties();
+        second.setPatterns(new ArrayList<>(List.of("/b")));
+        second.setAttempts(1);
+        RateLimitConfig config = createConfig(Map.of("Aa", first, "BB", second));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> new RateLimitService(config, new InMemoryRateLimitBucketStore(config, new SimpleMeterRegistry())));
+        assertTrue(error.getMessage().contains("'Aa'") && error.getMessage().contains("'BB'"), error.getMessage());
+    }
+
+    /**
+     * Recorrido de referencia: de derecha a izquierda, la primera dirección ajena; un
+     * salto ilegible corta el recorrido en el último salto válido.
+     */
+    private static String rightToLeft(String remoteAddr, List<String> headers) {
+        TrustedProxies trusted = TrustedProxies.parse("127.0.0.1,::1,10.0.0.0/8");
+        ClientAddress client = ClientAddress.parse(remoteAddr);
+        for (int h = headers.size() - 1; h >= 0; h--) {
+            String[] hops = headers.get(h).split(",", -1);
+            for (int i = hops.length - 1; i >= 0; i--) {
+                ClientAddress hop = ClientAddress.parse(hops[i]);
+                if (hop == ClientAddress.UNKNOWN) {
+                    return client.toString();
+                }
+                if (!trusted.contains(hop)) {
+                    return hop.toString();
+                }
+                client = hop;
+            }
+        }
+        return client.toString();
+    }
+
+    private String clientOf(String remoteAddr, String forwardedFor, String realIp) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        if (realIp != null) {
+            request.addHeader("X-Real-IP", realIp);
+        }
+        return service.getClientAddress(request).toString();
+    }
+
+    private static RateLimitService createService() {
+        PolicyProperties codes = new PolicyProperties();
+        codes.setPatterns(new ArrayList<>(List.of("/api/game/codes")));
+        codes.setKey(PolicyKey.IP_AND_PRINCIPAL);
+        codes.setAttempts(2);
+        codes.setWindow(Duration.ofMinutes(15));
+        RateLimitConfig config = createConfig(Map.of("codes", codes));
+        return new RateLimitService(config, new InMemoryRateLimitBucketStore(config, new SimpleMeterRegistry()));
+    }
+
+    private static RateLimitConfig createConfig(Map<String, PolicyProperties> policies) {
+        RateLimitConfig config = new RateLimitConfig();
+        for (String endpoint : new String[]{"login", "refresh", "register", "resetPassword"}) {
+            ReflectionTestUtils.setField(config, endpoint + "Attempts", 5);
+            ReflectionTestUtils.setField(config, endpoint + "WindowMinutes", 15);
+        }
+        ReflectionTestUtils.setField(config, "storeMaxEntries", 1000L);
+        ReflectionTestUtils.setField(config, "subnetEnabled", true);
+        ReflectionTestUtils.setField(config, "subnetMultiplier", 2);
+        ReflectionTestUtils.setField(config, "subnetIpv4Prefix", 24);
+        ReflectionTestUtils.setField(config, "subnetIpv6Prefix", 64);
+        ReflectionTestUtils.setField(config, "trustedProxies", "127.0.0.1,::1,10.0.0.0/8");
+        ReflectionTestUtils.setField(config, "policies", policies);
+        return config;
+    }
+}
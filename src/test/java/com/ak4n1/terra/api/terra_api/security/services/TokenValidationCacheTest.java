@@ -0,0 +1,108 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TokenValidationCacheTest {
+
+    private static final String EMAIL = "player@example.com";
+    private static final List<GrantedAuthority> ROLES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final TokenValidationCache cache = new TokenValidationCache(true, 100, 30, new SimpleMeterRegistry());
+
+    @Test
+    void validatedTokenIsServedFromTheCache() {
+        cache.put("token", EMAIL, ROLES, inOneHour(), cache.getVersion(EMAIL));
+
+        TokenValidationCache.ValidatedToken validated = cache.get("token");
+        assertNotNull(validated);
+        assertEquals(EMAIL, validated.getEmail());
+        assertEquals(ROLES, validated.getAuthorities());
+    }
+
+    @Test
+    void invalidatingTheAccountDropsAllItsTokens() {
+        long version = cache.getVersion(EMAIL);
+        cache.put("first", EMAIL, ROLES, inOneHour(), version);
+        cache.put("second", EMAIL, ROLES, inOneHour(), version);
+        cache.put("other", "other@example.com", ROLES, inOneHour(), cache.getVersion("other@example.com"));
+
+        cache.invalidateAccount(EMAIL);
+
+        assertNull(cache.get("first"));
+        assertNull(cache.get("second"));
+        assertNotNull(cache.get("other"));
+    }
+
+    @Test
+    void resultReadBeforeAnInvalidationIsNotCached() {
+        long version = cache.getVersion(EMAIL);
+        // Otra petición invalida la cuenta mientras esta consulta la base
+        cache.invalidateAccount(EMAIL);
+        cache.put("token", EMAIL, ROLES, inOneHour(), version);
+
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    void invalidationIsRepeatedWhenTheTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidateAccount(EMAIL);
+            // Lectura concurrente de la base antes del commit: ve el token todavía activo
+            long version = cache.getVersion(EMAIL);
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+            cache.put("token", EMAIL, ROLES, inOneHour(), version);
+
+            assertNull(cache.get("token"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void logoutDropsTheTokenAndTheAccountEntries() {
+        long version = cache.getVersion(EMAIL);
+        cache.put("logout", EMAIL, ROLES, inOneHour(), version);
+        cache.put("other-device", EMAIL, ROLES, inOneHour(), version);
+
+        cache.invalidateToken("logout");
+
+        assertNull(cache.get("logout"));
+        assertNull(cache.get("other-device"));
+        // Un token desconocido y sin firma válida no falla
+        cache.invalidateToken("not-a-jwt");
+    }
+
+    @Test
+    void expiredTokensAreNotServed() {
+        cache.put("expired", EMAIL, ROLES, System.currentTimeMillis() - 1, cache.getVersion(EMAIL));
+
+        assertNull(cache.get("expired"));
+    }
+
+    @Test
+    void disabledCacheKeepsNothing() {
+        TokenValidationCache disabled = new TokenValidationCache(false, 100, 30, new SimpleMeterRegistry());
+        disabled.put("token", EMAIL, ROLES, inOneHour(), disabled.getVersion(EMAIL));
+
+        assertNull(disabled.get("token"));
+    }
+
+    private static long inOneHour() {
+        return System.currentTimeMillis() + 3_600_000;
+    }
+}
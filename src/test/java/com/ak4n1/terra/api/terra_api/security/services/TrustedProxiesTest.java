@@ -0,0 +1,43 @@
+package com.ak4n1.terra.api.terra_api.security.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrustedProxiesTest {
+
+    private final TrustedProxies proxies = TrustedProxies.parse("127.0.0.1, ::1, 10.0.0.0/8, fd00::/8");
+
+    @Test
+    void matchesAddressesAndNetworks() {
+        assertTrue(proxies.contains(ClientAddress.parse("127.0.0.1")));
+        assertTrue(proxies.contains(ClientAddress.parse("::1")));
+        assertTrue(proxies.contains(ClientAddress.parse("10.20.30.40")));
+        assertTrue(proxies.contains(ClientAddress.parse("::ffff:10.1.1.1")));
+        assertTrue(proxies.contains(ClientAddress.parse("fd12::1")));
+    }
+
+    @Test
+    void rejectsEverythingElse() {
+        assertFalse(proxies.contains(ClientAddress.parse("127.0.0.2")));
+        assertFalse(proxies.contains(ClientAddress.parse("11.0.0.1")));
+        assertFalse(proxies.contains(ClientAddress.parse("fe00::1")));
+        assertFalse(proxies.contains(ClientAddress.UNKNOWN));
+    }
+
+    @Test
+    void emptyListTrustsNoOne() {
+        assertFalse(TrustedProxies.parse("").contains(ClientAddress.parse("127.0.0.1")));
+        assertFalse(TrustedProxies.parse(null).contains(ClientAddress.parse("127.0.0.1")));
+    }
+
+    @Test
+    void invalidEntriesFailFast() {
+        assertThrows(IllegalStateException.class, () -> TrustedProxies.parse("proxy.local"));
+        assertThrows(IllegalStateException.class, () -> TrustedProxies.parse("10.0.0.0/33"));
+        assertThrows(IllegalStateException.class, () -> TrustedProxies.parse("fd00::/129"));
+        assertThrows(IllegalStateException.class, () -> TrustedProxies.parse("10.0.0.0/x"));
+    }
+}
@@ -0,0 +1,159 @@
+package com.ak4n1.terra.api.terra_api.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHittersTest {
+
+    @Test
+    void countsAreExactBelowCapacity() {
+        HeavyHitters<String> hitters = new HeavyHitters<>(10, 1);
+        add(hitters, "a", 5);
+        add(hitters, "b", 3);
+        add(hitters, "c", 1);
+
+        List<HeavyHitters.Entry<String>> top = hitters.top(2);
+        assertEquals(2, top.size());
+        assertEquals("a", top.get(0).getKey());
+        assertEquals(5, top.get(0).getCount());
+        assertEquals(0, top.get(0).getError());
+        assertEquals("b", top.get(1).getKey());
+        assertEquals(9, hitters.getTotal());
+    }
+
+    @Test
+    void dominantKeysSurviveEvictionWithBoundedError() {
+        HeavyHitters<String> hitters = new HeavyHitters<>(20, 1);
+        Map<String, Integer> real = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            // Un atacante con el 10% del tráfico entre miles de IPs de una sola petición
+            String key = i % 10 == 0 ? "attacker" : "ip-" + random.nextInt(5_000);
+            hitters.add(key);
+            real.merge(key, 1, Integer::sum);
+        }
+
+        List<HeavyHitters.Entry<String>> top = hitters.top(20);
+        assertEquals("attacker", top.get(0).getKey());
+        for (HeavyHitters.Entry<String> entry : top) {
+            int count = real.get(entry.getKey());
+            assertTrue(entry.getCount() >= count, entry.getKey());
+            assertTrue(entry.getCount() - entry.getError() <= count, entry.getKey());
+        }
+        assertEquals(20_000, hitters.getTotal());
+    }
+
+    @Test
+    void stripesAreMergedAcrossThreads() throws InterruptedException {
+        HeavyHitters<String> hitters = new HeavyHitters<>(10, 4);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                add(hitters, "shared", 1_000);
+                add(hitters, Thread.currentThread().getName(), 10);
+            }, "worker-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        HeavyHitters.Entry<String> first = hitters.top(1).get(0);
+        assertEquals("shared", first.getKey());
+        assertEquals(8_000, first.getCount());
+        assertEquals(0, first.getError());
+        assertEquals(8_080, hitters.getTotal());
+        assertEquals(9, hitters.top(100).size());
+    }
+
+    @Test
+    void keyEvictedFromOneStripeIsNotUndercounted() throws InterruptedException {
+        HeavyHitters<String> hitters = new HeavyHitters<>(3, 2);
+        // En la franja 0 la clave aparece 5 veces y después la desplazan otras más frecuentes
+        runOnStripe(0, 2, () -> {
+            add(hitters, "player", 5);
+            add(hitters, "a", 6);
+            add(hitters, "b", 7);
+            add(hitters, "c", 8);
+        });
+        runOnStripe(1, 2, () -> add(hitters, "player", 100));
+
+        Map<String, HeavyHitters.Entry<String>> top = new HashMap<>();
+        hitters.top(10).forEach(entry -> top.put(entry.getKey(), entry));
+
+        // Real: 105. La franja 0 (a=6, b=7, c=13) pudo haberla visto hasta su mínimo, 6 veces
+        HeavyHitters.Entry<String> player = top.get("player");
+        assertEquals(106, player.getCount());
+        assertEquals(6, player.getError());
+        // La franja 1 no está llena: no suma nada a las claves que solo sigue la franja 0
+        assertEquals(13, top.get("c").getCount());
+        assertEquals(5, top.get("c").getError());
+    }
+
+    @Test
+    void mergedCountsBoundTheRealOnesAcrossFullStripes() throws InterruptedException {
+        HeavyHitters<String> hitters = new HeavyHitters<>(8, 4);
+        Map<String, Integer> real = new HashMap<>();
+        Random random = new Random(24);
+        for (int round = 0; round < 40; round++) {
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String key = random.nextInt(4) == 0 ? "hot-" + random.nextInt(3) : "ip-" + random.nextInt(300);
+                keys.add(key);
+                real.merge(key, 1, Integer::sum);
+            }
+            runOnStripe(round & 3, 4, () -> keys.forEach(hitters::add));
+        }
+
+        for (HeavyHitters.Entry<String> entry : hitters.top(1000)) {
+            int count = real.get(entry.getKey());
+            assertTrue(entry.getCount() >= count, entry.getKey() + ": " + entry.getCount() + " < " + count);
+            assertTrue(entry.getCount() - entry.getError() <= count, entry.getKey());
+        }
+    }
+
+    @Test
+    void clearDropsAllCounts() {
+        HeavyHitters<String> hitters = new HeavyHitters<>(4);
+        add(hitters, "a", 3);
+        hitters.clear();
+
+        assertTrue(hitters.top(10).isEmpty());
+        assertEquals(0, hitters.getTotal());
+        hitters.add("b");
+        assertEquals(1, hitters.top(10).get(0).getCount());
+    }
+
+    @Test
+    void invalidSizesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HeavyHitters<String>(0));
+        assertThrows(IllegalArgumentException.class, () -> new HeavyHitters<String>(10, 0));
+    }
+
+    /**
+     * Ejecuta la tarea en un hilo cuyo id cae en la franja indicada.
+     */
+    private static void runOnStripe(int stripe, int stripes, Runnable task) throws InterruptedException {
+        Thread thread;
+        do {
+            thread = new Thread(task);
+        } while ((thread.getId() & (stripes - 1)) != stripe);
+        thread.start();
+        thread.join();
+    }
+
+    private static void add(HeavyHitters<String> hitters, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            hitters.add(key);
+        }
+    }
+}
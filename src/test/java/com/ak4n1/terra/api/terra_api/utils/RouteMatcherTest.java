@@ -0,0 +1,97 @@
+package com.ak4n1.terra.api.terra_api.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RouteMatcherTest {
+
+    @Test
+    void literalBeatsVariableBeatsRest() {
+        RouteMatcher<String> routes = new RouteMatcher<>();
+        routes.add("/api/game/**", Set.of(), "rest");
+        routes.add("/api/game/{section}", Set.of(), "variable");
+        routes.add("/api/game/catalog", Set.of(), "literal");
+
+        assertEquals("literal", routes.match("GET", "/api/game/catalog"));
+        assertEquals("variable", routes.match("GET", "/api/game/market"));
+        assertEquals("rest", routes.match("GET", "/api/game/market/42"));
+    }
+
+    @Test
+    void registrationOrderDoesNotChangePrecedence() {
+        RouteMatcher<String> routes = new RouteMatcher<>();
+        routes.add("/api/game/catalog", Set.of(), "literal");
+        routes.add("/api/game/*", Set.of(), "wildcard");
+        routes.add("/api/game/**", Set.of(), "rest");
+
+        assertEquals("literal", routes.match("GET", "/api/game/catalog"));
+        assertEquals("wildcard", routes.match("GET", "/api/game/other"));
+    }
+
+    @Test
+    void deadEndLiteralFallsBackToWildcard() {
+        RouteMatcher<String> routes = new RouteMatcher<>();
+        routes.add("/api/items/special/edit", Set.of(), "special-edit");
+        routes.add("/api/items/{id}/view", Set.of(), "view");
+
+        assertEquals("view", routes.match("GET", "/api/items/special/view"));
+        assertEquals("special-edit", routes.match("GET", "/api/items/special/edit"));
+        assertNull(routes.match("GET", "/api/items/special"));
+    }
+
+    @Test
+    void restMatchesZeroOrMoreSegments() {
+        RouteMatcher<String> routes = new RouteMatcher<>();
+        routes.add("/api/game/offline-market/**", Set.of(), "market");
+
+        assertEquals("market", routes.match("GET", "/api/game/offline-market"));
+        assertEquals("market", routes.match("GET", "/api/game/offline-market/"));
+        assertEquals("market", routes.match("GET", "/api/game/offline-market/a/b/c"));
+        assertNull(routes.match("GET", "/api/game/offline-markets"));
+    }
+
+    @Test
+    void declaredMethodsBeatAnyMethodOnTheSamePattern() {
+        RouteMatcher<String> routes = new RouteMatcher<>();
+        routes.add("/api/auth/login", null, "any");
+        routes.add("/api/auth/login", Set.of(" post "), "post");
+
+        assertEquals("post", routes.match("POST", "/api/auth/login"));
+        assertEquals("any", routes.match("GET", "/api/auth/login"));
+    }
+
+    @Test
+    void methodMismatchFallsBackToLessSpecificPatterns() {
+        RouteMatcher<String> routes = new RouteMatcher<>();
+        routes.add("/api/kick/channels/{slug}", Set.of("GET"), "channel");
+        routes.add("/api/kick/**", Set.of("GET", "POST"), "kick");
+
+        assertEquals("channel", routes.match("GET", "/api/kick/channels/terra"));
+        assertEquals("kick", routes.match("POST", "/api/kick/channels/terra"));
+        assertNull(routes.match("DELETE", "/api/kick/channels/terra"));
+    }
+
+    @Test
+    void repeatedSlashesAreIgnored() {
+        RouteMatcher<String> routes = new RouteMatcher<>();
+        routes.add("/api/auth/login", Set.of(), "login");
+
+        assertEquals("login", routes.match("POST", "//api//auth/login/"));
+        assertNull(routes.match("POST", "/api/auth"));
+        assertNull(routes.match("POST", "/api/auth/login/extra"));
+    }
+
+    @Test
+    void unsupportedPatternsAreRejected() {
+        RouteMatcher<String> routes = new RouteMatcher<>();
+
+        assertThrows(IllegalArgumentException.class, () -> routes.add("/api/**/items", Set.of(), "x"));
+        assertThrows(IllegalArgumentException.class, () -> routes.add("/api/item*", Set.of(), "x"));
+        assertThrows(IllegalArgumentException.class, () -> routes.add("/api/{id", Set.of(), "x"));
+    }
+}